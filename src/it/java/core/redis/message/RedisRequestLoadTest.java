@@ -0,0 +1,189 @@
+package core.redis.message;
+
+import core.redis.message.commands.RedisCommandHandler;
+import core.redis.message.commands.RedisRequest;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Sends requests through {@link RedisMessageManager} to this server and measures the time until the response is
+ * received, which covers publishing the request, dispatching it, publishing the reply and completing the future. The
+ * 50th, 95th and 99th percentile of the round trip are printed for requests sent one at a time and for requests sent
+ * while others are still waiting for their response.
+ *
+ * @author Preston Brown
+ */
+public class RedisRequestLoadTest {
+
+    private static final String SERVER_NAME = "LoadTest-1";
+    private static final String SERVER_TYPE = "LoadTest";
+    private static final int WARMUP_REQUESTS = 500;
+    private static final int REQUESTS = 5000;
+    private static final int IN_FLIGHT = 32;
+    private static final long TIMEOUT = 5000L;
+
+    private static RedisMessageManager _messageManager;
+
+    @BeforeClass
+    public static void setup() throws InterruptedException
+    {
+        _messageManager = RedisMessageManager.getInstance();
+        _messageManager.addCommandType(EchoRequest.class, new NoHandler(), DispatchMode.ASYNC, 1000, OverflowPolicy.BLOCK);
+        _messageManager.addCommandType(FailingRequest.class, new NoHandler(), DispatchMode.ASYNC, 1000, OverflowPolicy.BLOCK);
+        _messageManager.initializeServer(SERVER_NAME, SERVER_TYPE);
+
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (_messageManager.getSubscriptionMetrics().getState() != SubscriptionState.SUBSCRIBED)
+        {
+            if (System.currentTimeMillis() > deadline)
+            {
+                fail("The subscriber did not connect to redis");
+            }
+            Thread.sleep(50L);
+        }
+        // The server channels are subscribed to after the subscriber connects
+        Thread.sleep(500L);
+
+        for (int i = 0; i < WARMUP_REQUESTS; i++)
+        {
+            _messageManager.sendRequest(new EchoRequest(i), TIMEOUT).join();
+        }
+    }
+
+    @Test
+    public void sequentialRoundTrip()
+    {
+        long[] latencies = new long[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++)
+        {
+            long start = System.nanoTime();
+            int response = _messageManager.sendRequest(new EchoRequest(i), TIMEOUT).join();
+            latencies[i] = System.nanoTime() - start;
+            assertEquals(i, response);
+        }
+        report("sequential", latencies);
+    }
+
+    @Test
+    public void concurrentRoundTrip()
+    {
+        long[] latencies = new long[REQUESTS];
+        List<CompletableFuture<Void>> futures = new ArrayList<>(IN_FLIGHT);
+        for (int i = 0; i < REQUESTS; i++)
+        {
+            int number = i;
+            long start = System.nanoTime();
+            futures.add(_messageManager.sendRequest(new EchoRequest(number), TIMEOUT).thenAccept(response -> {
+                latencies[number] = System.nanoTime() - start;
+                assertEquals(number, response.intValue());
+            }));
+            if (futures.size() == IN_FLIGHT)
+            {
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()])).join();
+                futures.clear();
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()])).join();
+        report(IN_FLIGHT + " in flight", latencies);
+    }
+
+    @Test
+    public void errorReplyFailsTheRequest() throws InterruptedException
+    {
+        long start = System.nanoTime();
+        try
+        {
+            _messageManager.sendRequest(new FailingRequest(), TIMEOUT).get();
+            fail("The request should have failed");
+        }
+        catch (ExecutionException e)
+        {
+            assertTrue("Expected a RemoteRequestException but was " + e.getCause(), e.getCause() instanceof RemoteRequestException);
+            assertEquals(SERVER_NAME, ((RemoteRequestException) e.getCause()).getServerName());
+        }
+        assertTrue("The request waited for its timeout", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < TIMEOUT);
+    }
+
+    private static void report(String name, long[] latencies)
+    {
+        long[] sorted = Arrays.copyOf(latencies, latencies.length);
+        Arrays.sort(sorted);
+        System.out.println(String.format("[RedisRequestLoadTest] %s: %d requests, p50 %.3fms, p95 %.3fms, p99 %.3fms, max %.3fms",
+                name, sorted.length, percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99), sorted[sorted.length - 1] / 1000000D));
+    }
+
+    private static double percentile(long[] sorted, int percentile)
+    {
+        int index = (int) Math.ceil(percentile / 100D * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1000000D;
+    }
+
+    /**
+     * A request that is answered with the number it was sent with.
+     */
+    public static class EchoRequest extends RedisRequest<Integer> {
+
+        private int _number;
+
+        public EchoRequest(int number)
+        {
+            super(new String[] {SERVER_NAME}, null, false);
+            _number = number;
+        }
+
+        @Override
+        public Integer handle()
+        {
+            return _number;
+        }
+
+        @Override
+        public Class<Integer> getResponseType()
+        {
+            return Integer.class;
+        }
+    }
+
+    /**
+     * A request that always fails on the server handling it.
+     */
+    public static class FailingRequest extends RedisRequest<Integer> {
+
+        public FailingRequest()
+        {
+            super(new String[] {SERVER_NAME}, null, false);
+        }
+
+        @Override
+        public Integer handle()
+        {
+            throw new IllegalStateException("this request always fails");
+        }
+
+        @Override
+        public Class<Integer> getResponseType()
+        {
+            return Integer.class;
+        }
+    }
+
+    private static class NoHandler extends RedisCommandHandler<RedisRequest<Integer>> {
+
+        @Override
+        public void handleCommand(RedisRequest<Integer> request)
+        {
+
+        }
+    }
+}
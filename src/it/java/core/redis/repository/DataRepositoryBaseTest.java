@@ -0,0 +1,177 @@
+package core.redis.repository;
+
+import core.minecraft.client.redis.RedisClient;
+import core.redis.connection.RedisManager;
+import org.junit.After;
+import org.junit.Test;
+import redis.clients.jedis.Jedis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks {@link DataRepositoryBase} against a local redis server. Data is written and read back through the
+ * repository, and the keys are checked directly in redis so a read and a write that disagree on the key are caught.
+ * {@link NearCacheRepositoryTest} runs the same checks with the near cache enabled.
+ *
+ * @author Preston Brown
+ */
+public class DataRepositoryBaseTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 500;
+
+    protected DataRepositoryBase<RedisClient> _repository = createRepository();
+    private List<String> _names = new ArrayList<>();
+
+    /**
+     * @return the repository every test is run against
+     */
+    protected DataRepositoryBase<RedisClient> createRepository()
+    {
+        return new TestRepository();
+    }
+
+    @After
+    public void tearDown()
+    {
+        _repository.removeData(_names);
+    }
+
+    @Test
+    public void getDataReadsTheKeyAddDataWrites()
+    {
+        RedisClient client = createClient("PenguinHi5");
+        _repository.addData(client, 60);
+
+        try (Jedis jedis = RedisManager.getMasterConnection())
+        {
+            assertNotNull(jedis.get(_repository.getKey("penguinhi5")));
+            assertNull(jedis.get("penguinhi5"));
+        }
+        assertClient(client, _repository.getData("PenguinHi5"));
+        assertClient(client, _repository.getData("penguinhi5"));
+        assertTrue(_repository.exists("PenguinHi5"));
+    }
+
+    @Test
+    public void getDataReturnsNullForMissingData()
+    {
+        assertNull(_repository.getData("NotAPlayer"));
+        assertFalse(_repository.exists("NotAPlayer"));
+    }
+
+    @Test
+    public void removeDataRemovesTheKey()
+    {
+        RedisClient client = createClient("Removed");
+        _repository.addData(client, 60);
+        _repository.removeData("Removed");
+
+        assertNull(_repository.getData("Removed"));
+        try (Jedis jedis = RedisManager.getMasterConnection())
+        {
+            assertFalse(jedis.exists(_repository.getKey("removed")));
+        }
+    }
+
+    @Test
+    public void dataExpiresAfterItsTimeout() throws InterruptedException
+    {
+        _repository.addData(createClient("Expiring"), 1);
+        assertNotNull(_repository.getData("Expiring"));
+
+        Thread.sleep(1500L);
+        assertNull(_repository.getData("Expiring"));
+    }
+
+    @Test
+    public void batchOperationsMatchSingleOperations()
+    {
+        List<RedisClient> clients = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+        {
+            clients.add(createClient("Batch_" + i));
+        }
+        _repository.addData(clients, 60);
+
+        Map<String, RedisClient> found = _repository.getData(_names);
+        assertEquals(clients.size(), found.size());
+        for (RedisClient client : clients)
+        {
+            assertClient(client, found.get(client.getNameID().toLowerCase()));
+            assertClient(client, _repository.getData(client.getNameID()));
+        }
+        assertTrue(_repository.existsAll(_names));
+
+        _repository.removeData(Arrays.asList("Batch_0", "Batch_1"));
+        assertFalse(_repository.existsAll(_names));
+        assertNull(_repository.getData("Batch_0"));
+    }
+
+    @Test
+    public void concurrentReadsAndWrites() throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int thread = 0; thread < THREADS; thread++)
+        {
+            RedisClient client = createClient("Concurrent_" + thread);
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < OPERATIONS; i++)
+                {
+                    _repository.addData(client, 60);
+                    assertClient(client, _repository.getData(client.getNameID()));
+                }
+            }));
+        }
+        for (Future<?> future : futures)
+        {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        int operations = THREADS * OPERATIONS * 2;
+        System.out.println(String.format("[DataRepositoryBaseTest] %d operations on %d threads in %.1fms, %.0f operations/s",
+                operations, THREADS, elapsed / 1000000D, operations / (elapsed / 1000000000D)));
+    }
+
+    protected RedisClient createClient(String name)
+    {
+        _names.add(name);
+        return new RedisClient(name, UUID.nameUUIDFromBytes(name.getBytes()), "Lobby-1");
+    }
+
+    protected static void assertClient(RedisClient expected, RedisClient actual)
+    {
+        assertNotNull("No data was found for " + expected.getName(), actual);
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getUUID(), actual.getUUID());
+        assertEquals(expected.getServer(), actual.getServer());
+    }
+
+    /**
+     * A client repository under its own name so the test never touches the live client data.
+     */
+    private static class TestRepository extends DataRepositoryBase<RedisClient> {
+
+        private TestRepository()
+        {
+            super("testclient", RedisClient.class);
+        }
+    }
+}
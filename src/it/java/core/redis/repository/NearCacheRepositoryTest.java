@@ -0,0 +1,123 @@
+package core.redis.repository;
+
+import core.minecraft.client.redis.ClientRedisRepository;
+import core.minecraft.client.redis.RedisClient;
+import core.redis.message.RedisMessageManager;
+import core.redis.message.SubscriptionState;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Runs every check in {@link DataRepositoryBaseTest} against a {@link ClientRedisRepository}, which has its
+ * {@link NearCache} enabled, and checks that a write made through one repository invalidates the cache of another.
+ * The invalidations are received through the {@link RedisMessageManager}, so its subscriber is started first.
+ *
+ * @author Preston Brown
+ */
+public class NearCacheRepositoryTest extends DataRepositoryBaseTest {
+
+    private static final long TIMEOUT = 5000L;
+
+    @BeforeClass
+    public static void setup() throws InterruptedException
+    {
+        RedisMessageManager messageManager = RedisMessageManager.getInstance();
+        messageManager.initializeServer("NearCacheTest-1", "NearCacheTest");
+
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (messageManager.getSubscriptionMetrics().getState() != SubscriptionState.SUBSCRIBED)
+        {
+            if (System.currentTimeMillis() > deadline)
+            {
+                fail("The subscriber did not connect to redis");
+            }
+            Thread.sleep(50L);
+        }
+    }
+
+    @Override
+    protected DataRepositoryBase<RedisClient> createRepository()
+    {
+        return new ClientRedisRepository();
+    }
+
+    @Test
+    public void writeInvalidatesAnotherInstance() throws InterruptedException
+    {
+        ClientRedisRepository other = new ClientRedisRepository();
+        RedisClient client = createClient("Invalidated");
+        _repository.addData(client, 60);
+
+        // Reads right after an invalidation are not cached in case the replica is behind
+        Thread.sleep(NearCache.REPLICA_LAG_WINDOW + 100L);
+        assertClient(client, other.getData("Invalidated"));
+        long hits = other.getNearCache().getHits();
+        assertClient(client, other.getData("Invalidated"));
+        assertEquals("The second read was not cached", hits + 1, other.getNearCache().getHits());
+
+        RedisClient moved = new RedisClient("Invalidated", client.getUUID(), "Lobby-2");
+        _repository.addData(moved, 60);
+        assertClient(moved, awaitServer(other, "Invalidated", "Lobby-2"));
+        assertTrue(other.getNearCache().getInvalidations() > 0);
+    }
+
+    @Test
+    public void removeInvalidatesAnotherInstance() throws InterruptedException
+    {
+        ClientRedisRepository other = new ClientRedisRepository();
+        _repository.addData(createClient("RemovedElsewhere"), 60);
+        Thread.sleep(NearCache.REPLICA_LAG_WINDOW + 100L);
+        other.getData("RemovedElsewhere");
+
+        _repository.removeData("RemovedElsewhere");
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (other.getData("RemovedElsewhere") != null)
+        {
+            if (System.currentTimeMillis() > deadline)
+            {
+                fail("The other repository still returns the removed data");
+            }
+            Thread.sleep(50L);
+        }
+    }
+
+    @Test
+    public void missingDataIsCachedUntilItIsAdded() throws InterruptedException
+    {
+        ClientRedisRepository other = new ClientRedisRepository();
+        String name = "Missing_" + UUID.randomUUID().toString().substring(0, 8);
+        assertNull(other.getData(name));
+        long hits = other.getNearCache().getHits();
+        assertNull(other.getData(name));
+        assertEquals("The missing data was not cached", hits + 1, other.getNearCache().getHits());
+
+        RedisClient client = createClient(name);
+        _repository.addData(client, 60);
+        assertClient(client, awaitServer(other, name, client.getServer()));
+    }
+
+    /**
+     * Reads the data through the given repository until it is on the given server.
+     */
+    private static RedisClient awaitServer(ClientRedisRepository repository, String name, String server) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        RedisClient client;
+        while ((client = repository.getData(name)) == null || !server.equals(client.getServer()))
+        {
+            if (System.currentTimeMillis() > deadline)
+            {
+                fail("The other repository never returned '" + name + "' on " + server);
+            }
+            Thread.sleep(50L);
+        }
+        return client;
+    }
+}
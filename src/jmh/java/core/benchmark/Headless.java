@@ -0,0 +1,211 @@
+package core.benchmark;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
+import org.bukkit.scheduler.BukkitScheduler;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Stubs the Bukkit types the benchmarks need so they can run without a server. Every stub is a dynamic proxy that
+ * returns an empty value from every method it does not handle, so events are called into nothing and tasks are never
+ * scheduled.
+ *
+ * @author Preston Brown
+ */
+public class Headless {
+
+    private static final Logger LOGGER = Logger.getLogger("Headless");
+    private static final PluginManager PLUGIN_MANAGER = stub(PluginManager.class);
+    private static final BukkitScheduler SCHEDULER = stub(BukkitScheduler.class);
+    private static JavaPlugin _plugin;
+
+    /**
+     * Installs the stub server in {@link Bukkit} if no server has been installed yet.
+     */
+    public static synchronized void install()
+    {
+        if (Bukkit.getServer() == null)
+        {
+            Bukkit.setServer(stub(Server.class));
+        }
+    }
+
+    /**
+     * Returns a {@link JavaPlugin} that was never loaded by the plugin class loader. It is created through the
+     * constructor Bukkit provides for testing, so its server is the stub server and its data folder is a temporary
+     * directory that only ever holds the config.
+     *
+     * @return the stub {@link JavaPlugin}
+     */
+    public static synchronized JavaPlugin getPlugin()
+    {
+        install();
+        if (_plugin == null)
+        {
+            File dataFolder = new File(System.getProperty("java.io.tmpdir"), "core-headless");
+            PluginDescriptionFile description = new PluginDescriptionFile("Headless", "1.0", HeadlessPlugin.class.getName());
+            _plugin = new HeadlessPlugin(new JavaPluginLoader(Bukkit.getServer()), description, dataFolder, new File(dataFolder, "Headless.jar"));
+        }
+        return _plugin;
+    }
+
+    /**
+     * Returns a stub {@link World} with the given name.
+     *
+     * @param name the name of the world
+     * @return the stub {@link World}
+     */
+    public static World createWorld(String name)
+    {
+        return (World) Proxy.newProxyInstance(Headless.class.getClassLoader(), new Class<?>[] {World.class}, (proxy, method, args) -> {
+            if (method.getName().equals("getName"))
+            {
+                return name;
+            }
+            return handleDefault(proxy, method.getName(), method.getReturnType(), args);
+        });
+    }
+
+    /**
+     * Returns a stub {@link Player} with the given name that is always at the given location.
+     *
+     * @param name the name of the player
+     * @param location the location of the player
+     * @return the stub {@link Player}
+     */
+    public static Player createPlayer(String name, Location location)
+    {
+        UUID uuid = UUID.nameUUIDFromBytes(name.getBytes());
+        return (Player) Proxy.newProxyInstance(Headless.class.getClassLoader(), new Class<?>[] {Player.class}, (proxy, method, args) -> {
+            switch (method.getName())
+            {
+                case "getName":
+                case "getDisplayName":
+                    return name;
+                case "getUniqueId":
+                    return uuid;
+                case "getLocation":
+                    return args == null ? location.clone() : handleDefault(proxy, method.getName(), method.getReturnType(), args);
+                case "getWorld":
+                    return location.getWorld();
+                case "isOnline":
+                    return true;
+                default:
+                    return handleDefault(proxy, method.getName(), method.getReturnType(), args);
+            }
+        });
+    }
+
+    /**
+     * Returns a stub of the given interface that returns an empty value from every method.
+     */
+    private static <T> T stub(Class<T> type)
+    {
+        return type.cast(Proxy.newProxyInstance(Headless.class.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> handleDefault(proxy, method.getName(), method.getReturnType(), args)));
+    }
+
+    /**
+     * Returns the value a stub returns from a method it does not handle.
+     */
+    private static Object handleDefault(Object proxy, String name, Class<?> returnType, Object[] args)
+    {
+        switch (name)
+        {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "Headless" + proxy.getClass().getInterfaces()[0].getSimpleName();
+        }
+
+        if (returnType == Server.class)
+        {
+            return Bukkit.getServer();
+        }
+        if (returnType == Logger.class)
+        {
+            return LOGGER;
+        }
+        if (returnType == PluginManager.class)
+        {
+            return PLUGIN_MANAGER;
+        }
+        if (returnType == BukkitScheduler.class)
+        {
+            return SCHEDULER;
+        }
+        if (returnType == String.class)
+        {
+            return "Headless";
+        }
+        if (returnType == List.class || returnType == Collection.class)
+        {
+            return Collections.emptyList();
+        }
+        if (returnType == Set.class)
+        {
+            return Collections.emptySet();
+        }
+        if (returnType == boolean.class)
+        {
+            return false;
+        }
+        if (returnType == char.class)
+        {
+            return '\0';
+        }
+        if (returnType == byte.class)
+        {
+            return (byte) 0;
+        }
+        if (returnType == short.class)
+        {
+            return (short) 0;
+        }
+        if (returnType == int.class)
+        {
+            return 0;
+        }
+        if (returnType == long.class)
+        {
+            return 0L;
+        }
+        if (returnType == float.class)
+        {
+            return 0F;
+        }
+        if (returnType == double.class)
+        {
+            return 0D;
+        }
+        return null;
+    }
+
+    /**
+     * The plugin returned by {@link #getPlugin()}.
+     */
+    public static class HeadlessPlugin extends JavaPlugin {
+
+        private HeadlessPlugin(JavaPluginLoader loader, PluginDescriptionFile description, File dataFolder, File file)
+        {
+            super(loader, description, dataFolder, file);
+        }
+    }
+}
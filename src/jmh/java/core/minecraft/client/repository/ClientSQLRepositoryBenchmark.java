@@ -0,0 +1,124 @@
+package core.minecraft.client.repository;
+
+import core.minecraft.database.mysql.ConnectionPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the login and name lookup of {@link ClientSQLRepository} with the queries they replaced. This requires a
+ * local MySQL or MariaDB server, and a mysql.dat in the working directory containing its address, username and
+ * password. A pool of fake players is logged in over and over, so after the first iteration every login is of an
+ * existing player.
+ *
+ * <p>The new login is {@link ClientSQLRepository#playerLogin(String, String)}, an upsert followed by a SELECT of the
+ * row. The old login is the one it replaced, which SELECTed the id, then INSERTed or UPDATEd the player and SELECTed
+ * the whole row again, with the uuid concatenated into both SELECTs. The lookups compare
+ * {@link ClientSQLRepository#getClientIdFromName(String)}, with no resolution cache enabled, with the concatenated
+ * query it replaced. Both sides run on the login pool.</p>
+ *
+ * @author Preston Brown
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(1)
+public class ClientSQLRepositoryBenchmark {
+
+    private static final int PLAYER_COUNT = 1000;
+    private static final String INSERT_NEW_LOGIN = "INSERT INTO clients(name, uuid, lastLogin) VALUES (?, ?, NOW());";
+    private static final String UPDATE_LOGIN = "UPDATE clients SET name=?, lastLogin=NOW() WHERE uuid=?;";
+
+    private ClientSQLRepository _repository;
+    private DataSource _dataSource;
+    private String[] _names = new String[PLAYER_COUNT];
+    private String[] _uuids = new String[PLAYER_COUNT];
+
+    @Setup
+    public void setup()
+    {
+        _repository = new ClientSQLRepository();
+        _dataSource = ConnectionPool.getPool(ConnectionPool.LOGIN);
+
+        for (int i = 0; i < PLAYER_COUNT; i++)
+        {
+            _names[i] = "Bench_" + i;
+            _uuids[i] = UUID.nameUUIDFromBytes(_names[i].getBytes()).toString();
+        }
+    }
+
+    @Benchmark
+    public Object login()
+    {
+        int player = ThreadLocalRandom.current().nextInt(PLAYER_COUNT);
+        return _repository.playerLogin(_names[player], _uuids[player]);
+    }
+
+    @Benchmark
+    public Object oldLogin() throws SQLException
+    {
+        int player = ThreadLocalRandom.current().nextInt(PLAYER_COUNT);
+        String name = _names[player];
+        String playerUUID = _uuids[player];
+        try (Connection connection = _dataSource.getConnection())
+        {
+            boolean exists;
+            try (Statement loginStatement = connection.createStatement();
+                 ResultSet loginResults = loginStatement.executeQuery("SELECT id FROM clients WHERE uuid=\"" + playerUUID + "\";"))
+            {
+                exists = loginResults.next();
+            }
+
+            try (PreparedStatement loginPS = connection.prepareStatement(exists ? UPDATE_LOGIN : INSERT_NEW_LOGIN))
+            {
+                loginPS.setString(1, name);
+                loginPS.setString(2, playerUUID);
+                loginPS.executeUpdate();
+            }
+
+            try (Statement playerDataStatement = connection.createStatement();
+                 ResultSet playerDataResults = playerDataStatement.executeQuery("SELECT * FROM clients WHERE uuid=\"" + playerUUID + "\";"))
+            {
+                return playerDataResults.next() ? playerDataResults.getInt("id") : null;
+            }
+        }
+    }
+
+    @Benchmark
+    public int lookup()
+    {
+        return _repository.getClientIdFromName(_names[ThreadLocalRandom.current().nextInt(PLAYER_COUNT)]);
+    }
+
+    @Benchmark
+    public Object oldLookup() throws SQLException
+    {
+        String name = _names[ThreadLocalRandom.current().nextInt(PLAYER_COUNT)];
+        try (Connection connection = _dataSource.getConnection(); Statement statement = connection.createStatement();
+             ResultSet results = statement.executeQuery("SELECT id FROM clients WHERE name = '" + name + "' ORDER BY lastLogin DESC;"))
+        {
+            return results.next() ? results.getInt(1) : null;
+        }
+    }
+}
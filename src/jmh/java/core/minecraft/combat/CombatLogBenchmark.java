@@ -0,0 +1,56 @@
+package core.minecraft.combat;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link CombatLog#addAttack(String, org.bukkit.entity.LivingEntity, String, double)} while a player is
+ * being attacked by several damagers in turn.
+ *
+ * @author Preston Brown
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CombatLogBenchmark {
+
+    @Param({"1", "5", "20"})
+    private int _damagerCount;
+
+    private CombatLog _combatLog;
+    private String[] _damagerNames;
+    private int _attack;
+
+    @Setup
+    public void setup()
+    {
+        _combatLog = new CombatLog("Victim", null);
+        _damagerNames = new String[_damagerCount];
+        for (int i = 0; i < _damagerCount; i++)
+        {
+            _damagerNames[i] = "Damager" + i;
+            _combatLog.addAttack(_damagerNames[i], null, "Sword", 1.0D);
+        }
+    }
+
+    @Benchmark
+    public CombatLog addAttack()
+    {
+        _combatLog.addAttack(_damagerNames[_attack++ % _damagerCount], null, "Sword", 1.0D);
+        return _combatLog;
+    }
+}
@@ -0,0 +1,130 @@
+package core.minecraft.command;
+
+import core.benchmark.Headless;
+import core.minecraft.common.Rank;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long {@link CommandManager#playerCommandProcess(PlayerCommandPreprocessEvent)} takes to find the
+ * command that was typed, and to pass on a command that belongs to another plugin.
+ *
+ * @author Preston Brown
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandManagerBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int _commandCount;
+
+    private CommandManager _commandManager;
+    private Player _player;
+
+    @Setup
+    public void setup()
+    {
+        _commandManager = new CommandManager(Headless.getPlugin());
+        for (int i = 0; i < _commandCount; i++)
+        {
+            _commandManager.addCommand(new EmptyCommand("command" + i));
+        }
+        _player = Headless.createPlayer("Benchmark", new Location(Headless.createWorld("world"), 0, 64, 0));
+    }
+
+    @Benchmark
+    public boolean knownCommand()
+    {
+        PlayerCommandPreprocessEvent event = new PlayerCommandPreprocessEvent(_player, "/command" + (_commandCount - 1) + " first second");
+        _commandManager.playerCommandProcess(event);
+        return event.isCancelled();
+    }
+
+    @Benchmark
+    public boolean unknownCommand()
+    {
+        PlayerCommandPreprocessEvent event = new PlayerCommandPreprocessEvent(_player, "/unknown first second");
+        _commandManager.playerCommandProcess(event);
+        return event.isCancelled();
+    }
+
+    /**
+     * A command that every player can execute and that does nothing.
+     */
+    private static class EmptyCommand implements CommandInstance {
+
+        private String _name;
+
+        private EmptyCommand(String name)
+        {
+            _name = name;
+        }
+
+        @Override
+        public void execute(Player player, String[] args)
+        {
+        }
+
+        @Override
+        public Collection<String> getAliases()
+        {
+            return Collections.singletonList(_name + "alias");
+        }
+
+        @Override
+        public String getName()
+        {
+            return _name;
+        }
+
+        @Override
+        public Rank getRequiredRank()
+        {
+            return Rank.DEFAULT;
+        }
+
+        @Override
+        public boolean hasPermission(Player player)
+        {
+            return true;
+        }
+
+        @Override
+        public String getProperUsageMessage()
+        {
+            return "/" + _name;
+        }
+
+        @Override
+        public String getHelpCommandMessage()
+        {
+            return "/" + _name;
+        }
+
+        @Override
+        public boolean isHidden()
+        {
+            return true;
+        }
+    }
+}
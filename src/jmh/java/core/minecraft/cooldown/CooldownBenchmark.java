@@ -0,0 +1,59 @@
+package core.minecraft.cooldown;
+
+import core.benchmark.Headless;
+import core.minecraft.timer.TimerType;
+import core.minecraft.timer.event.TimerEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Cooldown#updateCooldownMap(TimerEvent)}, which runs every tick, with many active cooldowns of
+ * which one completes every tick.
+ *
+ * @author Preston Brown
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CooldownBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int _cooldownCount;
+
+    private Cooldown _cooldown;
+    private TimerEvent _tickEvent;
+    private int _completed;
+
+    @Setup
+    public void setup()
+    {
+        Headless.install();
+        _cooldown = new Cooldown(Headless.getPlugin());
+        for (int i = 0; i < _cooldownCount; i++)
+        {
+            _cooldown.createCooldown("cooldown" + i, TimeUnit.HOURS.toMillis(1));
+        }
+        _tickEvent = new TimerEvent(TimerType.TICK);
+    }
+
+    @Benchmark
+    public void updateCooldownMap()
+    {
+        _cooldown.createCooldown("completed" + (_completed++ % _cooldownCount), 0L);
+        _cooldown.updateCooldownMap(_tickEvent);
+    }
+}
@@ -0,0 +1,52 @@
+package core.minecraft.damage;
+
+import core.minecraft.damage.events.CustomDamageEvent;
+import org.bukkit.event.entity.EntityDamageEvent.DamageCause;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link CustomDamageEvent#getDamage()}, which is recalculated every time a handler reads the damage.
+ *
+ * @author Preston Brown
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomDamageEventBenchmark {
+
+    @Param({"2", "8", "32"})
+    private int _changeCount;
+
+    private CustomDamageEvent _event;
+
+    @Setup
+    public void setup()
+    {
+        _event = new CustomDamageEvent(null, null, null, DamageCause.ENTITY_ATTACK, 7.0D, "Benchmark", "Sword", null, true, false, true);
+        for (int i = 0; i < _changeCount; i++)
+        {
+            _event.addDamageMultiplier(i == 0 ? "Armor Absorption" : "Multiplier " + i, "Benchmark", 0.99D, false);
+        }
+    }
+
+    @Benchmark
+    public double getDamage()
+    {
+        return _event.getDamage();
+    }
+}
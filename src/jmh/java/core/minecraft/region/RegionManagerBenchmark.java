@@ -0,0 +1,74 @@
+package core.minecraft.region;
+
+import core.benchmark.Headless;
+import core.minecraft.region.flags.PlayerEnterRegionFlag;
+import core.minecraft.region.type.CuboidRegion;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the region containment checks done by {@link PlayerEnterRegionFlag} every time a player moves, with the
+ * regions laid out in a grid and the player moving into one of them.
+ *
+ * @author Preston Brown
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegionManagerBenchmark {
+
+    private static final int REGION_SIZE = 16;
+
+    @Param({"10", "100", "1000"})
+    private int _regionCount;
+
+    private RegionManager _regionManager;
+    private PlayerEnterRegionFlag _enterFlag;
+    private PlayerMoveEvent _moveEvent;
+
+    @Setup
+    public void setup()
+    {
+        _regionManager = new RegionManager(Headless.getPlugin(), null);
+        World world = Headless.createWorld("world");
+        int rowLength = (int) Math.ceil(Math.sqrt(_regionCount));
+        for (int i = 0; i < _regionCount; i++)
+        {
+            Location center = new Location(world, (i % rowLength) * REGION_SIZE * 2, 64, (i / rowLength) * REGION_SIZE * 2);
+            _regionManager.createRegion(new CuboidRegion(Collections.singletonList(PlayerEnterRegionFlag.FLAG_ID),
+                    "Region " + i, "region" + i, world, center, REGION_SIZE, REGION_SIZE, REGION_SIZE));
+        }
+        _enterFlag = new PlayerEnterRegionFlag(_regionManager);
+
+        // Moves from just outside the last region to its center
+        Location to = new Location(world, ((_regionCount - 1) % rowLength) * REGION_SIZE * 2, 64, ((_regionCount - 1) / rowLength) * REGION_SIZE * 2);
+        Location from = to.clone().add(REGION_SIZE, 0, 0);
+        Player player = Headless.createPlayer("Benchmark", from);
+        _moveEvent = new PlayerMoveEvent(player, from, to);
+    }
+
+    @Benchmark
+    public void playerMove()
+    {
+        _enterFlag.onPlayerMove(_moveEvent);
+    }
+}
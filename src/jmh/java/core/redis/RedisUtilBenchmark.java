@@ -0,0 +1,200 @@
+package core.redis;
+
+import com.google.gson.Gson;
+import core.minecraft.client.redis.RedisClient;
+import core.minecraft.client.redis.RedisClientCodec;
+import core.redis.codec.GsonRedisCodec;
+import core.redis.codec.MinecraftServerCodec;
+import core.redis.codec.RedisCodec;
+import core.redis.data.MinecraftServer;
+import core.redis.message.commands.RedisCommand;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the ways a {@link MinecraftServer}, a {@link RedisClient} and a {@link RedisCommand} can be encoded for
+ * redis: a new Gson for every call, which is what {@link RedisUtil} used to do, the shared {@link GsonRedisCodec},
+ * and the binary codecs for the types that have one. A {@link MinecraftServer} is written on every full heartbeat, a
+ * {@link RedisClient} on every join and a {@link RedisCommand} on every message.
+ *
+ * <p>Run with {@code -prof gc} to also report the bytes allocated for every message, for example
+ * {@code java -jar target/Core-benchmarks.jar RedisUtilBenchmark -prof gc}, and compare the
+ * {@code gc.alloc.rate.norm} of every method.</p>
+ *
+ * @author Preston Brown
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisUtilBenchmark {
+
+    private MinecraftServer _server;
+    private RedisClient _client;
+    private ChatCommand _command;
+
+    private RedisCodec<MinecraftServer> _serverJsonCodec;
+    private RedisCodec<RedisClient> _clientJsonCodec;
+    private RedisCodec<ChatCommand> _commandJsonCodec;
+    private RedisCodec<MinecraftServer> _serverBinaryCodec;
+    private RedisCodec<RedisClient> _clientBinaryCodec;
+
+    private String _serverJson;
+    private String _clientJson;
+    private String _commandJson;
+    private String _serverBinary;
+    private String _clientBinary;
+
+    @Setup
+    public void setup()
+    {
+        _server = new MinecraftServer("127.0.0.1", 25565, "Lobby-1", "Lobby", 57, 100, "A Minecraft Server",
+                2147483648L, 1073741824L, "git-Spigot-db6de12-18fbb24 (MC: 1.8.8)", 19.97D, 48.2D);
+        _client = new RedisClient("PenguinHi5", UUID.nameUUIDFromBytes("PenguinHi5".getBytes()), "Lobby-1");
+        _command = new ChatCommand(new String[] {"Lobby-1", "Lobby-2"}, new String[] {"Lobby"}, "PenguinHi5",
+                "Welcome to the network, the event starts in 5 minutes!");
+
+        _serverJsonCodec = new GsonRedisCodec<>(MinecraftServer.class);
+        _clientJsonCodec = new GsonRedisCodec<>(RedisClient.class);
+        _commandJsonCodec = new GsonRedisCodec<>(ChatCommand.class);
+        _serverBinaryCodec = new MinecraftServerCodec();
+        _clientBinaryCodec = new RedisClientCodec();
+
+        _serverJson = _serverJsonCodec.encode(_server);
+        _clientJson = _clientJsonCodec.encode(_client);
+        _commandJson = _commandJsonCodec.encode(_command);
+        _serverBinary = _serverBinaryCodec.encode(_server);
+        _clientBinary = _clientBinaryCodec.encode(_client);
+    }
+
+    @Benchmark
+    public String serverEncodeNewGson()
+    {
+        return new Gson().toJson(_server);
+    }
+
+    @Benchmark
+    public MinecraftServer serverDecodeNewGson()
+    {
+        return new Gson().fromJson(_serverJson, MinecraftServer.class);
+    }
+
+    @Benchmark
+    public String serverEncodeSharedGson()
+    {
+        return _serverJsonCodec.encode(_server);
+    }
+
+    @Benchmark
+    public MinecraftServer serverDecodeSharedGson()
+    {
+        return _serverJsonCodec.decode(_serverJson);
+    }
+
+    @Benchmark
+    public String serverEncodeBinary()
+    {
+        return _serverBinaryCodec.encode(_server);
+    }
+
+    @Benchmark
+    public MinecraftServer serverDecodeBinary()
+    {
+        return _serverBinaryCodec.decode(_serverBinary);
+    }
+
+    @Benchmark
+    public String clientEncodeNewGson()
+    {
+        return new Gson().toJson(_client);
+    }
+
+    @Benchmark
+    public RedisClient clientDecodeNewGson()
+    {
+        return new Gson().fromJson(_clientJson, RedisClient.class);
+    }
+
+    @Benchmark
+    public String clientEncodeSharedGson()
+    {
+        return _clientJsonCodec.encode(_client);
+    }
+
+    @Benchmark
+    public RedisClient clientDecodeSharedGson()
+    {
+        return _clientJsonCodec.decode(_clientJson);
+    }
+
+    @Benchmark
+    public String clientEncodeBinary()
+    {
+        return _clientBinaryCodec.encode(_client);
+    }
+
+    @Benchmark
+    public RedisClient clientDecodeBinary()
+    {
+        return _clientBinaryCodec.decode(_clientBinary);
+    }
+
+    @Benchmark
+    public String commandEncodeNewGson()
+    {
+        return new Gson().toJson(_command);
+    }
+
+    @Benchmark
+    public ChatCommand commandDecodeNewGson()
+    {
+        return new Gson().fromJson(_commandJson, ChatCommand.class);
+    }
+
+    @Benchmark
+    public String commandEncodeSharedGson()
+    {
+        return _commandJsonCodec.encode(_command);
+    }
+
+    @Benchmark
+    public ChatCommand commandDecodeSharedGson()
+    {
+        return _commandJsonCodec.decode(_commandJson);
+    }
+
+    /**
+     * A command the size of a typical cross-server chat message, since commands have no binary codec.
+     */
+    public static class ChatCommand extends RedisCommand {
+
+        private String _sender;
+        private String _message;
+
+        public ChatCommand(String[] targetServers, String[] targetServerTypes, String sender, String message)
+        {
+            super(targetServers, targetServerTypes, false);
+            _sender = sender;
+            _message = message;
+        }
+
+        @Override
+        public void run()
+        {
+
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package core.redis.repository;
+
+import core.minecraft.client.redis.RedisClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the pipelined batch operations in {@link DataRepositoryBase} with calling the single key operation once
+ * for every key, which is how a lobby restart used to push its players through
+ * {@link core.minecraft.client.redis.ClientRedisRepository#playerJoin(RedisClient)}. This requires a local redis
+ * server and a redis.dat in the working directory containing its MASTER line. The repository has no near cache so
+ * every read goes to redis.
+ *
+ * @author Preston Brown
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataRepositoryBaseBenchmark {
+
+    @Param({"10", "100", "500"})
+    private int _batchSize;
+
+    private BenchmarkRepository _repository;
+    private List<RedisClient> _clients;
+    private List<String> _names;
+
+    @Setup
+    public void setup()
+    {
+        _repository = new BenchmarkRepository();
+        _clients = new ArrayList<>(_batchSize);
+        _names = new ArrayList<>(_batchSize);
+        for (int i = 0; i < _batchSize; i++)
+        {
+            String name = "Bench_" + i;
+            _clients.add(new RedisClient(name, UUID.nameUUIDFromBytes(name.getBytes()), "Lobby-1"));
+            _names.add(name);
+        }
+        _repository.addData(_clients, 600);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        _repository.removeData(_names);
+    }
+
+    @Benchmark
+    public Map<String, RedisClient> batchGet()
+    {
+        return _repository.getData(_names);
+    }
+
+    @Benchmark
+    public List<RedisClient> loopGet()
+    {
+        List<RedisClient> clients = new ArrayList<>(_batchSize);
+        for (String name : _names)
+        {
+            clients.add(_repository.getData(name));
+        }
+        return clients;
+    }
+
+    @Benchmark
+    public void batchAdd()
+    {
+        _repository.addData(_clients, 600);
+    }
+
+    @Benchmark
+    public void loopAdd()
+    {
+        for (RedisClient client : _clients)
+        {
+            _repository.addData(client, 600);
+        }
+    }
+
+    @Benchmark
+    public boolean batchExists()
+    {
+        return _repository.existsAll(_names);
+    }
+
+    @Benchmark
+    public boolean loopExists()
+    {
+        boolean exists = true;
+        for (String name : _names)
+        {
+            exists &= _repository.exists(name);
+        }
+        return exists;
+    }
+
+    /**
+     * A client repository under its own name so the benchmark never touches the live client data.
+     */
+    private static class BenchmarkRepository extends DataRepositoryBase<RedisClient> {
+
+        private BenchmarkRepository()
+        {
+            super("benchmarkclient", RedisClient.class);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package core.minecraft;
 
 import core.minecraft.command.CommandInstance;
 import core.minecraft.command.CommandManager;
+import core.minecraft.metrics.Counter;
+import core.minecraft.metrics.MetricsRegistry;
 import org.bukkit.plugin.java.JavaPlugin;
 
 /**
@@ -48,6 +50,60 @@ public abstract class Component {
         _commandManager.removeCommand(command);
     }
 
+    /**
+     * Returns the name of this component.
+     *
+     * @return the name of this component
+     */
+    public String getName()
+    {
+        return _name;
+    }
+
+    /**
+     * Returns the {@link MetricsRegistry} that every component records its metrics in.
+     *
+     * @return the {@link MetricsRegistry} instance
+     */
+    public MetricsRegistry getMetrics()
+    {
+        return MetricsRegistry.getInstance();
+    }
+
+    /**
+     * Returns the name of the given metric within this component, such as damage.apply for the apply metric of the
+     * Damage component.
+     *
+     * @param metric the name of the metric within this component
+     * @return the full name of the metric
+     */
+    protected String getMetricName(String metric)
+    {
+        return _name.toLowerCase().replace(' ', '-') + "." + metric;
+    }
+
+    /**
+     * Records the time since the given start time in the latency histogram of the given metric of this component.
+     *
+     * @param metric the name of the metric within this component
+     * @param startTime the time the operation started from {@link System#nanoTime()}
+     */
+    protected void recordTime(String metric, long startTime)
+    {
+        getMetrics().recordTime(getMetricName(metric), startTime);
+    }
+
+    /**
+     * Returns the {@link Counter} of the given metric of this component.
+     *
+     * @param metric the name of the metric within this component
+     * @return the {@link Counter} of the metric
+     */
+    protected Counter getCounter(String metric)
+    {
+        return getMetrics().counter(getMetricName(metric));
+    }
+
     /**
      * Returns the main JavaPlugin instance.
      *
@@ -0,0 +1,36 @@
+package core.minecraft.client;
+
+import core.minecraft.client.data.Client;
+
+/**
+ * This represents a component that loads its own data for every client that logs into the connection. Every
+ * {@link ClientDataLoader} is ran at the same time as the others once the client's row has been loaded, so a loader
+ * must not depend on the data of any other loader.
+ *
+ * @author Preston Brown
+ */
+public interface ClientDataLoader {
+
+    /**
+     * Gets the name of this loader.
+     *
+     * @return the name of this loader
+     */
+    public String getName();
+
+    /**
+     * Loads and stores the data of the client that is logging in. This is never called on the main thread.
+     *
+     * @param client the {@link Client} that is logging in, with its clientID, uuid and ranks already loaded
+     * @return true if the data was loaded, otherwise false and the client will not be allowed to log in
+     */
+    public boolean load(Client client);
+
+    /**
+     * Removes any data stored for the client with the given name. This is called when a login fails or takes too
+     * long after the data may have already been loaded.
+     *
+     * @param name the name of the client
+     */
+    public void unload(String name);
+}
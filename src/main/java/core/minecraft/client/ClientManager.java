@@ -5,15 +5,20 @@ import core.minecraft.client.command.SetRank;
 import core.minecraft.client.data.Client;
 import core.minecraft.client.redis.RedisClient;
 import core.minecraft.client.redis.ClientRedisRepository;
+import core.minecraft.client.redis.PlayerDirectory;
+import core.minecraft.client.redis.NameResolutionRepository;
+import core.minecraft.client.redis.PlayerNameRepository;
 import core.minecraft.client.repository.ClientSQLRepository;
 import core.minecraft.command.CommandManager;
-import core.minecraft.common.Rank;
-import core.minecraft.database.mysql.Row;
+import core.minecraft.database.mysql.ConnectionPool;
 import core.minecraft.server.ServerManager;
+import core.minecraft.server.event.ServerRecoveredEvent;
 import core.minecraft.timer.TimerType;
 import core.minecraft.timer.event.TimerEvent;
+import core.redis.connection.RedisExecutor;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
@@ -23,8 +28,20 @@ import org.bukkit.event.player.PlayerLoginEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.sql.Timestamp;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Manages all basic client information.
@@ -35,8 +52,16 @@ public class ClientManager extends ClientComponent<Client> implements Listener {
 
     private ClientSQLRepository _sqlRepository;
     private ClientRedisRepository _redisRepository;
+    private PlayerDirectory _playerDirectory;
     private ServerManager _serverConfiguration;
-    private HashMap<String, ClientLoginProcessor> _loginProcesses = new HashMap<>();
+    private Map<String, ClientLoginProcessor> _loginProcesses = new ConcurrentHashMap<>();
+    private List<ClientDataLoader> _dataLoaders = new CopyOnWriteArrayList<>();
+    private ExecutorService _loginExecutor;
+    private long _loginTimeout;
+    private PlayerNameIndex _nameIndex = new PlayerNameIndex();
+    private PlayerNameRepository _nameRepository;
+    private volatile boolean _sharedNamesLoaded = false;
+    private int _nameSearchLimit;
 
     /**
      * This creates a new instance of ClientManager using the specified {@link JavaPlugin}.
@@ -51,6 +76,52 @@ public class ClientManager extends ClientComponent<Client> implements Listener {
         _sqlRepository = new ClientSQLRepository();
         _redisRepository = new ClientRedisRepository();
         _serverConfiguration = serverConfiguration;
+
+        // Gets how many login stages can run at once and how long a login can take before it fails
+        generateConfig();
+        _loginTimeout = getPlugin().getConfig().getLong("clientmanager.login.timeout");
+        int loginThreads = Math.max(1, getPlugin().getConfig().getInt("clientmanager.login.threads"));
+        ConnectionPool.setLoginThreads(loginThreads);
+        AtomicInteger threadCount = new AtomicInteger();
+        _loginExecutor = Executors.newFixedThreadPool(loginThreads, runnable -> {
+            Thread thread = new Thread(runnable, "Client-Login-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Caches the players looked up by name, either on this server or shared with every server through redis
+        int resolveSize = getPlugin().getConfig().getInt("clientmanager.resolve.size");
+        long resolveTimeToLive = getPlugin().getConfig().getLong("clientmanager.resolve.ttl");
+        long resolveMissingTimeToLive = getPlugin().getConfig().getLong("clientmanager.resolve.missingttl");
+        if (getPlugin().getConfig().getBoolean("clientmanager.resolve.redis"))
+        {
+            _sqlRepository.enableResolutionCache(new NameResolutionCache(resolveSize, resolveTimeToLive, resolveMissingTimeToLive,
+                    new NameResolutionRepository(), getPlugin().getConfig().getLong("clientmanager.resolve.redisttl")));
+        }
+        else
+        {
+            _sqlRepository.enableResolutionCache(new NameResolutionCache(resolveSize, resolveTimeToLive, resolveMissingTimeToLive));
+        }
+
+        // Loads the name of every player for name searches, either into this server or into redis for every server
+        _nameSearchLimit = getPlugin().getConfig().getInt("clientmanager.names.limit");
+        if (getPlugin().getConfig().getBoolean("clientmanager.names.redis"))
+        {
+            _nameRepository = new PlayerNameRepository();
+        }
+        ExecutorService nameLoader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Client-Name-Loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        nameLoader.execute(this::loadPlayerNames);
+        nameLoader.shutdown();
+
+        // Removes any players left in the player directory if this server previously crashed
+        _playerDirectory = new PlayerDirectory();
+        String serverName = _serverConfiguration.getServerName();
+        RedisExecutor.getInstance().run(() -> _playerDirectory.clearServer(serverName));
+
         Bukkit.getPluginManager().registerEvents(this, getPlugin());
         addCommands();
     }
@@ -58,47 +129,148 @@ public class ClientManager extends ClientComponent<Client> implements Listener {
     /**
      * This prepares the client data in all of the components when a new player logs into the connection.
      *
+     * <p>The login is completed in stages. First the client's row is loaded, then every {@link ClientLoginProcessor}
+     * and {@link ClientDataLoader} is ran at the same time on the login thread pool. If any stage fails or the whole
+     * login takes longer than the login timeout the player is not allowed to log in. The time every stage takes is
+     * recorded in the client-manager.login metrics.</p>
+     *
      * @see PlayerLoginEvent
      */
     @EventHandler
     public void onAsyncPlayerPreLogin(AsyncPlayerPreLoginEvent event)
     {
-        Row playerLoginData = _sqlRepository.playerLogin(event.getName(), event.getUniqueId().toString(), _loginProcesses);
-        if (playerLoginData == null)
+        long loginStart = System.nanoTime();
+        String name = event.getName();
+        String uuid = event.getUniqueId().toString();
+
+        // Loads the client's row
+        long stageStart = System.nanoTime();
+        Client client = _sqlRepository.playerLogin(name, uuid);
+        recordTime("login.client", stageStart);
+        if (client == null)
         {
+            getCounter("login.failed").increment();
             event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_OTHER, "There was an issue loading your player data. Please relog.");
             return;
         }
+        setPlayerData(name, client);
+        addPlayerName(name);
 
-        setPlayerData(event.getName(), new Client(event.getName()));
-        Client client = getPlayerData(event.getName());
-        client.setClientID((int)(playerLoginData.getColumn("id").getData()));
-        client.setUUID(event.getUniqueId().toString());
-        client.setTotalPlayTime((long)(playerLoginData.getColumn("totalPlayTime").getData()));
+        // Runs every login processor and data loader at the same time
+        AtomicBoolean abandoned = new AtomicBoolean();
+        List<CompletableFuture<Boolean>> stages = new ArrayList<>();
+        for (ClientLoginProcessor loginProcess : _loginProcesses.values())
+        {
+            stages.add(runLoginStage("login.processor." + toMetricName(loginProcess.getName()), abandoned,
+                    () -> _sqlRepository.runLoginProcessor(loginProcess, name, uuid), null));
+        }
+        for (ClientDataLoader dataLoader : _dataLoaders)
+        {
+            stages.add(runLoginStage("login.loader." + toMetricName(dataLoader.getName()), abandoned,
+                    () -> dataLoader.load(client), () -> dataLoader.unload(name)));
+        }
+
+        boolean loaded = awaitLoginStages(stages, loginStart + TimeUnit.MILLISECONDS.toNanos(_loginTimeout));
+        recordTime("login.total", loginStart);
+        if (!loaded)
+        {
+            // Any data that was already loaded is removed, and stages that finish later remove their own data
+            abandoned.set(true);
+            removePlayerData(name);
+            for (ClientDataLoader dataLoader : _dataLoaders)
+            {
+                dataLoader.unload(name);
+            }
+            getCounter("login.failed").increment();
+            event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_OTHER, "There was an issue loading your player data. Please relog.");
+        }
+    }
+
+    /**
+     * Runs a single login stage on the login thread pool and records how long it took. The stage is skipped if the
+     * login has already been abandoned, and if the login is abandoned while the stage is running its data is removed.
+     *
+     * @param metric the name of the metric the time of the stage is recorded in
+     * @param abandoned if the login has failed or timed out
+     * @param stage the stage being ran, which returns true if it succeeded
+     * @param undo removes the data the stage loaded, or null if the stage doesn't store any data
+     * @return a {@link CompletableFuture} that is completed with whether or not the stage succeeded
+     */
+    private CompletableFuture<Boolean> runLoginStage(String metric, AtomicBoolean abandoned, Supplier<Boolean> stage, Runnable undo)
+    {
+        return CompletableFuture.supplyAsync(() -> {
+            if (abandoned.get())
+            {
+                return false;
+            }
+
+            long stageStart = System.nanoTime();
+            boolean succeeded;
+            try
+            {
+                succeeded = stage.get();
+            }
+            catch (Exception e)
+            {
+                e.printStackTrace();
+                succeeded = false;
+            }
+            recordTime(metric, stageStart);
 
-        Timestamp timestamp = (Timestamp)(playerLoginData.getColumn("lastLogin").getData());
-        client.setLastLogin(timestamp.getTime());
+            if (abandoned.get() && undo != null)
+            {
+                undo.run();
+            }
+            return succeeded;
+        }, _loginExecutor);
+    }
 
-        String rank = (String)(playerLoginData.getColumn("rank").getData());
-        String purchasedRank = (String)(playerLoginData.getColumn("purchasedRank").getData());
-        if (purchasedRank == null)
+    /**
+     * Waits until every login stage has finished or the deadline has passed.
+     *
+     * @param stages the login stages that are running
+     * @param deadline the time from {@link System#nanoTime()} every stage must finish by
+     * @return true if every stage finished and succeeded before the deadline, otherwise false
+     */
+    private boolean awaitLoginStages(List<CompletableFuture<Boolean>> stages, long deadline)
+    {
+        try
         {
-            client.setPurchasedRank(Rank.DEFAULT);
+            CompletableFuture.allOf(stages.toArray(new CompletableFuture[stages.size()])).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            for (CompletableFuture<Boolean> stage : stages)
+            {
+                if (!stage.join())
+                {
+                    return false;
+                }
+            }
+            return true;
         }
-        else
+        catch (TimeoutException e)
         {
-            client.setPurchasedRank(Rank.valueOf(purchasedRank));
+            getCounter("login.timeout").increment();
+            return false;
         }
-        if (rank == null)
+        catch (InterruptedException e)
         {
-            client.setRank(client.getPurchasedRank());
+            Thread.currentThread().interrupt();
+            return false;
         }
-        else
+        catch (ExecutionException e)
         {
-            client.setRank(Rank.valueOf(rank));
+            e.printStackTrace();
+            return false;
         }
     }
 
+    /**
+     * Converts the name of a login stage such as Item Manager into a metric name such as item-manager.
+     */
+    private static String toMetricName(String name)
+    {
+        return name.toLowerCase().replace(' ', '-');
+    }
+
     /**
      * This ensures that the client data was properly loaded
      *
@@ -119,13 +291,10 @@ public class ClientManager extends ClientComponent<Client> implements Listener {
             return;
         }
 
-        Bukkit.getScheduler().runTaskAsynchronously(getPlugin(), new Runnable() {
-
-            @Override
-            public void run()
-            {
-                _redisRepository.playerJoin(new RedisClient(event.getPlayer().getName(), event.getPlayer().getUniqueId(), _serverConfiguration.getServerName()));
-            }
+        RedisClient redisClient = new RedisClient(event.getPlayer().getName(), event.getPlayer().getUniqueId(), _serverConfiguration.getServerName());
+        RedisExecutor.getInstance().run(() -> {
+            _redisRepository.playerJoin(redisClient);
+            _playerDirectory.join(redisClient.getServer(), redisClient.getName());
         });
     }
 
@@ -137,12 +306,11 @@ public class ClientManager extends ClientComponent<Client> implements Listener {
     {
         removePlayerData(event.getPlayer().getName());
 
-        Bukkit.getScheduler().runTaskAsynchronously(getPlugin(), new Runnable() {
-            @Override
-            public void run()
-            {
-                _redisRepository.playerLeave(event.getPlayer().getName());
-            }
+        String name = event.getPlayer().getName();
+        String serverName = _serverConfiguration.getServerName();
+        RedisExecutor.getInstance().run(() -> {
+            _redisRepository.playerLeave(name);
+            _playerDirectory.leave(serverName, name);
         });
     }
 
@@ -157,6 +325,17 @@ public class ClientManager extends ClientComponent<Client> implements Listener {
         _loginProcesses.put(loginProcessor.getName(), loginProcessor);
     }
 
+    /**
+     * Adds the {@link ClientDataLoader} to the list of loaders that will be ran every time a player logs into the
+     * connection, after the client's row has been loaded.
+     *
+     * @param dataLoader the {@link ClientDataLoader} that will be ran when a player logs into the connection
+     */
+    public void addClientDataLoader(ClientDataLoader dataLoader)
+    {
+        _dataLoaders.add(dataLoader);
+    }
+
     /**
      * Gets the client repository used to store basic client data.
      *
@@ -167,6 +346,170 @@ public class ClientManager extends ClientComponent<Client> implements Listener {
         return _sqlRepository;
     }
 
+    /**
+     * Gets the directory of the server every player on the network is on.
+     *
+     * @return the {@link PlayerDirectory} reference
+     */
+    public PlayerDirectory getPlayerDirectory()
+    {
+        return _playerDirectory;
+    }
+
+    /**
+     * Returns the names of the players that have joined the network that start with the prefix, ignoring case, up to
+     * the name search limit in the config. The names are searched in redis if they are shared between servers,
+     * otherwise in the name index of this server, or in MySQL while the names in redis or the index are still loading.
+     *
+     * @param prefix the start of the names
+     * @return the names that start with the prefix
+     */
+    public List<String> getMatchingPlayers(String prefix)
+    {
+        long startTime = System.nanoTime();
+        List<String> names;
+        if (_nameRepository != null && isSharedNamesLoaded())
+        {
+            names = _nameRepository.search(prefix, _nameSearchLimit);
+        }
+        else if (_nameIndex.isLoaded())
+        {
+            names = _nameIndex.search(prefix, _nameSearchLimit);
+        }
+        else
+        {
+            List<String> matchingNames = new ArrayList<>();
+            _sqlRepository.forEachMatchingPlayer(prefix, name -> matchingNames.add(name) && matchingNames.size() < _nameSearchLimit);
+            names = matchingNames;
+        }
+        recordTime("names.search", startTime);
+        return names;
+    }
+
+    /**
+     * Returns true once the names in redis have been filled from MySQL by any server. Only a positive result is
+     * remembered, so redis is checked again on every search until the names have been loaded.
+     */
+    private boolean isSharedNamesLoaded()
+    {
+        if (!_sharedNamesLoaded && _nameRepository.isLoaded())
+        {
+            _sharedNamesLoaded = true;
+        }
+        return _sharedNamesLoaded;
+    }
+
+    /**
+     * Loads the name of every player from MySQL into the name index. If names are shared between servers the names are
+     * only loaded into redis if no other server has finished loading them. Every name is read from MySQL before any
+     * are sent to redis, so the MySQL connection is never held while waiting on redis.
+     */
+    private void loadPlayerNames()
+    {
+        long startTime = System.nanoTime();
+        if (_nameRepository != null)
+        {
+            if (!isSharedNamesLoaded())
+            {
+                List<String> names = new ArrayList<>();
+                if (_sqlRepository.forEachPlayerName(names::add) && _nameRepository.load(names))
+                {
+                    _sharedNamesLoaded = true;
+                }
+            }
+        }
+        else
+        {
+            List<String> names = new ArrayList<>();
+            if (_sqlRepository.forEachPlayerName(names::add))
+            {
+                _nameIndex.load(names);
+            }
+        }
+        recordTime("names.load", startTime);
+    }
+
+    /**
+     * Adds the name of a player that logged in to the name index.
+     */
+    private void addPlayerName(String name)
+    {
+        if (_nameRepository != null)
+        {
+            RedisExecutor.getInstance().run(() -> _nameRepository.addName(name));
+        }
+        else
+        {
+            _nameIndex.add(name);
+        }
+    }
+
+    /**
+     * Generates the default login, name search and name resolution settings if they do not already exist.
+     */
+    private void generateConfig()
+    {
+        getPlugin().getConfig().addDefault("clientmanager.login.timeout", 5000);
+        getPlugin().getConfig().set("clientmanager.login.timeout", getPlugin().getConfig().get("clientmanager.login.timeout"));
+
+        // The economy pool is sized to twice this, see MySQLPoolConfig
+        getPlugin().getConfig().addDefault("clientmanager.login.threads", ConnectionPool.DEFAULT_LOGIN_THREADS);
+        getPlugin().getConfig().set("clientmanager.login.threads", getPlugin().getConfig().get("clientmanager.login.threads"));
+
+        getPlugin().getConfig().addDefault("clientmanager.names.limit", 10);
+        getPlugin().getConfig().set("clientmanager.names.limit", getPlugin().getConfig().get("clientmanager.names.limit"));
+
+        getPlugin().getConfig().addDefault("clientmanager.names.redis", false);
+        getPlugin().getConfig().set("clientmanager.names.redis", getPlugin().getConfig().get("clientmanager.names.redis"));
+
+        getPlugin().getConfig().addDefault("clientmanager.resolve.size", 10000);
+        getPlugin().getConfig().set("clientmanager.resolve.size", getPlugin().getConfig().get("clientmanager.resolve.size"));
+
+        getPlugin().getConfig().addDefault("clientmanager.resolve.ttl", 60000);
+        getPlugin().getConfig().set("clientmanager.resolve.ttl", getPlugin().getConfig().get("clientmanager.resolve.ttl"));
+
+        getPlugin().getConfig().addDefault("clientmanager.resolve.missingttl", 10000);
+        getPlugin().getConfig().set("clientmanager.resolve.missingttl", getPlugin().getConfig().get("clientmanager.resolve.missingttl"));
+
+        getPlugin().getConfig().addDefault("clientmanager.resolve.redis", false);
+        getPlugin().getConfig().set("clientmanager.resolve.redis", getPlugin().getConfig().get("clientmanager.resolve.redis"));
+
+        getPlugin().getConfig().addDefault("clientmanager.resolve.redisttl", 1800000);
+        getPlugin().getConfig().set("clientmanager.resolve.redisttl", getPlugin().getConfig().get("clientmanager.resolve.redisttl"));
+
+        getPlugin().saveConfig();
+    }
+
+    /**
+     * Removes the players on servers that crashed without sending leave events from the {@link PlayerDirectory}.
+     */
+    @EventHandler
+    public void cleanPlayerDirectory(TimerEvent event)
+    {
+        if (event.getType() != TimerType.THIRTY_SECONDS)
+        {
+            return;
+        }
+
+        RedisExecutor.getInstance().run(() -> _playerDirectory.removeDeadServers());
+    }
+
+    /**
+     * Adds every online player to the {@link PlayerDirectory} again once this server has recovered from expiring in
+     * redis, since {@link PlayerDirectory#removeDeadServers()} may have removed them while it was expired.
+     */
+    @EventHandler
+    public void onServerRecovered(ServerRecoveredEvent event)
+    {
+        List<String> names = new ArrayList<>();
+        for (Player player : Bukkit.getOnlinePlayers())
+        {
+            names.add(player.getName());
+        }
+        String serverName = event.getServerName();
+        RedisExecutor.getInstance().run(() -> _playerDirectory.join(serverName, names));
+    }
+
     @EventHandler
     public void cleanPlayerData(TimerEvent event)
     {
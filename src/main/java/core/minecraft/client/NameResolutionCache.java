@@ -0,0 +1,309 @@
+package core.minecraft.client;
+
+import core.minecraft.client.data.NameResolution;
+import core.minecraft.client.redis.NameResolutionRepository;
+import core.minecraft.metrics.MetricsRegistry;
+import core.redis.connection.RedisExecutor;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This is a bounded cache of the uuid and clientID every recently resolved player name belongs to, so commands that
+ * look up offline players by name do not query MySQL every time. Names that do not belong to any player are cached as
+ * well, but for a shorter time since the player may join at any moment.
+ *
+ * <p>Entries are removed once they have been stored for longer than their time to live, and the least recently used
+ * entry is evicted once the cache is full. The resolution of a name is replaced whenever a player logs in with it, and
+ * the old name of a player is removed when they log in with a new name. A lookup that was started before a name was
+ * changed by a login or removed is never cached, since it may have read the name as it was before.</p>
+ *
+ * <p>If a {@link NameResolutionRepository} is given, resolutions are shared between every server through redis. Names
+ * missing from this cache are then looked up in redis before MySQL. A name change seen on another server only reaches
+ * this cache once the entry expires, so the local time to live should be kept short.</p>
+ *
+ * @author Preston Brown
+ */
+public class NameResolutionCache {
+
+    private static final String METRIC_NAME = "client.resolve";
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final int _maxSize;
+    private final long _timeToLive;
+    private final long _missingTimeToLive;
+    private final NameResolutionRepository _redisRepository;
+    private final long _redisTimeToLive;
+
+    private final LinkedHashMap<String, CacheEntry> _entries;
+    private final Map<String, String> _namesByUUID = new HashMap<>();
+
+    // Every login and removal of a name increases the generation of its stripe, so a lookup can tell if the name
+    // changed while it was running
+    private final AtomicLongArray _generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    /**
+     * Creates a new {@link NameResolutionCache} that is only stored on this server.
+     *
+     * @param maxSize the maximum amount of names stored in this cache
+     * @param timeToLive the time in milliseconds the resolution of a name is stored before it expires
+     * @param missingTimeToLive the time in milliseconds a name that does not belong to a player is stored
+     */
+    public NameResolutionCache(int maxSize, long timeToLive, long missingTimeToLive)
+    {
+        this(maxSize, timeToLive, missingTimeToLive, null, 0L);
+    }
+
+    /**
+     * Creates a new {@link NameResolutionCache} that shares its resolutions with every server through redis.
+     *
+     * @param maxSize the maximum amount of names stored in this cache
+     * @param timeToLive the time in milliseconds the resolution of a name is stored before it expires
+     * @param missingTimeToLive the time in milliseconds a name that does not belong to a player is stored
+     * @param redisRepository the repository the resolutions are shared through, or null if they are not shared
+     * @param redisTimeToLive the time in milliseconds the resolution of a name is stored in redis
+     */
+    public NameResolutionCache(int maxSize, long timeToLive, long missingTimeToLive, NameResolutionRepository redisRepository, long redisTimeToLive)
+    {
+        _maxSize = maxSize;
+        _timeToLive = timeToLive;
+        _missingTimeToLive = missingTimeToLive;
+        _redisRepository = redisRepository;
+        _redisTimeToLive = redisTimeToLive;
+        _entries = new LinkedHashMap<String, CacheEntry>(16, 0.75F, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest)
+            {
+                if (size() > _maxSize)
+                {
+                    removeName(eldest.getKey(), eldest.getValue());
+                    MetricsRegistry.getInstance().counter(METRIC_NAME + ".evictions").increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        MetricsRegistry.getInstance().gauge(METRIC_NAME + ".size", this::size);
+    }
+
+    /**
+     * Returns the cached resolution of the name, looking it up in redis if it is not cached on this server and
+     * resolutions are shared. This blocks while redis is queried, so it should not be called on the main thread.
+     *
+     * @param name the name of the player
+     * @return the resolution of the name, {@link NameResolution#MISSING} if the name is cached as not belonging to a
+     * player, or null if the name is not cached
+     */
+    public NameResolution get(String name)
+    {
+        String lowerName = name.toLowerCase();
+        long generation = getGeneration(lowerName);
+        synchronized (this)
+        {
+            CacheEntry entry = _entries.get(lowerName);
+            if (entry != null && !entry.isExpired())
+            {
+                MetricsRegistry.getInstance().counter(METRIC_NAME + ".hits").increment();
+                return entry._resolution;
+            }
+            if (entry != null)
+            {
+                _entries.remove(lowerName);
+                removeName(lowerName, entry);
+            }
+        }
+
+        if (_redisRepository != null)
+        {
+            NameResolution resolution = _redisRepository.get(lowerName);
+            if (resolution != null)
+            {
+                MetricsRegistry.getInstance().counter(METRIC_NAME + ".redis.hits").increment();
+                putIfUnchanged(lowerName, resolution, generation);
+                return resolution;
+            }
+        }
+        MetricsRegistry.getInstance().counter(METRIC_NAME + ".misses").increment();
+        return null;
+    }
+
+    /**
+     * Returns the current generation of the name. This must be read before the name is looked up in MySQL and passed
+     * to {@link #put(String, NameResolution, long)} along with the result.
+     *
+     * @param name the name of the player
+     * @return the current generation of the name
+     */
+    public long getGeneration(String name)
+    {
+        return _generations.get(getStripe(name.toLowerCase()));
+    }
+
+    /**
+     * Stores the resolution of a name that was looked up in MySQL, unless the name was changed by a login or removed
+     * since the given generation was read. In redis the resolution never replaces one that is already stored.
+     *
+     * @param name the name of the player
+     * @param resolution the resolution of the name, or {@link NameResolution#MISSING} if it does not belong to a player
+     * @param generation the generation of the name read before it was looked up
+     * @return true if the resolution was cached, or false if the name changed while it was being looked up
+     */
+    public boolean put(String name, NameResolution resolution, long generation)
+    {
+        String lowerName = name.toLowerCase();
+        if (!putIfUnchanged(lowerName, resolution, generation))
+        {
+            return false;
+        }
+        if (_redisRepository != null)
+        {
+            long timeToLive = resolution.exists() ? _redisTimeToLive : _missingTimeToLive;
+            RedisExecutor.getInstance().run(() -> _redisRepository.put(lowerName, resolution, timeToLive));
+        }
+        return true;
+    }
+
+    /**
+     * Stores the resolution of the name a player logged in with. If the player had a different name before, the
+     * resolution of their old name is removed since it no longer belongs to them.
+     *
+     * @param name the name the player logged in with
+     * @param resolution the resolution of the name
+     */
+    public void login(String name, NameResolution resolution)
+    {
+        String lowerName = name.toLowerCase();
+        synchronized (this)
+        {
+            String oldName = _namesByUUID.get(resolution.getUUID().toString());
+            if (oldName != null && !oldName.equals(lowerName))
+            {
+                invalidateLocal(oldName);
+            }
+            _generations.incrementAndGet(getStripe(lowerName));
+            putLocal(lowerName, resolution);
+        }
+
+        if (_redisRepository != null)
+        {
+            RedisExecutor.getInstance().run(() -> {
+                String oldName = _redisRepository.login(lowerName, resolution, _redisTimeToLive);
+                if (oldName != null && !oldName.equals(lowerName))
+                {
+                    invalidateLocal(oldName);
+                }
+            });
+        }
+    }
+
+    /**
+     * Removes the resolution of the name from this cache and from redis.
+     *
+     * @param name the name of the player
+     */
+    public void invalidate(String name)
+    {
+        String lowerName = name.toLowerCase();
+        invalidateLocal(lowerName);
+        if (_redisRepository != null)
+        {
+            RedisExecutor.getInstance().run(() -> _redisRepository.remove(lowerName));
+        }
+    }
+
+    /**
+     * @return the amount of names currently stored in this cache
+     */
+    public synchronized int size()
+    {
+        return _entries.size();
+    }
+
+    /**
+     * @return the maximum amount of names stored in this cache
+     */
+    public int getMaxSize()
+    {
+        return _maxSize;
+    }
+
+    private synchronized void putLocal(String lowerName, NameResolution resolution)
+    {
+        long timeToLive = resolution.exists() ? _timeToLive : _missingTimeToLive;
+        CacheEntry entry = new CacheEntry(resolution, System.currentTimeMillis() + timeToLive);
+        CacheEntry oldEntry = _entries.put(lowerName, entry);
+        if (oldEntry != null)
+        {
+            removeName(lowerName, oldEntry);
+        }
+        if (resolution.exists())
+        {
+            _namesByUUID.put(resolution.getUUID().toString(), lowerName);
+        }
+    }
+
+    /**
+     * Stores the resolution if the generation of the name has not changed since the given generation was read.
+     */
+    private synchronized boolean putIfUnchanged(String lowerName, NameResolution resolution, long generation)
+    {
+        if (_generations.get(getStripe(lowerName)) != generation)
+        {
+            MetricsRegistry.getInstance().counter(METRIC_NAME + ".stale").increment();
+            return false;
+        }
+        putLocal(lowerName, resolution);
+        return true;
+    }
+
+    private synchronized void invalidateLocal(String lowerName)
+    {
+        _generations.incrementAndGet(getStripe(lowerName));
+        CacheEntry entry = _entries.remove(lowerName);
+        if (entry != null)
+        {
+            removeName(lowerName, entry);
+            MetricsRegistry.getInstance().counter(METRIC_NAME + ".invalidations").increment();
+        }
+    }
+
+    /**
+     * Removes the uuid of the entry from the names by uuid if it still points to the given name.
+     */
+    private void removeName(String lowerName, CacheEntry entry)
+    {
+        if (entry._resolution.exists())
+        {
+            _namesByUUID.remove(entry._resolution.getUUID().toString(), lowerName);
+        }
+    }
+
+    private int getStripe(String lowerName)
+    {
+        return (lowerName.hashCode() & 0x7FFFFFFF) % GENERATION_STRIPES;
+    }
+
+    /**
+     * Stores the resolution of a name along with the time it expires.
+     */
+    private static class CacheEntry {
+
+        private final NameResolution _resolution;
+        private final long _expiresAt;
+
+        private CacheEntry(NameResolution resolution, long expiresAt)
+        {
+            _resolution = resolution;
+            _expiresAt = expiresAt;
+        }
+
+        private boolean isExpired()
+        {
+            return System.currentTimeMillis() >= _expiresAt;
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package core.minecraft.client;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Pattern;
+
+/**
+ * An in-memory index of the name of every player that has joined the network, used to find the names that start with
+ * a prefix without querying MySQL. Names are matched without case.
+ *
+ * <p>The names are packed into a single byte array sorted without case, with the offset of every name in a second
+ * array, so a million names take about 14MB instead of a String each. Names added after the index was loaded are
+ * kept in a small sorted set, and are merged into the arrays once there are {@link #MERGE_THRESHOLD} of them.</p>
+ *
+ * @author Preston Brown
+ */
+public class PlayerNameIndex {
+
+    private static final int MERGE_THRESHOLD = 4096;
+
+    // Only valid Minecraft names are indexed, which keeps every character a single byte
+    private static final Pattern VALID_NAME = Pattern.compile("[A-Za-z0-9_]{1,16}");
+
+    private volatile Names _names = new Names(new byte[0], new int[] {0});
+    private final ConcurrentSkipListSet<String> _recent = new ConcurrentSkipListSet<>(String.CASE_INSENSITIVE_ORDER);
+    private volatile boolean _loaded = false;
+
+    /**
+     * Replaces the contents of the index with the given names. Names added while the names were being loaded are kept.
+     *
+     * @param names the name of every player
+     */
+    public void load(Collection<String> names)
+    {
+        List<String> sorted = new ArrayList<>(names.size());
+        for (String name : names)
+        {
+            if (name != null && VALID_NAME.matcher(name).matches())
+            {
+                sorted.add(name);
+            }
+        }
+        sorted.sort(String.CASE_INSENSITIVE_ORDER);
+
+        NamesBuilder builder = new NamesBuilder(sorted.size(), sorted.size() * 10);
+        for (String name : sorted)
+        {
+            builder.add(name);
+        }
+
+        synchronized (this)
+        {
+            _names = builder.build();
+            _loaded = true;
+        }
+        if (_recent.size() >= MERGE_THRESHOLD)
+        {
+            merge();
+        }
+    }
+
+    /**
+     * Adds the name of a player to the index. If the name is already indexed with a different case it is replaced.
+     *
+     * @param name the name of the player
+     */
+    public void add(String name)
+    {
+        if (name == null || !VALID_NAME.matcher(name).matches())
+        {
+            return;
+        }
+
+        Names names = _names;
+        int index = names.lowerBound(name);
+        if (index < names.size() && names.compare(index, name) == 0 && names.get(index).equals(name))
+        {
+            return;
+        }
+
+        // The set treats names with a different case as equal, so the old case must be removed first
+        _recent.remove(name);
+        _recent.add(name);
+
+        // Merging before the index has loaded would lose the merged names once the loaded names replace them
+        if (_loaded && _recent.size() >= MERGE_THRESHOLD)
+        {
+            merge();
+        }
+    }
+
+    /**
+     * Returns the names that start with the prefix, ignoring case, in alphabetical order.
+     *
+     * @param prefix the start of the names
+     * @param limit the maximum amount of names returned
+     * @return the names that start with the prefix
+     */
+    public List<String> search(String prefix, int limit)
+    {
+        List<String> matches = new ArrayList<>(Math.min(limit, 16));
+        Names names = _names;
+        int index = names.lowerBound(prefix);
+        Iterator<String> recent = _recent.tailSet(prefix).iterator();
+        String nextRecent = nextMatch(recent, prefix);
+
+        // Merges the matches from the arrays and the recent names, where the recent name wins if both have a name
+        while (matches.size() < limit)
+        {
+            boolean indexed = index < names.size() && names.startsWith(index, prefix);
+            if (!indexed && nextRecent == null)
+            {
+                break;
+            }
+
+            int compare = !indexed ? 1 : nextRecent == null ? -1 : names.compare(index, nextRecent);
+            if (compare < 0)
+            {
+                matches.add(names.get(index++));
+            }
+            else
+            {
+                matches.add(nextRecent);
+                nextRecent = nextMatch(recent, prefix);
+                if (compare == 0)
+                {
+                    index++;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @return true once the index has been loaded
+     */
+    public boolean isLoaded()
+    {
+        return _loaded;
+    }
+
+    /**
+     * @return the amount of names in the index, where a name whose case changed is counted twice until it is merged
+     */
+    public int size()
+    {
+        return _names.size() + _recent.size();
+    }
+
+    /**
+     * Returns the next name from the iterator if it starts with the prefix, otherwise null.
+     */
+    private String nextMatch(Iterator<String> names, String prefix)
+    {
+        if (!names.hasNext())
+        {
+            return null;
+        }
+        String name = names.next();
+        return name.regionMatches(true, 0, prefix, 0, prefix.length()) ? name : null;
+    }
+
+    /**
+     * Merges the recent names into the arrays. Both are already sorted so they are merged in a single pass.
+     */
+    private synchronized void merge()
+    {
+        List<String> recent = new ArrayList<>(_recent);
+        if (recent.isEmpty())
+        {
+            return;
+        }
+
+        Names names = _names;
+        NamesBuilder builder = new NamesBuilder(names.size() + recent.size(), names._data.length + recent.size() * 16);
+        int index = 0;
+        for (String name : recent)
+        {
+            while (index < names.size() && names.compare(index, name) < 0)
+            {
+                builder.add(names, index++);
+            }
+            if (index < names.size() && names.compare(index, name) == 0)
+            {
+                index++;
+            }
+            builder.add(name);
+        }
+        while (index < names.size())
+        {
+            builder.add(names, index++);
+        }
+
+        _names = builder.build();
+        _recent.removeAll(recent);
+    }
+
+    /**
+     * An immutable, sorted list of names packed into a single byte array.
+     */
+    private static class Names {
+
+        private final byte[] _data;
+        private final int[] _offsets;
+
+        private Names(byte[] data, int[] offsets)
+        {
+            _data = data;
+            _offsets = offsets;
+        }
+
+        private int size()
+        {
+            return _offsets.length - 1;
+        }
+
+        private String get(int index)
+        {
+            return new String(_data, _offsets[index], _offsets[index + 1] - _offsets[index], StandardCharsets.US_ASCII);
+        }
+
+        /**
+         * Compares the name at the index with the other name without case, in the same order as
+         * {@link String#CASE_INSENSITIVE_ORDER}.
+         */
+        private int compare(int index, String other)
+        {
+            int start = _offsets[index];
+            int length = _offsets[index + 1] - start;
+            int shared = Math.min(length, other.length());
+            for (int i = 0; i < shared; i++)
+            {
+                int difference = Character.toLowerCase((char) _data[start + i]) - Character.toLowerCase(other.charAt(i));
+                if (difference != 0)
+                {
+                    return difference;
+                }
+            }
+            return length - other.length();
+        }
+
+        private boolean startsWith(int index, String prefix)
+        {
+            int start = _offsets[index];
+            if (_offsets[index + 1] - start < prefix.length())
+            {
+                return false;
+            }
+            for (int i = 0; i < prefix.length(); i++)
+            {
+                if (Character.toLowerCase((char) _data[start + i]) != Character.toLowerCase(prefix.charAt(i)))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns the index of the first name that is not before the given name.
+         */
+        private int lowerBound(String name)
+        {
+            int low = 0, high = size();
+            while (low < high)
+            {
+                int middle = (low + high) >>> 1;
+                if (compare(middle, name) < 0)
+                {
+                    low = middle + 1;
+                }
+                else
+                {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Packs names into a {@link Names}. Names must be added in sorted order, and a name that is equal to the previous
+     * name without case is skipped.
+     */
+    private static class NamesBuilder {
+
+        private byte[] _data;
+        private int[] _offsets;
+        private int _size = 0;
+
+        private NamesBuilder(int names, int bytes)
+        {
+            _data = new byte[Math.max(16, bytes)];
+            _offsets = new int[names + 1];
+        }
+
+        private void add(String name)
+        {
+            if (_size > 0 && isLast(name))
+            {
+                return;
+            }
+            ensureCapacity(name.length());
+            for (int i = 0; i < name.length(); i++)
+            {
+                _data[_offsets[_size] + i] = (byte) name.charAt(i);
+            }
+            _offsets[_size + 1] = _offsets[_size] + name.length();
+            _size++;
+        }
+
+        private void add(Names names, int index)
+        {
+            int start = names._offsets[index];
+            int length = names._offsets[index + 1] - start;
+            ensureCapacity(length);
+            System.arraycopy(names._data, start, _data, _offsets[_size], length);
+            _offsets[_size + 1] = _offsets[_size] + length;
+            _size++;
+        }
+
+        private void ensureCapacity(int length)
+        {
+            if (_offsets[_size] + length > _data.length)
+            {
+                _data = Arrays.copyOf(_data, Math.max(_data.length * 2, _offsets[_size] + length));
+            }
+            if (_size + 2 > _offsets.length)
+            {
+                _offsets = Arrays.copyOf(_offsets, _offsets.length * 2);
+            }
+        }
+
+        /**
+         * Returns whether the last name added is equal to the given name without case.
+         */
+        private boolean isLast(String name)
+        {
+            int start = _offsets[_size - 1];
+            if (_offsets[_size] - start != name.length())
+            {
+                return false;
+            }
+            for (int i = 0; i < name.length(); i++)
+            {
+                if (Character.toLowerCase((char) _data[start + i]) != Character.toLowerCase(name.charAt(i)))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private Names build()
+        {
+            return new Names(Arrays.copyOf(_data, _offsets[_size]), Arrays.copyOf(_offsets, _size + 1));
+        }
+    }
+}
@@ -62,7 +62,7 @@ public class SetRank extends CommandBase {
             {
                 caller.sendMessage(F.componentMessage("Command", "Player " + name + " does not exist"));
                 //TODO this is to test this set of features but change this to just say caller doesn't exist
-                List<String> matchingNames = _clientManager.getRepository().getMatchingPlayers(name);
+                List<String> matchingNames = _clientManager.getMatchingPlayers(name);
                 PlayerUtil.findExactMatch(caller, name, matchingNames, true);
                 return;
             }
@@ -0,0 +1,56 @@
+package core.minecraft.client.data;
+
+import java.util.UUID;
+
+/**
+ * This is the uuid and clientID a player name resolved to. A name that does not belong to any player resolves to
+ * {@link #MISSING}, so lookups of names that do not exist can be cached as well.
+ *
+ * @author Preston Brown
+ */
+public class NameResolution {
+
+    /**
+     * The resolution of a name that does not belong to any player.
+     */
+    public static final NameResolution MISSING = new NameResolution(null, -1);
+
+    private UUID _uuid;
+    private int _clientID;
+
+    /**
+     * Creates a new resolution of a name to the player with the given uuid and clientID.
+     *
+     * @param uuid the uuid of the player
+     * @param clientID the clientID of the player
+     */
+    public NameResolution(UUID uuid, int clientID)
+    {
+        _uuid = uuid;
+        _clientID = clientID;
+    }
+
+    /**
+     * @return true if the name belongs to a player, otherwise false
+     */
+    public boolean exists()
+    {
+        return _uuid != null;
+    }
+
+    /**
+     * @return the uuid of the player, or null if the name does not belong to a player
+     */
+    public UUID getUUID()
+    {
+        return _uuid;
+    }
+
+    /**
+     * @return the clientID of the player, or -1 if the name does not belong to a player
+     */
+    public int getClientID()
+    {
+        return _clientID;
+    }
+}
@@ -3,6 +3,8 @@ package core.minecraft.client.redis;
 import core.redis.repository.DataRepositoryBase;
 import org.bukkit.event.Listener;
 
+import java.util.Collection;
+
 /**
  * This redis repository stores the live client data of all the players currently on the network.
  *
@@ -16,6 +18,7 @@ public class ClientRedisRepository extends DataRepositoryBase<RedisClient> {
     public ClientRedisRepository()
     {
         super("minecraftclient", RedisClient.class);
+        enableNearCache(2048, 30000L);
     }
 
     /**
@@ -28,6 +31,26 @@ public class ClientRedisRepository extends DataRepositoryBase<RedisClient> {
         addData(client);
     }
 
+    /**
+     * Adds every client in the given collection to the redis client repository in a single round trip.
+     *
+     * @param clients the clients that are being added
+     */
+    public void playerJoin(Collection<RedisClient> clients)
+    {
+        addData(clients);
+    }
+
+    /**
+     * Removes every player with one of the specified usernames from the redis client repository in a single round trip.
+     *
+     * @param names the usernames of the players being removed from the redis client repository
+     */
+    public void playerLeave(Collection<String> names)
+    {
+        removeData(names);
+    }
+
     /**
      * Removes a player with the specified username from the redis client repository.
      *
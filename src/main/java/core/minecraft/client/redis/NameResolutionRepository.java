@@ -0,0 +1,257 @@
+package core.minecraft.client.redis;
+
+import core.minecraft.client.data.NameResolution;
+import core.redis.connection.RedisManager;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This stores the uuid and clientID every recently resolved player name belongs to, so every server shares the
+ * resolutions instead of each querying MySQL for them.
+ *
+ * <p>Every name is stored in its own key as the uuid and clientID separated by a space, or an empty string if the
+ * name does not belong to a player, and expires after its time to live. The name of every resolved uuid is stored as
+ * well, so the old name of a player can be removed when they log in with a new name.</p>
+ *
+ * @author Preston Brown
+ */
+public class NameResolutionRepository {
+
+    private static final String NAME_KEY = "players.resolve.name.";
+    private static final String UUID_KEY = "players.resolve.uuid.";
+
+    /**
+     * Stores the resolution of the name a player logged in with, and removes the resolution of the name they had
+     * before if it changed. Nothing is changed if the name stored for the uuid is no longer the old name that was read
+     * before the script was ran.
+     *
+     * <p>KEYS[1] is the key of the name, KEYS[2] is the key of the uuid and KEYS[3] is optionally the key of the old
+     * name. ARGV is the lowercase name, the resolution, the time to live in milliseconds and the old name, or an empty
+     * string if there was none. Returns 1 if the login was stored, otherwise 0.</p>
+     */
+    private static final String LOGIN_SCRIPT =
+            "if (redis.call('GET', KEYS[2]) or '') ~= ARGV[4] then return 0 end " +
+            "if KEYS[3] then redis.call('DEL', KEYS[3]) end " +
+            "redis.call('PSETEX', KEYS[1], ARGV[3], ARGV[2]) " +
+            "redis.call('PSETEX', KEYS[2], ARGV[3], ARGV[1]) " +
+            "return 1";
+
+    /**
+     * Stores the resolution of a name that was looked up in MySQL, unless the name is already stored, which is either
+     * the resolution of a login or a lookup that is just as recent. A resolution is also not stored if its player has
+     * since logged in with a different name.
+     *
+     * <p>KEYS[1] is the key of the name and KEYS[2] is optionally the key of the uuid. ARGV is the lowercase name, the
+     * resolution and the time to live in milliseconds. Returns 1 if the resolution was stored, otherwise 0.</p>
+     */
+    private static final String PUT_SCRIPT =
+            "if KEYS[2] then " +
+            "  local current = redis.call('GET', KEYS[2]) " +
+            "  if current and current ~= ARGV[1] then return 0 end " +
+            "end " +
+            "if redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3], 'NX') then return 1 end " +
+            "return 0";
+
+    // The amount of times a login is retried if the player logs in on another server at the same time
+    private static final int LOGIN_ATTEMPTS = 3;
+
+    private Map<String, String> _scriptShas = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the stored resolution of the name.
+     *
+     * @param name the name of the player
+     * @return the resolution of the name, {@link NameResolution#MISSING} if the name is stored as not belonging to a
+     * player, or null if the name is not stored or could not be read
+     */
+    public NameResolution get(String name)
+    {
+        Jedis jedis = null;
+        try
+        {
+            jedis = RedisManager.getSlaveConnection();
+            String value = jedis.get(NAME_KEY + name.toLowerCase());
+            if (value == null)
+            {
+                return null;
+            }
+            if (value.isEmpty())
+            {
+                return NameResolution.MISSING;
+            }
+            String[] args = value.split(" ");
+            return new NameResolution(UUID.fromString(args[0]), Integer.parseInt(args[1]));
+        }
+        catch (Exception e)
+        {
+            System.out.println("[Redis-NameResolution] FAILED to get \'" + name + "\'");
+            e.printStackTrace();
+            return null;
+        }
+        finally
+        {
+            close(jedis);
+        }
+    }
+
+    /**
+     * Stores the resolution of a name that was looked up in MySQL for the given time. The resolution never replaces
+     * one that is already stored, so a lookup that finishes after a login cannot overwrite the resolution of the login.
+     *
+     * @param name the name of the player
+     * @param resolution the resolution of the name, which may be {@link NameResolution#MISSING}
+     * @param timeToLive the time in milliseconds the resolution is stored
+     */
+    public void put(String name, NameResolution resolution, long timeToLive)
+    {
+        Jedis jedis = null;
+        try
+        {
+            jedis = RedisManager.getMasterConnection();
+            String lowerName = name.toLowerCase();
+            List<String> keys = resolution.exists() ? Arrays.asList(NAME_KEY + lowerName, UUID_KEY + resolution.getUUID())
+                    : Collections.singletonList(NAME_KEY + lowerName);
+            evalScript(jedis, PUT_SCRIPT, keys, Arrays.asList(lowerName, toValue(resolution), String.valueOf(timeToLive)));
+        }
+        catch (Exception e)
+        {
+            System.out.println("[Redis-NameResolution] FAILED to put \'" + name + "\'");
+            e.printStackTrace();
+        }
+        finally
+        {
+            close(jedis);
+        }
+    }
+
+    /**
+     * Stores the resolution of the name a player logged in with, and removes the resolution of their old name if
+     * they logged in with a different name.
+     *
+     * @param name the name the player logged in with
+     * @param resolution the resolution of the name
+     * @param timeToLive the time in milliseconds the resolution is stored
+     * @return the lowercase name the player had before, or null if it is not stored or could not be read
+     */
+    public String login(String name, NameResolution resolution, long timeToLive)
+    {
+        Jedis jedis = null;
+        try
+        {
+            jedis = RedisManager.getMasterConnection();
+            String lowerName = name.toLowerCase();
+            String uuidKey = UUID_KEY + resolution.getUUID();
+            for (int attempt = 0; attempt < LOGIN_ATTEMPTS; attempt++)
+            {
+                // The old name is read first so its key can be declared to the script
+                String oldName = jedis.get(uuidKey);
+                List<String> keys = new ArrayList<>(Arrays.asList(NAME_KEY + lowerName, uuidKey));
+                if (oldName != null && !oldName.equals(lowerName))
+                {
+                    keys.add(NAME_KEY + oldName);
+                }
+                Object stored = evalScript(jedis, LOGIN_SCRIPT, keys,
+                        Arrays.asList(lowerName, toValue(resolution), String.valueOf(timeToLive), oldName == null ? "" : oldName));
+                if (Long.valueOf(1L).equals(stored))
+                {
+                    return oldName;
+                }
+            }
+            System.out.println("[Redis-NameResolution] FAILED to store the login of '" + name + "' after " + LOGIN_ATTEMPTS + " attempts");
+            return null;
+        }
+        catch (Exception e)
+        {
+            System.out.println("[Redis-NameResolution] FAILED to store the login of \'" + name + "\'");
+            e.printStackTrace();
+            return null;
+        }
+        finally
+        {
+            close(jedis);
+        }
+    }
+
+    /**
+     * Removes the stored resolution of the name.
+     *
+     * @param name the name of the player
+     */
+    public void remove(String name)
+    {
+        Jedis jedis = null;
+        try
+        {
+            jedis = RedisManager.getMasterConnection();
+            jedis.del(NAME_KEY + name.toLowerCase());
+        }
+        catch (Exception e)
+        {
+            System.out.println("[Redis-NameResolution] FAILED to remove \'" + name + "\'");
+            e.printStackTrace();
+        }
+        finally
+        {
+            close(jedis);
+        }
+    }
+
+    private String toValue(NameResolution resolution)
+    {
+        return resolution.exists() ? resolution.getUUID() + " " + resolution.getClientID() : "";
+    }
+
+    /**
+     * Runs the given script, loading it into redis the first time it is used.
+     *
+     * @param jedis the connection being used
+     * @param script the Lua script
+     * @param keys the keys used by the script
+     * @param args the arguments used by the script
+     * @return the result of the script
+     */
+    private Object evalScript(Jedis jedis, String script, List<String> keys, List<String> args)
+    {
+        String sha = _scriptShas.get(script);
+        if (sha == null)
+        {
+            sha = jedis.scriptLoad(script);
+            _scriptShas.put(script, sha);
+        }
+        try
+        {
+            return jedis.evalsha(sha, keys, args);
+        }
+        catch (JedisDataException e)
+        {
+            if (e.getMessage() == null || !e.getMessage().startsWith("NOSCRIPT"))
+            {
+                throw e;
+            }
+            return jedis.eval(script, keys, args);
+        }
+    }
+
+    private void close(Jedis jedis)
+    {
+        try
+        {
+            if (jedis != null)
+            {
+                jedis.close();
+            }
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+        }
+    }
+}
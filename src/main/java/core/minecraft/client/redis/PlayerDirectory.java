@@ -0,0 +1,510 @@
+package core.minecraft.client.redis;
+
+import core.redis.connection.RedisManager;
+import core.redis.repository.ServerRepository;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This is a directory of the server every player on the network is currently on. The server of every player is
+ * stored in a single hash, and the players on every server are stored in a set for that server. Both are updated
+ * together by Lua scripts so they never disagree.
+ *
+ * <p>Players on a server that crashed without sending leave events are never returned, since every query checks
+ * that the server is still live in the {@link ServerRepository}, and {@link #removeDeadServers()} removes them from
+ * the directory.</p>
+ *
+ * @author Preston Brown
+ */
+public class PlayerDirectory {
+
+    private static final String LOCATION_KEY = "players.location";
+    private static final String SERVERS_KEY = "players.servers";
+    private static final String SERVER_KEY = "players.server.";
+
+    /**
+     * Moves players onto a server, removing them from the set of the server they were on before. The servers the
+     * players were on are read before the script is run so their sets can be declared as keys, and nothing is written
+     * if any player has moved since then.
+     *
+     * <p>KEYS[1] is the location hash, KEYS[2] is the set of servers with players and KEYS[3] is the set of the server,
+     * followed by the set of every server the players were on. ARGV[1] is the server name, followed by every player
+     * name, the server they were read on or an empty string, and the index in KEYS of that server's set or 0. Returns
+     * -1 if a player moved, otherwise the amount of players moved.</p>
+     */
+    private static final String JOIN_SCRIPT =
+            "for i = 2, #ARGV, 3 do " +
+            "  if (redis.call('HGET', KEYS[1], ARGV[i]) or '') ~= ARGV[i + 1] then return -1 end " +
+            "end " +
+            "redis.call('SADD', KEYS[2], ARGV[1]) " +
+            "for i = 2, #ARGV, 3 do " +
+            "  local old = tonumber(ARGV[i + 2]) " +
+            "  if old > 0 and ARGV[i + 1] ~= ARGV[1] then redis.call('SREM', KEYS[old], ARGV[i]) end " +
+            "  redis.call('HSET', KEYS[1], ARGV[i], ARGV[1]) " +
+            "  redis.call('SADD', KEYS[3], ARGV[i]) " +
+            "end " +
+            "return (#ARGV - 1) / 3";
+    private static final int MAX_JOIN_ATTEMPTS = 3;
+
+    /**
+     * Removes players from a server. A player's location is only removed if they are still on the server, so a leave
+     * that arrives after the player has already joined another server does not remove them.
+     *
+     * <p>KEYS[1] is the location hash and KEYS[2] is the set of the server. ARGV is the server name and then every
+     * player name.</p>
+     */
+    private static final String LEAVE_SCRIPT =
+            "local removed = 0 " +
+            "for i = 2, #ARGV do " +
+            "  if redis.call('HGET', KEYS[1], ARGV[i]) == ARGV[1] then " +
+            "    redis.call('HDEL', KEYS[1], ARGV[i]) " +
+            "    removed = removed + 1 " +
+            "  end " +
+            "  redis.call('SREM', KEYS[2], ARGV[i]) " +
+            "end " +
+            "return removed";
+
+    /**
+     * Removes every player on a server from the directory. If the key of the server is given, the players are only
+     * removed if the server is no longer live. The check is made in the same step as the removal, so a server that
+     * sends a heartbeat after it was found to be dead keeps its players.
+     *
+     * <p>KEYS[1] is the location hash, KEYS[2] is the set of servers with players and KEYS[3] is the set of the server.
+     * KEYS[4] is optionally the key of the server in the {@link ServerRepository}. ARGV[1] is the server name. Returns
+     * -1 if the server is live, otherwise the amount of players removed.</p>
+     */
+    private static final String CLEAR_SCRIPT =
+            "if KEYS[4] and redis.call('EXISTS', KEYS[4]) == 1 then return -1 end " +
+            "local names = redis.call('SMEMBERS', KEYS[3]) " +
+            "for _, name in ipairs(names) do " +
+            "  if redis.call('HGET', KEYS[1], name) == ARGV[1] then redis.call('HDEL', KEYS[1], name) end " +
+            "end " +
+            "redis.call('DEL', KEYS[3]) " +
+            "redis.call('SREM', KEYS[2], ARGV[1]) " +
+            "return #names";
+
+    private Map<String, String> _scriptShas = new ConcurrentHashMap<>();
+
+    /**
+     * This creates a new {@link PlayerDirectory} instance.
+     */
+    public PlayerDirectory()
+    {
+
+    }
+
+    /**
+     * Records that the given player is now on the given server.
+     *
+     * @param server the name of the server the player joined
+     * @param name the name of the player
+     */
+    public void join(String server, String name)
+    {
+        join(server, Collections.singletonList(name));
+    }
+
+    /**
+     * Records that every given player is now on the given server in a single round trip.
+     *
+     * @param server the name of the server the players joined
+     * @param names the names of the players
+     */
+    public void join(String server, Collection<String> names)
+    {
+        if (names.isEmpty())
+        {
+            return;
+        }
+        Jedis jedis = null;
+        try
+        {
+            jedis = RedisManager.getMasterConnection();
+            List<String> IDs = new ArrayList<>(toIDs(names));
+            Object moved = -1L;
+            for (int attempt = 0; attempt < MAX_JOIN_ATTEMPTS && Long.valueOf(-1L).equals(moved); attempt++)
+            {
+                List<String> oldServers = jedis.hmget(LOCATION_KEY, IDs.toArray(new String[IDs.size()]));
+                List<String> keys = new ArrayList<>(Arrays.asList(LOCATION_KEY, SERVERS_KEY, SERVER_KEY + server));
+                List<String> args = new ArrayList<>(Collections.singletonList(server));
+                for (int i = 0; i < IDs.size(); i++)
+                {
+                    String oldServer = oldServers.get(i);
+                    int keyIndex = 0;
+                    if (oldServer != null && !oldServer.equals(server))
+                    {
+                        keyIndex = keys.indexOf(SERVER_KEY + oldServer) + 1;
+                        if (keyIndex == 0)
+                        {
+                            keys.add(SERVER_KEY + oldServer);
+                            keyIndex = keys.size();
+                        }
+                    }
+                    args.add(IDs.get(i));
+                    args.add(oldServer == null ? "" : oldServer);
+                    args.add(String.valueOf(keyIndex));
+                }
+                moved = evalScript(jedis, JOIN_SCRIPT, keys, args);
+            }
+            if (Long.valueOf(-1L).equals(moved))
+            {
+                throw new IllegalStateException("the players kept moving for " + MAX_JOIN_ATTEMPTS + " attempts");
+            }
+        }
+        catch (Exception e)
+        {
+            System.out.println("[Redis-PlayerDirectory] FAILED to add " + names + " to \'" + server + "\'");
+            e.printStackTrace();
+        }
+        finally
+        {
+            close(jedis);
+        }
+    }
+
+    /**
+     * Records that the given player has left the given server.
+     *
+     * @param server the name of the server the player left
+     * @param name the name of the player
+     */
+    public void leave(String server, String name)
+    {
+        leave(server, Collections.singletonList(name));
+    }
+
+    /**
+     * Records that every given player has left the given server in a single round trip.
+     *
+     * @param server the name of the server the players left
+     * @param names the names of the players
+     */
+    public void leave(String server, Collection<String> names)
+    {
+        if (names.isEmpty())
+        {
+            return;
+        }
+        Jedis jedis = null;
+        try
+        {
+            jedis = RedisManager.getMasterConnection();
+            List<String> args = new ArrayList<>(Collections.singletonList(server));
+            args.addAll(toIDs(names));
+            evalScript(jedis, LEAVE_SCRIPT, Arrays.asList(LOCATION_KEY, SERVER_KEY + server), args);
+        }
+        catch (Exception e)
+        {
+            System.out.println("[Redis-PlayerDirectory] FAILED to remove " + names + " from \'" + server + "\'");
+            e.printStackTrace();
+        }
+        finally
+        {
+            close(jedis);
+        }
+    }
+
+    /**
+     * Removes every player on the given server from the directory. This should be called when a server starts,
+     * since players may have been left behind if it previously crashed.
+     *
+     * @param server the name of the server
+     */
+    public void clearServer(String server)
+    {
+        Jedis jedis = null;
+        try
+        {
+            jedis = RedisManager.getMasterConnection();
+            evalScript(jedis, CLEAR_SCRIPT, Arrays.asList(LOCATION_KEY, SERVERS_KEY, SERVER_KEY + server), Collections.singletonList(server));
+        }
+        catch (Exception e)
+        {
+            System.out.println("[Redis-PlayerDirectory] FAILED to clear \'" + server + "\'");
+            e.printStackTrace();
+        }
+        finally
+        {
+            close(jedis);
+        }
+    }
+
+    /**
+     * Removes the players on every server that is no longer live in the {@link ServerRepository} from the directory.
+     * Every server is checked again on the master as its players are removed, so a server that is only briefly
+     * reported dead keeps its players.
+     *
+     * @return the names of the servers that were removed
+     */
+    public Set<String> removeDeadServers()
+    {
+        Jedis jedis = null;
+        Set<String> deadServers = new HashSet<>();
+        try
+        {
+            jedis = RedisManager.getMasterConnection();
+            List<String> servers = new ArrayList<>(jedis.smembers(SERVERS_KEY));
+            Map<String, Boolean> live = getLiveServers(jedis, servers);
+            for (String server : servers)
+            {
+                if (!live.get(server))
+                {
+                    Object removed = evalScript(jedis, CLEAR_SCRIPT, Arrays.asList(LOCATION_KEY, SERVERS_KEY, SERVER_KEY + server,
+                            ServerRepository.getMinecraftServerKey(server)), Collections.singletonList(server));
+                    if (!Long.valueOf(-1L).equals(removed))
+                    {
+                        deadServers.add(server);
+                    }
+                }
+            }
+        }
+        catch (Exception e)
+        {
+            System.out.println("[Redis-PlayerDirectory] FAILED to remove dead servers");
+            e.printStackTrace();
+        }
+        finally
+        {
+            close(jedis);
+        }
+        return deadServers;
+    }
+
+    /**
+     * Gets the server the given player is on.
+     *
+     * @param name the name of the player
+     * @return the name of the server the player is on, otherwise null if they are offline
+     */
+    public String locate(String name)
+    {
+        return locate(Collections.singletonList(name)).get(name.toLowerCase());
+    }
+
+    /**
+     * Gets the server every given player is on in a single round trip. Players who are offline, or whose server
+     * is no longer live, are left out.
+     *
+     * @param names the names of the players
+     * @return a map of every online player's lowercase name to the name of their server
+     */
+    public Map<String, String> locate(Collection<String> names)
+    {
+        Jedis jedis = null;
+        Map<String, String> locations = new HashMap<>();
+        if (names.isEmpty())
+        {
+            return locations;
+        }
+        try
+        {
+            jedis = RedisManager.getSlaveConnection();
+            List<String> IDs = new ArrayList<>(toIDs(names));
+            List<String> servers = jedis.hmget(LOCATION_KEY, IDs.toArray(new String[IDs.size()]));
+            Map<String, Boolean> live = getLiveServers(jedis, new HashSet<>(servers));
+            for (int i = 0; i < IDs.size(); i++)
+            {
+                String server = servers.get(i);
+                if (server != null && live.get(server))
+                {
+                    locations.put(IDs.get(i), server);
+                }
+            }
+        }
+        catch (Exception e)
+        {
+            System.out.println("[Redis-PlayerDirectory] FAILED to locate " + names);
+            e.printStackTrace();
+        }
+        finally
+        {
+            close(jedis);
+        }
+        return locations;
+    }
+
+    /**
+     * Gets the name of every player on the given server.
+     *
+     * @param server the name of the server
+     * @return the lowercase name of every player on the server, or an empty set if the server is not live
+     */
+    public Set<String> playersOn(String server)
+    {
+        Jedis jedis = null;
+        Set<String> players = new HashSet<>();
+        try
+        {
+            jedis = RedisManager.getSlaveConnection();
+            Pipeline pipeline = jedis.pipelined();
+            Response<Boolean> live = pipeline.exists(ServerRepository.getMinecraftServerKey(server));
+            Response<Set<String>> members = pipeline.smembers(SERVER_KEY + server);
+            pipeline.sync();
+            if (live.get())
+            {
+                players = members.get();
+            }
+        }
+        catch (Exception e)
+        {
+            System.out.println("[Redis-PlayerDirectory] FAILED to get the players on \'" + server + "\'");
+            e.printStackTrace();
+        }
+        finally
+        {
+            close(jedis);
+        }
+        return players;
+    }
+
+    /**
+     * Counts the players on every live server with the given {@link core.redis.data.ServerType}.
+     *
+     * @param type the name of the {@link core.redis.data.ServerType}
+     * @return the amount of players on every live server of the given type
+     */
+    public long countByType(String type)
+    {
+        Jedis jedis = null;
+        long count = 0;
+        try
+        {
+            jedis = RedisManager.getSlaveConnection();
+            List<String> servers = new ArrayList<>(jedis.smembers(ServerRepository.getTypeIndexKey(type)));
+            Pipeline pipeline = jedis.pipelined();
+            List<Response<Boolean>> live = new ArrayList<>(servers.size());
+            List<Response<Long>> sizes = new ArrayList<>(servers.size());
+            for (String server : servers)
+            {
+                live.add(pipeline.exists(ServerRepository.getMinecraftServerKey(server)));
+                sizes.add(pipeline.scard(SERVER_KEY + server));
+            }
+            pipeline.sync();
+            for (int i = 0; i < servers.size(); i++)
+            {
+                if (live.get(i).get())
+                {
+                    count += sizes.get(i).get();
+                }
+            }
+        }
+        catch (Exception e)
+        {
+            System.out.println("[Redis-PlayerDirectory] FAILED to count the players on \'" + type + "\'");
+            e.printStackTrace();
+        }
+        finally
+        {
+            close(jedis);
+        }
+        return count;
+    }
+
+    /**
+     * Checks which of the given servers are still live in the {@link ServerRepository} in a single round trip.
+     *
+     * @param jedis the connection being used
+     * @param servers the names of the servers, which may contain null
+     * @return a map of every server name to true if it is live
+     */
+    private Map<String, Boolean> getLiveServers(Jedis jedis, Collection<String> servers)
+    {
+        Pipeline pipeline = jedis.pipelined();
+        Map<String, Response<Boolean>> responses = new HashMap<>();
+        for (String server : servers)
+        {
+            if (server != null)
+            {
+                responses.put(server, pipeline.exists(ServerRepository.getMinecraftServerKey(server)));
+            }
+        }
+        pipeline.sync();
+        Map<String, Boolean> live = new HashMap<>();
+        for (Map.Entry<String, Response<Boolean>> response : responses.entrySet())
+        {
+            live.put(response.getKey(), response.getValue().get());
+        }
+        return live;
+    }
+
+    /**
+     * Runs the given script, loading it into redis the first time it is used.
+     *
+     * @param jedis the connection being used
+     * @param script the Lua script
+     * @param keys the keys used by the script
+     * @param args the arguments used by the script
+     * @return the result of the script
+     */
+    private Object evalScript(Jedis jedis, String script, List<String> keys, List<String> args)
+    {
+        String sha = _scriptShas.get(script);
+        if (sha == null)
+        {
+            sha = jedis.scriptLoad(script);
+            _scriptShas.put(script, sha);
+        }
+        try
+        {
+            return jedis.evalsha(sha, keys, args);
+        }
+        catch (JedisDataException e)
+        {
+            if (e.getMessage() == null || !e.getMessage().startsWith("NOSCRIPT"))
+            {
+                throw e;
+            }
+            return jedis.eval(script, keys, args);
+        }
+    }
+
+    /**
+     * Returns the lowercase names of the given players without duplicates.
+     *
+     * @param names the names of the players
+     * @return the lowercase names of the players
+     */
+    private Collection<String> toIDs(Collection<String> names)
+    {
+        Set<String> IDs = new LinkedHashSet<>();
+        for (String name : names)
+        {
+            IDs.add(name.toLowerCase());
+        }
+        return IDs;
+    }
+
+    /**
+     * Returns the connection to its pool.
+     *
+     * @param jedis the connection being returned
+     */
+    private void close(Jedis jedis)
+    {
+        try
+        {
+            if (jedis != null)
+            {
+                jedis.close();
+            }
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package core.minecraft.client.redis;
+
+import core.redis.connection.RedisManager;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Transaction;
+import redis.clients.util.SafeEncoder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This stores the name of every player that has joined the network in a single sorted set, so every server can find
+ * the names that start with a prefix with ZRANGEBYLEX instead of keeping its own index.
+ *
+ * <p>Every member has a score of 0 so the set is sorted by member. A member is the lowercase name, a space and then
+ * the name, so names are sorted and matched without case but keep their case.</p>
+ *
+ * <p>The set is filled from MySQL by the first server that starts, and a marker key is set once every name has been
+ * added. Until the marker exists the set may be missing names, so it should not be searched.</p>
+ *
+ * @author Preston Brown
+ */
+public class PlayerNameRepository {
+
+    private static final String NAMES_KEY = "players.names";
+    private static final String LOADED_KEY = "players.names.loaded";
+
+    // The amount of names sent to redis in a single pipeline when the set is filled
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * Adds the name of a player that logged in to the set, replacing the name if it is already in the set with a
+     * different case.
+     *
+     * @param name the name being added
+     */
+    public void addName(String name)
+    {
+        Jedis jedis = null;
+        try
+        {
+            jedis = RedisManager.getMasterConnection();
+            byte[] key = SafeEncoder.encode(NAMES_KEY);
+            Transaction transaction = jedis.multi();
+            transaction.zremrangeByLex(key, SafeEncoder.encode("[" + name.toLowerCase() + " "), getUpperBound(name.toLowerCase() + " "));
+            transaction.zadd(key, 0, SafeEncoder.encode(toMember(name)));
+            transaction.exec();
+        }
+        catch (Exception e)
+        {
+            System.out.println("[Redis-PlayerNames] FAILED to add \'" + name + "\'");
+            e.printStackTrace();
+        }
+        finally
+        {
+            close(jedis);
+        }
+    }
+
+    /**
+     * Adds every name to the set and then sets the marker that the set has been filled. Names that are already in the
+     * set are left as they are. The marker is only set if every name was added, so a load that fails part way is
+     * started again by the next server.
+     *
+     * @param names the name of every player
+     * @return true if every name was added and the marker was set, otherwise false
+     */
+    public boolean load(Collection<String> names)
+    {
+        Jedis jedis = null;
+        try
+        {
+            jedis = RedisManager.getMasterConnection();
+            Pipeline pipeline = jedis.pipelined();
+            int queued = 0;
+            for (String name : names)
+            {
+                pipeline.zadd(NAMES_KEY, 0, toMember(name));
+                if (++queued % BATCH_SIZE == 0)
+                {
+                    pipeline.sync();
+                }
+            }
+            pipeline.set(LOADED_KEY, String.valueOf(System.currentTimeMillis()));
+            pipeline.sync();
+            return true;
+        }
+        catch (Exception e)
+        {
+            System.out.println("[Redis-PlayerNames] FAILED to load " + names.size() + " names");
+            e.printStackTrace();
+            return false;
+        }
+        finally
+        {
+            close(jedis);
+        }
+    }
+
+    /**
+     * Returns the names that start with the prefix, ignoring case, in alphabetical order.
+     *
+     * @param prefix the start of the names
+     * @param limit the maximum amount of names returned
+     * @return the names that start with the prefix, which is empty if the names could not be read
+     */
+    public List<String> search(String prefix, int limit)
+    {
+        Jedis jedis = null;
+        try
+        {
+            jedis = RedisManager.getSlaveConnection();
+
+            Set<byte[]> members = jedis.zrangeByLex(SafeEncoder.encode(NAMES_KEY), SafeEncoder.encode("[" + prefix.toLowerCase()),
+                    getUpperBound(prefix.toLowerCase()), 0, limit);
+            List<String> names = new ArrayList<>(members.size());
+            for (byte[] member : members)
+            {
+                String name = SafeEncoder.encode(member);
+                names.add(name.substring(name.indexOf(' ') + 1));
+            }
+            return names;
+        }
+        catch (Exception e)
+        {
+            System.out.println("[Redis-PlayerNames] FAILED to search for names starting with \'" + prefix + "\'");
+            e.printStackTrace();
+            return Collections.emptyList();
+        }
+        finally
+        {
+            close(jedis);
+        }
+    }
+
+    /**
+     * @return true if the set has been filled with the name of every player, or false if it has not or the marker
+     * could not be read
+     */
+    public boolean isLoaded()
+    {
+        Jedis jedis = null;
+        try
+        {
+            jedis = RedisManager.getMasterConnection();
+            return jedis.exists(LOADED_KEY);
+        }
+        catch (Exception e)
+        {
+            System.out.println("[Redis-PlayerNames] FAILED to check if the names are loaded");
+            e.printStackTrace();
+            return false;
+        }
+        finally
+        {
+            close(jedis);
+        }
+    }
+
+    /**
+     * Returns the inclusive upper bound of every member starting with the prefix, which is the prefix followed by the
+     * highest byte.
+     */
+    private byte[] getUpperBound(String prefix)
+    {
+        byte[] start = SafeEncoder.encode("[" + prefix);
+        byte[] bound = new byte[start.length + 1];
+        System.arraycopy(start, 0, bound, 0, start.length);
+        bound[start.length] = (byte) 0xFF;
+        return bound;
+    }
+
+    private String toMember(String name)
+    {
+        return name.toLowerCase() + " " + name;
+    }
+
+    private void close(Jedis jedis)
+    {
+        try
+        {
+            if (jedis != null)
+            {
+                jedis.close();
+            }
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+        }
+    }
+}
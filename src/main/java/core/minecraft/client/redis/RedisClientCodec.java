@@ -0,0 +1,40 @@
+package core.minecraft.client.redis;
+
+import core.redis.codec.BinaryRedisCodec;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * This is the compact binary {@link core.redis.codec.RedisCodec} for {@link RedisClient}s.
+ *
+ * @author Preston Brown
+ */
+public class RedisClientCodec extends BinaryRedisCodec<RedisClient> {
+
+    @Override
+    protected int getVersion()
+    {
+        return 1;
+    }
+
+    @Override
+    protected void write(RedisClient client, DataOutputStream output) throws IOException
+    {
+        writeString(client.getName(), output);
+        output.writeLong(client.getUUID().getMostSignificantBits());
+        output.writeLong(client.getUUID().getLeastSignificantBits());
+        writeString(client.getServer(), output);
+    }
+
+    @Override
+    protected RedisClient read(int version, DataInputStream input) throws IOException
+    {
+        String name = readString(input);
+        UUID uuid = new UUID(input.readLong(), input.readLong());
+        String server = readString(input);
+        return new RedisClient(name, uuid, server);
+    }
+}
@@ -1,19 +1,23 @@
 package core.minecraft.client.repository;
 
 import core.minecraft.client.ClientLoginProcessor;
+import core.minecraft.client.NameResolutionCache;
+import core.minecraft.client.data.Client;
+import core.minecraft.client.data.NameResolution;
 import core.minecraft.common.Rank;
 import core.minecraft.database.mysql.ConnectionPool;
 import core.minecraft.database.mysql.ResultSetCallable;
 import core.minecraft.database.mysql.MySQLRepositoryBase;
-import core.minecraft.database.mysql.Row;
+import core.minecraft.database.mysql.RowMapper;
 import core.minecraft.database.mysql.column.*;
 import org.bukkit.entity.Player;
 
+import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Predicate;
 
 /**
  * This repository is used to manage client data
@@ -23,74 +27,87 @@ import java.util.UUID;
 public class ClientSQLRepository extends MySQLRepositoryBase {
 
     private final String CREATE_CLIENTS_TABLE = "CREATE TABLE IF NOT EXISTS client.clients ( id INT NOT NULL AUTO_INCREMENT , name VARCHAR(16) NOT NULL , uuid VARCHAR(36) NOT NULL , rank VARCHAR(16) NULL DEFAULT NULL , purchasedRank VARCHAR(16) NULL DEFAULT NULL , lastLogin DATETIME NULL DEFAULT NULL , totalPlayTime BIGINT NOT NULL DEFAULT 0 , PRIMARY KEY (id) , UNIQUE (uuid)) ENGINE = InnoDB;";
-    private final String INSERT_NEW_LOGIN = "INSERT INTO clients(name, uuid, lastLogin) VALUES (?, ?, NOW());";
-    private final String UPDATE_LOGIN = "UPDATE clients SET name=?, lastLogin=NOW() WHERE uuid=?;";
+    private final String UPSERT_LOGIN = "INSERT INTO clients(name, uuid, lastLogin) VALUES (?, ?, NOW()) ON DUPLICATE KEY UPDATE name=VALUES(name), lastLogin=NOW();";
+    private final String SELECT_CLIENT = "SELECT id, rank, purchasedRank, lastLogin, totalPlayTime FROM clients WHERE uuid=?;";
+    private final String SELECT_MATCHING_NAMES = "SELECT name FROM clients WHERE name LIKE ? LIMIT 5000;";
+    private final String SELECT_NAMES = "SELECT name FROM clients;";
+    private final String SELECT_RESOLUTION_BY_NAME = "SELECT id, uuid FROM clients WHERE name=? ORDER BY lastLogin DESC LIMIT 1;";
+    private final String SELECT_ID_BY_UUID = "SELECT id FROM clients WHERE uuid=?;";
+    private final String SELECT_RANK = "SELECT rank FROM clients WHERE uuid=?;";
+    private final String SELECT_PURCHASED_RANK = "SELECT purchasedRank FROM clients WHERE uuid=?;";
     private final String UPDATE_RANK = "UPDATE clients SET rank=? WHERE uuid=?;";
     private final String UPDATE_PURCHASED_RANK = "UPDATE clients SET purchasedRank=? WHERE uuid=?;";
 
+    // Name searches can scan thousands of rows, so they use their own pool instead of holding a login connection,
+    // and read the names a batch at a time instead of all at once
+    private static final int MATCHING_NAMES_FETCH_SIZE = 500;
+    private static final int ALL_NAMES_FETCH_SIZE = 5000;
+    private DataSource _analyticsDataSource = ConnectionPool.getPool(ConnectionPool.ANALYTICS);
+
+    private NameResolutionCache _resolutionCache;
+
     /**
      * Generates a new ClientSQLRepository object
      */
     public ClientSQLRepository()
     {
-        super(ConnectionPool.CLIENT_POOL);
+        super(ConnectionPool.getPool(ConnectionPool.LOGIN));
         executeUpdate(CREATE_CLIENTS_TABLE, new Column[] {});
     }
 
     /**
-     * Completes all of the mysql processes the must be completed when a player logs in and returns
-     * a {@link Row} containing all of the data stored in the 'clients' table.
+     * Enables a {@link NameResolutionCache} in front of the lookups of players by name. The cache is kept up to date
+     * by every login, so it must be enabled before any player logs in.
+     *
+     * @param resolutionCache the cache used to resolve names
+     */
+    public void enableResolutionCache(NameResolutionCache resolutionCache)
+    {
+        _resolutionCache = resolutionCache;
+    }
+
+    /**
+     * Returns the {@link NameResolutionCache} used by this repository. If no cache has been enabled null is returned.
+     *
+     * @return the {@link NameResolutionCache} used by this repository, otherwise null
+     */
+    public NameResolutionCache getResolutionCache()
+    {
+        return _resolutionCache;
+    }
+
+    /**
+     * Records the login of the player and returns a {@link Client} containing all of the data stored in the 'clients'
+     * table. New players are inserted and existing players have their name and last login updated by a single
+     * upsert, and the row is then read on the same connection.
      *
      * @param name the name of the player that joined
      * @param playerUUID the uuid of the player that joined
-     * @return a {@link Row} containing all of the data in the 'clients' table
+     * @return a {@link Client} containing all of the data in the 'clients' table, or null if the login failed
      */
-    public Row playerLogin(String name, String playerUUID, HashMap<String, ClientLoginProcessor> loginProcesses)
+    public Client playerLogin(String name, String playerUUID)
     {
         Connection connection = null;
-        Statement loginStatement = null, playerDataStatement = null, statement = null;
-        ResultSet loginResults = null, playerDataResults = null;
-        PreparedStatement loginPS = null;
-        Row row = null;
+        PreparedStatement loginPS = null, playerDataPS = null;
+        ResultSet playerDataResults = null;
+        Client client = null;
         try
         {
             connection = _dataSource.getConnection();
-            String loginQuery = "SELECT id FROM clients WHERE uuid=\"" + playerUUID + "\";";
-            loginStatement = connection.createStatement();
-            loginResults = loginStatement.executeQuery(loginQuery);
-
-            if (!loginResults.next()) {
-                loginPS = connection.prepareStatement(INSERT_NEW_LOGIN);
-                loginPS.setString(1, name);
-                loginPS.setString(2, playerUUID);
-                loginPS.executeUpdate();
-            } else {
-                loginPS = connection.prepareStatement(UPDATE_LOGIN);
-                loginPS.setString(1, name);
-                loginPS.setString(2, playerUUID);
-                loginPS.executeUpdate();
-            }
+            loginPS = connection.prepareStatement(UPSERT_LOGIN);
+            loginPS.setString(1, name);
+            loginPS.setString(2, playerUUID);
+            loginPS.executeUpdate();
 
-            String playerDataQuery = "SELECT * FROM clients WHERE uuid=\"" + playerUUID + "\";";
-            playerDataStatement = connection.createStatement();
-            playerDataResults = playerDataStatement.executeQuery(playerDataQuery);
+            playerDataPS = connection.prepareStatement(SELECT_CLIENT);
+            playerDataPS.setString(1, playerUUID);
+            playerDataResults = playerDataPS.executeQuery();
             if (playerDataResults.next())
             {
-                row = new Row(new Column[]{
-                        new ColumnInt("id", playerDataResults.getInt("id")), new ColumnVarchar("rank", playerDataResults.getString("rank")),
-                        new ColumnVarchar("purchasedRank", playerDataResults.getString("purchasedRank")), new ColumnTimestamp("lastLogin", playerDataResults.getTimestamp("lastLogin")),
-                        new ColumnBigInt("totalPlayTime", playerDataResults.getLong("totalPlayTime"))
-                });
-            }
-
-            if (row != null)
-            {
-                for (ClientLoginProcessor loginProcess : loginProcesses.values())
+                client = clientMapper(name, playerUUID).map(playerDataResults);
+                if (_resolutionCache != null)
                 {
-                    statement = connection.createStatement();
-                    statement.execute(loginProcess.getQuery(name, playerUUID));
-                    loginProcess.processResultSet(statement.getResultSet());
-                    statement.close();
+                    _resolutionCache.login(name, new NameResolution(UUID.fromString(playerUUID), client.getClientID()));
                 }
             }
         }
@@ -100,25 +117,13 @@ public class ClientSQLRepository extends MySQLRepositoryBase {
         }
         finally
         {
-            if (loginResults != null)
-            {
-                try {loginResults.close();} catch (SQLException e) {e.printStackTrace();}
-            }
             if (playerDataResults != null)
             {
                 try {playerDataResults.close();} catch (SQLException e) {e.printStackTrace();}
             }
-            if (loginStatement != null)
-            {
-                try {loginStatement.close();} catch (SQLException e) {e.printStackTrace();}
-            }
-            if (playerDataStatement != null)
+            if (playerDataPS != null)
             {
-                try {playerDataStatement.close();} catch (SQLException e) {e.printStackTrace();}
-            }
-            if (statement != null)
-            {
-                try {statement.close();} catch (SQLException e) {e.printStackTrace();}
+                try {playerDataPS.close();} catch (SQLException e) {e.printStackTrace();}
             }
             if (loginPS != null)
             {
@@ -129,44 +134,62 @@ public class ClientSQLRepository extends MySQLRepositoryBase {
                 try {connection.close();} catch (SQLException e) {e.printStackTrace();}
             }
         }
-        return row;
+        return client;
     }
 
     /**
-     * Returns a list of player names that start with the given name. If there are no players that
-     * start with the given name an empty list of strings will be returned.
+     * Returns a {@link RowMapper} that creates the {@link Client} of the player from their row in the 'clients' table.
+     * Players without a rank have the rank they purchased, and players without a purchased rank have the default rank.
      *
-     * @param name the name that is being searched
-     * @return a list of names that start with the given name
+     * @param name the name of the player
+     * @param playerUUID the uuid of the player
+     * @return the {@link RowMapper} that creates the {@link Client} of the player
      */
-    public List<String> getMatchingPlayers(String name)
+    private RowMapper<Client> clientMapper(String name, String playerUUID)
+    {
+        return results -> {
+            Client client = new Client(name);
+            client.setClientID(results.getInt("id"));
+            client.setUUID(playerUUID);
+            client.setTotalPlayTime(results.getLong("totalPlayTime"));
+            client.setLastLogin(results.getTimestamp("lastLogin").getTime());
+
+            String rank = results.getString("rank");
+            String purchasedRank = results.getString("purchasedRank");
+            client.setPurchasedRank(purchasedRank == null ? Rank.DEFAULT : Rank.valueOf(purchasedRank));
+            client.setRank(rank == null ? client.getPurchasedRank() : Rank.valueOf(rank));
+            return client;
+        };
+    }
+
+    /**
+     * Runs the query of the {@link ClientLoginProcessor} for the player that joined on its own connection, so
+     * every login processor can be ran at the same time.
+     *
+     * @param loginProcess the {@link ClientLoginProcessor} being ran
+     * @param name the name of the player that joined
+     * @param playerUUID the uuid of the player that joined
+     * @return true if the query was ran and its results were processed, otherwise false
+     */
+    public boolean runLoginProcessor(ClientLoginProcessor loginProcess, String name, String playerUUID)
     {
         Connection connection = null;
         Statement statement = null;
-        ResultSet results = null;
-        ArrayList<String> matchingNames = new ArrayList<>();
         try
         {
             connection = _dataSource.getConnection();
-            String query = "SELECT name FROM clients WHERE name LIKE '" + name + "%' LIMIT 5000;";
             statement = connection.createStatement();
-            results = statement.executeQuery(query);
-
-            while (results.next())
-            {
-                matchingNames.add(results.getString(1));
-            }
+            statement.execute(loginProcess.getQuery(name, playerUUID));
+            loginProcess.processResultSet(statement.getResultSet());
+            return true;
         }
         catch (SQLException e)
         {
             e.printStackTrace();
+            return false;
         }
         finally
         {
-            if (results != null)
-            {
-                try {results.close();} catch (SQLException e) {e.printStackTrace();}
-            }
             if (statement != null)
             {
                 try {statement.close();} catch (SQLException e) {e.printStackTrace();}
@@ -176,53 +199,93 @@ public class ClientSQLRepository extends MySQLRepositoryBase {
                 try {connection.close();} catch (SQLException e) {e.printStackTrace();}
             }
         }
+    }
+
+    /**
+     * Returns a list of player names that start with the given name. If there are no players that
+     * start with the given name an empty list of strings will be returned.
+     *
+     * @param name the name that is being searched
+     * @return a list of names that start with the given name
+     */
+    public List<String> getMatchingPlayers(String name)
+    {
+        List<String> matchingNames = new ArrayList<>();
+        forEachMatchingPlayer(name, matchingNames::add);
         return matchingNames;
     }
 
     /**
-     * This will return the UUID that belongs to the player with the given name.
+     * Passes the name of every player that starts with the given name to the consumer as the names are read from
+     * MySQL, up to 5000 names. The consumer returns false once it does not need any more names.
      *
-     * @param name
-     * @return the UUID of the player with the given name. If no player exists with the given name null is returned.
+     * @param name the name that is being searched
+     * @param consumer receives every matching name, and returns false to stop the search
      */
-    public UUID getUUIDFromName(String name)
+    public void forEachMatchingPlayer(String name, Predicate<String> consumer)
     {
-        UUID uuid = null;
-        Connection connection = null;
-        Statement statement = null;
-        ResultSet results = null;
-        try
-        {
-            connection = _dataSource.getConnection();
-            String query = "SELECT uuid FROM clients WHERE name = '" + name + "' ORDER BY lastLogin DESC;";
-            statement = connection.createStatement();
-            results = statement.executeQuery(query);
+        streamQuery(_analyticsDataSource, SELECT_MATCHING_NAMES, MATCHING_NAMES_FETCH_SIZE, results -> results.getString(1), consumer,
+                new Column[] {new ColumnVarchar("name", escapeLike(name) + "%")});
+    }
 
-            if (results.next())
-            {
-                uuid = UUID.fromString(results.getString(1));
-            }
+    /**
+     * Passes the name of every player to the consumer as the names are read from MySQL. The consumer returns false
+     * once it does not need any more names.
+     *
+     * @param consumer receives every name, and returns false to stop reading names
+     * @return false if the query failed, otherwise true
+     */
+    public boolean forEachPlayerName(Predicate<String> consumer)
+    {
+        return streamQuery(_analyticsDataSource, SELECT_NAMES, ALL_NAMES_FETCH_SIZE, results -> results.getString(1), consumer, new Column[] {}) >= 0;
+    }
+
+    /**
+     * This will return the uuid and clientID that belong to the player with the given name. If a
+     * {@link NameResolutionCache} is enabled the name is resolved from the cache when possible, and the result of
+     * the query is cached, including names that do not belong to any player.
+     *
+     * @param name the name of the player
+     * @return the resolution of the name, {@link NameResolution#MISSING} if no player exists with the given name,
+     * or null if the query failed
+     */
+    public NameResolution resolveName(String name)
+    {
+        // Read before the lookup so a login of the name while the query runs stops the result from being cached
+        long generation = _resolutionCache == null ? 0L : _resolutionCache.getGeneration(name);
+        NameResolution resolution = _resolutionCache == null ? null : _resolutionCache.get(name);
+        if (resolution != null)
+        {
+            return resolution;
         }
-        catch (SQLException e)
+
+        List<NameResolution> rows = new ArrayList<>(1);
+        int read = streamQuery(_dataSource, SELECT_RESOLUTION_BY_NAME, 0, results -> new NameResolution(UUID.fromString(results.getString("uuid")), results.getInt("id")),
+                rows::add, new Column[] {new ColumnVarchar("name", name)});
+        if (read < 0)
         {
-            e.printStackTrace();
+            return null;
         }
-        finally
+
+        // A failed query is never cached, otherwise the player would look like they do not exist until it expired
+        resolution = rows.isEmpty() ? NameResolution.MISSING : rows.get(0);
+        if (_resolutionCache != null)
         {
-            if (results != null)
-            {
-                try {results.close();} catch (SQLException e) {e.printStackTrace();}
-            }
-            if (statement != null)
-            {
-                try {statement.close();} catch (SQLException e) {e.printStackTrace();}
-            }
-            if (connection != null)
-            {
-                try {connection.close();} catch (SQLException e) {e.printStackTrace();}
-            }
+            _resolutionCache.put(name, resolution, generation);
         }
-        return uuid;
+        return resolution;
+    }
+
+    /**
+     * This will return the UUID that belongs to the player with the given name.
+     *
+     * @param name the name of the player
+     * @return the UUID of the player with the given name. If no player exists with the given name null is returned.
+     */
+    public UUID getUUIDFromName(String name)
+    {
+        NameResolution resolution = resolveName(name);
+        return resolution == null ? null : resolution.getUUID();
     }
 
     /**
@@ -233,42 +296,8 @@ public class ClientSQLRepository extends MySQLRepositoryBase {
      */
     public int getClientIdFromName(String name)
     {
-        int clientID = -1;
-        Connection connection = null;
-        Statement statement = null;
-        ResultSet results = null;
-        try
-        {
-            connection = _dataSource.getConnection();
-            String query = "SELECT id FROM clients WHERE name = '" + name + "' ORDER BY lastLogin DESC;";
-            statement = connection.createStatement();
-            results = statement.executeQuery(query);
-
-            if (results.next())
-            {
-                clientID = results.getInt(1);
-            }
-        }
-        catch (SQLException e)
-        {
-            e.printStackTrace();
-        }
-        finally
-        {
-            if (results != null)
-            {
-                try {results.close();} catch (SQLException e) {e.printStackTrace();}
-            }
-            if (statement != null)
-            {
-                try {statement.close();} catch (SQLException e) {e.printStackTrace();}
-            }
-            if (connection != null)
-            {
-                try {connection.close();} catch (SQLException e) {e.printStackTrace();}
-            }
-        }
-        return clientID;
+        NameResolution resolution = resolveName(name);
+        return resolution == null ? -1 : resolution.getClientID();
     }
 
     /**
@@ -279,42 +308,8 @@ public class ClientSQLRepository extends MySQLRepositoryBase {
      */
     public int getClientIdFromUUID(UUID uuid)
     {
-        int clientID = -1;
-        Connection connection = null;
-        Statement statement = null;
-        ResultSet results = null;
-        try
-        {
-            connection = _dataSource.getConnection();
-            String query = "SELECT id FROM clients WHERE uuid = '" + uuid.toString() + "' ORDER BY lastLogin DESC;";
-            statement = connection.createStatement();
-            results = statement.executeQuery(query);
-
-            if (results.next())
-            {
-                clientID = results.getInt(1);
-            }
-        }
-        catch (SQLException e)
-        {
-            e.printStackTrace();
-        }
-        finally
-        {
-            if (results != null)
-            {
-                try {results.close();} catch (SQLException e) {e.printStackTrace();}
-            }
-            if (statement != null)
-            {
-                try {statement.close();} catch (SQLException e) {e.printStackTrace();}
-            }
-            if (connection != null)
-            {
-                try {connection.close();} catch (SQLException e) {e.printStackTrace();}
-            }
-        }
-        return clientID;
+        Integer clientID = queryFirst(SELECT_ID_BY_UUID, results -> results.getInt(1), new Column[] {new ColumnVarchar("uuid", uuid.toString())});
+        return clientID == null ? -1 : clientID;
     }
 
     /**
@@ -330,18 +325,18 @@ public class ClientSQLRepository extends MySQLRepositoryBase {
         executeUpdate(UPDATE_RANK, new Column[] {new ColumnVarchar("rank", rank.toString()), new ColumnVarchar("uuid", uuid)});
 
         // Ensure that the rank was updated
-        String query = "SELECT rank FROM clients WHERE uuid = '" + uuid + "';";
         boolean updated = false;
         Connection connection = null;
-        Statement statement = null;
+        PreparedStatement statement = null;
         ResultSet results = null;
         try
         {
             connection = _dataSource.getConnection();
-            statement = connection.createStatement();
-            results = statement.executeQuery(query);
+            statement = connection.prepareStatement(SELECT_RANK);
+            statement.setString(1, uuid);
+            results = statement.executeQuery();
 
-            if (results.next() && rank == Rank.valueOf(results.getString(1)));
+            if (results.next() && results.getString(1) != null && rank == Rank.valueOf(results.getString(1)))
             {
                 updated = true;
             }
@@ -381,18 +376,18 @@ public class ClientSQLRepository extends MySQLRepositoryBase {
         executeUpdate(UPDATE_PURCHASED_RANK, new Column[] {new ColumnVarchar("purchasedRank", rank.toString()), new ColumnVarchar("uuid", uuid)});
 
         // Ensure that the rank was updated
-        String query = "SELECT purchasedRank FROM clients WHERE uuid = '" + uuid + "';";
         boolean updated = false;
         Connection connection = null;
-        Statement statement = null;
+        PreparedStatement statement = null;
         ResultSet results = null;
         try
         {
             connection = _dataSource.getConnection();
-            statement = connection.createStatement();
-            results = statement.executeQuery(query);
+            statement = connection.prepareStatement(SELECT_PURCHASED_RANK);
+            statement.setString(1, uuid);
+            results = statement.executeQuery();
 
-            if (results.next() && rank == Rank.valueOf(results.getString(1)));
+            if (results.next() && results.getString(1) != null && rank == Rank.valueOf(results.getString(1)))
             {
                 updated = true;
             }
@@ -418,4 +413,16 @@ public class ClientSQLRepository extends MySQLRepositoryBase {
         }
         return updated;
     }
+
+    /**
+     * Escapes the wildcards in the text so it only matches itself in a LIKE pattern. Underscores are common in
+     * player names, so they would otherwise match any character.
+     *
+     * @param text the text being escaped
+     * @return the escaped text
+     */
+    private static String escapeLike(String text)
+    {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
 }
@@ -66,6 +66,7 @@ public class CombatLog {
             {
                 combatInstance = cI;
                 _damagerList.remove(cI);
+                break;
             }
         }
         // Creates a new CombatInstance if
@@ -4,6 +4,7 @@ import core.minecraft.chat.command.HelpCommand;
 import core.minecraft.client.ClientManager;
 import core.minecraft.common.F;
 import core.minecraft.common.Rank;
+import core.minecraft.metrics.MetricsRegistry;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
@@ -61,7 +62,10 @@ public class CommandManager implements Listener {
                     return;
                 }
 
-                _commands.get(label).execute(event.getPlayer(), args);
+                // Records how long every command takes in the command.<name> latency histogram
+                long startTime = System.nanoTime();
+                command.execute(event.getPlayer(), args);
+                MetricsRegistry.getInstance().recordTime("command." + command.getName().toLowerCase(), startTime);
                 return;
             }
         }
@@ -9,7 +9,11 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Manages all of the cooldowns happening on the server.
@@ -94,14 +98,24 @@ public class Cooldown implements Listener {
             return;
         }
 
-        for (String key : _cooldownMap.keySet())
+        // Completed cooldowns are removed before their events are called, since handlers may create new cooldowns
+        long now = System.currentTimeMillis();
+        List<String> completed = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> iterator = _cooldownMap.entrySet().iterator();
+        while (iterator.hasNext())
         {
-            if (_cooldownMap.get(key) <= System.currentTimeMillis())
+            Map.Entry<String, Long> cooldown = iterator.next();
+            if (cooldown.getValue() <= now)
             {
-                _cooldownMap.remove(key);
-                CooldownCompletedEvent cooldownEvent = new CooldownCompletedEvent(key);
-                Bukkit.getPluginManager().callEvent(cooldownEvent);
+                iterator.remove();
+                completed.add(cooldown.getKey());
             }
         }
+
+        for (String key : completed)
+        {
+            CooldownCompletedEvent cooldownEvent = new CooldownCompletedEvent(key);
+            Bukkit.getPluginManager().callEvent(cooldownEvent);
+        }
     }
 }
@@ -110,7 +110,15 @@ public class DamageManager extends Component implements Listener {
                                                Location knockbackOrigin, boolean ignoreArmor, boolean ignoreRate, boolean knockback)
     {
         CustomDamageEvent event = new CustomDamageEvent(damager, damagee, projectile, damageCause, initialDamage, initialSource, initialReason, knockbackOrigin, ignoreArmor, ignoreRate, knockback);
+
+        // Records how long every stage of the damage pipeline took together
+        long startTime = System.nanoTime();
         Bukkit.getPluginManager().callEvent(event);
+        recordTime("pipeline", startTime);
+        if (event.isCancelled())
+        {
+            getCounter("cancelled").increment();
+        }
     }
 
     /**
@@ -332,10 +340,20 @@ public class DamageManager extends Component implements Listener {
     }
 
     /**
-     * Applies the damage in the CustomDamageEvent.
+     * Applies the damage in the CustomDamageEvent and records how long it took.
      */
     @EventHandler(priority = EventPriority.MONITOR)
     public void handleDamage(CustomDamageEvent event)
+    {
+        long startTime = System.nanoTime();
+        applyCustomDamage(event);
+        recordTime("apply", startTime);
+    }
+
+    /**
+     * Applies the damage in the CustomDamageEvent.
+     */
+    private void applyCustomDamage(CustomDamageEvent event)
     {
         if (event.isCancelled())
         {
@@ -1,44 +1,176 @@
 package core.minecraft.database.mysql;
 
 import org.apache.commons.dbcp2.BasicDataSource;
+import org.apache.commons.pool2.impl.GenericObjectPool;
 
 import javax.sql.DataSource;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.TreeMap;
 
 /**
- * Stores and initializes the mysql connection pools
+ * Stores and initializes the mysql connection pools. Every workload has its own named pool so a burst of one kind of
+ * work, such as background writes, can never take the connections another kind needs, such as logins.
+ *
+ * <p>Every line in mysql.dat is one of the following:</p>
+ * <ul>
+ *     <li>{@code HOST <host:port>}</li>
+ *     <li>{@code USERNAME <username>}</li>
+ *     <li>{@code PASSWORD <password>}</li>
+ *     <li>{@code POOL <name> [option=value]...}, see {@link MySQLPoolConfig} for the options</li>
+ * </ul>
+ * <p>A mysql.dat containing only the host, username and password on the first three lines is still supported.</p>
  *
  * @author Preston Brown
  */
 public class ConnectionPool {
 
-    public static final DataSource CLIENT_POOL = generateDataSource("client");
+    /**
+     * The pool used to load and save clients while they log in.
+     */
+    public static final String LOGIN = "login";
+
+    /**
+     * The pool used for currencies, transactions and inventories.
+     */
+    public static final String ECONOMY = "economy";
+
+    /**
+     * The pool used for large scans and reports that may hold a connection for a long time.
+     */
+    public static final String ANALYTICS = "analytics";
+
+    /**
+     * The amount of login threads the pools are sized for until {@link #setLoginThreads(int)} is called, which is the
+     * default of clientmanager.login.threads.
+     */
+    public static final int DEFAULT_LOGIN_THREADS = 4;
 
-    private static DataSource generateDataSource(String database)
+    private static int _loginThreads = DEFAULT_LOGIN_THREADS;
+    private static String _host;
+    private static String _username;
+    private static String _password;
+    private static Map<String, Map<String, String>> _poolOptions;
+    private static Map<String, MonitoredDataSource> _pools = new TreeMap<>();
+
+    /**
+     * Returns the pool with the given name, creating it the first time it is requested.
+     *
+     * @param name the name of the pool, such as {@link #LOGIN}
+     * @return the {@link DataSource} of the pool
+     */
+    public static synchronized DataSource getPool(String name)
     {
-        List<String> loginInfo = readConfig();
+        MonitoredDataSource dataSource = _pools.get(name);
+        if (dataSource == null)
+        {
+            if (_poolOptions == null)
+            {
+                readConfig();
+            }
+            dataSource = generateDataSource(new MySQLPoolConfig(name, _poolOptions.getOrDefault(name, new HashMap<>())));
+            _pools.put(name, dataSource);
+        }
+        return dataSource;
+    }
 
-        BasicDataSource dataSource = new BasicDataSource();
-        dataSource.setUrl("jdbc:mysql://" + loginInfo.get(0) + "/" + database);
-        dataSource.setUsername(loginInfo.get(1));
-        dataSource.setPassword(loginInfo.get(2));
+    /**
+     * Sets the amount of threads that load clients while they log in. The {@link #ECONOMY} pool is sized from this,
+     * so it must be set before that pool is first requested.
+     *
+     * @param loginThreads the value of clientmanager.login.threads
+     */
+    public static synchronized void setLoginThreads(int loginThreads)
+    {
+        if (_pools.containsKey(ECONOMY))
+        {
+            System.out.println("The login threads were set after the " + ECONOMY + " pool was created, so it is still sized for " + _loginThreads);
+        }
+        _loginThreads = loginThreads;
+    }
+
+    /**
+     * @return the amount of threads that load clients while they log in
+     */
+    public static synchronized int getLoginThreads()
+    {
+        return _loginThreads;
+    }
+
+    /**
+     * Returns a snapshot of the usage of every pool that has been created.
+     *
+     * @return the usage of every pool sorted by name
+     */
+    public static synchronized List<MySQLPoolMetrics> getPoolMetrics()
+    {
+        List<MySQLPoolMetrics> metrics = new ArrayList<>();
+        for (Map.Entry<String, MonitoredDataSource> pool : _pools.entrySet())
+        {
+            metrics.add(pool.getValue().getMetrics(pool.getKey()));
+        }
+        return metrics;
+    }
+
+    private static MonitoredDataSource generateDataSource(MySQLPoolConfig config)
+    {
+        MonitoredDataSource dataSource = new MonitoredDataSource();
+        dataSource.setUrl("jdbc:mysql://" + _host + "/" + config.getDatabase());
+        dataSource.setUsername(_username);
+        dataSource.setPassword(_password);
         dataSource.setDriverClassName("com.mysql.jdbc.Driver");
-        dataSource.setMaxTotal(8);
-        dataSource.setMaxIdle(8);
+        dataSource.setMaxTotal(config.getMaxTotal());
+        dataSource.setMaxIdle(config.getMaxTotal());
+        dataSource.setMinIdle(config.getMinIdle());
+        dataSource.setInitialSize(config.getMinIdle());
+        dataSource.setMaxWaitMillis(config.getMaxWait());
+        dataSource.setDefaultQueryTimeout(config.getQueryTimeout());
         dataSource.setSoftMinEvictableIdleTimeMillis(300000L);
 
+        // Connections the server has closed are replaced before they are handed out instead of failing a query
+        dataSource.setValidationQuery("/* ping */ SELECT 1");
+        dataSource.setValidationQueryTimeout(config.getValidationTimeout());
+        dataSource.setTestOnBorrow(true);
+        dataSource.setTestWhileIdle(true);
+        dataSource.setTimeBetweenEvictionRunsMillis(30000L);
+
+        // Connections that are never closed are logged with the stack trace that borrowed them, and reclaimed
+        if (config.getLeakTimeout() > 0)
+        {
+            dataSource.setRemoveAbandonedOnMaintenance(true);
+            dataSource.setRemoveAbandonedTimeout(config.getLeakTimeout());
+            dataSource.setLogAbandoned(true);
+        }
+
+        // Caches the prepared statements of every pooled connection, and has MySQL prepare them on the server so
+        // a cached statement only sends its parameters
+        dataSource.setPoolPreparedStatements(true);
+        dataSource.setMaxOpenPreparedStatements(64);
+        dataSource.addConnectionProperty("useServerPrepStmts", "true");
+
+        // Lets a query with a fetch size read its rows through a server-side cursor a few at a time
+        dataSource.addConnectionProperty("useCursorFetch", "true");
+
+        // Sends a batch of inserts as one multi-row insert instead of a round trip for every row
+        dataSource.addConnectionProperty("rewriteBatchedStatements", "true");
+
         return dataSource;
     }
 
-    private static List<String> readConfig()
+    /**
+     * Reads mysql.dat, which may either be keyword lines or the host, username and password on the first three lines.
+     */
+    private static void readConfig()
     {
         File file = new File("mysql.dat");
         Scanner scanner = null;
         ArrayList<String> lines = new ArrayList<>();
+        _poolOptions = new HashMap<>();
 
         try
         {
@@ -60,6 +192,69 @@ public class ConnectionPool {
             }
         }
 
-        return lines;
+        if (!lines.isEmpty() && !lines.get(0).contains(" "))
+        {
+            _host = lines.get(0);
+            _username = lines.size() > 1 ? lines.get(1) : null;
+            _password = lines.size() > 2 ? lines.get(2) : null;
+            return;
+        }
+
+        for (String line : lines)
+        {
+            String[] args = line.trim().split(" ");
+            if (args.length >= 2 && args[0].equalsIgnoreCase("HOST"))
+            {
+                _host = args[1];
+            }
+            else if (args.length >= 2 && args[0].equalsIgnoreCase("USERNAME"))
+            {
+                _username = args[1];
+            }
+            else if (args[0].equalsIgnoreCase("PASSWORD"))
+            {
+                // The password is the rest of the line so it may contain spaces
+                _password = line.trim().length() > 9 ? line.trim().substring(9) : "";
+            }
+            else if (args.length >= 2 && args[0].equalsIgnoreCase("POOL"))
+            {
+                Map<String, String> options = new HashMap<>();
+                for (int i = 2; i < args.length; i++)
+                {
+                    String[] option = args[i].split("=", 2);
+                    if (option.length == 2)
+                    {
+                        options.put(option[0].toLowerCase(), option[1]);
+                    }
+                    else
+                    {
+                        System.out.println("Invalid option \"" + args[i] + "\" for pool " + args[1] + " in mysql.dat");
+                    }
+                }
+                _poolOptions.put(args[1].toLowerCase(), options);
+            }
+            else if (!line.trim().isEmpty())
+            {
+                System.out.println("Failed to read line \"" + line + "\" in mysql.dat");
+            }
+        }
+    }
+
+    /**
+     * A {@link BasicDataSource} that exposes the borrow statistics of its underlying pool.
+     */
+    private static class MonitoredDataSource extends BasicDataSource {
+
+        private MySQLPoolMetrics getMetrics(String name)
+        {
+            // The underlying pool is only created when the first connection is borrowed
+            GenericObjectPool<?> pool = getConnectionPool();
+            if (pool == null)
+            {
+                return new MySQLPoolMetrics(name, getMaxTotal(), 0, 0, 0, 0L, 0L);
+            }
+            return new MySQLPoolMetrics(name, getMaxTotal(), pool.getNumActive(), pool.getNumIdle(), pool.getNumWaiters(),
+                    pool.getMeanBorrowWaitTimeMillis(), pool.getMaxBorrowWaitTimeMillis());
+        }
     }
 }
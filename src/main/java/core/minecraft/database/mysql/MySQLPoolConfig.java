@@ -0,0 +1,181 @@
+package core.minecraft.database.mysql;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Stores the settings for one of the named MySQL connection pools in the {@link ConnectionPool}.
+ *
+ * <p>The pool can be tuned by adding a line such as {@code POOL login maxTotal=12 minIdle=4 maxWait=1500} to
+ * mysql.dat. Every option that is not given keeps the default of the pool.</p>
+ * <ul>
+ *     <li>{@code database} the database the pool connects to, defaults to client</li>
+ *     <li>{@code maxTotal} the maximum amount of connections. The economy pool defaults to twice the
+ *     clientmanager.login.threads, and should never be set below that</li>
+ *     <li>{@code minIdle} the amount of connections kept open while the pool is idle</li>
+ *     <li>{@code maxWait} the time in milliseconds a borrow waits for a free connection before it fails</li>
+ *     <li>{@code queryTimeout} the time in seconds a statement may run before it is cancelled, defaults to 10</li>
+ *     <li>{@code validationTimeout} the time in seconds a connection has to answer its validation query, defaults to 2</li>
+ *     <li>{@code leakTimeout} the time in seconds a connection may be borrowed before it is logged and reclaimed as a
+ *     leak, defaults to 60, or 0 to disable leak detection</li>
+ * </ul>
+ *
+ * @author Preston Brown
+ */
+public class MySQLPoolConfig {
+
+    private String _name;
+    private String _database;
+    private int _maxTotal;
+    private int _minIdle;
+    private long _maxWait;
+    private int _queryTimeout;
+    private int _validationTimeout;
+    private int _leakTimeout;
+
+    /**
+     * Creates a new instance of {@link MySQLPoolConfig} with the defaults of the named pool.
+     *
+     * @param name the name of the pool
+     */
+    public MySQLPoolConfig(String name)
+    {
+        this(name, Collections.<String, String>emptyMap());
+    }
+
+    /**
+     * Creates a new instance of {@link MySQLPoolConfig} with the defaults of the named pool and the given options.
+     *
+     * @param name the name of the pool
+     * @param options the pool options, mapped from the lowercase option name to its value
+     */
+    public MySQLPoolConfig(String name, Map<String, String> options)
+    {
+        _name = name;
+
+        // Logins must never wait behind other work, so their pool is the largest and gives up the soonest
+        int maxTotal = 4, minIdle = 1, maxWait = 5000;
+        if (name.equals(ConnectionPool.LOGIN))
+        {
+            maxTotal = 8;
+            minIdle = 2;
+            maxWait = 2000;
+        }
+        else if (name.equals(ConnectionPool.ANALYTICS))
+        {
+            maxTotal = 2;
+            minIdle = 0;
+            maxWait = 10000;
+        }
+        else if (name.equals(ConnectionPool.ECONOMY))
+        {
+            // Every login thread loads currencies and inventories from this pool, so it is sized from
+            // clientmanager.login.threads with room left over for the transactions made in game
+            maxTotal = Math.max(maxTotal, 2 * ConnectionPool.getLoginThreads());
+        }
+
+        _database = options.getOrDefault("database", "client");
+        _maxTotal = getInt(options, "maxtotal", maxTotal);
+        _minIdle = getInt(options, "minidle", minIdle);
+        _maxWait = getInt(options, "maxwait", maxWait);
+        _queryTimeout = getInt(options, "querytimeout", 10);
+        _validationTimeout = getInt(options, "validationtimeout", 2);
+        _leakTimeout = getInt(options, "leaktimeout", 60);
+
+        if (name.equals(ConnectionPool.ECONOMY) && _maxTotal < 2 * ConnectionPool.getLoginThreads())
+        {
+            System.out.println("maxTotal=" + _maxTotal + " of pool " + _name + " in mysql.dat is less than twice the "
+                    + ConnectionPool.getLoginThreads() + " login threads, so logins may wait for connections");
+        }
+    }
+
+    /**
+     * Returns the integer value of the given option. If the option is missing or is not a number the default is returned.
+     *
+     * @param options the pool options
+     * @param name the lowercase name of the option
+     * @param defaultValue the value used if the option is missing
+     * @return the integer value of the given option
+     */
+    private int getInt(Map<String, String> options, String name, int defaultValue)
+    {
+        String value = options.get(name);
+        if (value == null)
+        {
+            return defaultValue;
+        }
+        try
+        {
+            return Integer.parseInt(value);
+        }
+        catch (NumberFormatException e)
+        {
+            System.out.println("Invalid value \"" + value + "\" for " + name + " of pool " + _name + " in mysql.dat, using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * @return the name of the pool
+     */
+    public String getName()
+    {
+        return _name;
+    }
+
+    /**
+     * @return the database the pool connects to
+     */
+    public String getDatabase()
+    {
+        return _database;
+    }
+
+    /**
+     * @return the maximum amount of connections
+     */
+    public int getMaxTotal()
+    {
+        return _maxTotal;
+    }
+
+    /**
+     * @return the amount of connections kept open while the pool is idle
+     */
+    public int getMinIdle()
+    {
+        return _minIdle;
+    }
+
+    /**
+     * @return the time in milliseconds a borrow waits for a free connection
+     */
+    public long getMaxWait()
+    {
+        return _maxWait;
+    }
+
+    /**
+     * @return the time in seconds a statement may run before it is cancelled
+     */
+    public int getQueryTimeout()
+    {
+        return _queryTimeout;
+    }
+
+    /**
+     * @return the time in seconds a connection has to answer its validation query
+     */
+    public int getValidationTimeout()
+    {
+        return _validationTimeout;
+    }
+
+    /**
+     * @return the time in seconds a connection may be borrowed before it is reclaimed, or 0 if leaks are not detected
+     */
+    public int getLeakTimeout()
+    {
+        return _leakTimeout;
+    }
+}
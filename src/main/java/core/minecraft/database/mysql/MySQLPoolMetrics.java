@@ -0,0 +1,103 @@
+package core.minecraft.database.mysql;
+
+/**
+ * This is a snapshot of the usage of a single MySQL connection pool. It should be used to size the pools configured
+ * in mysql.dat, if there are often waiters or the borrow wait time is high the pool is too small.
+ *
+ * @author Preston Brown
+ */
+public class MySQLPoolMetrics {
+
+    private String _name;
+    private int _maxTotal;
+    private int _active;
+    private int _idle;
+    private int _waiters;
+    private long _meanBorrowWait;
+    private long _maxBorrowWait;
+
+    /**
+     * Creates a new snapshot of the given pool.
+     *
+     * @param name the name of the pool, such as login
+     * @param maxTotal the maximum amount of connections in the pool
+     * @param active the amount of connections currently borrowed from the pool
+     * @param idle the amount of connections currently idle in the pool
+     * @param waiters the amount of threads currently waiting for a connection
+     * @param meanBorrowWait the mean time in milliseconds a borrow waited for a connection
+     * @param maxBorrowWait the longest time in milliseconds a borrow waited for a connection
+     */
+    public MySQLPoolMetrics(String name, int maxTotal, int active, int idle, int waiters, long meanBorrowWait, long maxBorrowWait)
+    {
+        _name = name;
+        _maxTotal = maxTotal;
+        _active = active;
+        _idle = idle;
+        _waiters = waiters;
+        _meanBorrowWait = meanBorrowWait;
+        _maxBorrowWait = maxBorrowWait;
+    }
+
+    /**
+     * @return the name of the pool
+     */
+    public String getName()
+    {
+        return _name;
+    }
+
+    /**
+     * @return the maximum amount of connections in the pool
+     */
+    public int getMaxTotal()
+    {
+        return _maxTotal;
+    }
+
+    /**
+     * @return the amount of connections currently borrowed from the pool
+     */
+    public int getActive()
+    {
+        return _active;
+    }
+
+    /**
+     * @return the amount of connections currently idle in the pool
+     */
+    public int getIdle()
+    {
+        return _idle;
+    }
+
+    /**
+     * @return the amount of threads currently waiting for a connection
+     */
+    public int getWaiters()
+    {
+        return _waiters;
+    }
+
+    /**
+     * @return the mean time in milliseconds a borrow waited for a connection
+     */
+    public long getMeanBorrowWait()
+    {
+        return _meanBorrowWait;
+    }
+
+    /**
+     * @return the longest time in milliseconds a borrow waited for a connection
+     */
+    public long getMaxBorrowWait()
+    {
+        return _maxBorrowWait;
+    }
+
+    @Override
+    public String toString()
+    {
+        return _name + " active=" + _active + "/" + _maxTotal + " idle=" + _idle + " waiters=" + _waiters
+                + " borrowWait(mean=" + _meanBorrowWait + "ms, max=" + _maxBorrowWait + "ms)";
+    }
+}
@@ -1,9 +1,15 @@
 package core.minecraft.database.mysql;
 
+import core.minecraft.common.Callback;
 import core.minecraft.database.mysql.column.Column;
+import core.minecraft.metrics.MetricsRegistry;
 
 import javax.sql.DataSource;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BinaryOperator;
+import java.util.function.Predicate;
 
 /**
  * This is a base for any {@link core.minecraft.Component} that uses a MySQL repository.
@@ -12,8 +18,18 @@ import java.sql.*;
  */
 public abstract class MySQLRepositoryBase {
 
+    // The write-behind queue is flushed once it holds this many updates, or once this many milliseconds have passed
+    private static final int WRITE_BEHIND_BATCH_SIZE = 256;
+    private static final long WRITE_BEHIND_FLUSH_INTERVAL = 1000L;
+
     protected DataSource _dataSource;
 
+    // The prefix of the metrics of this repository, such as mysql.clientsqlrepository
+    private String _metricName;
+
+    // Created the first time an update is queued, so repositories that never queue updates have no flushing thread
+    private WriteBehindQueue _writeBehindQueue;
+
     /**
      * Creates a new MySQLRepositoryBase with connections from the given {@link DataSource}.
      *
@@ -22,6 +38,7 @@ public abstract class MySQLRepositoryBase {
     public MySQLRepositoryBase(DataSource dataSource)
     {
         _dataSource = dataSource;
+        _metricName = "mysql." + getClass().getSimpleName().toLowerCase();
     }
 
     /**
@@ -48,6 +65,7 @@ public abstract class MySQLRepositoryBase {
         int affectedRows = 0;
         Connection connection = null; //getConnection();
         PreparedStatement preparedStatement = null;
+        long startTime = System.nanoTime();
         try
         {
             connection = _dataSource.getConnection();
@@ -62,9 +80,11 @@ public abstract class MySQLRepositoryBase {
             {
                 callable.call(preparedStatement.getGeneratedKeys());
             }
+            MetricsRegistry.getInstance().recordTime(_metricName + ".update", startTime);
         }
         catch (SQLException e)
         {
+            MetricsRegistry.getInstance().counter(_metricName + ".failures").increment();
             e.printStackTrace();
         }
         finally
@@ -170,6 +190,7 @@ public abstract class MySQLRepositoryBase {
     protected void executeQuery(PreparedStatement preparedStatement, ResultSetCallable callable, Column[] columns)
     {
         ResultSet resultSet = null;
+        long startTime = System.nanoTime();
         try
         {
             for(int i = 0; i < columns.length; i++)
@@ -182,9 +203,11 @@ public abstract class MySQLRepositoryBase {
             {
                 callable.call(resultSet);
             }
+            MetricsRegistry.getInstance().recordTime(_metricName + ".query", startTime);
         }
         catch (SQLException e)
         {
+            MetricsRegistry.getInstance().counter(_metricName + ".failures").increment();
             e.printStackTrace();
         }
         finally
@@ -201,4 +224,169 @@ public abstract class MySQLRepositoryBase {
             }
         }
     }
+
+    /**
+     * Runs the query and maps the first row with the {@link RowMapper}.
+     * If there are any values that must be replaced in the prepared statement they must be
+     * entered in chronological order within the columns parameter.
+     *
+     * @param query the query that will be ran
+     * @param mapper maps the row to the returned object
+     * @param columns the values of the prepared statement
+     * @return the first row mapped by the {@link RowMapper}, or null if there were no rows or the query failed
+     */
+    protected <T> T queryFirst(String query, RowMapper<T> mapper, Column[] columns)
+    {
+        List<T> first = new ArrayList<>(1);
+        streamQuery(_dataSource, query, 0, mapper, row -> {
+            first.add(row);
+            return false;
+        }, columns);
+        return first.isEmpty() ? null : first.get(0);
+    }
+
+    /**
+     * Runs the query and maps every row with the {@link RowMapper}.
+     * If there are any values that must be replaced in the prepared statement they must be
+     * entered in chronological order within the columns parameter.
+     *
+     * @param query the query that will be ran
+     * @param mapper maps every row to an element of the list
+     * @param columns the values of the prepared statement
+     * @return every row mapped by the {@link RowMapper}, which is empty if the query failed
+     */
+    protected <T> List<T> queryList(String query, RowMapper<T> mapper, Column[] columns)
+    {
+        List<T> rows = new ArrayList<>();
+        streamQuery(_dataSource, query, 0, mapper, rows::add, columns);
+        return rows;
+    }
+
+    /**
+     * Runs the query and passes every row to the consumer as soon as it has been mapped, so the whole result never
+     * has to be held in memory. The rows are fetched from MySQL fetchSize at a time through a server-side cursor,
+     * or all at once if the fetch size is 0. The consumer returns false to stop reading any more rows.
+     * If there are any values that must be replaced in the prepared statement they must be
+     * entered in chronological order within the columns parameter.
+     *
+     * @param dataSource the {@link DataSource} the connection is taken from
+     * @param query the query that will be ran
+     * @param fetchSize the amount of rows fetched from MySQL at a time, or 0 to fetch every row at once
+     * @param mapper maps every row before it is passed to the consumer
+     * @param consumer receives every mapped row, and returns false to stop reading rows
+     * @param columns the values of the prepared statement
+     * @return the amount of rows passed to the consumer, or -1 if the query failed
+     */
+    protected <T> int streamQuery(DataSource dataSource, String query, int fetchSize, RowMapper<T> mapper, Predicate<T> consumer, Column[] columns)
+    {
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        int rows = 0;
+        long startTime = System.nanoTime();
+        try
+        {
+            connection = dataSource.getConnection();
+            preparedStatement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            preparedStatement.setFetchSize(fetchSize);
+            for (int i = 0; i < columns.length; i++)
+            {
+                columns[i].updatePreparedStatement(preparedStatement, i + 1);
+            }
+
+            resultSet = preparedStatement.executeQuery();
+            while (resultSet.next())
+            {
+                rows++;
+                if (!consumer.test(mapper.map(resultSet)))
+                {
+                    break;
+                }
+            }
+            MetricsRegistry.getInstance().recordTime(_metricName + ".query", startTime);
+        }
+        catch (SQLException e)
+        {
+            MetricsRegistry.getInstance().counter(_metricName + ".failures").increment();
+            e.printStackTrace();
+            rows = -1;
+        }
+        finally
+        {
+            if (resultSet != null)
+            {
+                try {resultSet.close();} catch (SQLException e) {e.printStackTrace();}
+            }
+            if (preparedStatement != null)
+            {
+                try {preparedStatement.close();} catch (SQLException e) {e.printStackTrace();}
+            }
+            if (connection != null)
+            {
+                try {connection.close();} catch (SQLException e) {e.printStackTrace();}
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Queues an update to be written in a batch by the {@link WriteBehindQueue} of this repository. The update
+     * replaces any update waiting under the same query and key.
+     * If there are any values that must be replaced in the prepared statement they must be
+     * entered in chronological order within the columns parameter.
+     *
+     * @param query the query that will be ran
+     * @param key the key the update is coalesced by, or null if it should never be coalesced
+     * @param columns the values of the prepared statement
+     */
+    protected void queueUpdate(String query, Object key, Column[] columns)
+    {
+        getWriteBehindQueue().queue(query, key, columns);
+    }
+
+    /**
+     * Queues an update to be written in a batch by the {@link WriteBehindQueue} of this repository.
+     * See {@link WriteBehindQueue#queue(String, Object, Column[], BinaryOperator, Callback)}.
+     *
+     * @param query the query that will be ran
+     * @param key the key the update is coalesced by, or null if it should never be coalesced
+     * @param columns the values of the prepared statement
+     * @param merger combines the columns of the waiting update with the columns of this update, or null
+     * @param callback the callback that is called with the amount of affected rows, or null
+     */
+    protected void queueUpdate(String query, Object key, Column[] columns, BinaryOperator<Column[]> merger, Callback<Integer> callback)
+    {
+        getWriteBehindQueue().queue(query, key, columns, merger, callback);
+    }
+
+    /**
+     * @return the {@link WriteBehindQueue} of this repository
+     */
+    protected synchronized WriteBehindQueue getWriteBehindQueue()
+    {
+        if (_writeBehindQueue == null)
+        {
+            _writeBehindQueue = new WriteBehindQueue(_metricName, _dataSource, WRITE_BEHIND_BATCH_SIZE, WRITE_BEHIND_FLUSH_INTERVAL);
+        }
+        return _writeBehindQueue;
+    }
+
+    /**
+     * Writes every queued update and stops the flushing thread of this repository. This should be called when the
+     * plugin is disabled.
+     *
+     * @param timeout the maximum amount of time in milliseconds to wait for a flush that is already running
+     */
+    public void shutdown(long timeout)
+    {
+        WriteBehindQueue writeBehindQueue;
+        synchronized (this)
+        {
+            writeBehindQueue = _writeBehindQueue;
+        }
+        if (writeBehindQueue != null)
+        {
+            writeBehindQueue.shutdown(timeout);
+        }
+    }
 }
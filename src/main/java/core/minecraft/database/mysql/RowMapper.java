@@ -0,0 +1,23 @@
+package core.minecraft.database.mysql;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a {@link ResultSet} to an object. The mapper reads the columns it needs straight from the
+ * {@link ResultSet}, so no {@link Row} or {@link core.minecraft.database.mysql.column.Column} objects are created.
+ *
+ * @param <T> the type every row is mapped to
+ * @author Preston Brown
+ */
+public interface RowMapper<T> {
+
+    /**
+     * Maps the current row of the {@link ResultSet}. This must not move the {@link ResultSet} to another row.
+     *
+     * @param resultSet the {@link ResultSet} positioned on the row being mapped
+     * @return the object the row was mapped to
+     * @throws SQLException
+     */
+    public T map(ResultSet resultSet) throws SQLException;
+}
@@ -0,0 +1,318 @@
+package core.minecraft.database.mysql;
+
+import core.minecraft.common.Callback;
+import core.minecraft.database.mysql.column.Column;
+import core.minecraft.metrics.MetricsRegistry;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BinaryOperator;
+
+/**
+ * Delays updates to the database so they can be written in batches instead of one round trip at a time.
+ *
+ * <p>Every update is queued under a key. An update queued under a key that is already waiting replaces the waiting
+ * update, or is merged into it, so a row that changes many times between flushes is only written once. The queue is
+ * flushed on its own thread every flush interval, or as soon as it holds the maximum batch size. The updates of every
+ * query are written in a single transaction, sent with {@link PreparedStatement#executeBatch()} in batches of at most
+ * the maximum batch size, so either every update of a query in a flush is written or none of them are.</p>
+ *
+ * <p>Updates of the same query are written in the order they were first queued, but updates of different queries
+ * may be written in a different order. Failed updates are not retried, their callbacks are called with
+ * {@link Statement#EXECUTE_FAILED} instead.</p>
+ *
+ * @author Preston Brown
+ */
+public class WriteBehindQueue {
+
+    private final String _metricName;
+    private final DataSource _dataSource;
+    private final int _maxBatchSize;
+    private final ScheduledExecutorService _flusher;
+
+    // The waiting updates by query, and then by key, in the order they were first queued
+    private final Object _lock = new Object();
+    private Map<String, Map<Object, PendingUpdate>> _pending = new LinkedHashMap<>();
+    private int _size = 0;
+
+    // Only one flush may write at a time so two updates under the same key are never written out of order
+    private final Object _flushLock = new Object();
+    private final AtomicBoolean _flushRequested = new AtomicBoolean();
+    private volatile boolean _shutdown = false;
+
+    /**
+     * Creates a new WriteBehindQueue that writes to the given {@link DataSource}.
+     *
+     * @param metricName the prefix of the metrics of this queue, such as mysql.inventoryrepository
+     * @param dataSource the {@link DataSource} the updates are written to
+     * @param maxBatchSize the amount of waiting updates that causes the queue to be flushed immediately
+     * @param flushInterval the time in milliseconds between flushes
+     */
+    public WriteBehindQueue(String metricName, DataSource dataSource, int maxBatchSize, long flushInterval)
+    {
+        _metricName = metricName + ".writebehind";
+        _dataSource = dataSource;
+        _maxBatchSize = Math.max(1, maxBatchSize);
+        _flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MySQL-WriteBehind-" + metricName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        _flusher.scheduleWithFixedDelay(this::flushSafely, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+
+        MetricsRegistry.getInstance().gauge(_metricName + ".queued", this::getSize);
+    }
+
+    /**
+     * Queues an update that replaces any update waiting under the same query and key.
+     *
+     * @param query the query that will be ran
+     * @param key the key the update is coalesced by, or null if it should never be coalesced
+     * @param columns the values of the prepared statement in order
+     */
+    public void queue(String query, Object key, Column[] columns)
+    {
+        queue(query, key, columns, null, null);
+    }
+
+    /**
+     * Queues an update. If an update is already waiting under the same query and key the two are combined with the
+     * merger, or the waiting update is replaced if there is no merger. The callback is called on the flushing thread
+     * with the amount of affected rows once the update has been written, {@link Statement#SUCCESS_NO_INFO} if the
+     * driver did not report it, or {@link Statement#EXECUTE_FAILED} if the batch failed. The callbacks of coalesced
+     * updates are all called with the result of the combined update.
+     *
+     * @param query the query that will be ran
+     * @param key the key the update is coalesced by, or null if it should never be coalesced
+     * @param columns the values of the prepared statement in order
+     * @param merger combines the columns of the waiting update with the columns of this update, or null
+     * @param callback the callback that is called once the update has been written, or null
+     */
+    public void queue(String query, Object key, Column[] columns, BinaryOperator<Column[]> merger, Callback<Integer> callback)
+    {
+        boolean flush;
+        synchronized (_lock)
+        {
+            Map<Object, PendingUpdate> updates = _pending.computeIfAbsent(query, pendingQuery -> new LinkedHashMap<>());
+            PendingUpdate update = key == null ? null : updates.get(key);
+            if (update == null)
+            {
+                update = new PendingUpdate(columns);
+                updates.put(key == null ? new Object() : key, update);
+                _size++;
+            }
+            else
+            {
+                update._columns = merger == null ? columns : merger.apply(update._columns, columns);
+                MetricsRegistry.getInstance().counter(_metricName + ".coalesced").increment();
+            }
+            if (callback != null)
+            {
+                update._callbacks.add(callback);
+            }
+            flush = _size >= _maxBatchSize;
+        }
+
+        // Once the queue has been shut down there is nothing left to flush it, so updates are written immediately
+        if (_shutdown)
+        {
+            flush();
+        }
+        else if (flush && _flushRequested.compareAndSet(false, true))
+        {
+            try
+            {
+                _flusher.execute(() -> {
+                    _flushRequested.set(false);
+                    flushSafely();
+                });
+            }
+            catch (RejectedExecutionException e)
+            {
+                // The queue was shut down after it was checked above, so the update is written here instead
+                _flushRequested.set(false);
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Writes every waiting update to the database on the calling thread.
+     */
+    public void flush()
+    {
+        synchronized (_flushLock)
+        {
+            Map<String, Map<Object, PendingUpdate>> pending;
+            synchronized (_lock)
+            {
+                if (_size == 0)
+                {
+                    return;
+                }
+                pending = _pending;
+                _pending = new LinkedHashMap<>();
+                _size = 0;
+            }
+
+            for (Map.Entry<String, Map<Object, PendingUpdate>> query : pending.entrySet())
+            {
+                writeBatch(query.getKey(), new ArrayList<>(query.getValue().values()));
+            }
+        }
+    }
+
+    /**
+     * Flushes the queue from the flushing thread, where an uncaught exception would cancel every future flush.
+     */
+    private void flushSafely()
+    {
+        try
+        {
+            flush();
+        }
+        catch (RuntimeException e)
+        {
+            System.out.println("[MySQL-WriteBehind] FAILED to flush \'" + _metricName + "\'");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Writes the updates of a single query in one transaction, sending them in batches of at most the maximum batch
+     * size, and calls their callbacks with the results.
+     */
+    private void writeBatch(String query, List<PendingUpdate> updates)
+    {
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        int[] results = null;
+        long startTime = System.nanoTime();
+        try
+        {
+            connection = _dataSource.getConnection();
+            connection.setAutoCommit(false);
+            preparedStatement = connection.prepareStatement(query);
+            results = new int[updates.size()];
+            for (int start = 0; start < updates.size(); start += _maxBatchSize)
+            {
+                int end = Math.min(start + _maxBatchSize, updates.size());
+                for (PendingUpdate update : updates.subList(start, end))
+                {
+                    for (int i = 0; i < update._columns.length; i++)
+                    {
+                        update._columns[i].updatePreparedStatement(preparedStatement, i + 1);
+                    }
+                    preparedStatement.addBatch();
+                }
+                int[] batchResults = preparedStatement.executeBatch();
+                for (int i = start; i < end; i++)
+                {
+                    results[i] = i - start < batchResults.length ? batchResults[i - start] : Statement.SUCCESS_NO_INFO;
+                }
+            }
+            connection.commit();
+
+            MetricsRegistry.getInstance().recordTime(_metricName + ".flush", startTime);
+            MetricsRegistry.getInstance().counter(_metricName + ".written").add(updates.size());
+        }
+        catch (SQLException e)
+        {
+            results = null;
+            MetricsRegistry.getInstance().counter(_metricName + ".failures").add(updates.size());
+            System.out.println("[MySQL-WriteBehind] FAILED to write " + updates.size() + " updates of \'" + query + "\'");
+            e.printStackTrace();
+            if (connection != null)
+            {
+                try {connection.rollback();} catch (SQLException exc) {exc.printStackTrace();}
+            }
+        }
+        finally
+        {
+            if (preparedStatement != null)
+            {
+                try {preparedStatement.close();} catch (SQLException e) {e.printStackTrace();}
+            }
+            if (connection != null)
+            {
+                // Pooled connections are shared, so they are returned the way they were borrowed
+                try {connection.setAutoCommit(true);} catch (SQLException e) {e.printStackTrace();}
+                try {connection.close();} catch (SQLException e) {e.printStackTrace();}
+            }
+        }
+
+        for (int i = 0; i < updates.size(); i++)
+        {
+            int result = results == null ? Statement.EXECUTE_FAILED : results[i];
+            for (Callback<Integer> callback : updates.get(i)._callbacks)
+            {
+                try
+                {
+                    callback.call(result);
+                }
+                catch (RuntimeException e)
+                {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the amount of updates waiting to be written
+     */
+    public int getSize()
+    {
+        synchronized (_lock)
+        {
+            return _size;
+        }
+    }
+
+    /**
+     * Stops the flushing thread and writes every waiting update on the calling thread. Updates queued afterwards are
+     * written immediately. This should be called when the plugin is disabled.
+     *
+     * @param timeout the maximum amount of time in milliseconds to wait for a flush that is already running
+     */
+    public void shutdown(long timeout)
+    {
+        _shutdown = true;
+        _flusher.shutdown();
+        try
+        {
+            _flusher.awaitTermination(timeout, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * An update waiting to be written, and the callbacks of every update that was coalesced into it.
+     */
+    private static class PendingUpdate {
+
+        private Column[] _columns;
+        private List<Callback<Integer>> _callbacks = new ArrayList<>(1);
+
+        private PendingUpdate(Column[] columns)
+        {
+            _columns = columns;
+        }
+    }
+}
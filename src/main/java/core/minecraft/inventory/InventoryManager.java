@@ -1,6 +1,7 @@
 package core.minecraft.inventory;
 
 import core.minecraft.ClientComponent;
+import core.minecraft.client.ClientDataLoader;
 import core.minecraft.client.ClientManager;
 import core.minecraft.client.data.Client;
 import core.minecraft.command.CommandManager;
@@ -13,11 +14,10 @@ import core.minecraft.inventory.data.ItemQuantityToken;
 import core.minecraft.timer.TimerType;
 import core.minecraft.timer.event.TimerEvent;
 import org.bukkit.Bukkit;
-import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
-import org.bukkit.event.player.PlayerLoginEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.PluginDisableEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.util.ArrayList;
@@ -29,7 +29,10 @@ import java.util.List;
  *
  * @author Preston Brown
  */
-public class InventoryManager extends ClientComponent<PlayerInventory> implements Listener {
+public class InventoryManager extends ClientComponent<PlayerInventory> implements Listener, ClientDataLoader {
+
+    // The time in milliseconds the repository may take to finish a batch that is being written when disabled
+    private static final long SHUTDOWN_TIMEOUT = 5000L;
 
     private Object _lock = new Object();
     private InventoryRepository _repository;
@@ -52,6 +55,7 @@ public class InventoryManager extends ClientComponent<PlayerInventory> implement
         updateCategories();
         updateItems();
 
+        _clientManager.addClientDataLoader(this);
         Bukkit.getPluginManager().registerEvents(this, getPlugin());
     }
 
@@ -107,26 +111,25 @@ public class InventoryManager extends ClientComponent<PlayerInventory> implement
         return _categories.containsKey(category);
     }
 
-    @EventHandler
-    public void onPlayerLogin(PlayerLoginEvent event)
+    /**
+     * Loads the inventory of the client that is logging in.
+     */
+    @Override
+    public boolean load(Client client)
     {
-        Player player = event.getPlayer();
-        int clientID = _clientManager.getPlayerData(player).getClientID();
-        Bukkit.getScheduler().runTaskAsynchronously(getPlugin(), new Runnable() {
-            @Override
-            public void run()
-            {
-                PlayerInventory playerInventory = _repository.onPlayerLogin(clientID, player.getName());
-                if (playerInventory == null)
-                {
-                    event.disallow(PlayerLoginEvent.Result.KICK_OTHER, "There was an issue loading your player data. Please relog.");
-                }
-                else
-                {
-                    setPlayerData(player.getName(), playerInventory);
-                }
-            }
-        });
+        PlayerInventory playerInventory = _repository.onPlayerLogin(client.getClientID(), client.getName());
+        if (playerInventory == null)
+        {
+            return false;
+        }
+        setPlayerData(client.getName(), playerInventory);
+        return true;
+    }
+
+    @Override
+    public void unload(String name)
+    {
+        removePlayerData(name);
     }
 
     @EventHandler
@@ -290,6 +293,32 @@ public class InventoryManager extends ClientComponent<PlayerInventory> implement
      * @param changeInQuantity the difference in quantity
      */
     public void updateOfflinePlayerItemQuantity(Callback<Boolean> callback, int clientID, String item, String category, int changeInQuantity)
+    {
+        int itemID = getItemID(item, category);
+        Bukkit.getScheduler().runTaskAsynchronously(getPlugin(), new Runnable() {
+            @Override
+            public void run()
+            {
+                _repository.updatePlayerItemQuantity(clientID, itemID, changeInQuantity, new Callback<Boolean>() {
+                    @Override
+                    public Boolean call(Boolean transactionCallback)
+                    {
+                        callback.call(transactionCallback);
+                        return transactionCallback;
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Returns the id of the item, adding the item and its category to the database if they do not exist yet.
+     *
+     * @param item the name of the item
+     * @param category the category of the item
+     * @return the id of the item
+     */
+    private int getItemID(String item, String category)
     {
         // Ensures the category exists in the database
         synchronized (_lock)
@@ -313,25 +342,12 @@ public class InventoryManager extends ClientComponent<PlayerInventory> implement
 
         synchronized (_lock)
         {
-            Bukkit.getScheduler().runTaskAsynchronously(getPlugin(), new Runnable() {
-                @Override
-                public void run()
-                {
-                    _repository.updatePlayerItemQuantity(clientID, _items.get(item).getItemID(), changeInQuantity, new Callback<Boolean>() {
-                        @Override
-                        public Boolean call(Boolean transactionCallback)
-                        {
-                            callback.call(transactionCallback);
-                            return transactionCallback;
-                        }
-                    });
-                }
-            });
+            return _items.get(item).getItemID();
         }
     }
 
     /**
-     * Updates all the ItemQuantityTokens.
+     * Queues all the ItemQuantityTokens to be written in the next batch of the repository.
      */
     @EventHandler
     public void updateQuantities(TimerEvent event)
@@ -348,30 +364,52 @@ public class InventoryManager extends ClientComponent<PlayerInventory> implement
             @Override
             public void run()
             {
-                for (String player : itemQuantityMap.keySet())
-                {
-                    for (ItemQuantityToken token : itemQuantityMap.get(player))
-                    {
-                        updateOfflinePlayerItemQuantity(new Callback<Boolean>() {
-
-                            @Override
-                            public Boolean call(Boolean transactionResponse)
-                            {
-                                // Removes the inventory from the player's inventory if the transaction failed
-                                // and the player is still online
-                                if (!transactionResponse && getPlayerData(player) != null)
-                                {
-                                    getPlayerData(player).addItem(token.item, -token.quantity);
-                                    System.out.println("FAILED to add item - " + token.item + " for player - " + player);
-                                }
-                                return transactionResponse;
-                            }
-
-                        }, token.clientID, token.item, token.category, token.quantity);
-                    }
-                }
+                queueQuantities(itemQuantityMap);
             }
         });
+    }
 
+    /**
+     * Writes every waiting ItemQuantityToken and queued update before the plugin is disabled.
+     */
+    @EventHandler
+    public void onPluginDisable(PluginDisableEvent event)
+    {
+        if (event.getPlugin() != getPlugin())
+        {
+            return;
+        }
+        queueQuantities(_updateItemQuantity);
+        _updateItemQuantity.clear();
+        _repository.shutdown(SHUTDOWN_TIMEOUT);
+    }
+
+    /**
+     * Queues the ItemQuantityTokens in the write-behind queue of the repository.
+     */
+    private void queueQuantities(HashMap<String, List<ItemQuantityToken>> itemQuantityMap)
+    {
+        for (String player : itemQuantityMap.keySet())
+        {
+            for (ItemQuantityToken token : itemQuantityMap.get(player))
+            {
+                _repository.queuePlayerItemQuantity(token.clientID, getItemID(token.item, token.category), token.quantity, new Callback<Boolean>() {
+
+                    @Override
+                    public Boolean call(Boolean transactionResponse)
+                    {
+                        // Removes the inventory from the player's inventory if the transaction failed
+                        // and the player is still online
+                        if (!transactionResponse && getPlayerData(player) != null)
+                        {
+                            getPlayerData(player).addItem(token.item, -token.quantity);
+                            System.out.println("FAILED to add item - " + token.item + " for player - " + player);
+                        }
+                        return transactionResponse;
+                    }
+
+                });
+            }
+        }
     }
 }
@@ -49,7 +49,7 @@ public class InventoryRepository extends MySQLRepositoryBase {
      */
     public InventoryRepository(InventoryManager inventoryManager)
     {
-        super(ConnectionPool.CLIENT_POOL);
+        super(ConnectionPool.getPool(ConnectionPool.ECONOMY));
 
         _inventoryManager = inventoryManager;
 
@@ -342,4 +342,39 @@ public class InventoryRepository extends MySQLRepositoryBase {
         }
     }
 
+    /**
+     * Queues a change to the player's cosmetic quantity to be written in the next batch. Changes to the same item of
+     * the same player that are queued before the batch is written are added together into a single update, so the
+     * quantity is only prevented from going below 0 after the total change.
+     *
+     * If the player does not own the item yet the change is written with {@link #updatePlayerItemQuantity(int, int, int, Callback)}
+     * once the batch has been written.
+     *
+     * @param clientID the player's clientID
+     * @param itemID the id of the item
+     * @param changeInQuantity the change in quantity
+     * @param callback the callback that will called once the change has been written
+     */
+    public void queuePlayerItemQuantity(int clientID, int itemID, int changeInQuantity, Callback<Boolean> callback)
+    {
+        queueUpdate(UPDATE_PLAYER_OWNED_ITEMS_QUANTITY, clientID + ":" + itemID, new Column[] {new ColumnInt("quantity", changeInQuantity), new ColumnInt("clientID", clientID), new ColumnInt("itemID", itemID)},
+                (queued, update) -> new Column[] {new ColumnInt("quantity", (Integer) queued[0].getData() + (Integer) update[0].getData()), queued[1], queued[2]},
+                new Callback<Integer>() {
+                    @Override
+                    public Integer call(Integer affectedRows)
+                    {
+                        // The update matched no rows, so the player's first copy of the item is inserted instead.
+                        // Every coalesced change does this with its own quantity, so only the first one inserts
+                        if (affectedRows == 0)
+                        {
+                            updatePlayerItemQuantity(clientID, itemID, changeInQuantity, callback);
+                        }
+                        else
+                        {
+                            callback.call(affectedRows > 0 || affectedRows == Statement.SUCCESS_NO_INFO);
+                        }
+                        return affectedRows;
+                    }
+                });
+    }
 }
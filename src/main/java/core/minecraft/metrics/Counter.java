@@ -0,0 +1,39 @@
+package core.minecraft.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A counter that can be incremented from any thread without contention.
+ *
+ * @author Preston Brown
+ */
+public class Counter {
+
+    private final LongAdder _count = new LongAdder();
+
+    /**
+     * Adds one to the counter.
+     */
+    public void increment()
+    {
+        _count.increment();
+    }
+
+    /**
+     * Adds the given amount to the counter.
+     *
+     * @param amount the amount being added
+     */
+    public void add(long amount)
+    {
+        _count.add(amount);
+    }
+
+    /**
+     * @return the current value of the counter
+     */
+    public long getCount()
+    {
+        return _count.sum();
+    }
+}
@@ -0,0 +1,16 @@
+package core.minecraft.metrics;
+
+/**
+ * A value that is read whenever the metrics are displayed or saved, such as the player count or the TPS.
+ *
+ * @author Preston Brown
+ */
+public interface Gauge {
+
+    /**
+     * Returns the current value of the gauge. This may be called from any thread.
+     *
+     * @return the current value of the gauge
+     */
+    public double getValue();
+}
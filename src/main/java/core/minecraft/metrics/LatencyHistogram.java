@@ -0,0 +1,153 @@
+package core.minecraft.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records latencies into buckets so percentiles can be calculated without storing every sample. Like an HDR
+ * histogram every power of two is split into {@value #SUB_BUCKETS} linear buckets, so every recorded latency is
+ * within about 3% of its real value no matter how large it is, and recording never allocates.
+ *
+ * <p>Latencies are stored in microseconds up to about 19 hours. Anything longer is stored as the maximum.</p>
+ *
+ * @author Preston Brown
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final long MAX_MICROS = (1L << 36) - 1;
+    private static final int BUCKET_COUNT = getBucketIndex(MAX_MICROS) + 1;
+
+    private final AtomicLongArray _buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong _count = new AtomicLong();
+    private final AtomicLong _totalMicros = new AtomicLong();
+    private final AtomicLong _maxMicros = new AtomicLong();
+
+    /**
+     * Records a single latency.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos)
+    {
+        long micros = Math.min(MAX_MICROS, Math.max(0, nanos / 1000L));
+        _buckets.incrementAndGet(getBucketIndex(micros));
+        _count.incrementAndGet();
+        _totalMicros.addAndGet(micros);
+
+        long current;
+        while (micros > (current = _maxMicros.get()) && !_maxMicros.compareAndSet(current, micros));
+    }
+
+    /**
+     * Records the time since the given start time.
+     *
+     * @param startTime the time the operation started from {@link System#nanoTime()}
+     */
+    public void recordSince(long startTime)
+    {
+        record(System.nanoTime() - startTime);
+    }
+
+    /**
+     * @return the amount of latencies that have been recorded
+     */
+    public long getCount()
+    {
+        return _count.get();
+    }
+
+    /**
+     * @return the mean latency in milliseconds, or 0 if nothing has been recorded
+     */
+    public double getMean()
+    {
+        long count = _count.get();
+        return count == 0 ? 0 : _totalMicros.get() / (double) count / 1000.0;
+    }
+
+    /**
+     * @return the largest latency in milliseconds that has been recorded
+     */
+    public double getMax()
+    {
+        return _maxMicros.get() / 1000.0;
+    }
+
+    /**
+     * Returns the latency in milliseconds that the given percentage of latencies were less than or equal to.
+     *
+     * @param percentile the percentile between 0 and 100, such as 99
+     * @return the latency at the percentile in milliseconds, or 0 if nothing has been recorded
+     */
+    public double getPercentile(double percentile)
+    {
+        return getPercentiles(percentile)[0];
+    }
+
+    /**
+     * Returns the latencies in milliseconds of every given percentile. Calculating them together only reads the
+     * buckets once, so the percentiles are consistent with each other while latencies are still being recorded.
+     *
+     * @param percentiles the percentiles between 0 and 100 in ascending order, such as 50, 95 and 99
+     * @return the latency at each percentile in milliseconds
+     */
+    public double[] getPercentiles(double... percentiles)
+    {
+        long[] buckets = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            buckets[i] = _buckets.get(i);
+            total += buckets[i];
+        }
+
+        double[] values = new double[percentiles.length];
+        if (total == 0)
+        {
+            return values;
+        }
+
+        int bucket = 0;
+        long seen = buckets[0];
+        for (int i = 0; i < percentiles.length; i++)
+        {
+            long target = Math.max(1, (long) Math.ceil(total * Math.min(100, percentiles[i]) / 100.0));
+            while (seen < target && bucket < BUCKET_COUNT - 1)
+            {
+                seen += buckets[++bucket];
+            }
+            values[i] = Math.min(getBucketUpperBound(bucket), _maxMicros.get()) / 1000.0;
+        }
+        return values;
+    }
+
+    /**
+     * Returns the bucket that the latency is stored in. The first two powers of two are stored exactly, after that
+     * every power of two is split into {@value #SUB_BUCKETS} buckets.
+     */
+    private static int getBucketIndex(long micros)
+    {
+        if (micros < SUB_BUCKETS << 1)
+        {
+            return (int) micros;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (micros >> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * @return the largest latency in microseconds that is stored in the bucket
+     */
+    private static long getBucketUpperBound(int index)
+    {
+        if (index < SUB_BUCKETS << 1)
+        {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,151 @@
+package core.minecraft.metrics;
+
+import core.minecraft.Component;
+import core.minecraft.client.ClientManager;
+import core.minecraft.command.CommandManager;
+import core.minecraft.database.mysql.ConnectionPool;
+import core.minecraft.database.mysql.MySQLPoolMetrics;
+import core.minecraft.metrics.command.PerfCommand;
+import core.minecraft.metrics.redis.MetricsRedisRepository;
+import core.minecraft.server.ServerManager;
+import core.minecraft.timer.TimerType;
+import core.minecraft.timer.event.TimerEvent;
+import core.redis.RedisLogger;
+import core.redis.connection.RedisExecutor;
+import core.redis.connection.RedisManager;
+import core.redis.connection.RedisPoolMetrics;
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.Map;
+
+/**
+ * Manages the metrics recorded by every {@link Component}. The metrics can be viewed in-game with /perf, and a
+ * snapshot of them is written to redis every minute so they can be compared with the other servers on the network.
+ *
+ * @author Preston Brown
+ */
+public class MetricsManager extends Component implements Listener {
+
+    // Snapshots expire if a server misses a few of them in a row
+    private static final long SNAPSHOT_TIME_TO_LIVE = 180000L;
+
+    private ServerManager _serverManager;
+    private MetricsRedisRepository _redisRepository;
+
+    /**
+     * Creates a new MetricsManager instance.
+     *
+     * @param plugin the main JavaPlugin instance
+     * @param clientManager the main ClientManager instance
+     * @param serverManager the main ServerManager instance
+     * @param commandManager the main CommandManager instance
+     */
+    public MetricsManager(JavaPlugin plugin, ClientManager clientManager, ServerManager serverManager, CommandManager commandManager)
+    {
+        super("Metrics", plugin, commandManager);
+        _serverManager = serverManager;
+        _redisRepository = new MetricsRedisRepository();
+
+        // Registers the metrics of the server itself
+        MetricsRegistry metrics = getMetrics();
+        metrics.gauge("server.tps", () -> _serverManager.getTickMonitor().getTps());
+        metrics.gauge("server.tick-interval", () -> _serverManager.getTickMonitor().getTickInterval());
+        metrics.gauge("server.players", () -> Bukkit.getOnlinePlayers().size());
+        metrics.gauge("server.memory.used", () -> (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) / 1048576.0);
+        metrics.gauge("redis.executor.active", () -> RedisExecutor.getInstance().getActiveCount());
+        metrics.gauge("redis.executor.queued", () -> RedisExecutor.getInstance().getQueueSize());
+
+        addCommand(new PerfCommand(this, clientManager));
+        Bukkit.getPluginManager().registerEvents(this, getPlugin());
+    }
+
+    /**
+     * Writes a snapshot of every metric to redis every minute.
+     */
+    @EventHandler
+    public void saveSnapshot(TimerEvent event)
+    {
+        if (event.getType() != TimerType.MINUTE)
+        {
+            return;
+        }
+
+        // The snapshot is taken on the main thread so gauges that use the Bukkit API are safe to read
+        String serverName = _serverManager.getServerName();
+        Map<String, String> snapshot = getSnapshot();
+        RedisExecutor.getInstance().run(() -> _redisRepository.saveSnapshot(serverName, snapshot, SNAPSHOT_TIME_TO_LIVE));
+    }
+
+    /**
+     * Returns the value of every metric on this server, including the redis operation counts from every
+     * {@link RedisLogger} and the usage of every redis and mysql connection pool.
+     *
+     * @return the value of every metric by name
+     */
+    public Map<String, String> getSnapshot()
+    {
+        Map<String, String> snapshot = getMetrics().snapshot();
+        for (RedisLogger logger : RedisLogger.getLoggers().values())
+        {
+            String prefix = toMetricName(logger.getName()) + ".";
+            Map<String, Double> latencies = logger.getMeanLatencies();
+            for (Map.Entry<String, Long> successes : logger.getSuccessCounts().entrySet())
+            {
+                String name = prefix + toMetricName(successes.getKey());
+                snapshot.put(name + ".count", String.valueOf(successes.getValue()));
+                snapshot.put(name + ".mean", MetricsRegistry.format(latencies.getOrDefault(successes.getKey(), 0.0)));
+            }
+            for (Map.Entry<String, Long> failures : logger.getFailureCounts().entrySet())
+            {
+                snapshot.put(prefix + toMetricName(failures.getKey()) + ".failures", String.valueOf(failures.getValue()));
+            }
+        }
+        for (RedisPoolMetrics pool : RedisManager.getTopology().getPoolMetrics())
+        {
+            String prefix = "redis.pool." + toMetricName(pool.getName()) + ".";
+            snapshot.put(prefix + "active", String.valueOf(pool.getActive()));
+            snapshot.put(prefix + "idle", String.valueOf(pool.getIdle()));
+            snapshot.put(prefix + "waiters", String.valueOf(pool.getWaiters()));
+            snapshot.put(prefix + "wait.mean", String.valueOf(pool.getMeanBorrowWait()));
+            snapshot.put(prefix + "wait.max", String.valueOf(pool.getMaxBorrowWait()));
+        }
+        for (MySQLPoolMetrics pool : ConnectionPool.getPoolMetrics())
+        {
+            String prefix = "mysql.pool." + toMetricName(pool.getName()) + ".";
+            snapshot.put(prefix + "active", String.valueOf(pool.getActive()));
+            snapshot.put(prefix + "idle", String.valueOf(pool.getIdle()));
+            snapshot.put(prefix + "waiters", String.valueOf(pool.getWaiters()));
+            snapshot.put(prefix + "wait.mean", String.valueOf(pool.getMeanBorrowWait()));
+            snapshot.put(prefix + "wait.max", String.valueOf(pool.getMaxBorrowWait()));
+        }
+        snapshot.put("updated", String.valueOf(System.currentTimeMillis()));
+        return snapshot;
+    }
+
+    /**
+     * Converts a name such as 'minecraftclient' getData into a metric name such as minecraftclient-getdata.
+     */
+    private static String toMetricName(String name)
+    {
+        return name.toLowerCase().replaceAll("[^a-z0-9.]+", "-").replaceAll("^-|-$", "");
+    }
+
+    /**
+     * @return the repository that stores the metrics snapshot of every server
+     */
+    public MetricsRedisRepository getRedisRepository()
+    {
+        return _redisRepository;
+    }
+
+    /**
+     * @return the main ServerManager instance
+     */
+    public ServerManager getServerManager()
+    {
+        return _serverManager;
+    }
+}
@@ -0,0 +1,157 @@
+package core.minecraft.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores every {@link Counter}, {@link Gauge} and {@link LatencyHistogram} on this server by name. Metrics are
+ * created the first time they are requested, so they can be recorded from anywhere without being registered first.
+ *
+ * <p>Names are separated by periods and start with the area they measure, such as timer.second or command.setrank.</p>
+ *
+ * @author Preston Brown
+ */
+public class MetricsRegistry {
+
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+
+    private final Map<String, Counter> _counters = new ConcurrentHashMap<>();
+    private final Map<String, Gauge> _gauges = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> _histograms = new ConcurrentHashMap<>();
+    private final long _startTime = System.currentTimeMillis();
+
+    private MetricsRegistry()
+    {
+
+    }
+
+    /**
+     * @return the MetricsRegistry instance
+     */
+    public static MetricsRegistry getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the {@link Counter} with the given name, creating it if it does not exist yet.
+     *
+     * @param name the name of the counter
+     * @return the {@link Counter} with the given name
+     */
+    public Counter counter(String name)
+    {
+        return _counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    /**
+     * Registers a {@link Gauge} under the given name, replacing any gauge that was already registered with the name.
+     *
+     * @param name the name of the gauge
+     * @param gauge the {@link Gauge} being registered
+     */
+    public void gauge(String name, Gauge gauge)
+    {
+        _gauges.put(name, gauge);
+    }
+
+    /**
+     * Returns the {@link LatencyHistogram} with the given name, creating it if it does not exist yet.
+     *
+     * @param name the name of the histogram
+     * @return the {@link LatencyHistogram} with the given name
+     */
+    public LatencyHistogram histogram(String name)
+    {
+        return _histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /**
+     * Records the time since the given start time in the {@link LatencyHistogram} with the given name.
+     *
+     * @param name the name of the histogram
+     * @param startTime the time the operation started from {@link System#nanoTime()}
+     */
+    public void recordTime(String name, long startTime)
+    {
+        histogram(name).recordSince(startTime);
+    }
+
+    /**
+     * @return every {@link Counter} sorted by name
+     */
+    public Map<String, Counter> getCounters()
+    {
+        return Collections.unmodifiableMap(new TreeMap<>(_counters));
+    }
+
+    /**
+     * @return every {@link Gauge} sorted by name
+     */
+    public Map<String, Gauge> getGauges()
+    {
+        return Collections.unmodifiableMap(new TreeMap<>(_gauges));
+    }
+
+    /**
+     * @return every {@link LatencyHistogram} sorted by name
+     */
+    public Map<String, LatencyHistogram> getHistograms()
+    {
+        return Collections.unmodifiableMap(new TreeMap<>(_histograms));
+    }
+
+    /**
+     * @return the time in milliseconds this registry was created
+     */
+    public long getStartTime()
+    {
+        return _startTime;
+    }
+
+    /**
+     * Returns the current value of every metric as text. Histograms are split into their count, mean, 50th, 95th and
+     * 99th percentiles and maximum, such as command.setrank.p99. Latencies are in milliseconds.
+     *
+     * @return the value of every metric sorted by name
+     */
+    public Map<String, String> snapshot()
+    {
+        Map<String, String> snapshot = new LinkedHashMap<>();
+        for (Map.Entry<String, Gauge> gauge : getGauges().entrySet())
+        {
+            snapshot.put(gauge.getKey(), format(gauge.getValue().getValue()));
+        }
+        for (Map.Entry<String, Counter> counter : getCounters().entrySet())
+        {
+            snapshot.put(counter.getKey(), String.valueOf(counter.getValue().getCount()));
+        }
+        for (Map.Entry<String, LatencyHistogram> histogram : getHistograms().entrySet())
+        {
+            String name = histogram.getKey();
+            LatencyHistogram latencies = histogram.getValue();
+            double[] percentiles = latencies.getPercentiles(50, 95, 99);
+            snapshot.put(name + ".count", String.valueOf(latencies.getCount()));
+            snapshot.put(name + ".mean", format(latencies.getMean()));
+            snapshot.put(name + ".p50", format(percentiles[0]));
+            snapshot.put(name + ".p95", format(percentiles[1]));
+            snapshot.put(name + ".p99", format(percentiles[2]));
+            snapshot.put(name + ".max", format(latencies.getMax()));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Rounds the value to three decimal places.
+     *
+     * @param value the value being formatted
+     * @return the rounded value as text
+     */
+    public static String format(double value)
+    {
+        return String.valueOf(Math.round(value * 1000) / 1000.0);
+    }
+}
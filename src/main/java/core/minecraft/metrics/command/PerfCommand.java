@@ -0,0 +1,187 @@
+package core.minecraft.metrics.command;
+
+import core.minecraft.client.ClientManager;
+import core.minecraft.command.CommandBase;
+import core.minecraft.common.F;
+import core.minecraft.common.Rank;
+import core.minecraft.metrics.Counter;
+import core.minecraft.metrics.Gauge;
+import core.minecraft.metrics.LatencyHistogram;
+import core.minecraft.metrics.MetricsManager;
+import core.minecraft.metrics.MetricsRegistry;
+import core.redis.connection.RedisExecutor;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This command displays the metrics of this server, or the latest metrics snapshot of another server.
+ *
+ * @author Preston Brown
+ */
+public class PerfCommand extends CommandBase {
+
+    // The amount of histograms displayed when no filter is given
+    private static final int SLOWEST_LIMIT = 8;
+
+    private MetricsManager _metricsManager;
+
+    /**
+     * Creates a new instance of the PerfCommand with the provided {@link MetricsManager}.
+     *
+     * @param metricsManager the {@link MetricsManager} object
+     * @param clientManager the {@link ClientManager} object
+     */
+    public PerfCommand(MetricsManager metricsManager, ClientManager clientManager)
+    {
+        super(clientManager, "perf", new String[] {"metrics"}, false, Rank.DEV);
+        _metricsManager = metricsManager;
+    }
+
+    @Override
+    public void execute(Player caller, String[] args)
+    {
+        if (args.length == 0)
+        {
+            sendSummary(caller);
+        }
+        else if (args.length == 1 && args[0].equalsIgnoreCase("servers"))
+        {
+            RedisExecutor.getInstance().supply(() -> _metricsManager.getRedisRepository().getServers())
+                    .thenAcceptAsync(servers -> caller.sendMessage(F.componentMessage("Perf", "Servers with metrics: "
+                            + F.C_EMPHASIS1 + String.join(F.C_CONTENT + ", " + F.C_EMPHASIS1, servers))),
+                            RedisExecutor.getInstance().getMainThreadExecutor());
+        }
+        else if (args.length == 1)
+        {
+            sendFiltered(caller, args[0].toLowerCase());
+        }
+        else if ((args.length == 2 || args.length == 3) && args[0].equalsIgnoreCase("server"))
+        {
+            String server = args[1];
+            String filter = args.length == 3 ? args[2].toLowerCase() : "server.";
+            RedisExecutor.getInstance().supply(() -> _metricsManager.getRedisRepository().getSnapshot(server))
+                    .thenAcceptAsync(snapshot -> sendSnapshot(caller, server, snapshot, filter),
+                            RedisExecutor.getInstance().getMainThreadExecutor());
+        }
+        else
+        {
+            caller.sendMessage(getProperUsageMessage());
+        }
+    }
+
+    /**
+     * Sends the tick rate of this server and the histograms with the slowest 99th percentiles.
+     */
+    private void sendSummary(Player caller)
+    {
+        MetricsRegistry metrics = _metricsManager.getMetrics();
+        caller.sendMessage(F.componentMessage("Perf", "Metrics of " + F.C_EMPHASIS1 + _metricsManager.getServerManager().getServerName()));
+        for (Map.Entry<String, Gauge> gauge : metrics.getGauges().entrySet())
+        {
+            if (gauge.getKey().startsWith("server."))
+            {
+                caller.sendMessage(formatValue(gauge.getKey(), MetricsRegistry.format(gauge.getValue().getValue())));
+            }
+        }
+
+        List<Map.Entry<String, LatencyHistogram>> histograms = new ArrayList<>(metrics.getHistograms().entrySet());
+        histograms.sort((first, second) -> Double.compare(second.getValue().getPercentile(99), first.getValue().getPercentile(99)));
+        for (int i = 0; i < Math.min(SLOWEST_LIMIT, histograms.size()); i++)
+        {
+            caller.sendMessage(formatHistogram(histograms.get(i).getKey(), histograms.get(i).getValue()));
+        }
+    }
+
+    /**
+     * Sends every metric of this server whose name starts with the filter.
+     */
+    private void sendFiltered(Player caller, String filter)
+    {
+        MetricsRegistry metrics = _metricsManager.getMetrics();
+        int sent = 0;
+        for (Map.Entry<String, Gauge> gauge : metrics.getGauges().entrySet())
+        {
+            if (gauge.getKey().startsWith(filter))
+            {
+                caller.sendMessage(formatValue(gauge.getKey(), MetricsRegistry.format(gauge.getValue().getValue())));
+                sent++;
+            }
+        }
+        for (Map.Entry<String, Counter> counter : metrics.getCounters().entrySet())
+        {
+            if (counter.getKey().startsWith(filter))
+            {
+                caller.sendMessage(formatValue(counter.getKey(), String.valueOf(counter.getValue().getCount())));
+                sent++;
+            }
+        }
+        for (Map.Entry<String, LatencyHistogram> histogram : metrics.getHistograms().entrySet())
+        {
+            if (histogram.getKey().startsWith(filter))
+            {
+                caller.sendMessage(formatHistogram(histogram.getKey(), histogram.getValue()));
+                sent++;
+            }
+        }
+
+        if (sent == 0)
+        {
+            caller.sendMessage(F.componentMessage("Perf", "There are no metrics starting with " + F.C_EMPHASIS1 + filter));
+        }
+    }
+
+    /**
+     * Sends every value in the snapshot of another server whose name starts with the filter.
+     */
+    private void sendSnapshot(Player caller, String server, Map<String, String> snapshot, String filter)
+    {
+        if (!caller.isOnline())
+        {
+            return;
+        }
+        if (snapshot.isEmpty())
+        {
+            caller.sendMessage(F.componentMessage("Perf", "There are no metrics for " + F.C_EMPHASIS1 + server));
+            return;
+        }
+
+        long age = (System.currentTimeMillis() - Long.parseLong(snapshot.getOrDefault("updated", "0"))) / 1000L;
+        caller.sendMessage(F.componentMessage("Perf", "Metrics of " + F.C_EMPHASIS1 + server + F.C_CONTENT + " from " + age + " seconds ago"));
+        for (Map.Entry<String, String> value : snapshot.entrySet())
+        {
+            if (value.getKey().startsWith(filter))
+            {
+                caller.sendMessage(formatValue(value.getKey(), value.getValue()));
+            }
+        }
+    }
+
+    private String formatValue(String name, String value)
+    {
+        return F.C_CONTENT + name + ": " + F.C_EMPHASIS1 + value;
+    }
+
+    private String formatHistogram(String name, LatencyHistogram histogram)
+    {
+        double[] percentiles = histogram.getPercentiles(50, 95, 99);
+        return F.C_CONTENT + name + ": " + F.C_EMPHASIS1 + MetricsRegistry.format(percentiles[0]) + F.C_CONTENT + "/"
+                + F.C_EMPHASIS1 + MetricsRegistry.format(percentiles[1]) + F.C_CONTENT + "/" + F.C_EMPHASIS1
+                + MetricsRegistry.format(percentiles[2]) + F.C_CONTENT + " max " + F.C_EMPHASIS1
+                + MetricsRegistry.format(histogram.getMax()) + F.C_CONTENT + "ms (" + histogram.getCount() + ")";
+    }
+
+    @Override
+    public String getProperUsageMessage()
+    {
+        return F.properCommandUsageMessage("/perf [prefix | servers | server <name> [prefix]]", "/perf command.");
+    }
+
+    @Override
+    public String getHelpCommandMessage()
+    {
+        return F.helpCommandMessage("/perf [prefix | servers | server <name> [prefix]]", "Displays the p50/p95/p99 latencies and other metrics of the network.");
+    }
+}
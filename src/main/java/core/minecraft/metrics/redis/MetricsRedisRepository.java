@@ -0,0 +1,138 @@
+package core.minecraft.metrics.redis;
+
+import core.redis.connection.RedisManager;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Transaction;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * This stores the latest metrics snapshot of every server so they can be compared across the network. Every
+ * snapshot is a hash that expires if the server stops sending them, and the names of the servers with a snapshot
+ * are stored in a set.
+ *
+ * @author Preston Brown
+ */
+public class MetricsRedisRepository {
+
+    private static final String SERVERS_KEY = "metrics.servers";
+    private static final String SERVER_KEY = "metrics.server.";
+
+    /**
+     * Replaces the metrics snapshot of the given server.
+     *
+     * @param server the name of the server
+     * @param snapshot the value of every metric by name
+     * @param timeToLive the time in milliseconds before the snapshot expires
+     */
+    public void saveSnapshot(String server, Map<String, String> snapshot, long timeToLive)
+    {
+        if (snapshot.isEmpty())
+        {
+            return;
+        }
+        Jedis jedis = null;
+        try
+        {
+            jedis = RedisManager.getMasterConnection();
+            Transaction transaction = jedis.multi();
+            transaction.del(SERVER_KEY + server);
+            transaction.hmset(SERVER_KEY + server, snapshot);
+            transaction.pexpire(SERVER_KEY + server, timeToLive);
+            transaction.sadd(SERVERS_KEY, server);
+            transaction.exec();
+        }
+        catch (Exception e)
+        {
+            System.out.println("[Redis-Metrics] FAILED to save the metrics snapshot of \'" + server + "\'");
+            e.printStackTrace();
+        }
+        finally
+        {
+            close(jedis);
+        }
+    }
+
+    /**
+     * Returns the latest metrics snapshot of the given server.
+     *
+     * @param server the name of the server
+     * @return the value of every metric sorted by name, which is empty if the server has no live snapshot
+     */
+    public Map<String, String> getSnapshot(String server)
+    {
+        Jedis jedis = null;
+        try
+        {
+            jedis = RedisManager.getSlaveConnection();
+            return new TreeMap<>(jedis.hgetAll(SERVER_KEY + server));
+        }
+        catch (Exception e)
+        {
+            System.out.println("[Redis-Metrics] FAILED to get the metrics snapshot of \'" + server + "\'");
+            e.printStackTrace();
+            return Collections.emptyMap();
+        }
+        finally
+        {
+            close(jedis);
+        }
+    }
+
+    /**
+     * Returns the names of the servers with a live metrics snapshot. Servers whose snapshots have expired are
+     * removed from the set.
+     *
+     * @return the names of the servers with a live metrics snapshot
+     */
+    public Set<String> getServers()
+    {
+        Jedis jedis = null;
+        try
+        {
+            jedis = RedisManager.getMasterConnection();
+            Set<String> servers = new TreeSet<>();
+            for (String server : jedis.smembers(SERVERS_KEY))
+            {
+                if (jedis.exists(SERVER_KEY + server))
+                {
+                    servers.add(server);
+                }
+                else
+                {
+                    jedis.srem(SERVERS_KEY, server);
+                }
+            }
+            return servers;
+        }
+        catch (Exception e)
+        {
+            System.out.println("[Redis-Metrics] FAILED to get the servers with metrics snapshots");
+            e.printStackTrace();
+            return Collections.emptySet();
+        }
+        finally
+        {
+            close(jedis);
+        }
+    }
+
+    private void close(Jedis jedis)
+    {
+        try
+        {
+            if (jedis != null)
+            {
+                jedis.close();
+            }
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+        }
+    }
+}
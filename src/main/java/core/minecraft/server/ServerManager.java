@@ -2,12 +2,17 @@ package core.minecraft.server;
 
 import core.minecraft.Component;
 import core.minecraft.command.CommandManager;
+import core.minecraft.server.event.ServerRecoveredEvent;
 import core.minecraft.timer.TimerType;
 import core.minecraft.timer.event.TimerEvent;
+import core.redis.codec.MinecraftServerFields;
+import core.redis.connection.RedisExecutor;
 import core.redis.connection.RedisManager;
 import core.redis.data.MinecraftServer;
 import core.redis.data.ServerType;
-import core.redis.repository.ServerRepository;
+import core.redis.message.RedisMessageManager;
+import core.redis.repository.AsyncServerRepository;
+import core.redis.repository.ServerRegistryView;
 import org.bukkit.Bukkit;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
@@ -16,6 +21,7 @@ import org.bukkit.plugin.java.JavaPlugin;
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.net.URL;
+import java.util.Map;
 
 /**
  * Manages all of the major server settings.
@@ -24,11 +30,20 @@ import java.net.URL;
  */
 public class ServerManager extends Component implements Listener {
 
-    private ServerRepository _serverRepository;
+    private AsyncServerRepository _serverRepository;
+    private ServerRegistryView _registryView;
     private ServerType _serverType;
     private String _serverTypeName;
     private String _serverName;
     private String _publicIP;
+    private TickMonitor _tickMonitor;
+    private long _heartbeatInterval;
+    private int _fullHeartbeatEvery;
+    private long _lastHeartbeat;
+    private int _heartbeatsSinceFull;
+    private MinecraftServer _lastSentServer;
+    private volatile boolean _fullHeartbeatRequired = true;
+    private volatile boolean _expired = false;
 
     /**
      * Creates a new ServerManager instance.
@@ -40,8 +55,12 @@ public class ServerManager extends Component implements Listener {
     {
         super("Server", plugin, commandManager);
 
+        // Redis results that must be handled on the main thread are completed through the scheduler
+        RedisExecutor.getInstance().setMainThreadExecutor(runnable -> Bukkit.getScheduler().runTask(getPlugin(), runnable));
+
         // Gets the redis server repository that stores the live data of every server
-        _serverRepository = RedisManager.getInstance().getServerRepository();
+        _serverRepository = RedisManager.getInstance().getAsyncServerRepository();
+        _registryView = RedisManager.getInstance().getRegistryView();
 
         // Ensures a config exists
         generateConfig();
@@ -50,6 +69,18 @@ public class ServerManager extends Component implements Listener {
         _serverName = getPlugin().getConfig().getString("servermanager.name");
         _serverTypeName = getPlugin().getConfig().getString("servermanager.type");
 
+        // Gets how often the live server data is sent, and how often every field is sent instead of only the changes
+        _heartbeatInterval = getPlugin().getConfig().getLong("servermanager.heartbeat.interval") * 1000L;
+        _fullHeartbeatEvery = getPlugin().getConfig().getInt("servermanager.heartbeat.full-every");
+        if (_heartbeatInterval * 3 > RedisManager.getInstance().getServerRepository().getServerTimeToLive())
+        {
+            System.out.println("[ServerManager] the heartbeat interval is too long for this server to stay live in redis between heartbeats");
+        }
+        _tickMonitor = new TickMonitor(getPlugin());
+
+        // Listens for redis commands targeted at this server and its server type
+        RedisMessageManager.getInstance().initializeServer(_serverName, _serverTypeName);
+
         // Gets the public IP
         try
         {
@@ -63,16 +94,6 @@ public class ServerManager extends Component implements Listener {
             e.printStackTrace();
         }
 
-        // Gets the server type
-        Bukkit.getScheduler().runTaskAsynchronously(getPlugin(), new Runnable() {
-
-            @Override
-            public void run()
-            {
-                _serverType = _serverRepository.getServerType(_serverTypeName);
-            }
-        });
-
         // Begin to upload live server data to Redis
         Bukkit.getPluginManager().registerEvents(this, getPlugin());
     }
@@ -90,30 +111,76 @@ public class ServerManager extends Component implements Listener {
         getPlugin().getConfig().addDefault("servermanager.type", "Test");
         getPlugin().getConfig().set("servermanager.type", getPlugin().getConfig().get("servermanager.type"));
 
+        getPlugin().getConfig().addDefault("servermanager.heartbeat.interval", 5);
+        getPlugin().getConfig().set("servermanager.heartbeat.interval", getPlugin().getConfig().get("servermanager.heartbeat.interval"));
+
+        getPlugin().getConfig().addDefault("servermanager.heartbeat.full-every", 12);
+        getPlugin().getConfig().set("servermanager.heartbeat.full-every", getPlugin().getConfig().get("servermanager.heartbeat.full-every"));
+
         getPlugin().saveConfig();
     }
 
     /**
      * Updates the {@link MinecraftServer} data stored on Redis pertaining to
      * this server instance on a regular interval.
+     *
+     * Every field is only sent on the first heartbeat, every few heartbeats after that, whenever a static field such as
+     * the MOTD changes, and whenever the server has expired from redis. Otherwise only the fields that changed are sent.
+     * Once a server that expired has been stored again a {@link ServerRecoveredEvent} is called.
      */
     @EventHandler
     public void updateEvent(TimerEvent event)
     {
-        if (event.getType() != TimerType.FIVE_SECONDS)
+        if (event.getType() != TimerType.SECOND || System.currentTimeMillis() - _lastHeartbeat < _heartbeatInterval)
         {
             return;
         }
+        _lastHeartbeat = System.currentTimeMillis();
 
         MinecraftServer server = generateServer();
-        Bukkit.getScheduler().runTaskAsynchronously(getPlugin(), new Runnable() {
-
-            @Override
-            public void run()
-            {
-                _serverRepository.addMinecraftServer(server);
-            }
-        });
+        Map<String, String> changedFields = null;
+        if (!_fullHeartbeatRequired && _lastSentServer != null && _heartbeatsSinceFull < _fullHeartbeatEvery)
+        {
+            changedFields = MinecraftServerFields.diff(_lastSentServer, server);
+        }
+
+        if (changedFields == null)
+        {
+            _fullHeartbeatRequired = false;
+            _heartbeatsSinceFull = 0;
+            boolean recovering = _expired;
+            _expired = false;
+            _serverRepository.addMinecraftServer(server).whenCompleteAsync((result, e) -> {
+                if (e != null)
+                {
+                    _fullHeartbeatRequired = true;
+                    if (recovering)
+                    {
+                        _expired = true;
+                    }
+                }
+                else if (recovering)
+                {
+                    Bukkit.getPluginManager().callEvent(new ServerRecoveredEvent(_serverName));
+                }
+            }, RedisExecutor.getInstance().getMainThreadExecutor());
+        }
+        else
+        {
+            _heartbeatsSinceFull++;
+            _serverRepository.updateMinecraftServer(_serverName, changedFields).whenComplete((updated, e) -> {
+                if (updated == null || !updated)
+                {
+                    _fullHeartbeatRequired = true;
+                }
+                if (updated != null && !updated)
+                {
+                    // The server expired, so everything removed along with it has to be sent again
+                    _expired = true;
+                }
+            });
+        }
+        _lastSentServer = server;
     }
 
     /**
@@ -123,6 +190,12 @@ public class ServerManager extends Component implements Listener {
      */
     public MinecraftServer generateServer()
     {
+        // The server type is read from the local copy of the registry, so changes to it are picked up without redis
+        ServerType serverType = _registryView.getServerType(_serverTypeName);
+        if (serverType != null)
+        {
+            _serverType = serverType;
+        }
         String publicIP = Bukkit.getIp() == null ? _publicIP : Bukkit.getIp();
         int port = Bukkit.getPort();
         int playerCount = Bukkit.getOnlinePlayers().size();
@@ -131,10 +204,28 @@ public class ServerManager extends Component implements Listener {
         long maxRam = Runtime.getRuntime().maxMemory();
         long freeRam = Runtime.getRuntime().freeMemory();
         String version = Bukkit.getVersion();
-        MinecraftServer server = new MinecraftServer(publicIP, port, _serverName, _serverTypeName, playerCount, playerLimit, motd, maxRam, freeRam, version);
+        double tps = _tickMonitor == null ? -1 : _tickMonitor.getTps();
+        double tickInterval = _tickMonitor == null ? -1 : _tickMonitor.getTickInterval();
+        MinecraftServer server = new MinecraftServer(publicIP, port, _serverName, _serverTypeName, playerCount, playerLimit, motd, maxRam, freeRam, version, tps, tickInterval);
         return server;
     }
 
+    /**
+     * @return the {@link ServerRegistryView} that stores a local copy of every server, used for server lists
+     */
+    public ServerRegistryView getRegistryView()
+    {
+        return _registryView;
+    }
+
+    /**
+     * @return the {@link TickMonitor} that measures the tick rate of this server
+     */
+    public TickMonitor getTickMonitor()
+    {
+        return _tickMonitor;
+    }
+
     /**
      * @return the public name of this MinecraftServer
      */
@@ -0,0 +1,76 @@
+package core.minecraft.server;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+
+/**
+ * Measures the recent tick rate of the server by recording the time between every tick. This is the interval between
+ * ticks, not the time spent working in each tick, since a plugin cannot time the rest of the tick. A server that is
+ * keeping up sleeps out the rest of every tick, so its interval stays near 50 milliseconds however much work it does.
+ *
+ * @author Preston Brown
+ */
+public class TickMonitor implements Runnable {
+
+    private static final int SAMPLE_SIZE = 100;
+
+    private long[] _tickTimes = new long[SAMPLE_SIZE];
+    private int _index;
+    private int _samples;
+    private long _lastTick;
+
+    /**
+     * Creates a new instance of TickMonitor that runs every tick.
+     *
+     * @param plugin the main JavaPlugin instance
+     */
+    public TickMonitor(JavaPlugin plugin)
+    {
+        Bukkit.getScheduler().runTaskTimer(plugin, this, 1L, 1L);
+    }
+
+    @Override
+    public void run()
+    {
+        long now = System.nanoTime();
+        if (_lastTick != 0)
+        {
+            _tickTimes[_index] = now - _lastTick;
+            _index = (_index + 1) % SAMPLE_SIZE;
+            _samples = Math.min(_samples + 1, SAMPLE_SIZE);
+        }
+        _lastTick = now;
+    }
+
+    /**
+     * Returns the average time in milliseconds between the last 100 ticks. A server that is keeping up
+     * returns about 50, and only a server that is falling behind returns more.
+     *
+     * @return the average time in milliseconds between ticks, or -1 if not enough ticks have been recorded
+     */
+    public double getTickInterval()
+    {
+        if (_samples == 0)
+        {
+            return -1;
+        }
+        long total = 0;
+        for (int i = 0; i < _samples; i++)
+        {
+            total += _tickTimes[i];
+        }
+        return total / (double) _samples / 1000000.0;
+    }
+
+    /**
+     * Returns the average ticks per second over the last 100 ticks, derived from the {@link #getTickInterval()}
+     * and capped at 20.
+     *
+     * @return the average ticks per second, or -1 if not enough ticks have been recorded
+     */
+    public double getTps()
+    {
+        double tickInterval = getTickInterval();
+        return tickInterval <= 0 ? -1 : Math.min(20.0, 1000.0 / tickInterval);
+    }
+}
@@ -0,0 +1,42 @@
+package core.minecraft.server.event;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+/**
+ * This event is executed on the main thread when this server has been stored in redis again after it expired, for
+ * example because its heartbeats were delayed. Any data in redis that was removed along with the server, such as the
+ * players on it, should be sent again.
+ *
+ * @author Preston Brown
+ */
+public class ServerRecoveredEvent extends Event {
+
+    private static final HandlerList _handlers = new HandlerList();
+    private String _serverName;
+
+    public ServerRecoveredEvent(String serverName)
+    {
+        _serverName = serverName;
+    }
+
+    /**
+     * Returns the name of the server that was stored again.
+     *
+     * @return the name of the server
+     */
+    public String getServerName()
+    {
+        return _serverName;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return _handlers;
+    }
+
+    public static HandlerList getHandlerList()
+    {
+        return _handlers;
+    }
+}
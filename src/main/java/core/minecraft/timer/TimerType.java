@@ -1,5 +1,6 @@
 package core.minecraft.timer;
 
+import core.minecraft.metrics.MetricsRegistry;
 import core.minecraft.timer.event.TimerEvent;
 import org.bukkit.Bukkit;
 
@@ -19,16 +20,19 @@ public enum TimerType {
 
     private long _time;
     private long _last;
+    private String _metricName;
 
     private TimerType(long time)
     {
         _time = time;
         _last = System.currentTimeMillis();
+        _metricName = "timer." + name().toLowerCase().replace('_', '-');
     }
 
     /**
      * Updates the time of the specified type of timer. If enough time has passed an events
-     * of the specified TimerType will be called.
+     * of the specified TimerType will be called, and the time every handler took is recorded in the
+     * timer.&lt;type&gt; latency histogram.
      *
      * @param type the TimerType that is being updated
      */
@@ -36,7 +40,9 @@ public enum TimerType {
     {
         if (System.currentTimeMillis() - _last >= _time)
         {
+            long startTime = System.nanoTime();
             Bukkit.getPluginManager().callEvent(new TimerEvent(type));
+            MetricsRegistry.getInstance().recordTime(_metricName, startTime);
             _last = System.currentTimeMillis();
         }
     }
@@ -1,6 +1,7 @@
 package core.minecraft.transaction;
 
 import core.minecraft.ClientComponent;
+import core.minecraft.client.ClientDataLoader;
 import core.minecraft.client.ClientManager;
 import core.minecraft.client.data.Client;
 import core.minecraft.command.CommandManager;
@@ -12,7 +13,6 @@ import core.minecraft.transaction.mysql.TransactionRepository;
 import org.bukkit.Bukkit;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
-import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 
@@ -23,7 +23,7 @@ import java.util.*;
  *
  * @author Preston Brown
  */
-public class TransactionManager extends ClientComponent<PlayerWallet> implements Listener {
+public class TransactionManager extends ClientComponent<PlayerWallet> implements Listener, ClientDataLoader {
 
     private Object _lock = new Object();
     private TransactionRepository _repository;
@@ -42,19 +42,30 @@ public class TransactionManager extends ClientComponent<PlayerWallet> implements
         _clientManager = clientManager;
         _repository = new TransactionRepository(this, _clientManager.getRepository());
 
+        _clientManager.addClientDataLoader(this);
         Bukkit.getPluginManager().registerEvents(this, getPlugin());
     }
 
     /**
-     * Gets the amount of every currency a player has when they join the server.
+     * Loads the amount of every currency the client that is logging in has. If the currencies could not be read
+     * false is returned so the login fails instead of the player being given an empty wallet.
      */
-    @EventHandler
-    public void onPlayerJoin(PlayerJoinEvent event)
+    @Override
+    public boolean load(Client client)
     {
-        HashMap<CurrencyType, Integer> playerCurrencies =
-                _repository.onPlayerLogin(_clientManager.getPlayerData(event.getPlayer()).getClientID());
+        HashMap<CurrencyType, Integer> playerCurrencies = _repository.onPlayerLogin(client.getClientID());
+        if (playerCurrencies == null)
+        {
+            return false;
+        }
+        setPlayerData(client.getName(), new PlayerWallet(client.getName(), playerCurrencies));
+        return true;
+    }
 
-        setPlayerData(event.getPlayer().getName(), new PlayerWallet(event.getPlayer().getName(), playerCurrencies));
+    @Override
+    public void unload(String name)
+    {
+        removePlayerData(name);
     }
 
     @EventHandler
@@ -5,9 +5,6 @@ import core.minecraft.common.Callback;
 import core.minecraft.common.CurrencyType;
 import core.minecraft.database.mysql.ConnectionPool;
 import core.minecraft.database.mysql.MySQLRepositoryBase;
-import core.minecraft.database.mysql.ResultSetCallable;
-import core.minecraft.database.mysql.column.Column;
-import core.minecraft.database.mysql.column.ColumnInt;
 import core.minecraft.database.mysql.column.ColumnVarchar;
 import core.minecraft.transaction.TransactionManager;
 import core.minecraft.transaction.TransactionResponse;
@@ -41,7 +38,7 @@ public class TransactionRepository extends MySQLRepositoryBase {
      */
     public TransactionRepository(TransactionManager transactionManager, ClientSQLRepository clientSQLRepository)
     {
-        super(ConnectionPool.CLIENT_POOL);
+        super(ConnectionPool.getPool(ConnectionPool.ECONOMY));
         _transactionManager = transactionManager;
         _clientSQLRepository = clientSQLRepository;
 
@@ -78,49 +75,66 @@ public class TransactionRepository extends MySQLRepositoryBase {
      * Gets the amount of each currency the player currently owns. If this is the player's first time playing on the
      * network the player will be inserted into the player_currencies table.
      *
-     * @param clientID
-     * @return
+     * <p>Every statement is run on the same connection, so a login never holds one connection from the pool while
+     * waiting for another.</p>
+     *
+     * @param clientID the clientID of the player logging in
+     * @return the amount of each currency the player owns, otherwise null if they could not be loaded
      */
     public HashMap<CurrencyType, Integer> onPlayerLogin(int clientID)
     {
         HashMap<CurrencyType, Integer> playerCurrencies = new HashMap<>();
-
-        executeQuery(SELECT_FROM_CURRENCY_TABLE, new ResultSetCallable() {
-            @Override
-            public void call(ResultSet resultSet) throws SQLException
+        try (Connection connection = _dataSource.getConnection();
+             PreparedStatement selectPS = connection.prepareStatement(SELECT_FROM_CURRENCY_TABLE))
+        {
+            selectPS.setInt(1, clientID);
+            if (!readCurrencies(selectPS, playerCurrencies))
             {
-                // If the player_currencies table contains the player
-                if (resultSet.next())
+                // Adds the player to the player_currencies table
+                try (PreparedStatement insertPS = connection.prepareStatement(INSERT_INTO_CURRENCY_TABLE))
                 {
-                    for (CurrencyType currencyType : CurrencyType.values())
-                    {
-                        playerCurrencies.put(currencyType, resultSet.getInt(currencyType.getDatabaseName()));
-                    }
+                    insertPS.setInt(1, clientID);
+                    insertPS.executeUpdate();
                 }
-                else
+
+                // Gets the freshly created currency values
+                if (!readCurrencies(selectPS, playerCurrencies))
                 {
-                    // Adds the player to the player_currencies table
-                    executeUpdate(INSERT_INTO_CURRENCY_TABLE, new Column[] {new ColumnInt("clientID", clientID)});
-
-                    // Gets the freshly created currency values
-                    executeQuery(SELECT_FROM_CURRENCY_TABLE, new ResultSetCallable() {
-                        @Override
-                        public void call(ResultSet resultSet) throws SQLException
-                        {
-                            resultSet.next();
-                            for (CurrencyType currencyType : CurrencyType.values())
-                            {
-                                playerCurrencies.put(currencyType, resultSet.getInt(currencyType.getDatabaseName()));
-                            }
-                        }
-                    }, new Column[] {new ColumnInt("clientID", clientID)});
+                    return null;
                 }
             }
-        }, new Column[] {new ColumnInt("clientID", clientID)});
-
+        }
+        catch (SQLException e)
+        {
+            e.printStackTrace();
+            return null;
+        }
         return playerCurrencies;
     }
 
+    /**
+     * Reads the amount of each currency from the player's row in the player_currencies table.
+     *
+     * @param selectPS the prepared select of the player's row
+     * @param playerCurrencies the map the amount of each currency is stored in
+     * @return true if the player has a row, otherwise false
+     */
+    private boolean readCurrencies(PreparedStatement selectPS, HashMap<CurrencyType, Integer> playerCurrencies) throws SQLException
+    {
+        try (ResultSet resultSet = selectPS.executeQuery())
+        {
+            if (!resultSet.next())
+            {
+                return false;
+            }
+            for (CurrencyType currencyType : CurrencyType.values())
+            {
+                playerCurrencies.put(currencyType, resultSet.getInt(currencyType.getDatabaseName()));
+            }
+            return true;
+        }
+    }
+
     /**
      * This removes the specified amount of crystals from the player's balance.
      *
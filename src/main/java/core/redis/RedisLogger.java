@@ -0,0 +1,225 @@
+package core.redis;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This is used in place of printing directly to the console on redis hot paths. Successful operations are counted
+ * instead of printed, and at the {@link Level#INFO} level only a summary of each operation is printed at most once
+ * every summary interval. Failures are always printed along with their context and how long the operation took.
+ *
+ * @author Preston Brown
+ */
+public class RedisLogger {
+
+    /**
+     * The levels of messages that can be printed.
+     */
+    public enum Level {
+        DEBUG,
+        INFO,
+        WARN,
+        ERROR
+    }
+
+    private static final Map<String, RedisLogger> LOGGERS = new ConcurrentHashMap<>();
+    private static volatile Level _level = Level.INFO;
+    private static volatile long _summaryInterval = 60000L;
+
+    private String _name;
+    private Map<String, Operation> _operations = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new {@link RedisLogger} with the given name.
+     *
+     * @param name the name printed at the start of every message, such as Redis-PubSub
+     */
+    private RedisLogger(String name)
+    {
+        _name = name;
+    }
+
+    /**
+     * Returns the {@link RedisLogger} with the given name, creating it if it does not exist yet.
+     *
+     * @param name the name printed at the start of every message, such as Redis-PubSub
+     * @return the {@link RedisLogger} with the given name
+     */
+    public static RedisLogger getLogger(String name)
+    {
+        return LOGGERS.computeIfAbsent(name, RedisLogger::new);
+    }
+
+    /**
+     * Sets the lowest level of message that is printed by every {@link RedisLogger}. At {@link Level#DEBUG} every
+     * successful operation is printed, at {@link Level#INFO} successes are summarized, and at {@link Level#WARN} or
+     * above successes are only counted.
+     *
+     * @param level the lowest level of message that is printed
+     */
+    public static void setLevel(Level level)
+    {
+        _level = level;
+    }
+
+    /**
+     * @return the lowest level of message that is printed
+     */
+    public static Level getLevel()
+    {
+        return _level;
+    }
+
+    /**
+     * Sets the minimum time in milliseconds between the summaries printed for each operation at {@link Level#INFO}.
+     *
+     * @param summaryInterval the minimum time in milliseconds between summaries
+     */
+    public static void setSummaryInterval(long summaryInterval)
+    {
+        _summaryInterval = summaryInterval;
+    }
+
+    /**
+     * @return every {@link RedisLogger} that has been created, by name
+     */
+    public static Map<String, RedisLogger> getLoggers()
+    {
+        return Collections.unmodifiableMap(LOGGERS);
+    }
+
+    /**
+     * Records a successful operation.
+     *
+     * @param operation the name of the operation, such as 'minecraftclient' getData
+     * @param startTime the time in milliseconds the operation started
+     */
+    public void success(String operation, long startTime)
+    {
+        Operation stats = getOperation(operation);
+        long latency = System.currentTimeMillis() - startTime;
+        stats._successes.incrementAndGet();
+        stats._totalLatency.addAndGet(latency);
+
+        Level level = _level;
+        if (level == Level.DEBUG)
+        {
+            System.out.println("[" + _name + "] executed " + operation + " in " + latency + "ms");
+        }
+        else if (level == Level.INFO)
+        {
+            long now = System.currentTimeMillis();
+            long lastSummary = stats._lastSummary.get();
+            if (now - lastSummary >= _summaryInterval && stats._lastSummary.compareAndSet(lastSummary, now))
+            {
+                long count = stats._successes.get();
+                long sinceLastSummary = count - stats._summarizedSuccesses.getAndSet(count);
+                System.out.println("[" + _name + "] executed " + operation + " " + sinceLastSummary + " times since the last summary");
+            }
+        }
+    }
+
+    /**
+     * Records and prints a failed operation along with the stack trace of the exception.
+     *
+     * @param operation the name of the operation, such as 'minecraftclient' getData
+     * @param context the keys or IDs the operation was working with
+     * @param startTime the time in milliseconds the operation started
+     * @param e the exception that caused the failure, which may be null
+     */
+    public void failure(String operation, String context, long startTime, Exception e)
+    {
+        getOperation(operation)._failures.incrementAndGet();
+        System.out.println("[" + _name + "] FAILED to execute " + operation + " for " + context + " after "
+                + (System.currentTimeMillis() - startTime) + "ms");
+        if (e != null)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Prints the message if the given level is being printed.
+     *
+     * @param level the level of the message
+     * @param message the message being printed
+     */
+    public void log(Level level, String message)
+    {
+        if (level.ordinal() >= _level.ordinal())
+        {
+            System.out.println("[" + _name + "] " + message);
+        }
+    }
+
+    /**
+     * Returns the statistics of the operation with the given name, creating them if they do not exist yet.
+     */
+    private Operation getOperation(String operation)
+    {
+        return _operations.computeIfAbsent(operation, name -> new Operation());
+    }
+
+    /**
+     * @return the name printed at the start of every message
+     */
+    public String getName()
+    {
+        return _name;
+    }
+
+    /**
+     * @return the amount of successes of every operation, by operation name
+     */
+    public Map<String, Long> getSuccessCounts()
+    {
+        Map<String, Long> counts = new HashMap<>();
+        for (Map.Entry<String, Operation> operation : _operations.entrySet())
+        {
+            counts.put(operation.getKey(), operation.getValue()._successes.get());
+        }
+        return counts;
+    }
+
+    /**
+     * @return the amount of failures of every operation, by operation name
+     */
+    public Map<String, Long> getFailureCounts()
+    {
+        Map<String, Long> counts = new HashMap<>();
+        for (Map.Entry<String, Operation> operation : _operations.entrySet())
+        {
+            counts.put(operation.getKey(), operation.getValue()._failures.get());
+        }
+        return counts;
+    }
+
+    /**
+     * @return the mean time in milliseconds a successful operation took, by operation name
+     */
+    public Map<String, Double> getMeanLatencies()
+    {
+        Map<String, Double> latencies = new HashMap<>();
+        for (Map.Entry<String, Operation> operation : _operations.entrySet())
+        {
+            long successes = operation.getValue()._successes.get();
+            latencies.put(operation.getKey(), successes == 0 ? 0 : operation.getValue()._totalLatency.get() / (double) successes);
+        }
+        return latencies;
+    }
+
+    /**
+     * Stores the counters of a single operation.
+     */
+    private static class Operation {
+
+        private final AtomicLong _successes = new AtomicLong();
+        private final AtomicLong _failures = new AtomicLong();
+        private final AtomicLong _totalLatency = new AtomicLong();
+        private final AtomicLong _summarizedSuccesses = new AtomicLong();
+        private final AtomicLong _lastSummary = new AtomicLong(System.currentTimeMillis());
+    }
+}
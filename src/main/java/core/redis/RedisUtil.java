@@ -1,8 +1,18 @@
 package core.redis;
 
-import com.google.gson.Gson;
+import core.redis.codec.GsonRedisCodec;
 import core.redis.connection.RedisServerData;
+import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.JedisSentinelPool;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.util.Pool;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * This utility is used to handle basic Jedis functions.
@@ -11,6 +21,8 @@ import redis.clients.jedis.JedisPool;
  */
 public class RedisUtil {
 
+    private static final RedisLogger LOGGER = RedisLogger.getLogger("Redis-Pool");
+
     /**
      * This constructs a {@link JedisPool} using the configurations found inside of the {@link RedisServerData} object.
      * If the given jedisServerData is null, null will be returned.
@@ -25,13 +37,61 @@ public class RedisUtil {
             return null;
         }
 
-        JedisPool jedisPool = new JedisPool(jedisServerData.getJedisPoolConfig(), jedisServerData.getHost(), jedisServerData.getPort(), 1000000, jedisServerData.getPassword());
+        JedisPool jedisPool = new JedisPool(jedisServerData.getJedisPoolConfig(), jedisServerData.getHost(), jedisServerData.getPort(),
+                jedisServerData.getConnectTimeout(), jedisServerData.getSoTimeout(), jedisServerData.getPassword(), Protocol.DEFAULT_DATABASE,
+                null, false, null, null, null);
+        warmUp(jedisPool, jedisServerData);
+        return jedisPool;
+    }
+
+    /**
+     * Opens the minimum amount of idle connections in the given pool so the first borrows do not have to connect.
+     *
+     * @param pool the pool being warmed up
+     * @param jedisServerData the {@link RedisServerData} the pool was created from
+     */
+    private static void warmUp(Pool<Jedis> pool, RedisServerData jedisServerData)
+    {
+        int minIdle = jedisServerData.getJedisPoolConfig().getMinIdle();
+        if (minIdle <= 0)
+        {
+            return;
+        }
+        try
+        {
+            pool.addObjects(minIdle);
+        }
+        catch (JedisException e)
+        {
+            LOGGER.failure("warm up", jedisServerData.getHost() + ":" + jedisServerData.getPort(), System.currentTimeMillis(), e);
+        }
+    }
+
+    /**
+     * This constructs a {@link JedisSentinelPool} that asks the given sentinels for the current master. The password and
+     * pool configuration are taken from the {@link RedisServerData} of the master if one is given.
+     *
+     * @param masterName the name of the master monitored by the sentinels
+     * @param sentinels the host:port of every sentinel
+     * @param masterServerData the {@link RedisServerData} of the master, which may be null
+     * @return a new instance of {@link JedisSentinelPool}
+     */
+    public static JedisSentinelPool generateJedisSentinelPool(String masterName, Set<String> sentinels, RedisServerData masterServerData)
+    {
+        if (masterServerData == null)
+        {
+            return new JedisSentinelPool(masterName, sentinels, new JedisPoolConfig(), Protocol.DEFAULT_TIMEOUT, null);
+        }
+        JedisSentinelPool jedisPool = new JedisSentinelPool(masterName, sentinels, masterServerData.getJedisPoolConfig(), masterServerData.getConnectTimeout(),
+                masterServerData.getSoTimeout(), masterServerData.getPassword(), Protocol.DEFAULT_DATABASE);
+        warmUp(jedisPool, masterServerData);
         return jedisPool;
     }
 
     /**
-     * Creates a {@link RedisServerData} using a line of data in the redis.dat file. If line does not
-     * contain a proper serialized RedisServerData line null will be returned.
+     * Creates a {@link RedisServerData} using a line of data in the redis.dat file. Any key=value pairs after the
+     * password are used as pool options. If line does not contain a proper serialized RedisServerData line null
+     * will be returned.
      *
      * @param line a line of data from the redis.dat file
      * @return a new instance of {@link RedisServerData} using the line of data provided, unless an invalid line
@@ -40,7 +100,7 @@ public class RedisUtil {
     public static RedisServerData deserializeJedisServerData(String line)
     {
         String[] args = line.split(" ");
-        if (args.length != 4)
+        if (args.length < 4)
         {
             return null;
         }
@@ -56,19 +116,29 @@ public class RedisUtil {
             return null;
         }
         String password = args[3];
-        return new RedisServerData(host, port, password, master);
+        Map<String, String> options = new HashMap<>();
+        for (int i = 4; i < args.length; i++)
+        {
+            String[] option = args[i].split("=", 2);
+            if (option.length != 2)
+            {
+                return null;
+            }
+            options.put(option[0].toLowerCase(), option[1]);
+        }
+        return new RedisServerData(host, port, password, master, options);
     }
 
     /**
      * Serializes the specified object into a Json object and returns the serialized string representation of the class.
+     * The shared {@link GsonRedisCodec#GSON} instance is used, so this should be preferred over creating a new Gson.
      *
      * @param object the object that is being serialized
      * @return the string containing the serialized Json object
      */
     public static String serialize(Object object)
     {
-        Gson gson = new Gson();
-        return gson.toJson(object);
+        return GsonRedisCodec.GSON.toJson(object);
     }
 
     /**
@@ -81,7 +151,6 @@ public class RedisUtil {
      */
     public static <T> T deserialize(String json, Class<T> klazz)
     {
-        Gson gson = new Gson();
-        return gson.fromJson(json, klazz);
+        return GsonRedisCodec.GSON.fromJson(json, klazz);
     }
 }
@@ -0,0 +1,104 @@
+package core.redis.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * This is the base for a compact codec that writes the fields of an object in a fixed order without any field
+ * names. The bytes are Base64 encoded so they can be stored with the same string commands as Json.
+ *
+ * <p>The first byte written is the version returned by {@link #getVersion()} so the format can change later.</p>
+ *
+ * @author Preston Brown
+ */
+public abstract class BinaryRedisCodec<T> implements RedisCodec<T> {
+
+    /**
+     * @return the version of the format written by this codec
+     */
+    protected abstract int getVersion();
+
+    /**
+     * Writes every field of the given object to the output.
+     *
+     * @param value the object being written
+     * @param output the output the fields are written to
+     * @throws IOException
+     */
+    protected abstract void write(T value, DataOutputStream output) throws IOException;
+
+    /**
+     * Reads every field written by {@link #write(Object, DataOutputStream)} and creates the object.
+     *
+     * @param version the version of the format the fields were written in
+     * @param input the input the fields are read from
+     * @return the object that was read
+     * @throws IOException
+     */
+    protected abstract T read(int version, DataInputStream input) throws IOException;
+
+    @Override
+    public String encode(T value)
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream output = new DataOutputStream(bytes))
+        {
+            output.writeByte(getVersion());
+            write(value, output);
+        }
+        catch (IOException e)
+        {
+            throw new IllegalArgumentException("Failed to encode " + value, e);
+        }
+        return Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    @Override
+    public T decode(String data)
+    {
+        if (data == null)
+        {
+            return null;
+        }
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(data))))
+        {
+            return read(input.readUnsignedByte(), input);
+        }
+        catch (IOException e)
+        {
+            throw new IllegalArgumentException("Failed to decode \"" + data + "\"", e);
+        }
+    }
+
+    /**
+     * Writes the given string, which may be null.
+     *
+     * @param value the string being written
+     * @param output the output the string is written to
+     * @throws IOException
+     */
+    protected static void writeString(String value, DataOutputStream output) throws IOException
+    {
+        output.writeBoolean(value != null);
+        if (value != null)
+        {
+            output.writeUTF(value);
+        }
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(String, DataOutputStream)}.
+     *
+     * @param input the input the string is read from
+     * @return the string that was read, which may be null
+     * @throws IOException
+     */
+    protected static String readString(DataInputStream input) throws IOException
+    {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+}
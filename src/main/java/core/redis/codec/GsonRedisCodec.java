@@ -0,0 +1,58 @@
+package core.redis.codec;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+
+import java.io.IOException;
+
+/**
+ * This encodes objects as Json using a single shared {@link Gson} instance. The {@link TypeAdapter} for the
+ * class is looked up once when the codec is created instead of on every call.
+ *
+ * @author Preston Brown
+ */
+public class GsonRedisCodec<T> implements RedisCodec<T> {
+
+    /**
+     * The shared {@link Gson} instance. {@link Gson} is thread safe so this is used by every codec.
+     */
+    public static final Gson GSON = new GsonBuilder()
+            .disableHtmlEscaping()
+            .create();
+
+    private TypeAdapter<T> _adapter;
+
+    /**
+     * Creates a new {@link GsonRedisCodec} for the given class.
+     *
+     * @param klazz the class that is being encoded
+     */
+    public GsonRedisCodec(Class<T> klazz)
+    {
+        _adapter = GSON.getAdapter(klazz);
+    }
+
+    @Override
+    public String encode(T value)
+    {
+        return _adapter.toJson(value);
+    }
+
+    @Override
+    public T decode(String data)
+    {
+        if (data == null)
+        {
+            return null;
+        }
+        try
+        {
+            return _adapter.fromJson(data);
+        }
+        catch (IOException e)
+        {
+            throw new IllegalArgumentException("Failed to decode Json \"" + data + "\"", e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package core.redis.codec;
+
+import core.redis.data.MinecraftServer;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * This is the compact binary {@link RedisCodec} for {@link MinecraftServer}s.
+ *
+ * @author Preston Brown
+ */
+public class MinecraftServerCodec extends BinaryRedisCodec<MinecraftServer> {
+
+    @Override
+    protected int getVersion()
+    {
+        return 2;
+    }
+
+    @Override
+    protected void write(MinecraftServer server, DataOutputStream output) throws IOException
+    {
+        writeString(server.getPublicIP(), output);
+        output.writeShort(server.getPort());
+        writeString(server.getServerName(), output);
+        writeString(server.getServerType(), output);
+        output.writeShort(server.getPlayerCount());
+        output.writeShort(server.getPlayerLimit());
+        writeString(server.getMotd(), output);
+        output.writeLong(server.getMaxRam());
+        output.writeLong(server.getFreeRam());
+        writeString(server.getVersion(), output);
+        output.writeFloat((float) server.getTps());
+        output.writeFloat((float) server.getTickInterval());
+    }
+
+    @Override
+    protected MinecraftServer read(int version, DataInputStream input) throws IOException
+    {
+        String publicIP = readString(input);
+        int port = input.readUnsignedShort();
+        String serverName = readString(input);
+        String serverType = readString(input);
+        int playerCount = input.readUnsignedShort();
+        int playerLimit = input.readUnsignedShort();
+        String motd = readString(input);
+        long maxRam = input.readLong();
+        long freeRam = input.readLong();
+        String serverVersion = readString(input);
+        double tps = version >= 2 ? input.readFloat() : -1;
+        double tickInterval = version >= 2 ? input.readFloat() : -1;
+        return new MinecraftServer(publicIP, port, serverName, serverType, playerCount, playerLimit, motd, maxRam, freeRam, serverVersion, tps, tickInterval);
+    }
+}
@@ -0,0 +1,149 @@
+package core.redis.codec;
+
+import core.redis.data.MinecraftServer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This converts a {@link MinecraftServer} to and from the fields of a redis hash. Storing servers as hashes lets
+ * the heartbeat write only the fields that changed instead of the whole server.
+ *
+ * @author Preston Brown
+ */
+public class MinecraftServerFields {
+
+    public static final String PUBLIC_IP = "ip";
+    public static final String PORT = "port";
+    public static final String SERVER_NAME = "name";
+    public static final String SERVER_TYPE = "type";
+    public static final String PLAYER_COUNT = "players";
+    public static final String PLAYER_LIMIT = "limit";
+    public static final String MOTD = "motd";
+    public static final String MAX_RAM = "maxram";
+    public static final String FREE_RAM = "freeram";
+    public static final String VERSION = "version";
+    public static final String TPS = "tps";
+    public static final String TICK_INTERVAL = "tickinterval";
+
+    /**
+     * The fields that change between heartbeats. Every other field is only written when the whole server is written.
+     */
+    public static final Set<String> DYNAMIC_FIELDS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(PLAYER_COUNT, FREE_RAM, TPS, TICK_INTERVAL)));
+
+    /**
+     * Returns every field of the given {@link MinecraftServer}.
+     *
+     * @param server the {@link MinecraftServer} being converted
+     * @return a map of every field name to its value
+     */
+    public static Map<String, String> toFields(MinecraftServer server)
+    {
+        Map<String, String> fields = new HashMap<>();
+        fields.put(PUBLIC_IP, String.valueOf(server.getPublicIP()));
+        fields.put(PORT, String.valueOf(server.getPort()));
+        fields.put(SERVER_NAME, server.getServerName());
+        fields.put(SERVER_TYPE, server.getServerType());
+        fields.put(PLAYER_COUNT, String.valueOf(server.getPlayerCount()));
+        fields.put(PLAYER_LIMIT, String.valueOf(server.getPlayerLimit()));
+        fields.put(MOTD, String.valueOf(server.getMotd()));
+        fields.put(MAX_RAM, String.valueOf(server.getMaxRam()));
+        fields.put(FREE_RAM, String.valueOf(server.getFreeRam()));
+        fields.put(VERSION, String.valueOf(server.getVersion()));
+        fields.put(TPS, formatDecimal(server.getTps()));
+        fields.put(TICK_INTERVAL, formatDecimal(server.getTickInterval()));
+        return fields;
+    }
+
+    /**
+     * Creates a {@link MinecraftServer} from the fields of a redis hash. If the name or type is missing null is returned.
+     *
+     * @param fields a map of every field name to its value
+     * @return the {@link MinecraftServer} stored in the fields, otherwise null
+     */
+    public static MinecraftServer fromFields(Map<String, String> fields)
+    {
+        if (fields == null || fields.get(SERVER_NAME) == null || fields.get(SERVER_TYPE) == null)
+        {
+            return null;
+        }
+        return new MinecraftServer(fields.get(PUBLIC_IP), parseInt(fields.get(PORT)), fields.get(SERVER_NAME), fields.get(SERVER_TYPE),
+                parseInt(fields.get(PLAYER_COUNT)), parseInt(fields.get(PLAYER_LIMIT)), fields.get(MOTD), parseLong(fields.get(MAX_RAM)),
+                parseLong(fields.get(FREE_RAM)), fields.get(VERSION), parseDouble(fields.get(TPS)), parseDouble(fields.get(TICK_INTERVAL)));
+    }
+
+    /**
+     * Returns the dynamic fields that are different in the current {@link MinecraftServer}. If any other field has
+     * changed null is returned, and the whole server should be written instead.
+     *
+     * @param previous the {@link MinecraftServer} sent in the last heartbeat
+     * @param current the {@link MinecraftServer} being sent in this heartbeat
+     * @return the dynamic fields that changed, otherwise null if a static field changed
+     */
+    public static Map<String, String> diff(MinecraftServer previous, MinecraftServer current)
+    {
+        Map<String, String> before = toFields(previous);
+        Map<String, String> changed = new HashMap<>();
+        for (Map.Entry<String, String> field : toFields(current).entrySet())
+        {
+            if (field.getValue().equals(before.get(field.getKey())))
+            {
+                continue;
+            }
+            if (!DYNAMIC_FIELDS.contains(field.getKey()))
+            {
+                return null;
+            }
+            changed.put(field.getKey(), field.getValue());
+        }
+        return changed;
+    }
+
+    /**
+     * Rounds the decimal to two places so small changes are not treated as changes.
+     */
+    private static String formatDecimal(double value)
+    {
+        return String.valueOf(Math.round(value * 100) / 100.0);
+    }
+
+    private static int parseInt(String value)
+    {
+        try
+        {
+            return value == null ? 0 : Integer.parseInt(value);
+        }
+        catch (NumberFormatException e)
+        {
+            return 0;
+        }
+    }
+
+    private static long parseLong(String value)
+    {
+        try
+        {
+            return value == null ? 0 : Long.parseLong(value);
+        }
+        catch (NumberFormatException e)
+        {
+            return 0;
+        }
+    }
+
+    private static double parseDouble(String value)
+    {
+        try
+        {
+            return value == null ? -1 : Double.parseDouble(value);
+        }
+        catch (NumberFormatException e)
+        {
+            return -1;
+        }
+    }
+}
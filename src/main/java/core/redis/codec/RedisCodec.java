@@ -0,0 +1,26 @@
+package core.redis.codec;
+
+/**
+ * This converts objects to and from the strings that are stored in redis and sent through redis channels.
+ * Implementations must be thread safe because a single codec is shared by every thread.
+ *
+ * @author Preston Brown
+ */
+public interface RedisCodec<T> {
+
+    /**
+     * Encodes the given object into the string that will be stored in redis.
+     *
+     * @param value the object that is being encoded
+     * @return the encoded object
+     */
+    public String encode(T value);
+
+    /**
+     * Decodes the given string back into its original object. If data is null, null is returned.
+     *
+     * @param data the string retrieved from redis
+     * @return the decoded object
+     */
+    public T decode(String data);
+}
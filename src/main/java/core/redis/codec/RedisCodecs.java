@@ -0,0 +1,43 @@
+package core.redis.codec;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores the {@link RedisCodec} used for every class that is stored in redis. Classes without a registered codec
+ * are encoded as Json with a {@link GsonRedisCodec}, which is created once and then reused.
+ *
+ * <p>Every server on the network must use the same codec for a class, so a binary codec such as
+ * {@link MinecraftServerCodec} should only be registered once every server is able to read it.</p>
+ *
+ * @author Preston Brown
+ */
+public class RedisCodecs {
+
+    private static final ConcurrentHashMap<Class<?>, RedisCodec<?>> CODECS = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the {@link RedisCodec} used for the given class.
+     *
+     * @param klazz the class that is being encoded
+     * @param <T> the type of the class
+     * @return the {@link RedisCodec} used for the given class
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> RedisCodec<T> get(Class<T> klazz)
+    {
+        return (RedisCodec<T>) CODECS.computeIfAbsent(klazz, GsonRedisCodec::new);
+    }
+
+    /**
+     * Registers the {@link RedisCodec} that should be used for the given class. This must be done before
+     * any repository using the class is created.
+     *
+     * @param klazz the class that is being encoded
+     * @param codec the {@link RedisCodec} used for the class
+     * @param <T> the type of the class
+     */
+    public static <T> void register(Class<T> klazz, RedisCodec<T> codec)
+    {
+        CODECS.put(klazz, codec);
+    }
+}
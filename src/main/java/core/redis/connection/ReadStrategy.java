@@ -0,0 +1,19 @@
+package core.redis.connection;
+
+/**
+ * All of the ways reads can be spread across the healthy replicas.
+ *
+ * @author Preston Brown
+ */
+public enum ReadStrategy {
+
+    /**
+     * Each read uses the next healthy replica in turn.
+     */
+    ROUND_ROBIN,
+
+    /**
+     * Each read uses the healthy replica with the fewest connections currently borrowed.
+     */
+    LEAST_OUTSTANDING;
+}
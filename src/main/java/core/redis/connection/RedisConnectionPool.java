@@ -6,18 +6,32 @@ import redis.clients.jedis.JedisPool;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Scanner;
+import java.util.Set;
 
 /**
  * Stores all of the {@link RedisServerData} objects that are used to create {@link  JedisPool}s.
  *
+ * <p>Every line in redis.dat is one of the following:</p>
+ * <ul>
+ *     <li>{@code MASTER <host> <port> <password>}</li>
+ *     <li>{@code SLAVE <host> <port> <password>}, which may be repeated for every read replica</li>
+ *     <li>{@code SENTINEL <host> <port> <masterName>}, which may be repeated for every sentinel</li>
+ *     <li>{@code READSTRATEGY <ROUND_ROBIN|LEAST_OUTSTANDING>}</li>
+ * </ul>
+ *
  * @author Preston Brown
  */
 public class RedisConnectionPool {
 
     private static RedisConnectionPool _instance;
     private RedisServerData _master;
-    private RedisServerData _slave;
+    private List<RedisServerData> _slaves = new ArrayList<>();
+    private Set<String> _sentinels = new HashSet<>();
+    private String _sentinelMasterName;
+    private ReadStrategy _readStrategy = ReadStrategy.ROUND_ROBIN;
 
     /**
      * Gets the existing instance of {@link RedisConnectionPool}. If this instant has not
@@ -61,6 +75,26 @@ public class RedisConnectionPool {
 
             for (String line : lines)
             {
+                String[] args = line.split(" ");
+                if (args.length == 4 && args[0].equalsIgnoreCase("SENTINEL"))
+                {
+                    _sentinels.add(args[1] + ":" + args[2]);
+                    _sentinelMasterName = args[3];
+                    continue;
+                }
+                if (args.length == 2 && args[0].equalsIgnoreCase("READSTRATEGY"))
+                {
+                    try
+                    {
+                        _readStrategy = ReadStrategy.valueOf(args[1].toUpperCase());
+                    }
+                    catch (IllegalArgumentException e)
+                    {
+                        System.out.println("Unknown read strategy \"" + args[1] + "\" in redis.dat");
+                    }
+                    continue;
+                }
+
                 RedisServerData serverData = RedisUtil.deserializeJedisServerData(line);
                 if (serverData != null)
                 {
@@ -70,7 +104,7 @@ public class RedisConnectionPool {
                     }
                     else
                     {
-                        _slave = serverData;
+                        _slaves.add(serverData);
                     }
                 }
                 else
@@ -104,13 +138,50 @@ public class RedisConnectionPool {
     }
 
     /**
-     * Returns a {@link RedisServerData} object for the slave connection. If there is no slave connection
-     * the master connection is returned.
+     * Returns the {@link RedisServerData} object for the first slave connection. If there is no slave connection
+     * null is returned.
      *
      * @return a {@link RedisServerData} object for the slave connection
      */
     public RedisServerData getSlaveConnection()
     {
-        return _slave;
+        return _slaves.isEmpty() ? null : _slaves.get(0);
+    }
+
+    /**
+     * Returns the {@link RedisServerData} objects for every slave connection.
+     *
+     * @return the {@link RedisServerData} objects for every slave connection
+     */
+    public List<RedisServerData> getSlaveConnections()
+    {
+        return _slaves;
+    }
+
+    /**
+     * Returns the host:port of every sentinel. If no sentinels are configured the set is empty and the
+     * master connection is used directly.
+     *
+     * @return the host:port of every sentinel
+     */
+    public Set<String> getSentinels()
+    {
+        return _sentinels;
+    }
+
+    /**
+     * @return the name of the master monitored by the sentinels
+     */
+    public String getSentinelMasterName()
+    {
+        return _sentinelMasterName;
+    }
+
+    /**
+     * @return the {@link ReadStrategy} used to spread reads across the slave connections
+     */
+    public ReadStrategy getReadStrategy()
+    {
+        return _readStrategy;
     }
 }
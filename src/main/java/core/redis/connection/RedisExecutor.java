@@ -0,0 +1,204 @@
+package core.redis.connection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * This runs blocking redis calls on a dedicated thread pool that is sized to the {@link redis.clients.jedis.JedisPool}s
+ * so redis tasks never wait on each other for a connection and never tie up the server's own async workers.
+ *
+ * @author Preston Brown
+ */
+public class RedisExecutor {
+
+    private static final int QUEUE_CAPACITY = 4096;
+    private static RedisExecutor _instance;
+
+    private ThreadPoolExecutor _executor;
+    private volatile Executor _mainThreadExecutor;
+    private final List<Runnable> _pendingMainThreadTasks = new ArrayList<>();
+    private final Executor _mainThread = this::runOnMainThread;
+
+    /**
+     * Creates a new instance of {@link RedisExecutor} with one thread for every connection in the largest
+     * {@link redis.clients.jedis.JedisPool}.
+     */
+    private RedisExecutor()
+    {
+        int threads = Math.max(getMaxTotal(RedisConnectionPool.getInstance().getMasterConnection()), getMaxTotal(RedisConnectionPool.getInstance().getSlaveConnection()));
+        AtomicInteger threadCount = new AtomicInteger();
+        _executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+            Thread thread = new Thread(runnable, "Redis-Async-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        _executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns the existing instance of {@link RedisExecutor}.
+     *
+     * @return the existing instance of {@link RedisExecutor}
+     */
+    public static synchronized RedisExecutor getInstance()
+    {
+        if (_instance == null)
+        {
+            _instance = new RedisExecutor();
+        }
+        return _instance;
+    }
+
+    /**
+     * Returns the maximum amount of connections in the pool described by the given {@link RedisServerData}.
+     *
+     * @param serverData the {@link RedisServerData} of the pool
+     * @return the maximum amount of connections in the pool, or 1 if there is no pool
+     */
+    private static int getMaxTotal(RedisServerData serverData)
+    {
+        return serverData == null ? 1 : Math.max(1, serverData.getJedisPoolConfig().getMaxTotal());
+    }
+
+    /**
+     * Runs the given supplier on the redis thread pool. If the pool's queue is full the returned future is
+     * completed exceptionally with a {@link RejectedExecutionException}.
+     *
+     * @param supplier the blocking redis call
+     * @param <T> the type returned by the redis call
+     * @return a {@link CompletableFuture} that is completed with the result of the redis call
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> supplier)
+    {
+        try
+        {
+            return CompletableFuture.supplyAsync(supplier, _executor);
+        }
+        catch (RejectedExecutionException e)
+        {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    /**
+     * Runs the given task on the redis thread pool. If the pool's queue is full the returned future is
+     * completed exceptionally with a {@link RejectedExecutionException}.
+     *
+     * @param runnable the blocking redis call
+     * @return a {@link CompletableFuture} that is completed once the redis call has finished
+     */
+    public CompletableFuture<Void> run(Runnable runnable)
+    {
+        try
+        {
+            return CompletableFuture.runAsync(runnable, _executor);
+        }
+        catch (RejectedExecutionException e)
+        {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    /**
+     * Returns the {@link Executor} that runs tasks on the main server thread. This should be passed into methods
+     * such as {@link CompletableFuture#thenAcceptAsync(java.util.function.Consumer, Executor)} to handle the result of
+     * a redis call on the main server thread. Tasks given to it before the main thread executor has been set are
+     * queued, and are passed to it in order once it is set.
+     *
+     * @return the {@link Executor} that runs tasks on the main server thread
+     */
+    public Executor getMainThreadExecutor()
+    {
+        return _mainThread;
+    }
+
+    /**
+     * Sets the {@link Executor} that runs tasks on the main server thread, and passes it every task that was queued
+     * before it was set.
+     *
+     * @param mainThreadExecutor the {@link Executor} that runs tasks on the main server thread
+     */
+    public void setMainThreadExecutor(Executor mainThreadExecutor)
+    {
+        synchronized (_pendingMainThreadTasks)
+        {
+            // The queued tasks are passed on before the executor is published so later tasks cannot run before them
+            for (Runnable task : _pendingMainThreadTasks)
+            {
+                mainThreadExecutor.execute(task);
+            }
+            _pendingMainThreadTasks.clear();
+            _mainThreadExecutor = mainThreadExecutor;
+        }
+    }
+
+    /**
+     * Runs the task with the main thread executor, or queues it if the main thread executor has not been set yet.
+     * Tasks are never ran on the calling thread, since it is usually a redis thread that may not use the Bukkit API.
+     *
+     * @param task the task that must run on the main server thread
+     */
+    private void runOnMainThread(Runnable task)
+    {
+        Executor executor = _mainThreadExecutor;
+        if (executor == null)
+        {
+            synchronized (_pendingMainThreadTasks)
+            {
+                executor = _mainThreadExecutor;
+                if (executor == null)
+                {
+                    _pendingMainThreadTasks.add(task);
+                    return;
+                }
+            }
+        }
+        executor.execute(task);
+    }
+
+    /**
+     * @return the amount of redis tasks that are currently running
+     */
+    public int getActiveCount()
+    {
+        return _executor.getActiveCount();
+    }
+
+    /**
+     * @return the amount of redis tasks waiting for a thread
+     */
+    public int getQueueSize()
+    {
+        return _executor.getQueue().size();
+    }
+
+    /**
+     * Stops accepting new redis tasks and waits up to the given amount of time for queued tasks to finish.
+     *
+     * @param timeout the maximum amount of time in milliseconds to wait
+     */
+    public void shutdown(long timeout)
+    {
+        _executor.shutdown();
+        try
+        {
+            _executor.awaitTermination(timeout, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
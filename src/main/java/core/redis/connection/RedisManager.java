@@ -1,11 +1,11 @@
 package core.redis.connection;
 
-import core.redis.RedisUtil;
+import core.redis.repository.AsyncServerRepository;
+import core.redis.repository.ServerRegistryView;
 import core.redis.repository.ServerRepository;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 
-import java.util.HashMap;
 
 /**
  * This manages all of the {@link JedisPool} instances and should be used to retrieve {@link Jedis} connections.
@@ -14,14 +14,17 @@ import java.util.HashMap;
  */
 public class RedisManager {
 
-    private static final JedisPool MASTER_POOL = RedisUtil.generateJedisPool(RedisConnectionPool.getInstance().getMasterConnection());
-    private static final JedisPool SLAVE_POOL = RedisUtil.generateJedisPool(RedisConnectionPool.getInstance().getSlaveConnection());
+    private static final long REGISTRY_SYNC_INTERVAL = 30000L;
+    private static final RedisTopology TOPOLOGY = new RedisTopology(RedisConnectionPool.getInstance());
     private ServerRepository _serverRepository;
+    private AsyncServerRepository _asyncServerRepository;
+    private ServerRegistryView _registryView;
     private static RedisManager _instance;
 
     private RedisManager()
     {
         _serverRepository = new ServerRepository();
+        _asyncServerRepository = new AsyncServerRepository(_serverRepository);
     }
 
     /**
@@ -45,28 +48,28 @@ public class RedisManager {
      */
     public static Jedis getMasterConnection()
     {
-        return MASTER_POOL.getResource();
+        return TOPOLOGY.getMasterConnection();
     }
 
     /**
-     * This returns a {@link Jedis} object from the slave pool. If the slave pool is null a {@link Jedis} object is
-     * returned from the master connection.
+     * This returns a {@link Jedis} object from one of the healthy slave pools. If there are no healthy slave pools
+     * a {@link Jedis} object is returned from the master connection.
      *
      * @return a {@link Jedis} object from the slave connection
      */
     public static Jedis getSlaveConnection()
     {
-        if (SLAVE_POOL == null)
-        {
-            return getMasterConnection();
-        }
+        return TOPOLOGY.getReplicaConnection();
+    }
 
-        Jedis jedis = SLAVE_POOL.getResource();
-        if (RedisConnectionPool.getInstance().getMasterConnection() != null)
-        {
-            jedis.slaveof(RedisConnectionPool.getInstance().getMasterConnection().getHost(), RedisConnectionPool.getInstance().getMasterConnection().getPort());
-        }
-        return jedis;
+    /**
+     * Returns the {@link RedisTopology} that stores the master and replica pools.
+     *
+     * @return the {@link RedisTopology} that stores the master and replica pools
+     */
+    public static RedisTopology getTopology()
+    {
+        return TOPOLOGY;
     }
 
     /**
@@ -90,4 +93,31 @@ public class RedisManager {
     {
         return _serverRepository;
     }
+
+    /**
+     * This will return the active {@link AsyncServerRepository} instance that runs every call to the
+     * {@link ServerRepository} on the {@link RedisExecutor}.
+     *
+     * @return the active {@link AsyncServerRepository} instance
+     */
+    public AsyncServerRepository getAsyncServerRepository()
+    {
+        return _asyncServerRepository;
+    }
+
+    /**
+     * This will return the {@link ServerRegistryView} that keeps a local copy of the {@link ServerRepository}. The view
+     * is started the first time it is requested.
+     *
+     * @return the active {@link ServerRegistryView} instance
+     */
+    public synchronized ServerRegistryView getRegistryView()
+    {
+        if (_registryView == null)
+        {
+            _registryView = new ServerRegistryView(_serverRepository, REGISTRY_SYNC_INTERVAL, _serverRepository.getServerTimeToLive());
+            _registryView.start();
+        }
+        return _registryView;
+    }
 }
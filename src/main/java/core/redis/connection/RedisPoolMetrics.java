@@ -0,0 +1,102 @@
+package core.redis.connection;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.util.Pool;
+
+/**
+ * This is a snapshot of the usage of a single redis connection pool. It should be used to size the pools
+ * configured in redis.dat, if there are often waiters or the borrow wait time is high the pool is too small.
+ *
+ * @author Preston Brown
+ */
+public class RedisPoolMetrics {
+
+    private String _name;
+    private int _maxTotal;
+    private int _active;
+    private int _idle;
+    private int _waiters;
+    private long _meanBorrowWait;
+    private long _maxBorrowWait;
+
+    /**
+     * Creates a new snapshot of the given pool.
+     *
+     * @param name the name of the pool, such as master or the host:port of a replica
+     * @param pool the pool being measured
+     * @param serverData the {@link RedisServerData} the pool was created from, which may be null
+     */
+    public RedisPoolMetrics(String name, Pool<Jedis> pool, RedisServerData serverData)
+    {
+        _name = name;
+        _maxTotal = serverData == null ? -1 : serverData.getJedisPoolConfig().getMaxTotal();
+        _active = pool.getNumActive();
+        _idle = pool.getNumIdle();
+        _waiters = pool.getNumWaiters();
+        _meanBorrowWait = pool.getMeanBorrowWaitTimeMillis();
+        _maxBorrowWait = pool.getMaxBorrowWaitTimeMillis();
+    }
+
+    /**
+     * @return the name of the pool
+     */
+    public String getName()
+    {
+        return _name;
+    }
+
+    /**
+     * @return the maximum amount of connections in the pool, or -1 if it is unknown
+     */
+    public int getMaxTotal()
+    {
+        return _maxTotal;
+    }
+
+    /**
+     * @return the amount of connections currently borrowed from the pool
+     */
+    public int getActive()
+    {
+        return _active;
+    }
+
+    /**
+     * @return the amount of connections currently idle in the pool
+     */
+    public int getIdle()
+    {
+        return _idle;
+    }
+
+    /**
+     * @return the amount of threads currently waiting for a connection
+     */
+    public int getWaiters()
+    {
+        return _waiters;
+    }
+
+    /**
+     * @return the mean time in milliseconds a borrow waited for a connection
+     */
+    public long getMeanBorrowWait()
+    {
+        return _meanBorrowWait;
+    }
+
+    /**
+     * @return the longest time in milliseconds a borrow waited for a connection
+     */
+    public long getMaxBorrowWait()
+    {
+        return _maxBorrowWait;
+    }
+
+    @Override
+    public String toString()
+    {
+        return _name + " active=" + _active + "/" + _maxTotal + " idle=" + _idle + " waiters=" + _waiters
+                + " borrowWait(mean=" + _meanBorrowWait + "ms, max=" + _maxBorrowWait + "ms)";
+    }
+}
@@ -2,9 +2,25 @@ package core.redis.connection;
 
 import redis.clients.jedis.JedisPoolConfig;
 
+import java.util.Collections;
+import java.util.Map;
+
 /**
  * Stores the settings for a {@link redis.clients.jedis.JedisPool}.
  *
+ * <p>The pool can be tuned by adding key=value options to the end of the line in redis.dat, for example
+ * {@code MASTER localhost 6379 password maxTotal=32 minIdle=4 maxWait=2000 connectTimeout=2000 soTimeout=5000}.
+ * Every option that is not given keeps its default.</p>
+ * <ul>
+ *     <li>{@code maxTotal} the maximum amount of connections, defaults to 10</li>
+ *     <li>{@code maxIdle} the maximum amount of idle connections, defaults to 8</li>
+ *     <li>{@code minIdle} the amount of connections opened when the pool is created and kept idle, defaults to 0</li>
+ *     <li>{@code maxWait} the time in milliseconds a borrow waits for a free connection, defaults to 2000</li>
+ *     <li>{@code connectTimeout} the time in milliseconds to wait while connecting, defaults to 2000</li>
+ *     <li>{@code soTimeout} the time in milliseconds to wait for a reply, defaults to 2000</li>
+ *     <li>{@code testOnBorrow} if connections are pinged before they are borrowed, defaults to false</li>
+ * </ul>
+ *
  * @author Preston Brown
  */
 public class RedisServerData {
@@ -14,6 +30,8 @@ public class RedisServerData {
     private String _password;
     private boolean _master;
     private JedisPoolConfig _jedisPoolConfig;
+    private int _connectTimeout = 2000;
+    private int _soTimeout = 2000;
 
     /**
      * Creates a new instance of {@link RedisServerData} using the given data.
@@ -24,23 +42,70 @@ public class RedisServerData {
      * @param master if this JedisPool is a master connection
      */
     public RedisServerData(String host, int port, String password, boolean master)
+    {
+        this(host, port, password, master, Collections.<String, String>emptyMap());
+    }
+
+    /**
+     * Creates a new instance of {@link RedisServerData} using the given data and pool options.
+     *
+     * @param host the hostname of the Redis server
+     * @param port the port number of the Redis server
+     * @param password the password used to connect to the Redis server
+     * @param master if this JedisPool is a master connection
+     * @param options the pool options, mapped from the lowercase option name to its value
+     */
+    public RedisServerData(String host, int port, String password, boolean master, Map<String, String> options)
     {
         _host = host;
         _port = port;
         _password = password;
         _master = master;
         _jedisPoolConfig = new JedisPoolConfig();
-        configureJedisPoolConfig();
+        configureJedisPoolConfig(options);
     }
 
     /**
-     * Sets the configuration settings for JedisPoolConfig.
+     * Sets the configuration settings for JedisPoolConfig using the defaults and any options given in redis.dat.
+     *
+     * @param options the pool options, mapped from the lowercase option name to its value
      */
-    private void configureJedisPoolConfig()
+    private void configureJedisPoolConfig(Map<String, String> options)
     {
         _jedisPoolConfig.setSoftMinEvictableIdleTimeMillis(120000L);
-        _jedisPoolConfig.setMaxIdle(8);
-        _jedisPoolConfig.setMaxTotal(10);
+        _jedisPoolConfig.setMaxIdle(getInt(options, "maxidle", 8));
+        _jedisPoolConfig.setMaxTotal(getInt(options, "maxtotal", 10));
+        _jedisPoolConfig.setMinIdle(getInt(options, "minidle", 0));
+        _jedisPoolConfig.setMaxWaitMillis(getInt(options, "maxwait", 2000));
+        _jedisPoolConfig.setTestOnBorrow(Boolean.parseBoolean(options.getOrDefault("testonborrow", "false")));
+        _connectTimeout = getInt(options, "connecttimeout", _connectTimeout);
+        _soTimeout = getInt(options, "sotimeout", _soTimeout);
+    }
+
+    /**
+     * Returns the integer value of the given option. If the option is missing or is not a number the default is returned.
+     *
+     * @param options the pool options
+     * @param name the lowercase name of the option
+     * @param defaultValue the value used if the option is missing
+     * @return the integer value of the given option
+     */
+    private int getInt(Map<String, String> options, String name, int defaultValue)
+    {
+        String value = options.get(name);
+        if (value == null)
+        {
+            return defaultValue;
+        }
+        try
+        {
+            return Integer.parseInt(value);
+        }
+        catch (NumberFormatException e)
+        {
+            System.out.println("Invalid value \"" + value + "\" for " + name + " in redis.dat, using " + defaultValue);
+            return defaultValue;
+        }
     }
 
     /**
@@ -83,6 +148,26 @@ public class RedisServerData {
         return _jedisPoolConfig;
     }
 
+    /**
+     * Returns the time in milliseconds to wait while connecting to the Redis server.
+     *
+     * @return the connect timeout in milliseconds
+     */
+    public int getConnectTimeout()
+    {
+        return _connectTimeout;
+    }
+
+    /**
+     * Returns the time in milliseconds to wait for the Redis server to reply to a command.
+     *
+     * @return the socket timeout in milliseconds
+     */
+    public int getSoTimeout()
+    {
+        return _soTimeout;
+    }
+
     /**
      * Returns true if this is the master connection, otherwise it is a slave connection and false is returned.
      *
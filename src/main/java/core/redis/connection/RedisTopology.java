@@ -0,0 +1,224 @@
+package core.redis.connection;
+
+import core.redis.RedisLogger;
+import core.redis.RedisUtil;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.util.Pool;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stores the connection pools for the master and every read replica. Writes always go to the master, which is found
+ * through Sentinel when sentinels are configured. Reads are spread across the healthy replicas using the configured
+ * {@link ReadStrategy}, and replicas that fail their health checks are removed from rotation until they recover.
+ *
+ * @author Preston Brown
+ */
+public class RedisTopology {
+
+    private static final RedisLogger LOGGER = RedisLogger.getLogger("Redis-Topology");
+    private static final long HEALTH_CHECK_INTERVAL = 5000L;
+    private static final int MAX_FAILURES = 3;
+
+    private Pool<Jedis> _masterPool;
+    private RedisServerData _masterData;
+    private List<ReplicaNode> _replicas = new ArrayList<>();
+    private ReadStrategy _readStrategy;
+    private AtomicInteger _nextReplica = new AtomicInteger();
+    private ScheduledExecutorService _healthCheck;
+
+    /**
+     * Creates a new {@link RedisTopology} using the connections found in the {@link RedisConnectionPool}.
+     *
+     * @param connectionPool the {@link RedisConnectionPool} containing every connection
+     */
+    public RedisTopology(RedisConnectionPool connectionPool)
+    {
+        _masterData = connectionPool.getMasterConnection();
+        if (connectionPool.getSentinels().isEmpty())
+        {
+            _masterPool = RedisUtil.generateJedisPool(connectionPool.getMasterConnection());
+        }
+        else
+        {
+            _masterPool = RedisUtil.generateJedisSentinelPool(connectionPool.getSentinelMasterName(), connectionPool.getSentinels(), connectionPool.getMasterConnection());
+        }
+
+        for (RedisServerData replica : connectionPool.getSlaveConnections())
+        {
+            _replicas.add(new ReplicaNode(replica));
+        }
+        _readStrategy = connectionPool.getReadStrategy();
+
+        if (!_replicas.isEmpty())
+        {
+            _healthCheck = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "Redis-Health-Check");
+                thread.setDaemon(true);
+                return thread;
+            });
+            _healthCheck.scheduleWithFixedDelay(this::checkReplicas, HEALTH_CHECK_INTERVAL, HEALTH_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * This returns a {@link Jedis} object from the master pool.
+     *
+     * @return a {@link Jedis} object from the master pool
+     */
+    public Jedis getMasterConnection()
+    {
+        return _masterPool.getResource();
+    }
+
+    /**
+     * This returns a {@link Jedis} object from a healthy replica chosen by the {@link ReadStrategy}. If a replica
+     * cannot provide a connection the next healthy replica is tried, and if there are no healthy replicas a connection
+     * to the master is returned.
+     *
+     * <p>Only a failure to connect counts towards removing a replica from rotation. A replica whose pool is exhausted
+     * is busy rather than down, so the next replica is tried without recording a failure.</p>
+     *
+     * @return a {@link Jedis} object that can be used for reads
+     */
+    public Jedis getReplicaConnection()
+    {
+        Set<ReplicaNode> tried = new HashSet<>();
+        for (int attempt = 0; attempt < _replicas.size(); attempt++)
+        {
+            ReplicaNode replica = selectReplica(tried);
+            if (replica == null)
+            {
+                break;
+            }
+            tried.add(replica);
+            try
+            {
+                return replica.getPool().getResource();
+            }
+            catch (JedisConnectionException e)
+            {
+                if (replica.recordFailure(MAX_FAILURES))
+                {
+                    LOGGER.log(RedisLogger.Level.WARN, "replica " + replica + " marked unhealthy");
+                }
+            }
+            catch (JedisException e)
+            {
+                // The pool is exhausted, which Jedis reports as a JedisException wrapping a NoSuchElementException
+            }
+        }
+        return getMasterConnection();
+    }
+
+    /**
+     * Chooses the healthy replica that should receive the next read, skipping the replicas that were already tried.
+     *
+     * @param tried the replicas that could not provide a connection for this read
+     * @return the replica that should receive the next read, or null if there are no healthy replicas left
+     */
+    private ReplicaNode selectReplica(Set<ReplicaNode> tried)
+    {
+        ReplicaNode selected = null;
+        if (_readStrategy == ReadStrategy.LEAST_OUTSTANDING)
+        {
+            for (ReplicaNode replica : _replicas)
+            {
+                if (replica.isHealthy() && !tried.contains(replica) && (selected == null || replica.getOutstanding() < selected.getOutstanding()))
+                {
+                    selected = replica;
+                }
+            }
+            return selected;
+        }
+
+        int start = Math.abs(_nextReplica.getAndIncrement() % _replicas.size());
+        for (int i = 0; i < _replicas.size(); i++)
+        {
+            ReplicaNode replica = _replicas.get((start + i) % _replicas.size());
+            if (replica.isHealthy() && !tried.contains(replica))
+            {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Pings every replica, removing replicas that keep failing from rotation and returning replicas that
+     * respond again.
+     */
+    private void checkReplicas()
+    {
+        for (ReplicaNode replica : _replicas)
+        {
+            boolean wasHealthy = replica.isHealthy();
+            try (Jedis jedis = replica.getPool().getResource())
+            {
+                jedis.ping();
+                replica.recordSuccess();
+                if (!wasHealthy)
+                {
+                    LOGGER.log(RedisLogger.Level.INFO, "replica " + replica + " is healthy again");
+                }
+            }
+            catch (Exception e)
+            {
+                if (e instanceof JedisException && e.getCause() instanceof NoSuchElementException)
+                {
+                    // Every connection of the replica is in use, which says nothing about its health
+                    continue;
+                }
+                if (replica.recordFailure(MAX_FAILURES))
+                {
+                    LOGGER.log(RedisLogger.Level.WARN, "replica " + replica + " marked unhealthy after failing its health check");
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the {@link Pool} used to connect to the master
+     */
+    public Pool<Jedis> getMasterPool()
+    {
+        return _masterPool;
+    }
+
+    /**
+     * Returns a snapshot of the usage of the master pool followed by every replica pool.
+     *
+     * @return a snapshot of the usage of every pool
+     */
+    public List<RedisPoolMetrics> getPoolMetrics()
+    {
+        List<RedisPoolMetrics> metrics = new ArrayList<>();
+        if (_masterPool != null)
+        {
+            metrics.add(new RedisPoolMetrics("master", _masterPool, _masterData));
+        }
+        for (ReplicaNode replica : _replicas)
+        {
+            metrics.add(new RedisPoolMetrics("replica " + replica, replica.getPool(), replica.getServerData()));
+        }
+        return metrics;
+    }
+
+    /**
+     * @return every read replica
+     */
+    public List<ReplicaNode> getReplicas()
+    {
+        return _replicas;
+    }
+}
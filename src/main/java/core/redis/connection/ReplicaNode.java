@@ -0,0 +1,94 @@
+package core.redis.connection;
+
+import core.redis.RedisUtil;
+import redis.clients.jedis.JedisPool;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This represents a single read replica along with its health.
+ *
+ * @author Preston Brown
+ */
+public class ReplicaNode {
+
+    private RedisServerData _serverData;
+    private JedisPool _pool;
+    private volatile boolean _healthy = true;
+    private AtomicInteger _consecutiveFailures = new AtomicInteger();
+
+    /**
+     * Creates a new {@link ReplicaNode} for the replica described by the given {@link RedisServerData}.
+     *
+     * @param serverData the {@link RedisServerData} of the replica
+     */
+    public ReplicaNode(RedisServerData serverData)
+    {
+        _serverData = serverData;
+        _pool = RedisUtil.generateJedisPool(serverData);
+    }
+
+    /**
+     * Records a successful health check or borrow. An unhealthy replica is made healthy again.
+     */
+    public void recordSuccess()
+    {
+        _consecutiveFailures.set(0);
+        _healthy = true;
+    }
+
+    /**
+     * Records a failed health check or borrow. Once the replica has failed the given amount of times in a row
+     * it is marked unhealthy and no longer receives reads.
+     *
+     * @param maxFailures the amount of failures in a row before the replica is marked unhealthy
+     * @return true if this failure marked the replica unhealthy
+     */
+    public boolean recordFailure(int maxFailures)
+    {
+        if (_consecutiveFailures.incrementAndGet() >= maxFailures && _healthy)
+        {
+            _healthy = false;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the {@link RedisServerData} of this replica
+     */
+    public RedisServerData getServerData()
+    {
+        return _serverData;
+    }
+
+    /**
+     * @return the {@link JedisPool} used to connect to this replica
+     */
+    public JedisPool getPool()
+    {
+        return _pool;
+    }
+
+    /**
+     * @return true if this replica is currently receiving reads
+     */
+    public boolean isHealthy()
+    {
+        return _healthy;
+    }
+
+    /**
+     * @return the amount of connections to this replica that are currently borrowed
+     */
+    public int getOutstanding()
+    {
+        return _pool.getNumActive();
+    }
+
+    @Override
+    public String toString()
+    {
+        return _serverData.getHost() + ":" + _serverData.getPort();
+    }
+}
@@ -17,6 +17,8 @@ public class MinecraftServer implements RedisData {
     private long _maxRam;
     private long _freeRam;
     private String _version;
+    private double _tps;
+    private double _tickInterval;
 
     /**
      * This creates a new instance of a {@link MinecraftServer} with the given data.
@@ -33,6 +35,26 @@ public class MinecraftServer implements RedisData {
      * @param version the version of Minecraft this server is running on
      */
     public MinecraftServer(String publicIP, int port, String serverName, String serverType, int playerCount, int playerLimit, String motd, long maxRam, long freeRam, String version) {
+        this(publicIP, port, serverName, serverType, playerCount, playerLimit, motd, maxRam, freeRam, version, -1, -1);
+    }
+
+    /**
+     * This creates a new instance of a {@link MinecraftServer} with the given data.
+     *
+     * @param publicIP the public IP address this Minecraft server is hosted on
+     * @param port the port this Minecraft server is hosted on
+     * @param serverName this Minecraft servers name
+     * @param serverType the name of this Minecraft servers {@link ServerType}
+     * @param playerCount the current player count on this server
+     * @param playerLimit the maximim amount of players allowed on this server
+     * @param motd this Minecraft servers MOTD
+     * @param maxRam the amount of ram on this Minecraft server in megabytes
+     * @param freeRam the amount of free ram on this Minecraft server in megabytes
+     * @param version the version of Minecraft this server is running on
+     * @param tps the recent ticks per second of this Minecraft server, or -1 if unknown
+     * @param tickInterval the recent average milliseconds between the ticks of this Minecraft server, or -1 if unknown
+     */
+    public MinecraftServer(String publicIP, int port, String serverName, String serverType, int playerCount, int playerLimit, String motd, long maxRam, long freeRam, String version, double tps, double tickInterval) {
         _publicIP = publicIP;
         _port = port;
         _serverName = serverName;
@@ -43,6 +65,8 @@ public class MinecraftServer implements RedisData {
         _maxRam = maxRam;
         _freeRam = freeRam;
         _version = version;
+        _tps = tps;
+        _tickInterval = tickInterval;
     }
 
     public String getPublicIP() {
@@ -86,6 +110,16 @@ public class MinecraftServer implements RedisData {
         return _version;
     }
 
+    public double getTps()
+    {
+        return _tps;
+    }
+
+    public double getTickInterval()
+    {
+        return _tickInterval;
+    }
+
     @Override
     public String getNameID()
     {
@@ -0,0 +1,124 @@
+package core.redis.message;
+
+import core.redis.RedisLogger;
+import core.redis.connection.RedisExecutor;
+import core.redis.message.commands.RedisCommand;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands every decoded {@link RedisCommand} to the executor chosen by its {@link CommandType} so a slow command
+ * never stalls the subscriber thread that receives messages for every other command type.
+ *
+ * @author Preston Brown
+ */
+public class CommandDispatcher {
+
+    private static final RedisLogger LOGGER = RedisLogger.getLogger("Redis-PubSub");
+    private static final int ASYNC_THREADS = 4;
+
+    private final ExecutorService _asyncPool;
+    private final ConcurrentHashMap<String, ExecutorService> _serialLanes = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new {@link CommandDispatcher} and starts the shared async pool.
+     */
+    public CommandDispatcher()
+    {
+        AtomicInteger threadCount = new AtomicInteger();
+        _asyncPool = Executors.newFixedThreadPool(ASYNC_THREADS, runnable -> createThread(runnable, "Redis-Command-" + threadCount.incrementAndGet()));
+    }
+
+    private static Thread createThread(Runnable runnable, String name)
+    {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Queues the command on the executor chosen by its {@link CommandType}. If the queue for the command type is full
+     * the {@link OverflowPolicy} of the command type decides whether the command is dropped or the caller waits. If
+     * the executor rejects the command it is counted as dropped.
+     *
+     * @param type the {@link CommandType} of the command
+     * @param command the command that is being executed
+     */
+    public void dispatch(CommandType type, RedisCommand command)
+    {
+        CommandMetrics metrics = type.getMetrics();
+        Semaphore queue = type.getQueue();
+        metrics.received();
+
+        if (type.getOverflowPolicy() == OverflowPolicy.BLOCK)
+        {
+            queue.acquireUninterruptibly();
+        }
+        else if (!queue.tryAcquire())
+        {
+            metrics.dropped();
+            return;
+        }
+
+        metrics.queued();
+        long queuedAt = System.nanoTime();
+        Runnable task = () -> {
+            long start = System.nanoTime();
+            long startTime = System.currentTimeMillis();
+            queue.release();
+            metrics.dequeued(start - queuedAt);
+            try
+            {
+                command.run();
+            }
+            catch (Exception e)
+            {
+                metrics.failed();
+                LOGGER.failure("command", type.getClassName(), startTime, e);
+            }
+            finally
+            {
+                metrics.executed(System.nanoTime() - start);
+            }
+        };
+
+        try
+        {
+            switch (type.getDispatchMode())
+            {
+                case MAIN_THREAD:
+                    RedisExecutor.getInstance().getMainThreadExecutor().execute(task);
+                    break;
+                case ASYNC:
+                    _asyncPool.execute(task);
+                    break;
+                case SERIAL:
+                    _serialLanes.computeIfAbsent(type.getClassName(), name -> Executors.newSingleThreadExecutor(runnable -> createThread(runnable, "Redis-Command-" + name))).execute(task);
+                    break;
+            }
+        }
+        catch (Exception e)
+        {
+            // The executor was shut down or the plugin was disabled, so the task will never release its permit
+            queue.release();
+            metrics.rejected();
+            LOGGER.failure("dispatch", type.getClassName(), System.currentTimeMillis(), e);
+        }
+    }
+
+    /**
+     * Stops every executor. Commands that have already been queued are still executed.
+     */
+    public void shutdown()
+    {
+        _asyncPool.shutdown();
+        for (ExecutorService lane : _serialLanes.values())
+        {
+            lane.shutdown();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package core.redis.message;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stores the dispatch statistics of a single {@link CommandType}.
+ *
+ * @author Preston Brown
+ */
+public class CommandMetrics {
+
+    private final AtomicLong _received = new AtomicLong();
+    private final AtomicLong _executed = new AtomicLong();
+    private final AtomicLong _dropped = new AtomicLong();
+    private final AtomicLong _failed = new AtomicLong();
+    private final AtomicLong _queueDepth = new AtomicLong();
+    private final AtomicLong _totalWaitNanos = new AtomicLong();
+    private final AtomicLong _totalRunNanos = new AtomicLong();
+    private final AtomicLong _maxWaitNanos = new AtomicLong();
+    private final AtomicLong _maxRunNanos = new AtomicLong();
+
+    void received()
+    {
+        _received.incrementAndGet();
+    }
+
+    void queued()
+    {
+        _queueDepth.incrementAndGet();
+    }
+
+    void dropped()
+    {
+        _dropped.incrementAndGet();
+    }
+
+    void failed()
+    {
+        _failed.incrementAndGet();
+    }
+
+    void rejected()
+    {
+        _queueDepth.decrementAndGet();
+        _dropped.incrementAndGet();
+    }
+
+    void dequeued(long waitNanos)
+    {
+        _queueDepth.decrementAndGet();
+        _totalWaitNanos.addAndGet(waitNanos);
+        updateMax(_maxWaitNanos, waitNanos);
+    }
+
+    void executed(long runNanos)
+    {
+        _executed.incrementAndGet();
+        _totalRunNanos.addAndGet(runNanos);
+        updateMax(_maxRunNanos, runNanos);
+    }
+
+    private static void updateMax(AtomicLong max, long value)
+    {
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value));
+    }
+
+    /**
+     * @return the amount of commands of this type that were received for this server
+     */
+    public long getReceived()
+    {
+        return _received.get();
+    }
+
+    /**
+     * @return the amount of commands of this type that finished executing
+     */
+    public long getExecuted()
+    {
+        return _executed.get();
+    }
+
+    /**
+     * @return the amount of commands of this type that were dropped because the queue was full
+     */
+    public long getDropped()
+    {
+        return _dropped.get();
+    }
+
+    /**
+     * @return the amount of commands of this type that threw an exception while executing
+     */
+    public long getFailed()
+    {
+        return _failed.get();
+    }
+
+    /**
+     * @return the amount of commands of this type that are waiting to be executed
+     */
+    public long getQueueDepth()
+    {
+        return _queueDepth.get();
+    }
+
+    /**
+     * @return the average time in milliseconds a command of this type waited before it was executed
+     */
+    public double getAverageWaitMillis()
+    {
+        long executed = _executed.get();
+        return executed == 0 ? 0 : _totalWaitNanos.get() / 1000000.0D / executed;
+    }
+
+    /**
+     * @return the average time in milliseconds a command of this type took to execute
+     */
+    public double getAverageRunMillis()
+    {
+        long executed = _executed.get();
+        return executed == 0 ? 0 : _totalRunNanos.get() / 1000000.0D / executed;
+    }
+
+    /**
+     * @return the longest time in milliseconds a command of this type waited before it was executed
+     */
+    public double getMaxWaitMillis()
+    {
+        return _maxWaitNanos.get() / 1000000.0D;
+    }
+
+    /**
+     * @return the longest time in milliseconds a command of this type took to execute
+     */
+    public double getMaxRunMillis()
+    {
+        return _maxRunNanos.get() / 1000000.0D;
+    }
+}
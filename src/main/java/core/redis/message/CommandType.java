@@ -1,9 +1,12 @@
 package core.redis.message;
 
-import core.minecraft.common.Callback;
+import core.redis.codec.RedisCodec;
+import core.redis.codec.RedisCodecs;
 import core.redis.message.commands.RedisCommand;
 import core.redis.message.commands.RedisCommandHandler;
 
+import java.util.concurrent.Semaphore;
+
 /**
  * This is used to store a command type in order to distinguish all of the commands when they are sent.
  *
@@ -14,18 +17,44 @@ public class CommandType {
     private String _klazzName;
     private Class<? extends RedisCommand> _commandType;
     private RedisCommandHandler _commandHandler;
+    private RedisCodec<? extends RedisCommand> _codec;
+    private DispatchMode _dispatchMode;
+    private OverflowPolicy _overflowPolicy;
+    private int _queueCapacity;
+    private Semaphore _queue;
+    private CommandMetrics _metrics = new CommandMetrics();
 
     /**
-     * This creates a new class type using the given {@link RedisCommand} and command handler.
+     * This creates a new class type using the given {@link RedisCommand} and command handler. Commands of this type
+     * are executed one at a time on their own {@link DispatchMode#SERIAL} lane and are dropped once 1000 are queued.
      *
      * @param commandType the {@link RedisCommand} that this command type represents
      * @param commandHandler the {@link RedisCommandHandler} that should be called when the command is executed
      */
     public CommandType(Class<? extends RedisCommand> commandType, RedisCommandHandler commandHandler)
+    {
+        this(commandType, commandHandler, DispatchMode.SERIAL, 1000, OverflowPolicy.DROP);
+    }
+
+    /**
+     * This creates a new class type using the given {@link RedisCommand} and command handler.
+     *
+     * @param commandType the {@link RedisCommand} that this command type represents
+     * @param commandHandler the {@link RedisCommandHandler} that should be called when the command is executed
+     * @param dispatchMode where commands of this type are executed
+     * @param queueCapacity the maximum amount of commands of this type that can wait to be executed
+     * @param overflowPolicy what happens when a command is received while the queue is full
+     */
+    public CommandType(Class<? extends RedisCommand> commandType, RedisCommandHandler commandHandler, DispatchMode dispatchMode, int queueCapacity, OverflowPolicy overflowPolicy)
     {
         _commandType = commandType;
         _klazzName = _commandType.getSimpleName();
         _commandHandler = commandHandler;
+        _codec = RedisCodecs.get(commandType);
+        _dispatchMode = dispatchMode;
+        _queueCapacity = queueCapacity;
+        _overflowPolicy = overflowPolicy;
+        _queue = new Semaphore(queueCapacity);
     }
 
     /**
@@ -48,6 +77,58 @@ public class CommandType {
         return _commandType;
     }
 
+    /**
+     * This returns the {@link RedisCodec} used to decode commands of this type.
+     *
+     * @return the {@link RedisCodec} used to decode commands of this type
+     */
+    public RedisCodec<? extends RedisCommand> getCodec()
+    {
+        return _codec;
+    }
+
+    /**
+     * @return where commands of this type are executed
+     */
+    public DispatchMode getDispatchMode()
+    {
+        return _dispatchMode;
+    }
+
+    /**
+     * @return what happens when a command of this type is received while the queue is full
+     */
+    public OverflowPolicy getOverflowPolicy()
+    {
+        return _overflowPolicy;
+    }
+
+    /**
+     * @return the maximum amount of commands of this type that can wait to be executed
+     */
+    public int getQueueCapacity()
+    {
+        return _queueCapacity;
+    }
+
+    /**
+     * Returns the {@link Semaphore} that holds one permit for every free slot in the queue of this command type.
+     *
+     * @return the {@link Semaphore} that bounds the queue of this command type
+     */
+    Semaphore getQueue()
+    {
+        return _queue;
+    }
+
+    /**
+     * @return the dispatch statistics of this command type
+     */
+    public CommandMetrics getMetrics()
+    {
+        return _metrics;
+    }
+
     /**
      * This returns the {@link RedisCommandHandler} that will run when this command type is executed.
      *
@@ -0,0 +1,25 @@
+package core.redis.message;
+
+/**
+ * All of the ways a received {@link core.redis.message.commands.RedisCommand} can be executed.
+ *
+ * @author Preston Brown
+ */
+public enum DispatchMode {
+
+    /**
+     * The command is executed on the main server thread.
+     */
+    MAIN_THREAD,
+
+    /**
+     * The command is executed on the shared async pool alongside every other async command.
+     */
+    ASYNC,
+
+    /**
+     * The command is executed on a lane dedicated to its command type, so commands of the same type are
+     * executed one at a time in the order they were received.
+     */
+    SERIAL;
+}
@@ -0,0 +1,20 @@
+package core.redis.message;
+
+/**
+ * What should happen when a command is received while the queue for its command type is full.
+ *
+ * @author Preston Brown
+ */
+public enum OverflowPolicy {
+
+    /**
+     * The new command is dropped.
+     */
+    DROP,
+
+    /**
+     * The subscriber waits until there is room in the queue. This slows down every command type, so it should
+     * only be used for commands that must never be lost.
+     */
+    BLOCK;
+}
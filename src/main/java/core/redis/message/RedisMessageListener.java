@@ -9,6 +9,18 @@ import redis.clients.jedis.JedisPubSub;
  */
 public class RedisMessageListener extends JedisPubSub {
 
+    private RedisMessageManager _messageManager;
+
+    /**
+     * Creates a new {@link RedisMessageListener} that passes every message to the given {@link RedisMessageManager}.
+     *
+     * @param messageManager the {@link RedisMessageManager} that handles received messages
+     */
+    public RedisMessageListener(RedisMessageManager messageManager)
+    {
+        _messageManager = messageManager;
+    }
+
     public void onMessage(String channel, String message)
     {
 
@@ -26,7 +38,7 @@ public class RedisMessageListener extends JedisPubSub {
 
     public void onPSubscribe(String pattern, int subscribedChannels)
     {
-
+        _messageManager.onSubscribed(pattern);
     }
 
     public void onPUnsubscribe(String pattern, int subscribedChannels)
@@ -36,10 +48,22 @@ public class RedisMessageListener extends JedisPubSub {
 
     public void onPMessage(String pattern, String channel, String message)
     {
-        String[] channelCommand = channel.split(":");
+        String[] channelCommand = channel.split(":", 2);
         if (channelCommand[0].equals("commands.minecraft"))
         {
-            RedisMessageManager.getInstance().handleCommand(channelCommand[1], message);
+            _messageManager.handleMessage(channel, message);
+        }
+        else if (channelCommand[0].equals("replies.minecraft"))
+        {
+            _messageManager.handleReply(message);
+        }
+        else if (channelCommand[0].equals("cache.invalidate"))
+        {
+            _messageManager.handleInvalidation(channelCommand[1], message);
+        }
+        else if (channelCommand[0].equals("server.registry"))
+        {
+            _messageManager.handleRegistryDelta(channelCommand[1], message);
         }
     }
 }
@@ -1,13 +1,31 @@
 package core.redis.message;
 
-import core.redis.RedisUtil;
+import core.redis.RedisLogger;
+import core.redis.codec.GsonRedisCodec;
+import core.redis.codec.RedisCodecs;
 import core.redis.connection.RedisManager;
 import core.redis.message.commands.RedisCommand;
 import core.redis.message.commands.RedisCommandHandler;
+import core.redis.message.commands.RedisRequest;
+import core.redis.repository.NearCache;
+import core.redis.repository.ServerRegistryView;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisDataException;
 import redis.clients.jedis.exceptions.JedisException;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Manages messages sent through redis between servers.
@@ -16,9 +34,59 @@ import java.util.HashMap;
  */
 public class RedisMessageManager {
 
+    private static final RedisLogger LOGGER = RedisLogger.getLogger("Redis-PubSub");
+    private static final String COMMAND_CHANNEL = "commands.minecraft:";
+    private static final String GLOBAL_CHANNEL = COMMAND_CHANNEL + "global";
+    private static final String INVALIDATION_PATTERN = "cache.invalidate:*";
+    private static final String REGISTRY_PATTERN = "server.registry:*";
+    private static final String REPLY_CHANNEL = "replies.minecraft:";
+    private static final String COMMAND_ID_KEY = "commands.minecraft.id";
+    private static final String SEQUENCE_KEY = "commands.minecraft.sequence:";
+    private static final String REPLAY_KEY = "commands.minecraft.replay:";
+    private static final int REPLAY_SIZE = 1000;
+    private static final int RECENT_COMMAND_IDS = 256;
+    private static final long MIN_BACKOFF = 500L;
+    private static final long MAX_BACKOFF = 30000L;
+
+    /**
+     * Assigns the command an ID and, for every target channel, assigns it the next sequence number of that channel,
+     * stores it in the channel's replay buffer and publishes it. This is done in a single step so every subscriber
+     * sees the commands on a channel in sequence order.
+     *
+     * <p>KEYS[1] is the command ID key followed by the sequence and replay keys of each channel. ARGV is the command
+     * type, the encoded command, the replay buffer size and then each channel.</p>
+     */
+    private static final String PUBLISH_SCRIPT =
+            "local id = redis.call('INCR', KEYS[1]) " +
+            "for i = 4, #ARGV do " +
+            "  local n = (i - 4) * 2 + 2 " +
+            "  local seq = redis.call('INCR', KEYS[n]) " +
+            "  local message = seq .. '|' .. id .. '|' .. ARGV[1] .. '|' .. ARGV[2] " +
+            "  redis.call('ZADD', KEYS[n + 1], seq, message) " +
+            "  redis.call('ZREMRANGEBYRANK', KEYS[n + 1], 0, -(tonumber(ARGV[3]) + 1)) " +
+            "  redis.call('PUBLISH', ARGV[i], message) " +
+            "end " +
+            "return id";
+
     private static RedisMessageManager _instance;
     private HashMap<String, CommandType> _commandTypes = new HashMap<>();
+    private HashMap<String, List<NearCache<?>>> _nearCaches = new HashMap<>();
+    private volatile ServerRegistryView _registryView;
+    private CommandDispatcher _dispatcher = new CommandDispatcher();
+    private String _nodeID = UUID.randomUUID().toString();
+    private String _replyChannel = REPLY_CHANNEL + _nodeID;
+    private RedisRequestManager _requestManager = new RedisRequestManager(_nodeID);
     private String _thisServerName;
+    private String _thisServerType;
+    private List<String> _channels = new CopyOnWriteArrayList<>(Collections.singletonList(GLOBAL_CHANNEL));
+    private Map<String, Long> _lastSequences = new ConcurrentHashMap<>();
+    private LinkedHashSet<Long> _recentCommandIds = new LinkedHashSet<>();
+    private SubscriptionMetrics _subscriptionMetrics = new SubscriptionMetrics();
+    private volatile boolean _running = true;
+    private volatile RedisMessageListener _listener;
+    private volatile String _publishScriptSha;
+    private boolean _reconnected = false;
+    private List<String> _connectionChannels = Collections.emptyList();
 
     /**
      * Creates a new instance of {@link RedisMessageManager}.
@@ -29,13 +97,66 @@ public class RedisMessageManager {
     }
 
     /**
-     * Sets the name of this {@link core.redis.data.MinecraftServer}.
+     * Sets the name and {@link core.redis.data.ServerType} of this {@link core.redis.data.MinecraftServer} and starts
+     * listening for commands that are targeted at this server or its server type.
      *
      * @param thisServerName the name of this {@link core.redis.data.MinecraftServer}
+     * @param thisServerType the name of the {@link core.redis.data.ServerType} of this {@link core.redis.data.MinecraftServer}
      */
-    public void initializeServer(String thisServerName)
+    public void initializeServer(String thisServerName, String thisServerType)
     {
         _thisServerName = thisServerName;
+        _thisServerType = thisServerType;
+        String[] channels = new String[] {getServerChannel(thisServerName), getServerTypeChannel(thisServerType)};
+
+        // The sequence of every channel is recorded before it is subscribed to, so commands published before the
+        // subscription is acknowledged are replayed instead of being mistaken for commands that were already handled
+        Jedis jedis = null;
+        try
+        {
+            jedis = RedisManager.getMasterConnection();
+            recordSequences(jedis, Arrays.asList(channels));
+        }
+        catch (Exception e)
+        {
+            LOGGER.failure("recordSequences", Arrays.toString(channels), System.currentTimeMillis(), e);
+        }
+        finally
+        {
+            if (jedis != null)
+            {
+                jedis.close();
+            }
+        }
+        _channels.addAll(Arrays.asList(channels));
+
+        RedisMessageListener listener = _listener;
+        if (listener != null && listener.isSubscribed())
+        {
+            listener.psubscribe(channels);
+        }
+    }
+
+    /**
+     * Returns the channel that commands targeted at the server with the given name are published on.
+     *
+     * @param serverName the name of the {@link core.redis.data.MinecraftServer}
+     * @return the channel for the server
+     */
+    public static String getServerChannel(String serverName)
+    {
+        return COMMAND_CHANNEL + "server:" + serverName;
+    }
+
+    /**
+     * Returns the channel that commands targeted at every server of the given type are published on.
+     *
+     * @param serverType the name of the {@link core.redis.data.ServerType}
+     * @return the channel for the server type
+     */
+    public static String getServerTypeChannel(String serverType)
+    {
+        return COMMAND_CHANNEL + "type:" + serverType;
     }
 
     /**
@@ -43,7 +164,7 @@ public class RedisMessageManager {
      *
      * @return the active instanc eof {@link RedisMessageManager}
      */
-    public static RedisMessageManager getInstance()
+    public static synchronized RedisMessageManager getInstance()
     {
         if (_instance == null)
         {
@@ -53,72 +174,402 @@ public class RedisMessageManager {
     }
 
     /**
-     * Initializes the thread that listens for messages through Redis.
+     * Initializes the thread that listens for messages through Redis. If the connection is lost the thread
+     * reconnects with an increasing delay and resubscribes until {@link #shutdown()} is called.
      */
     private void initialize()
     {
-        Jedis jedis = RedisManager.getMasterConnection();
-        Thread thread = new Thread() {
+        Thread thread = new Thread("Redis-Subscriber") {
             @Override
             public void run()
             {
+                long backoff = MIN_BACKOFF;
+                while (_running)
+                {
+                    Jedis jedis = null;
+                    try
+                    {
+                        jedis = RedisManager.getMasterConnection();
+                        recordSequences(jedis, _channels);
+                        _listener = new RedisMessageListener(RedisMessageManager.this);
+                        List<String> patterns = new ArrayList<>(_channels);
+                        _connectionChannels = new ArrayList<>(patterns);
+                        patterns.add(_replyChannel);
+                        patterns.add(REGISTRY_PATTERN);
+                        patterns.add(INVALIDATION_PATTERN);
+                        jedis.psubscribe(_listener, patterns.toArray(new String[patterns.size()]));
+                    }
+                    catch (Exception e)
+                    {
+                        // Anything thrown by a handler ends the subscription, so it must never end this thread
+                        LOGGER.failure("subscriber connection", _channels.size() + " channels", System.currentTimeMillis(), e);
+                    }
+                    finally
+                    {
+                        if (jedis != null)
+                        {
+                            try
+                            {
+                                jedis.close();
+                            }
+                            catch (JedisException e)
+                            {
+                                e.printStackTrace();
+                            }
+                        }
+                    }
+
+                    if (!_running)
+                    {
+                        break;
+                    }
+                    if (_subscriptionMetrics.getState() == SubscriptionState.SUBSCRIBED)
+                    {
+                        _subscriptionMetrics.disconnected();
+                        backoff = MIN_BACKOFF;
+                    }
+                    _subscriptionMetrics.setState(SubscriptionState.RECONNECTING);
+                    _reconnected = true;
+                    LOGGER.log(RedisLogger.Level.WARN, "reconnecting subscriber in " + backoff + "ms");
+                    try
+                    {
+                        Thread.sleep(backoff);
+                    }
+                    catch (InterruptedException e)
+                    {
+                        break;
+                    }
+                    backoff = Math.min(backoff * 2, MAX_BACKOFF);
+                }
+                _subscriptionMetrics.setState(SubscriptionState.STOPPED);
+            }
+        };
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Records the current sequence number of every command channel that does not have one yet. This must be done
+     * before the channels are subscribed to, since {@link #onSubscribed(String)} replays every command after the
+     * recorded sequence.
+     *
+     * @param jedis the connection used to read the sequences
+     * @param channels the command channels that are about to be subscribed to
+     */
+    private void recordSequences(Jedis jedis, List<String> channels)
+    {
+        for (String channel : channels)
+        {
+            if (!_lastSequences.containsKey(channel))
+            {
+                String sequence = jedis.get(SEQUENCE_KEY + channel);
                 try
                 {
-                    jedis.psubscribe(new RedisMessageListener(), "commands.minecraft:*");
+                    _lastSequences.putIfAbsent(channel, sequence == null ? 0L : Long.parseLong(sequence));
                 }
-                catch (JedisException e)
+                catch (NumberFormatException e)
                 {
-                    e.printStackTrace();
+                    LOGGER.log(RedisLogger.Level.WARN, "the sequence of \'" + channel + "\' is not a number: " + sequence);
                 }
-                finally
+            }
+        }
+    }
+
+    /**
+     * This is called by the {@link RedisMessageListener} on the subscriber thread once a pattern has been subscribed to.
+     * Every command published on a command channel after the sequence recorded before it was subscribed to is replayed,
+     * which covers both the commands published while the subscription was being acknowledged and the commands
+     * published while the connection was down. After a reconnect every {@link NearCache} is cleared and the
+     * {@link ServerRegistryView} is synced since invalidation messages and deltas may have been missed.
+     *
+     * @param pattern the pattern that was subscribed to
+     */
+    void onSubscribed(String pattern)
+    {
+        _subscriptionMetrics.setState(SubscriptionState.SUBSCRIBED);
+        if (pattern.equals(_replyChannel))
+        {
+            return;
+        }
+        if (pattern.equals(REGISTRY_PATTERN))
+        {
+            ServerRegistryView registryView = _registryView;
+            if (_reconnected && registryView != null)
+            {
+                registryView.requestSync();
+            }
+            return;
+        }
+        if (pattern.equals(INVALIDATION_PATTERN))
+        {
+            // Channels added by initializeServer while this connection was being opened
+            for (String channel : _channels)
+            {
+                if (!_connectionChannels.contains(channel))
                 {
-                    if (jedis != null)
+                    _listener.psubscribe(channel);
+                }
+            }
+            if (_reconnected)
+            {
+                synchronized (_nearCaches)
+                {
+                    for (List<NearCache<?>> caches : _nearCaches.values())
                     {
-                        jedis.close();
+                        for (NearCache<?> cache : caches)
+                        {
+                            cache.clear();
+                        }
                     }
                 }
             }
-        };
-        thread.start();
+            return;
+        }
+
+        Jedis jedis = null;
+        try
+        {
+            jedis = RedisManager.getMasterConnection();
+            Long lastSequence = _lastSequences.get(pattern);
+            if (lastSequence == null)
+            {
+                // The sequence could not be read before subscribing, so only commands from now on can be handled
+                String sequence = jedis.get(SEQUENCE_KEY + pattern);
+                _lastSequences.put(pattern, sequence == null ? 0L : Long.parseLong(sequence));
+                return;
+            }
+
+            Set<String> missed = jedis.zrangeByScore(REPLAY_KEY + pattern, "(" + lastSequence, "+inf");
+            for (String message : missed)
+            {
+                handleMessage(pattern, message);
+            }
+            _subscriptionMetrics.replayed(missed.size());
+            if (!missed.isEmpty())
+            {
+                LOGGER.log(RedisLogger.Level.INFO, "subscribed to \'" + pattern + "\' and replayed " + missed.size() + " missed commands");
+            }
+        }
+        catch (Exception e)
+        {
+            LOGGER.failure("replay", pattern, System.currentTimeMillis(), e);
+        }
+        finally
+        {
+            if (jedis != null)
+            {
+                jedis.close();
+            }
+        }
     }
 
     /**
-     * This processes a command when it is received by the {@link RedisMessageListener}.
+     * This processes a command when it is received by the {@link RedisMessageListener}. Messages are made up of the
+     * channel's sequence number, the command ID, the command type and the encoded command. Any command with a sequence
+     * number that has already been processed on the channel, or an ID that was already received on another channel,
+     * is ignored so commands are never executed twice. Messages that cannot be read are counted and skipped, since an
+     * exception here would end the subscription.
      *
-     * @param commandType the {@link CommandType} that it should turn into
-     * @param message the Json message sent through Redis
+     * @param channel the channel the message was received on
+     * @param message the message sent through Redis
      */
-    public void handleCommand(String commandType, String message)
+    public void handleMessage(String channel, String message)
     {
+        String[] parts = message.split("\\|", 4);
+        long sequence, commandID;
+        try
+        {
+            if (parts.length != 4)
+            {
+                throw new IllegalArgumentException("expected 4 parts but found " + parts.length);
+            }
+            sequence = Long.parseLong(parts[0]);
+            commandID = Long.parseLong(parts[1]);
+        }
+        catch (IllegalArgumentException e)
+        {
+            _subscriptionMetrics.malformed();
+            LOGGER.log(RedisLogger.Level.WARN, "skipped a malformed message on \'" + channel + "\': " + e.getMessage());
+            return;
+        }
+
+        Long lastSequence = _lastSequences.get(channel);
+        if (lastSequence != null)
+        {
+            if (sequence <= lastSequence)
+            {
+                return;
+            }
+            if (sequence > lastSequence + 1)
+            {
+                _subscriptionMetrics.gap(sequence - lastSequence - 1);
+                LOGGER.log(RedisLogger.Level.WARN, "missed " + (sequence - lastSequence - 1) + " commands on \'" + channel + "\' that could not be recovered");
+            }
+        }
+        _lastSequences.put(channel, sequence);
+
+        if (!_recentCommandIds.add(commandID))
+        {
+            return;
+        }
+        if (_recentCommandIds.size() > RECENT_COMMAND_IDS)
+        {
+            Iterator<Long> iterator = _recentCommandIds.iterator();
+            iterator.next();
+            iterator.remove();
+        }
+
         CommandType type;
-        if ((type = _commandTypes.get(commandType)) != null)
+        if ((type = _commandTypes.get(parts[2])) != null)
         {
-            RedisCommand command = RedisUtil.deserialize(message, type.getCommandType());
-            if (command.isTargetServer(_thisServerName))
+            RedisCommand command;
+            try
+            {
+                command = type.getCodec().decode(parts[3]);
+            }
+            catch (RuntimeException e)
             {
-                command.run();
+                _subscriptionMetrics.malformed();
+                LOGGER.log(RedisLogger.Level.WARN, "skipped a malformed \'" + parts[2] + "\' command on \'" + channel + "\': " + e.getMessage());
+                return;
             }
+            _dispatcher.dispatch(type, command);
         }
     }
 
     /**
-     * Publishes a command that will be sent to every server that is listening to the specified command channel.
+     * Publishes a command that will be sent to every server the command targets. Global commands are published on the
+     * global channel, otherwise the command is published on the channel of every target server and server type.
      *
      * @param command the command that is being sent
+     * @return true if the command was published, or false if it could not be sent to redis
+     */
+    public boolean publishCommand(RedisCommand command)
+    {
+        Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
+        String commandName = command.getClass().getSimpleName();
+        List<String> channels = getTargetChannels(command);
+        try
+        {
+            jedis = RedisManager.getMasterConnection();
+            String serializedCommand = encodeCommand(command);
+            publish(jedis, commandName, serializedCommand, channels);
+            LOGGER.success("publishCommand \'" + commandName + "\'", startTime);
+            return true;
+        }
+        catch (Exception e)
+        {
+            LOGGER.failure("publishCommand \'" + commandName + "\'", channels.toString(), startTime, e);
+            return false;
+        }
+        finally
+        {
+            if (jedis != null)
+            {
+                try
+                {
+                    jedis.close();
+                }
+                catch (Exception e)
+                {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the request to the single server it targets and returns its response. If the request could not be
+     * published, or the server does not respond within the timeout, the returned future is completed exceptionally.
+     * If the request failed on the server it is completed with a {@link RemoteRequestException} containing the error.
+     *
+     * @param request the request that is being sent
+     * @param timeout the maximum amount of time in milliseconds to wait for the response
+     * @param <R> the type of the response
+     * @return a {@link CompletableFuture} completed with the response
      */
-    public void publishCommand(RedisCommand command)
+    public <R> CompletableFuture<R> sendRequest(RedisRequest<R> request, long timeout)
     {
+        CompletableFuture<RequestResults<R>> results = _requestManager.register(request, _replyChannel, 1, timeout);
+        publishRequest(request);
+        return RedisRequestManager.first(results);
+    }
+
+    /**
+     * Sends the request to every server it targets and gathers their responses. If the request only targets servers by
+     * name the future is completed as soon as every server has responded, otherwise it is completed once the timeout is
+     * reached. Servers that did not respond in time or failed to handle the request are left out of the results. If the
+     * request could not be published the returned future is completed exceptionally straight away.
+     *
+     * @param request the request that is being sent
+     * @param timeout the maximum amount of time in milliseconds to wait for responses
+     * @param <R> the type of the response
+     * @return a {@link CompletableFuture} completed with the response of every server, keyed by server name
+     */
+    public <R> CompletableFuture<Map<String, R>> sendRequestToAll(RedisRequest<R> request, long timeout)
+    {
+        boolean serversOnly = !request.isGlobal() && (request.getTargetServerTypes() == null || request.getTargetServerTypes().length == 0);
+        int expectedResponses = serversOnly && request.getTargetServers() != null ? request.getTargetServers().length : -1;
+        CompletableFuture<RequestResults<R>> results = _requestManager.register(request, _replyChannel, expectedResponses, timeout);
+        publishRequest(request);
+        return results.thenApply(RequestResults::getResponses);
+    }
+
+    /**
+     * Sends the request to every server it targets and gathers every reply, including the errors of the servers the
+     * request failed on. This completes in the same way as {@link #sendRequestToAll(RedisRequest, long)}.
+     *
+     * @param request the request that is being sent
+     * @param timeout the maximum amount of time in milliseconds to wait for replies
+     * @param <R> the type of the response
+     * @return a {@link CompletableFuture} completed with the response or error of every server that replied
+     */
+    public <R> CompletableFuture<RequestResults<R>> sendRequestToAllWithErrors(RedisRequest<R> request, long timeout)
+    {
+        boolean serversOnly = !request.isGlobal() && (request.getTargetServerTypes() == null || request.getTargetServerTypes().length == 0);
+        int expectedResponses = serversOnly && request.getTargetServers() != null ? request.getTargetServers().length : -1;
+        CompletableFuture<RequestResults<R>> results = _requestManager.register(request, _replyChannel, expectedResponses, timeout);
+        publishRequest(request);
+        return results;
+    }
+
+    /**
+     * Publishes a request that has been registered, failing it straight away if it could not be published instead of
+     * leaving it to wait for its timeout.
+     *
+     * @param request the request that is being sent
+     */
+    private void publishRequest(RedisRequest<?> request)
+    {
+        if (!publishCommand(request))
+        {
+            _requestManager.fail(request.getCorrelationID(), new IllegalStateException("The request \'"
+                    + request.getClass().getSimpleName() + "\' could not be published"));
+        }
+    }
+
+    /**
+     * Publishes the response to a {@link RedisRequest} on the reply channel of the server that sent it.
+     *
+     * @param replyChannel the reply channel of the server that sent the request
+     * @param correlationID the ID of the request being answered
+     * @param response the response, if the request succeeded
+     * @param error the error thrown while handling the request, or null if it succeeded
+     */
+    public void publishReply(String replyChannel, String correlationID, Object response, String error)
+    {
+        String serverName = _thisServerName == null ? _nodeID : _thisServerName;
+        String message = correlationID + "|" + serverName + "|" + (error == null ? "ok|" + GsonRedisCodec.GSON.toJson(response) : "error|" + error);
         Jedis jedis = null;
         try
         {
             jedis = RedisManager.getMasterConnection();
-            String serializedCommand = RedisUtil.serialize(command);
-            jedis.publish("commands.minecraft:" + command.getClass().getSimpleName(), serializedCommand);
-            System.out.println("[Redis-PubSub] published command \'" + command.getClass().getSimpleName() + "\'");
+            jedis.publish(replyChannel, message);
         }
         catch (Exception e)
         {
-            e.printStackTrace();
+            LOGGER.failure("reply", correlationID, System.currentTimeMillis(), e);
         }
         finally
         {
@@ -136,6 +587,241 @@ public class RedisMessageManager {
         }
     }
 
+    /**
+     * This processes a response to a {@link RedisRequest} when it is received by the {@link RedisMessageListener}.
+     *
+     * @param message the response sent through Redis
+     */
+    public void handleReply(String message)
+    {
+        String[] parts = message.split("\\|", 4);
+        if (parts.length != 4)
+        {
+            return;
+        }
+        boolean success = parts[2].equals("ok");
+        _requestManager.handleReply(parts[0], parts[1], success ? parts[3] : null, success ? null : parts[3]);
+    }
+
+    /**
+     * @return the {@link RedisRequestManager} that tracks the requests sent by this server
+     */
+    public RedisRequestManager getRequestManager()
+    {
+        return _requestManager;
+    }
+
+    /**
+     * This invalidates the data with the given ID in every {@link NearCache} registered under dataName when
+     * an invalidation message is received by the {@link RedisMessageListener}.
+     *
+     * @param dataName the name of the data repository the data belongs to
+     * @param ID the ID of the data that was changed
+     */
+    public void handleInvalidation(String dataName, String ID)
+    {
+        List<NearCache<?>> caches;
+        synchronized (_nearCaches)
+        {
+            caches = _nearCaches.get(dataName);
+            caches = caches == null ? Collections.emptyList() : new ArrayList<>(caches);
+        }
+        for (NearCache<?> cache : caches)
+        {
+            try
+            {
+                cache.invalidate(ID);
+            }
+            catch (Exception e)
+            {
+                // Clear the whole cache rather than keep an entry that could not be invalidated
+                LOGGER.failure("invalidation", dataName + ":" + ID, System.currentTimeMillis(), e);
+                cache.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns the channel that invalidation messages are published on for the data repository with the given name.
+     * The ID of the changed data should be published as the message.
+     *
+     * @param dataName the name of the data repository
+     * @return the channel that invalidation messages for the data repository are published on
+     */
+    public static String getInvalidationChannel(String dataName)
+    {
+        return "cache.invalidate:" + dataName;
+    }
+
+    /**
+     * This passes a delta received by the {@link RedisMessageListener} to the {@link ServerRegistryView} if one is registered.
+     *
+     * @param kind the kind of server data that changed
+     * @param delta the delta
+     */
+    public void handleRegistryDelta(String kind, String delta)
+    {
+        ServerRegistryView registryView = _registryView;
+        if (registryView != null)
+        {
+            try
+            {
+                registryView.applyDelta(kind, delta);
+            }
+            catch (Exception e)
+            {
+                _subscriptionMetrics.malformed();
+                LOGGER.failure("registry delta", kind, System.currentTimeMillis(), e);
+            }
+        }
+    }
+
+    /**
+     * Returns the channel that deltas are published on when server data of the given kind is changed.
+     *
+     * @param kind the kind of server data, such as {@link ServerRegistryView#MINECRAFT}
+     * @return the channel that deltas are published on
+     */
+    public static String getRegistryChannel(String kind)
+    {
+        return "server.registry:" + kind;
+    }
+
+    /**
+     * Sets the {@link ServerRegistryView} that deltas are passed to.
+     *
+     * @param registryView the {@link ServerRegistryView} that deltas are passed to
+     */
+    public void setRegistryView(ServerRegistryView registryView)
+    {
+        _registryView = registryView;
+    }
+
+    /**
+     * Registers the {@link NearCache} so it will be invalidated whenever data in the repository with the
+     * given name is changed by any server. Several caches may be registered under the same name.
+     *
+     * @param dataName the name of the data repository the cache belongs to
+     * @param cache the {@link NearCache} being registered
+     */
+    public void addNearCache(String dataName, NearCache<?> cache)
+    {
+        synchronized (_nearCaches)
+        {
+            _nearCaches.computeIfAbsent(dataName, name -> new ArrayList<>()).add(cache);
+        }
+    }
+
+    /**
+     * Returns every channel the given command should be published on.
+     *
+     * @param command the command that is being published
+     * @return every channel the command should be published on
+     */
+    private List<String> getTargetChannels(RedisCommand command)
+    {
+        List<String> channels = new ArrayList<>();
+        if (command.isGlobal())
+        {
+            channels.add(GLOBAL_CHANNEL);
+            return channels;
+        }
+        if (command.getTargetServers() != null)
+        {
+            for (String server : command.getTargetServers())
+            {
+                channels.add(getServerChannel(server));
+            }
+        }
+        if (command.getTargetServerTypes() != null)
+        {
+            for (String serverType : command.getTargetServerTypes())
+            {
+                channels.add(getServerTypeChannel(serverType));
+            }
+        }
+        return channels;
+    }
+
+    /**
+     * Publishes the encoded command on every channel with the next sequence number of each channel and stores it in
+     * the replay buffer of each channel.
+     *
+     * @param jedis the master connection
+     * @param commandName the simple class name of the command
+     * @param serializedCommand the encoded command
+     * @param channels the channels the command is published on
+     */
+    private void publish(Jedis jedis, String commandName, String serializedCommand, List<String> channels)
+    {
+        if (channels.isEmpty())
+        {
+            return;
+        }
+        List<String> keys = new ArrayList<>();
+        List<String> args = new ArrayList<>(Arrays.asList(commandName, serializedCommand, String.valueOf(REPLAY_SIZE)));
+        keys.add(COMMAND_ID_KEY);
+        for (String channel : channels)
+        {
+            keys.add(SEQUENCE_KEY + channel);
+            keys.add(REPLAY_KEY + channel);
+            args.add(channel);
+        }
+        if (_publishScriptSha == null)
+        {
+            _publishScriptSha = jedis.scriptLoad(PUBLISH_SCRIPT);
+        }
+        try
+        {
+            jedis.evalsha(_publishScriptSha, keys, args);
+        }
+        catch (JedisDataException e)
+        {
+            if (e.getMessage() == null || !e.getMessage().startsWith("NOSCRIPT"))
+            {
+                throw e;
+            }
+            jedis.eval(PUBLISH_SCRIPT, keys, args);
+        }
+    }
+
+    /**
+     * Returns the health statistics of the connection used to listen for redis messages.
+     *
+     * @return the {@link SubscriptionMetrics} of the subscriber connection
+     */
+    public SubscriptionMetrics getSubscriptionMetrics()
+    {
+        return _subscriptionMetrics;
+    }
+
+    /**
+     * Stops listening for messages and stops executing received commands.
+     */
+    public void shutdown()
+    {
+        _running = false;
+        RedisMessageListener listener = _listener;
+        if (listener != null && listener.isSubscribed())
+        {
+            listener.punsubscribe();
+        }
+        _dispatcher.shutdown();
+    }
+
+    /**
+     * Encodes the given command using the {@link core.redis.codec.RedisCodec} registered for its class.
+     *
+     * @param command the command that is being encoded
+     * @param <T> the type of the command
+     * @return the encoded command
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends RedisCommand> String encodeCommand(T command)
+    {
+        return RedisCodecs.get((Class<T>) command.getClass()).encode(command);
+    }
+
     /**
      * Adds a new {@link CommandType} for the Redis messenger to accept commands from.
      *
@@ -144,9 +830,33 @@ public class RedisMessageManager {
      */
     public void addCommandType(Class<? extends RedisCommand> command, RedisCommandHandler commandHandler)
     {
-        CommandType commandType = new CommandType(command, commandHandler);
+        addCommandType(new CommandType(command, commandHandler));
+    }
+
+    /**
+     * Adds a new {@link CommandType} for the Redis messenger to accept commands from that is executed with the given
+     * {@link DispatchMode}.
+     *
+     * @param command the {@link RedisCommand} that is being registered
+     * @param commandHandler the {@link RedisCommandHandler} that will run the {@link RedisCommand}
+     * @param dispatchMode where the commands are executed
+     * @param queueCapacity the maximum amount of commands that can wait to be executed
+     * @param overflowPolicy what happens when a command is received while the queue is full
+     */
+    public void addCommandType(Class<? extends RedisCommand> command, RedisCommandHandler commandHandler, DispatchMode dispatchMode, int queueCapacity, OverflowPolicy overflowPolicy)
+    {
+        addCommandType(new CommandType(command, commandHandler, dispatchMode, queueCapacity, overflowPolicy));
+    }
+
+    /**
+     * Adds the {@link CommandType} for the Redis messenger to accept commands from.
+     *
+     * @param commandType the {@link CommandType} that is being registered
+     */
+    private void addCommandType(CommandType commandType)
+    {
         _commandTypes.put(commandType.getClassName(), commandType);
-        System.out.println("[Redis-PubSub] registered Redis Command \'" + commandType.getClassName() + "\'");
+        LOGGER.log(RedisLogger.Level.DEBUG, "registered Redis Command \'" + commandType.getClassName() + "\'");
     }
 
     /**
@@ -0,0 +1,202 @@
+package core.redis.message;
+
+import core.redis.RedisLogger;
+import core.redis.codec.GsonRedisCodec;
+import core.redis.message.commands.RedisRequest;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of every {@link RedisRequest} sent by this server that is still waiting for responses, and completes
+ * them when their responses arrive or their timeout is reached.
+ *
+ * @author Preston Brown
+ */
+public class RedisRequestManager {
+
+    private static final RedisLogger LOGGER = RedisLogger.getLogger("Redis-PubSub");
+    private final String _nodeID;
+    private final AtomicLong _nextID = new AtomicLong();
+    private final ConcurrentHashMap<String, PendingRequest<?>> _pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService _timeouts = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Redis-Request-Timeout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Creates a new {@link RedisRequestManager} whose correlation IDs start with the given node ID.
+     *
+     * @param nodeID the ID that is unique to this server
+     */
+    public RedisRequestManager(String nodeID)
+    {
+        _nodeID = nodeID;
+    }
+
+    /**
+     * Registers a request that is about to be published. The returned future is completed with every reply
+     * received, both responses and errors, once expectedResponses replies have been received or the timeout is
+     * reached.
+     *
+     * @param request the request that is being sent
+     * @param replyChannel the channel responses are published on
+     * @param expectedResponses the amount of replies to wait for, or -1 to wait for the whole timeout
+     * @param timeout the maximum amount of time in milliseconds to wait for responses
+     * @param <R> the type of the response
+     * @return a {@link CompletableFuture} completed with every reply that was received
+     */
+    public <R> CompletableFuture<RequestResults<R>> register(RedisRequest<R> request, String replyChannel, int expectedResponses, long timeout)
+    {
+        String correlationID = _nodeID + "-" + _nextID.incrementAndGet();
+        request.setReplyTo(correlationID, replyChannel);
+
+        PendingRequest<R> pending = new PendingRequest<>(request.getResponseType(), expectedResponses);
+        _pending.put(correlationID, pending);
+        _timeouts.schedule(() -> {
+            if (_pending.remove(correlationID) != null)
+            {
+                pending.complete();
+            }
+        }, timeout, TimeUnit.MILLISECONDS);
+        return pending._future;
+    }
+
+    /**
+     * Completes the request with the given error if it is still waiting for responses. This is used when the request
+     * could not be published, so it fails straight away instead of waiting for its timeout.
+     *
+     * @param correlationID the ID of the request
+     * @param cause the reason the request failed
+     */
+    public void fail(String correlationID, Throwable cause)
+    {
+        PendingRequest<?> pending = _pending.remove(correlationID);
+        if (pending != null)
+        {
+            pending._future.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * Converts a future that is completed with every reply into one completed with the first successful response.
+     * If no server handled the request successfully the returned future is completed exceptionally, with a
+     * {@link RemoteRequestException} if the request failed on a server, otherwise with a {@link TimeoutException}.
+     *
+     * @param results the future completed with every reply
+     * @param <R> the type of the response
+     * @return a {@link CompletableFuture} completed with the first successful response
+     */
+    public static <R> CompletableFuture<R> first(CompletableFuture<RequestResults<R>> results)
+    {
+        return results.thenCompose(replies -> {
+            CompletableFuture<R> future = new CompletableFuture<>();
+            if (!replies.getResponses().isEmpty())
+            {
+                future.complete(replies.getResponses().values().iterator().next());
+            }
+            else if (!replies.getErrors().isEmpty())
+            {
+                Map.Entry<String, String> error = replies.getErrors().entrySet().iterator().next();
+                future.completeExceptionally(new RemoteRequestException(error.getKey(), error.getValue()));
+            }
+            else
+            {
+                future.completeExceptionally(new TimeoutException("No response was received in time"));
+            }
+            return future;
+        });
+    }
+
+    /**
+     * Handles a response received on this server's reply channel.
+     *
+     * @param correlationID the ID of the request being answered
+     * @param serverName the name of the server that answered
+     * @param response the encoded response, or null if the request failed
+     * @param error the error thrown while handling the request, or null if it succeeded
+     */
+    public void handleReply(String correlationID, String serverName, String response, String error)
+    {
+        PendingRequest<?> pending = _pending.get(correlationID);
+        if (pending == null)
+        {
+            return;
+        }
+        if (error != null)
+        {
+            LOGGER.log(RedisLogger.Level.WARN, "request \'" + correlationID + "\' FAILED on " + serverName + ": " + error);
+        }
+        if (pending.addReply(serverName, response, error) && _pending.remove(correlationID) != null)
+        {
+            pending.complete();
+        }
+    }
+
+    /**
+     * @return the amount of requests still waiting for responses
+     */
+    public int getPendingCount()
+    {
+        return _pending.size();
+    }
+
+    /**
+     * Stores the responses received for a single request.
+     */
+    private static class PendingRequest<R> {
+
+        private final Class<R> _responseType;
+        private final int _expectedResponses;
+        private final Map<String, R> _responses = new HashMap<>();
+        private final Map<String, String> _errors = new HashMap<>();
+        private int _received;
+        private final CompletableFuture<RequestResults<R>> _future = new CompletableFuture<>();
+
+        private PendingRequest(Class<R> responseType, int expectedResponses)
+        {
+            _responseType = responseType;
+            _expectedResponses = expectedResponses;
+        }
+
+        /**
+         * Adds a reply and returns true if every expected reply has been received. A response that cannot be decoded
+         * is kept as an error.
+         */
+        private synchronized boolean addReply(String serverName, String response, String error)
+        {
+            _received++;
+            if (error != null)
+            {
+                _errors.put(serverName, error);
+            }
+            else
+            {
+                try
+                {
+                    _responses.put(serverName, GsonRedisCodec.GSON.fromJson(response, _responseType));
+                }
+                catch (RuntimeException e)
+                {
+                    _errors.put(serverName, "the response could not be decoded: " + e);
+                }
+            }
+            return _expectedResponses > 0 && _received >= _expectedResponses;
+        }
+
+        private synchronized void complete()
+        {
+            _future.complete(new RequestResults<>(Collections.unmodifiableMap(new HashMap<>(_responses)),
+                    Collections.unmodifiableMap(new HashMap<>(_errors))));
+        }
+    }
+}
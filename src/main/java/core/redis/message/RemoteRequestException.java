@@ -0,0 +1,42 @@
+package core.redis.message;
+
+/**
+ * This is the error a {@link core.redis.message.commands.RedisRequest} future is completed with when the request was
+ * received but failed on the server handling it, and no other server answered it successfully.
+ *
+ * @author Preston Brown
+ */
+public class RemoteRequestException extends Exception {
+
+    private final String _serverName;
+    private final String _remoteError;
+
+    /**
+     * Creates a new {@link RemoteRequestException} for the error sent back by the given server.
+     *
+     * @param serverName the name of the server the request failed on
+     * @param remoteError the error thrown while the server handled the request
+     */
+    public RemoteRequestException(String serverName, String remoteError)
+    {
+        super("The request failed on " + serverName + ": " + remoteError);
+        _serverName = serverName;
+        _remoteError = remoteError;
+    }
+
+    /**
+     * @return the name of the server the request failed on
+     */
+    public String getServerName()
+    {
+        return _serverName;
+    }
+
+    /**
+     * @return the error thrown while the server handled the request
+     */
+    public String getRemoteError()
+    {
+        return _remoteError;
+    }
+}
@@ -0,0 +1,43 @@
+package core.redis.message;
+
+import java.util.Map;
+
+/**
+ * This is every reply received for a single {@link core.redis.message.commands.RedisRequest}, split into the
+ * responses of the servers that handled it and the errors of the servers it failed on.
+ *
+ * @author Preston Brown
+ */
+public class RequestResults<R> {
+
+    private final Map<String, R> _responses;
+    private final Map<String, String> _errors;
+
+    /**
+     * Creates a new {@link RequestResults} from the replies received.
+     *
+     * @param responses the response of every server that handled the request, keyed by server name
+     * @param errors the error of every server the request failed on, keyed by server name
+     */
+    public RequestResults(Map<String, R> responses, Map<String, String> errors)
+    {
+        _responses = responses;
+        _errors = errors;
+    }
+
+    /**
+     * @return the response of every server that handled the request, keyed by server name
+     */
+    public Map<String, R> getResponses()
+    {
+        return _responses;
+    }
+
+    /**
+     * @return the error of every server the request failed on, keyed by server name
+     */
+    public Map<String, String> getErrors()
+    {
+        return _errors;
+    }
+}
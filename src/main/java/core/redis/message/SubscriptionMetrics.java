@@ -0,0 +1,102 @@
+package core.redis.message;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stores the health statistics of the connection used to listen for redis messages.
+ *
+ * @author Preston Brown
+ */
+public class SubscriptionMetrics {
+
+    private volatile SubscriptionState _state = SubscriptionState.CONNECTING;
+    private volatile long _lastStateChange = System.currentTimeMillis();
+    private final AtomicLong _disconnects = new AtomicLong();
+    private final AtomicLong _gaps = new AtomicLong();
+    private final AtomicLong _replayed = new AtomicLong();
+    private final AtomicLong _lost = new AtomicLong();
+    private final AtomicLong _malformed = new AtomicLong();
+
+    void setState(SubscriptionState state)
+    {
+        _state = state;
+        _lastStateChange = System.currentTimeMillis();
+    }
+
+    void disconnected()
+    {
+        _disconnects.incrementAndGet();
+    }
+
+    void gap(long missed)
+    {
+        _gaps.incrementAndGet();
+        _lost.addAndGet(missed);
+    }
+
+    void replayed(long replayed)
+    {
+        _replayed.addAndGet(replayed);
+    }
+
+    void malformed()
+    {
+        _malformed.incrementAndGet();
+    }
+
+    /**
+     * @return the current state of the subscriber connection
+     */
+    public SubscriptionState getState()
+    {
+        return _state;
+    }
+
+    /**
+     * @return the time in milliseconds the subscriber connection last changed state
+     */
+    public long getLastStateChange()
+    {
+        return _lastStateChange;
+    }
+
+    /**
+     * @return the amount of times the subscriber connection was lost
+     */
+    public long getDisconnects()
+    {
+        return _disconnects.get();
+    }
+
+    /**
+     * @return the amount of times commands were missed that could not be recovered from the replay buffer
+     */
+    public long getGaps()
+    {
+        return _gaps.get();
+    }
+
+    /**
+     * @return the amount of commands that were recovered from the replay buffer after a reconnect
+     */
+    public long getReplayed()
+    {
+        return _replayed.get();
+    }
+
+    /**
+     * @return the amount of commands that were missed and could not be recovered
+     */
+    public long getLost()
+    {
+        return _lost.get();
+    }
+
+    /**
+     * @return the amount of messages that were skipped because they could not be read
+     */
+    public long getMalformed()
+    {
+        return _malformed.get();
+    }
+}
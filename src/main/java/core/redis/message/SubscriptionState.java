@@ -0,0 +1,14 @@
+package core.redis.message;
+
+/**
+ * All of the states the connection used to listen for redis messages can be in.
+ *
+ * @author Preston Brown
+ */
+public enum SubscriptionState {
+
+    CONNECTING,
+    SUBSCRIBED,
+    RECONNECTING,
+    STOPPED;
+}
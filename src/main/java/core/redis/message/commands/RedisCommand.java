@@ -9,6 +9,7 @@ package core.redis.message.commands;
 public abstract class RedisCommand {
 
     private String[] _targetServers;
+    private String[] _targetServerTypes;
     private boolean _global;
 
     /**
@@ -20,8 +21,25 @@ public abstract class RedisCommand {
      * @param global if this command should be executed by every {@link core.redis.data.MinecraftServer} that receives this command
      */
     public RedisCommand(String[] targetServers, boolean global)
+    {
+        this(targetServers, new String[] {}, global);
+    }
+
+    /**
+     * This creates a new instance of {@link RedisCommand} that will be sent to all of the target servers and every
+     * server of the target server types. If global is set to true it will be sent to every
+     * {@link core.redis.data.MinecraftServer} instead.
+     *
+     * <p>A server that is targeted both by name and by server type only executes the command once.</p>
+     *
+     * @param targetServers all of the servers that should execute this command
+     * @param targetServerTypes the names of all of the {@link core.redis.data.ServerType}s whose servers should execute this command
+     * @param global if this command should be executed by every {@link core.redis.data.MinecraftServer}
+     */
+    public RedisCommand(String[] targetServers, String[] targetServerTypes, boolean global)
     {
         _targetServers = targetServers;
+        _targetServerTypes = targetServerTypes;
         _global = global;
     }
 
@@ -40,6 +58,16 @@ public abstract class RedisCommand {
         return _targetServers;
     }
 
+    /**
+     * Returns the names of all of the {@link core.redis.data.ServerType}s being targeted by this command.
+     *
+     * @return the names of all of the server types whose servers should execute this command
+     */
+    public String[] getTargetServerTypes()
+    {
+        return _targetServerTypes;
+    }
+
     /**
      * Returns true if this command should be executed by every {@link core.redis.data.MinecraftServer} that receives this command, otherwise
      * return false.
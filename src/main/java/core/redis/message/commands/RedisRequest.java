@@ -0,0 +1,85 @@
+package core.redis.message.commands;
+
+import core.redis.message.RedisMessageManager;
+
+/**
+ * This is the base for a redis command that sends a response back to the server that published it. Requests are
+ * sent through {@link RedisMessageManager#sendRequest(RedisRequest, long)} and the response is returned in a
+ * {@link java.util.concurrent.CompletableFuture}.
+ *
+ * <p>Just like a {@link RedisCommand}, every type of request must be registered on the servers that answer it
+ * using {@link RedisMessageManager#addCommandType(Class, RedisCommandHandler)}.</p>
+ *
+ * @author Preston Brown
+ */
+public abstract class RedisRequest<R> extends RedisCommand {
+
+    private String _correlationID;
+    private String _replyChannel;
+
+    /**
+     * This creates a new instance of {@link RedisRequest} that will be sent to all of the target servers.
+     *
+     * @param targetServers all of the servers that should answer this request
+     * @param targetServerTypes the names of all of the {@link core.redis.data.ServerType}s whose servers should answer this request
+     * @param global if this request should be answered by every {@link core.redis.data.MinecraftServer}
+     */
+    public RedisRequest(String[] targetServers, String[] targetServerTypes, boolean global)
+    {
+        super(targetServers, targetServerTypes, global);
+    }
+
+    /**
+     * This is ran on every server that receives this request and returns the response that is sent back.
+     *
+     * @return the response to this request
+     */
+    public abstract R handle();
+
+    /**
+     * Returns the class of the response so it can be decoded by the server that sent this request.
+     *
+     * @return the class of the response
+     */
+    public abstract Class<R> getResponseType();
+
+    /**
+     * Runs this request and sends the response, or the error that was thrown, back to the server that sent it.
+     */
+    @Override
+    public final void run()
+    {
+        R response;
+        try
+        {
+            response = handle();
+        }
+        catch (Exception e)
+        {
+            RedisMessageManager.getInstance().publishReply(_replyChannel, _correlationID, null, e.toString());
+            return;
+        }
+        RedisMessageManager.getInstance().publishReply(_replyChannel, _correlationID, response, null);
+    }
+
+    /**
+     * Sets where the response to this request is sent. This is called by {@link RedisMessageManager} before
+     * the request is published.
+     *
+     * @param correlationID the ID used to match the response with this request
+     * @param replyChannel the channel the response is published on
+     */
+    public void setReplyTo(String correlationID, String replyChannel)
+    {
+        _correlationID = correlationID;
+        _replyChannel = replyChannel;
+    }
+
+    /**
+     * @return the ID used to match the response with this request
+     */
+    public String getCorrelationID()
+    {
+        return _correlationID;
+    }
+}
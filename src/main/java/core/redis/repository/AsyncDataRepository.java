@@ -0,0 +1,99 @@
+package core.redis.repository;
+
+import core.redis.data.RedisData;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * This is the outline for a redis repository that stores some type of data without blocking the calling thread.
+ * Every method mirrors a method in {@link DataRepository} and returns a {@link CompletableFuture} that is completed
+ * once redis has responded.
+ *
+ * @author Preston Brown
+ */
+public interface AsyncDataRepository<DataType extends RedisData> {
+
+    /**
+     * Returns the most up to date {@link DataType} object.
+     *
+     * @param data the data that is being retrieved from the server
+     * @return a {@link CompletableFuture} completed with the most up to date {@link DataType} object
+     */
+    public CompletableFuture<DataType> getData(DataType data);
+
+    /**
+     * Returns the {@link DataType} object with the given data ID.
+     *
+     * @param ID the ID that is being looked up in this repository
+     * @return a {@link CompletableFuture} completed with the {@link DataType} object with the given ID, or null if none exists
+     */
+    public CompletableFuture<DataType> getData(String ID);
+
+    /**
+     * Returns every {@link DataType} object with one of the given data IDs.
+     *
+     * @param IDs the IDs that are being looked up in this repository
+     * @return a {@link CompletableFuture} completed with a {@link Map} of every ID that exists to its {@link DataType} object
+     */
+    public CompletableFuture<Map<String, DataType>> getData(Collection<String> IDs);
+
+    /**
+     * Adds the given {@link DataType} to this redis repository with the default timeout time.
+     *
+     * @param data the data that is being added into the repository
+     * @return a {@link CompletableFuture} completed once the data has been added
+     */
+    public CompletableFuture<Void> addData(DataType data);
+
+    /**
+     * Adds the given {@link DataType} to this redis repository with the given timeout time.
+     *
+     * @param data the data this is being added into the repository
+     * @param timeout the amount of time in seconds that must pass in order to automatically remove data from the repository
+     * @return a {@link CompletableFuture} completed once the data has been added
+     */
+    public CompletableFuture<Void> addData(DataType data, int timeout);
+
+    /**
+     * Adds every {@link DataType} in the given collection to this redis repository with the given timeout time.
+     *
+     * @param data the data that is being added into the repository
+     * @param timeout the amount of time in seconds that must pass in order to automatically remove data from the repository
+     * @return a {@link CompletableFuture} completed once the data has been added
+     */
+    public CompletableFuture<Void> addData(Collection<DataType> data, int timeout);
+
+    /**
+     * Removes the {@link DataType} object with the given ID from this repository if it exists.
+     *
+     * @param ID the ID that is being removed from this repository
+     * @return a {@link CompletableFuture} completed once the data has been removed
+     */
+    public CompletableFuture<Void> removeData(String ID);
+
+    /**
+     * Removes every {@link DataType} object with one of the given IDs from this repository if it exists.
+     *
+     * @param IDs the IDs that are being removed from this repository
+     * @return a {@link CompletableFuture} completed once the data has been removed
+     */
+    public CompletableFuture<Void> removeData(Collection<String> IDs);
+
+    /**
+     * Checks if the specified ID exists in this repository.
+     *
+     * @param ID the ID that is being looked up in this repository
+     * @return a {@link CompletableFuture} completed with true if ID exists in this repository, otherwise false
+     */
+    public CompletableFuture<Boolean> exists(String ID);
+
+    /**
+     * Checks if every one of the specified IDs exists in this repository.
+     *
+     * @param IDs the IDs that are being looked up in this repository
+     * @return a {@link CompletableFuture} completed with true if every ID exists in this repository, otherwise false
+     */
+    public CompletableFuture<Boolean> existsAll(Collection<String> IDs);
+}
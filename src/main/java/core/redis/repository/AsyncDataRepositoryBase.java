@@ -0,0 +1,98 @@
+package core.redis.repository;
+
+import core.redis.connection.RedisExecutor;
+import core.redis.data.RedisData;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * This runs every call to a {@link DataRepository} on the {@link RedisExecutor} so the calling thread is never blocked.
+ *
+ * @author Preston Brown
+ */
+public class AsyncDataRepositoryBase<T extends RedisData> implements AsyncDataRepository<T> {
+
+    private DataRepository<T> _repository;
+    private RedisExecutor _executor;
+
+    /**
+     * Creates a new {@link AsyncDataRepositoryBase} that runs every call to the given repository asynchronously.
+     *
+     * @param repository the {@link DataRepository} that calls are made to
+     */
+    public AsyncDataRepositoryBase(DataRepository<T> repository)
+    {
+        _repository = repository;
+        _executor = RedisExecutor.getInstance();
+    }
+
+    /**
+     * @return the blocking {@link DataRepository} that calls are made to
+     */
+    public DataRepository<T> getRepository()
+    {
+        return _repository;
+    }
+
+    @Override
+    public CompletableFuture<T> getData(T data)
+    {
+        return _executor.supply(() -> _repository.getData(data));
+    }
+
+    @Override
+    public CompletableFuture<T> getData(String ID)
+    {
+        return _executor.supply(() -> _repository.getData(ID));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, T>> getData(Collection<String> IDs)
+    {
+        return _executor.supply(() -> _repository.getData(IDs));
+    }
+
+    @Override
+    public CompletableFuture<Void> addData(T data)
+    {
+        return _executor.run(() -> _repository.addData(data));
+    }
+
+    @Override
+    public CompletableFuture<Void> addData(T data, int timeout)
+    {
+        return _executor.run(() -> _repository.addData(data, timeout));
+    }
+
+    @Override
+    public CompletableFuture<Void> addData(Collection<T> data, int timeout)
+    {
+        return _executor.run(() -> _repository.addData(data, timeout));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeData(String ID)
+    {
+        return _executor.run(() -> _repository.removeData(ID));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeData(Collection<String> IDs)
+    {
+        return _executor.run(() -> _repository.removeData(IDs));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists(String ID)
+    {
+        return _executor.supply(() -> _repository.exists(ID));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> existsAll(Collection<String> IDs)
+    {
+        return _executor.supply(() -> _repository.existsAll(IDs));
+    }
+}
@@ -0,0 +1,147 @@
+package core.redis.repository;
+
+import core.redis.connection.RedisExecutor;
+import core.redis.data.BungeeProxy;
+import core.redis.data.DedicatedServer;
+import core.redis.data.MinecraftServer;
+import core.redis.data.ServerType;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * This runs every call to an {@link IServerRepository} on the {@link RedisExecutor} so the calling thread is never blocked.
+ *
+ * @author Preston Brown
+ */
+public class AsyncServerRepository implements IAsyncServerRepository {
+
+    private IServerRepository _repository;
+    private RedisExecutor _executor;
+
+    /**
+     * Creates a new {@link AsyncServerRepository} that runs every call to the given repository asynchronously.
+     *
+     * @param repository the {@link IServerRepository} that calls are made to
+     */
+    public AsyncServerRepository(IServerRepository repository)
+    {
+        _repository = repository;
+        _executor = RedisExecutor.getInstance();
+    }
+
+    @Override
+    public CompletableFuture<Collection<MinecraftServer>> getAllMinecraftServers()
+    {
+        return _executor.supply(() -> _repository.getAllMinecraftServers());
+    }
+
+    @Override
+    public CompletableFuture<Collection<MinecraftServer>> getServersByType(String type)
+    {
+        return _executor.supply(() -> _repository.getServersByType(type));
+    }
+
+    @Override
+    public CompletableFuture<MinecraftServer> getLeastLoadedServer(String type)
+    {
+        return _executor.supply(() -> _repository.getLeastLoadedServer(type));
+    }
+
+    @Override
+    public CompletableFuture<Void> addMinecraftServer(MinecraftServer minecraftServer)
+    {
+        return _executor.run(() -> _repository.addMinecraftServer(minecraftServer));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updateMinecraftServer(String serverName, Map<String, String> changedFields)
+    {
+        return _executor.supply(() -> _repository.updateMinecraftServer(serverName, changedFields));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeMinecraftServer(String serverName)
+    {
+        return _executor.run(() -> _repository.removeMinecraftServer(serverName));
+    }
+
+    @Override
+    public CompletableFuture<MinecraftServer> getMinecraftServer(String serverName)
+    {
+        return _executor.supply(() -> _repository.getMinecraftServer(serverName));
+    }
+
+    @Override
+    public CompletableFuture<ServerType> getServerType(String type)
+    {
+        return _executor.supply(() -> _repository.getServerType(type));
+    }
+
+    @Override
+    public CompletableFuture<Collection<ServerType>> getAllServerTypes()
+    {
+        return _executor.supply(() -> _repository.getAllServerTypes());
+    }
+
+    @Override
+    public CompletableFuture<Void> addServerType(ServerType type)
+    {
+        return _executor.run(() -> _repository.addServerType(type));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeServerType(String type)
+    {
+        return _executor.run(() -> _repository.removeServerType(type));
+    }
+
+    @Override
+    public CompletableFuture<Collection<BungeeProxy>> getAllBungeeProxies()
+    {
+        return _executor.supply(() -> _repository.getAllBungeeProxies());
+    }
+
+    @Override
+    public CompletableFuture<BungeeProxy> getBungeeProxy(String publicIP)
+    {
+        return _executor.supply(() -> _repository.getBungeeProxy(publicIP));
+    }
+
+    @Override
+    public CompletableFuture<Void> addBungeeProxy(BungeeProxy bungee)
+    {
+        return _executor.run(() -> _repository.addBungeeProxy(bungee));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeBungeeProxy(String publicIP)
+    {
+        return _executor.run(() -> _repository.removeBungeeProxy(publicIP));
+    }
+
+    @Override
+    public CompletableFuture<Collection<DedicatedServer>> getAllDedicatedServers()
+    {
+        return _executor.supply(() -> _repository.getAllDedicatedServers());
+    }
+
+    @Override
+    public CompletableFuture<DedicatedServer> getDedicatedServer(String publicIP)
+    {
+        return _executor.supply(() -> _repository.getDedicatedServer(publicIP));
+    }
+
+    @Override
+    public CompletableFuture<Void> addDedicatedServer(DedicatedServer dedicatedServer)
+    {
+        return _executor.run(() -> _repository.addDedicatedServer(dedicatedServer));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeDedicatedServer(String publicIP)
+    {
+        return _executor.run(() -> _repository.removeDedicatedServer(publicIP));
+    }
+}
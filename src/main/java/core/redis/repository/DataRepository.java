@@ -2,7 +2,9 @@ package core.redis.repository;
 
 import core.redis.data.RedisData;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This is the outline for a redis repository that stores some type of data.
@@ -78,4 +80,47 @@ public interface DataRepository<DataType extends RedisData> {
      * @return true if ID exists in this repository, otherwise false
      */
     public boolean exists(String ID);
+
+    /**
+     * Returns every {@link DataType} object with one of the given data IDs. All of the IDs are retrieved
+     * in a single round trip to redis.
+     *
+     * @param IDs the IDs that are being looked up in this repository
+     * @return a {@link Map} of every ID that exists in this repository to its {@link DataType} object
+     */
+    public Map<String, DataType> getData(Collection<String> IDs);
+
+    /**
+     * Adds every {@link DataType} in the given collection to this redis repository with the default timeout
+     * time. All of the data is sent in a single round trip to redis.
+     *
+     * @param data the data that is being added into the repository
+     */
+    public void addData(Collection<DataType> data);
+
+    /**
+     * Adds every {@link DataType} in the given collection to this redis repository with the given timeout time.
+     * All of the data is sent in a single round trip to redis.
+     *
+     * @param data the data that is being added into the repository
+     * @param timeout the amount of time in seconds that must pass in order to automatically remove data from the repository
+     */
+    public void addData(Collection<DataType> data, int timeout);
+
+    /**
+     * Removes every {@link DataType} object with one of the given IDs from this repository if it exists.
+     * All of the IDs are removed in a single round trip to redis.
+     *
+     * @param IDs the IDs that are being removed from this repository
+     */
+    public void removeData(Collection<String> IDs);
+
+    /**
+     * Checks if every one of the specified IDs exists in this repository. Returns true if all of the IDs
+     * exist in this repository, otherwise false.
+     *
+     * @param IDs the IDs that are being looked up in this repository
+     * @return true if every ID exists in this repository, otherwise false
+     */
+    public boolean existsAll(Collection<String> IDs);
 }
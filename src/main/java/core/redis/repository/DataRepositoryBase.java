@@ -1,14 +1,21 @@
 package core.redis.repository;
 
-import com.sun.corba.se.spi.activation.ServerManager;
-import core.redis.RedisUtil;
+import core.redis.RedisLogger;
+import core.redis.codec.RedisCodec;
+import core.redis.codec.RedisCodecs;
 import core.redis.connection.RedisManager;
 import core.redis.data.RedisData;
+import core.redis.message.RedisMessageManager;
 import redis.clients.jedis.*;
 import redis.clients.jedis.exceptions.JedisException;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -18,14 +25,56 @@ import java.util.Set;
  */
 public abstract class DataRepositoryBase<T extends RedisData> implements DataRepository<T> {
 
+    private static final RedisLogger LOGGER = RedisLogger.getLogger("Redis-DataRepositoryBase");
+
     protected final int DEFAULT_TIMEOUT = 86400;
     protected String _dataName;
     private Class<T> _classType;
+    private RedisCodec<T> _codec;
+    private NearCache<T> _nearCache;
 
     public DataRepositoryBase(String dataName, Class<T> classType)
+    {
+        this(dataName, classType, RedisCodecs.get(classType));
+    }
+
+    /**
+     * Creates a new data repository that stores its data using the given {@link RedisCodec}.
+     *
+     * @param dataName the name of the data stored in this repository
+     * @param classType the class of the data stored in this repository
+     * @param codec the {@link RedisCodec} used to encode the data
+     */
+    public DataRepositoryBase(String dataName, Class<T> classType, RedisCodec<T> codec)
     {
         _dataName = dataName;
         _classType = classType;
+        _codec = codec;
+    }
+
+    /**
+     * Enables a {@link NearCache} in front of the reads made by this repository. The cache is kept up to date by
+     * invalidation messages that are published every time any server adds or removes data in this repository,
+     * whether or not the server writing the data has a cache enabled. Reads that miss the cache still go to the
+     * replica, and a read made shortly after an invalidation is not cached in case the replica is behind.
+     *
+     * @param maxSize the maximum amount of entries stored in the cache
+     * @param timeToLive the amount of time in milliseconds an entry is stored before it expires
+     */
+    protected void enableNearCache(int maxSize, long timeToLive)
+    {
+        _nearCache = new NearCache<>(maxSize, timeToLive);
+        RedisMessageManager.getInstance().addNearCache(_dataName, _nearCache);
+    }
+
+    /**
+     * Returns the {@link NearCache} used by this repository. If no cache has been enabled null is returned.
+     *
+     * @return the {@link NearCache} used by this repository, otherwise null
+     */
+    public NearCache<T> getNearCache()
+    {
+        return _nearCache;
     }
 
     /**
@@ -57,22 +106,30 @@ public abstract class DataRepositoryBase<T extends RedisData> implements DataRep
     public T getData(String nameID)
     {
         Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
         T data = null;
         String ID = nameID.toLowerCase();
+        if (_nearCache != null && (_nearCache.isMissing(ID) || (data = _nearCache.get(ID)) != null))
+        {
+            return data;
+        }
+        long generation = _nearCache == null ? 0L : _nearCache.getGeneration(ID);
         try
         {
             jedis = RedisManager.getSlaveConnection();
-            Transaction transaction = jedis.multi();
-            Response<String> response = transaction.get(ID);
-            transaction.exec();
-
-            String serialized = response.get();
-            data = deserializeData(serialized);
+            String serialized = jedis.get(getKey(ID));
+            if (serialized != null)
+            {
+                data = deserializeData(serialized);
+            }
+            if (_nearCache != null)
+            {
+                _nearCache.put(ID, data, generation);
+            }
         }
         catch (Exception e)
         {
-            System.out.println("[Redis-DataRepositoryBase] \'" + _dataName + "\' FAILED to execute getData(String nameID)");
-            e.printStackTrace();
+            LOGGER.failure("'" + _dataName + "' getData", getKey(ID), startTime, e);
             return data;
         }
         finally
@@ -88,7 +145,7 @@ public abstract class DataRepositoryBase<T extends RedisData> implements DataRep
                 e.printStackTrace();
             }
         }
-        System.out.println("[Redis-DataRepositoryBase] \'" + _dataName + "\' executed getData(String nameID)");
+        LOGGER.success("'" + _dataName + "' getData", startTime);
         return data;
     }
 
@@ -102,6 +159,7 @@ public abstract class DataRepositoryBase<T extends RedisData> implements DataRep
     public void addData(T data, int timeout)
     {
         Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
         String ID = data.getNameID().toLowerCase();
         try
         {
@@ -110,12 +168,13 @@ public abstract class DataRepositoryBase<T extends RedisData> implements DataRep
             Transaction transaction = jedis.multi();
             transaction.set(getKey(ID), serializedData);
             transaction.expire(getKey(ID), timeout);
+            transaction.publish(RedisMessageManager.getInvalidationChannel(_dataName), ID);
             transaction.exec();
+            invalidateLocal(ID);
         }
         catch (Exception e)
         {
-            System.out.println("[Redis-DataRepositoryBase] \'" + _dataName + "\' FAILED to execute addData(T data, long timeout)");
-            e.printStackTrace();
+            LOGGER.failure("'" + _dataName + "' addData", getKey(ID), startTime, e);
             return;
         }
         finally
@@ -131,7 +190,7 @@ public abstract class DataRepositoryBase<T extends RedisData> implements DataRep
                 e.printStackTrace();
             }
         }
-        System.out.println("[Redis-DataRepositoryBase] \'" + _dataName + "\' executed addData(T data, long timeout)");
+        LOGGER.success("'" + _dataName + "' addData", startTime);
     }
 
     @Override
@@ -144,18 +203,20 @@ public abstract class DataRepositoryBase<T extends RedisData> implements DataRep
     public void removeData(String nameID)
     {
         Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
         String ID = nameID.toLowerCase();
         try
         {
             jedis = RedisManager.getMasterConnection();
             Transaction transaction = jedis.multi();
             transaction.del(getKey(ID));
+            transaction.publish(RedisMessageManager.getInvalidationChannel(_dataName), ID);
             transaction.exec();
+            invalidateLocal(ID);
         }
         catch (Exception e)
         {
-            System.out.println("[Redis-DataRepositoryBase] \'" + _dataName + "\' FAILED to execute removeData(String nameID)");
-            e.printStackTrace();
+            LOGGER.failure("'" + _dataName + "' removeData", getKey(ID), startTime, e);
             return;
         }
         finally
@@ -171,7 +232,7 @@ public abstract class DataRepositoryBase<T extends RedisData> implements DataRep
                 e.printStackTrace();
             }
         }
-        System.out.println("[Redis-DataRepositoryBase] \'" + _dataName + "\' executed removeData(String nameID)");
+        LOGGER.success("'" + _dataName + "' removeData", startTime);
     }
 
     @Override
@@ -184,8 +245,17 @@ public abstract class DataRepositoryBase<T extends RedisData> implements DataRep
     public boolean exists(String nameID)
     {
         Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
         boolean exists = false;
         String ID = nameID.toLowerCase();
+        if (_nearCache != null && _nearCache.isMissing(ID))
+        {
+            return false;
+        }
+        if (_nearCache != null && _nearCache.get(ID) != null)
+        {
+            return true;
+        }
         try
         {
             jedis = RedisManager.getSlaveConnection();
@@ -196,8 +266,7 @@ public abstract class DataRepositoryBase<T extends RedisData> implements DataRep
         }
         catch (Exception e)
         {
-            System.out.println("[Redis-DataRepositoryBase] \'" + _dataName + "\' FAILED to execute exists(T data)");
-            e.printStackTrace();
+            LOGGER.failure("'" + _dataName + "' exists", getKey(ID), startTime, e);
             return exists;
         }
         finally
@@ -213,10 +282,295 @@ public abstract class DataRepositoryBase<T extends RedisData> implements DataRep
                 e.printStackTrace();
             }
         }
-        System.out.println("[Redis-DataRepositoryBase] \'" + _dataName + "\' executed exists(String nameID)");
+        LOGGER.success("'" + _dataName + "' exists", startTime);
+        return exists;
+    }
+
+    @Override
+    public Map<String, T> getData(Collection<String> nameIDs)
+    {
+        Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
+        Map<String, T> data = new HashMap<>();
+        Set<String> IDs = toIDs(nameIDs);
+        if (_nearCache != null)
+        {
+            Iterator<String> iterator = IDs.iterator();
+            while (iterator.hasNext())
+            {
+                String ID = iterator.next();
+                if (_nearCache.isMissing(ID))
+                {
+                    iterator.remove();
+                    continue;
+                }
+                T cached = _nearCache.get(ID);
+                if (cached != null)
+                {
+                    data.put(ID, cached);
+                    iterator.remove();
+                }
+            }
+        }
+        if (IDs.isEmpty())
+        {
+            return data;
+        }
+        Map<String, Long> generations = new HashMap<>();
+        if (_nearCache != null)
+        {
+            for (String ID : IDs)
+            {
+                generations.put(ID, _nearCache.getGeneration(ID));
+            }
+        }
+        try
+        {
+            jedis = RedisManager.getSlaveConnection();
+            Pipeline pipeline = jedis.pipelined();
+            Map<String, Response<String>> responses = new HashMap<>();
+            for (String ID : IDs)
+            {
+                responses.put(ID, pipeline.get(getKey(ID)));
+            }
+            pipeline.sync();
+
+            for (Map.Entry<String, Response<String>> response : responses.entrySet())
+            {
+                String serialized = response.getValue().get();
+                T value = serialized == null ? null : deserializeData(serialized);
+                if (value != null)
+                {
+                    data.put(response.getKey(), value);
+                }
+                if (_nearCache != null)
+                {
+                    _nearCache.put(response.getKey(), value, generations.get(response.getKey()));
+                }
+            }
+        }
+        catch (Exception e)
+        {
+            LOGGER.failure("'" + _dataName + "' getData(batch)", IDs.size() + " keys", startTime, e);
+            return data;
+        }
+        finally
+        {
+            try
+            {
+                if (jedis != null) {
+                    jedis.close();
+                }
+            }
+            catch (JedisException e)
+            {
+                e.printStackTrace();
+            }
+        }
+        LOGGER.success("'" + _dataName + "' getData(batch)", startTime);
+        return data;
+    }
+
+    @Override
+    public void addData(Collection<T> data)
+    {
+        addData(data, DEFAULT_TIMEOUT);
+    }
+
+    @Override
+    public void addData(Collection<T> data, int timeout)
+    {
+        if (data.isEmpty())
+        {
+            return;
+        }
+        Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
+        try
+        {
+            jedis = RedisManager.getMasterConnection();
+            Pipeline pipeline = jedis.pipelined();
+            for (T value : data)
+            {
+                String ID = value.getNameID().toLowerCase();
+                pipeline.setex(getKey(ID), timeout, serializeData(value));
+                pipeline.publish(RedisMessageManager.getInvalidationChannel(_dataName), ID);
+            }
+            pipeline.sync();
+            for (T value : data)
+            {
+                invalidateLocal(value.getNameID().toLowerCase());
+            }
+        }
+        catch (Exception e)
+        {
+            LOGGER.failure("'" + _dataName + "' addData(batch)", data.size() + " keys", startTime, e);
+            return;
+        }
+        finally
+        {
+            try
+            {
+                if (jedis != null) {
+                    jedis.close();
+                }
+            }
+            catch (JedisException e)
+            {
+                e.printStackTrace();
+            }
+        }
+        LOGGER.success("'" + _dataName + "' addData(batch)", startTime);
+    }
+
+    @Override
+    public void removeData(Collection<String> nameIDs)
+    {
+        Set<String> IDs = toIDs(nameIDs);
+        if (IDs.isEmpty())
+        {
+            return;
+        }
+        Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
+        try
+        {
+            jedis = RedisManager.getMasterConnection();
+            Pipeline pipeline = jedis.pipelined();
+            for (String ID : IDs)
+            {
+                pipeline.del(getKey(ID));
+                pipeline.publish(RedisMessageManager.getInvalidationChannel(_dataName), ID);
+            }
+            pipeline.sync();
+            for (String ID : IDs)
+            {
+                invalidateLocal(ID);
+            }
+        }
+        catch (Exception e)
+        {
+            LOGGER.failure("'" + _dataName + "' removeData(batch)", IDs.size() + " keys", startTime, e);
+            return;
+        }
+        finally
+        {
+            try
+            {
+                if (jedis != null) {
+                    jedis.close();
+                }
+            }
+            catch (JedisException e)
+            {
+                e.printStackTrace();
+            }
+        }
+        LOGGER.success("'" + _dataName + "' removeData(batch)", startTime);
+    }
+
+    @Override
+    public boolean existsAll(Collection<String> nameIDs)
+    {
+        Set<String> IDs = toIDs(nameIDs);
+        if (_nearCache != null)
+        {
+            Iterator<String> iterator = IDs.iterator();
+            while (iterator.hasNext())
+            {
+                String ID = iterator.next();
+                if (_nearCache.isMissing(ID))
+                {
+                    return false;
+                }
+                if (_nearCache.get(ID) != null)
+                {
+                    iterator.remove();
+                }
+            }
+        }
+        if (IDs.isEmpty())
+        {
+            return true;
+        }
+        Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
+        boolean exists = false;
+        try
+        {
+            jedis = RedisManager.getSlaveConnection();
+            Pipeline pipeline = jedis.pipelined();
+            List<Response<Boolean>> responses = new LinkedList<>();
+            for (String ID : IDs)
+            {
+                responses.add(pipeline.exists(getKey(ID)));
+            }
+            pipeline.sync();
+
+            exists = true;
+            for (Response<Boolean> response : responses)
+            {
+                if (!response.get())
+                {
+                    exists = false;
+                    break;
+                }
+            }
+        }
+        catch (Exception e)
+        {
+            LOGGER.failure("'" + _dataName + "' existsAll", IDs.size() + " keys", startTime, e);
+            return false;
+        }
+        finally
+        {
+            try
+            {
+                if (jedis != null) {
+                    jedis.close();
+                }
+            }
+            catch (JedisException e)
+            {
+                e.printStackTrace();
+            }
+        }
+        LOGGER.success("'" + _dataName + "' existsAll", startTime);
         return exists;
     }
 
+    /**
+     * Invalidates the ID in the {@link NearCache} of this server once the write has been sent, without waiting for
+     * the invalidation message to arrive. This is done after the write so a read running at the same time cannot
+     * cache the old value after it has been invalidated.
+     *
+     * @param ID the lowercase ID that was written
+     */
+    private void invalidateLocal(String ID)
+    {
+        if (_nearCache != null)
+        {
+            _nearCache.invalidate(ID);
+        }
+    }
+
+    /**
+     * Converts the given name IDs into the lowercase IDs used to build keys. Duplicate IDs are removed
+     * so every key is only sent to redis once.
+     *
+     * @param nameIDs the name IDs being converted
+     * @return the lowercase IDs in the order they were given
+     */
+    private Set<String> toIDs(Collection<String> nameIDs)
+    {
+        Set<String> IDs = new LinkedHashSet<>();
+        for (String nameID : nameIDs)
+        {
+            IDs.add(nameID.toLowerCase());
+        }
+        return IDs;
+    }
+
     /**
      * Serializes the given data into a {@link String}.
      *
@@ -225,7 +579,7 @@ public abstract class DataRepositoryBase<T extends RedisData> implements DataRep
      */
     protected String serializeData(T data)
     {
-        return RedisUtil.serialize(data);
+        return _codec.encode(data);
     }
 
     /**
@@ -236,6 +590,6 @@ public abstract class DataRepositoryBase<T extends RedisData> implements DataRep
      */
     protected T deserializeData(String data)
     {
-        return RedisUtil.deserialize(data, _classType);
+        return _codec.decode(data);
     }
 }
@@ -0,0 +1,174 @@
+package core.redis.repository;
+
+import core.redis.data.BungeeProxy;
+import core.redis.data.DedicatedServer;
+import core.redis.data.MinecraftServer;
+import core.redis.data.ServerType;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * This is the outline for the redis server repository that does not block the calling thread. Every method mirrors
+ * a method in {@link IServerRepository} and returns a {@link CompletableFuture} that is completed once redis has responded.
+ *
+ * @author Preston Brown
+ */
+public interface IAsyncServerRepository {
+
+    /**
+     * Gets a {@link Collection} of every {@link MinecraftServer} instance found in redis.
+     *
+     * @return a {@link CompletableFuture} completed with a {@link Collection} of every {@link MinecraftServer} instance found in redis
+     */
+    public CompletableFuture<Collection<MinecraftServer>> getAllMinecraftServers();
+
+    /**
+     * Gets a {@link Collection} of every live {@link MinecraftServer} with the given {@link ServerType}.
+     *
+     * @param type the name of the {@link ServerType}
+     * @return a {@link CompletableFuture} completed with every live {@link MinecraftServer} with the given {@link ServerType}
+     */
+    public CompletableFuture<Collection<MinecraftServer>> getServersByType(String type);
+
+    /**
+     * Gets the live {@link MinecraftServer} with the given {@link ServerType} that has the lowest player count
+     * compared to its player limit. Full servers are never returned.
+     *
+     * @param type the name of the {@link ServerType}
+     * @return a {@link CompletableFuture} completed with the least loaded {@link MinecraftServer}, otherwise null
+     */
+    public CompletableFuture<MinecraftServer> getLeastLoadedServer(String type);
+
+    /**
+     * Adds a {@link MinecraftServer} to the redis server repository. If one already exists with the same name
+     * it will be replaced with the given {@link MinecraftServer}.
+     *
+     * @param minecraftServer the {@link MinecraftServer} that is being added to the redis server repository
+     * @return a {@link CompletableFuture} completed once redis has been updated
+     */
+    public CompletableFuture<Void> addMinecraftServer(MinecraftServer minecraftServer);
+
+    /**
+     * Writes only the given fields of the {@link MinecraftServer} with the specified name and refreshes its time to live.
+     * If the server has already expired nothing is written, and the whole server must be added again.
+     *
+     * @param serverName the name of the {@link MinecraftServer} that is being updated
+     * @param changedFields the fields that have changed
+     * @return a {@link CompletableFuture} completed with true if the server was updated, otherwise false if it has expired
+     */
+    public CompletableFuture<Boolean> updateMinecraftServer(String serverName, Map<String, String> changedFields);
+
+    /**
+     * Removes the {@link MinecraftServer} with the specified name.
+     *
+     * @param serverName the name of the {@link MinecraftServer} that is being removed
+     * @return a {@link CompletableFuture} completed once redis has been updated
+     */
+    public CompletableFuture<Void> removeMinecraftServer(String serverName);
+
+    /**
+     * Gets the {@link MinecraftServer} instance with the given name if it exists.
+     *
+     * @param serverName the name of the {@link MinecraftServer} that is being retrieved
+     * @return a {@link CompletableFuture} completed with the {@link MinecraftServer} instance with the give name if it exists, otherwise null
+     */
+    public CompletableFuture<MinecraftServer> getMinecraftServer(String serverName);
+
+    /**
+     * Gets the {@link ServerType} instance with the given prefix if it exists.
+     *
+     * @param type the prefix of the {@link ServerType} that is being retrieved
+     * @return a {@link CompletableFuture} completed with the {@link ServerType} instance with the given prefix if it exists, otherwise null
+     */
+    public CompletableFuture<ServerType> getServerType(String type);
+
+    /**
+     * Gets a {@link Collection} of every {@link ServerType} instance found in the redis server repository.
+     *
+     * @return a {@link CompletableFuture} completed with a {@link Collection} of every {@link ServerType} instance found in the redis server repository
+     */
+    public CompletableFuture<Collection<ServerType>> getAllServerTypes();
+
+    /**
+     * Adds a {@link ServerType} to the redis server repository. If one already exists with the same prefix
+     * it will be replaced with the given {@link ServerType}.
+     *
+     * @param type the {@link ServerType} that is being added to the redis server repository.
+     * @return a {@link CompletableFuture} completed once redis has been updated
+     */
+    public CompletableFuture<Void> addServerType(ServerType type);
+
+    /**
+     * Removes the {@link ServerType} with the specified prefix if one exists.
+     *
+     * @param type the prefix of the {@link ServerType} that is being removed
+     * @return a {@link CompletableFuture} completed once redis has been updated
+     */
+    public CompletableFuture<Void> removeServerType(String type);
+
+    /**
+     * Gets a {@link Collection} of every {@link BungeeProxy} instance found in the redis server repository.
+     *
+     * @return a {@link CompletableFuture} completed with a {@link Collection} of every {@link BungeeProxy} instance found in the redis server repository
+     */
+    public CompletableFuture<Collection<BungeeProxy>> getAllBungeeProxies();
+
+    /**
+     * Gets the {@link BungeeProxy} instance with the given public IP address if it exists.
+     *
+     * @param publicIP the public IP address of the {@link BungeeProxy} that is being retrieved
+     * @return a {@link CompletableFuture} completed with the {@link BungeeProxy} instance with the given public IP address if it exists, otherwise null
+     */
+    public CompletableFuture<BungeeProxy> getBungeeProxy(String publicIP);
+
+    /**
+     * Adds the {@link BungeeProxy} to the redis server repository. If one already exists with the same public IP address
+     * it will be replaced with the given {@link BungeeProxy}.
+     *
+     * @param bungee the {@link BungeeProxy} that is being added to the redis server repository
+     * @return a {@link CompletableFuture} completed once redis has been updated
+     */
+    public CompletableFuture<Void> addBungeeProxy(BungeeProxy bungee);
+
+    /**
+     * Removes the {@link BungeeProxy} with the specified public IP address if one exists.
+     *
+     * @param publicIP the public IP address of the {@link BungeeProxy} that is being removed
+     * @return a {@link CompletableFuture} completed once redis has been updated
+     */
+    public CompletableFuture<Void> removeBungeeProxy(String publicIP);
+
+    /**
+     * Gets a {@link Collection} of every {@link DedicatedServer} instance found in the redis server repository.
+     *
+     * @return a {@link CompletableFuture} completed with a {@link Collection} of every {@link DedicatedServer} instance found in the redis server repository
+     */
+    public CompletableFuture<Collection<DedicatedServer>> getAllDedicatedServers();
+
+    /**
+     * Gets the {@link DedicatedServer} instance with the given public IP address if it exists.
+     *
+     * @param publicIP the public IP address of the {@link DedicatedServer} that is being retrieved
+     * @return a {@link CompletableFuture} completed with the {@link DedicatedServer} instance with the given public IP address if it exists, otherwise null
+     */
+    public CompletableFuture<DedicatedServer> getDedicatedServer(String publicIP);
+
+    /**
+     * Adds the {@link DedicatedServer} to the redis server repository. If one already exists with the same public IP address
+     * it will be replaced with the given {@link DedicatedServer}.
+     *
+     * @param dedicatedServer the {@link DedicatedServer} that is being added to the redis server repository
+     * @return a {@link CompletableFuture} completed once redis has been updated
+     */
+    public CompletableFuture<Void> addDedicatedServer(DedicatedServer dedicatedServer);
+
+    /**
+     * Removes the {@link DedicatedServer} with the specified public IP address if one exists.
+     *
+     * @param publicIP the public IP address of the {@link DedicatedServer} that is being removed
+     * @return a {@link CompletableFuture} completed once redis has been updated
+     */
+    public CompletableFuture<Void> removeDedicatedServer(String publicIP);
+}
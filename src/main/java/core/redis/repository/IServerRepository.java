@@ -7,6 +7,7 @@ import core.redis.data.ServerType;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This is the outline for the redis repository that stores server data for {@link core.redis.data.MinecraftServer}s,
@@ -23,14 +24,44 @@ public interface IServerRepository {
      */
     public Collection<MinecraftServer> getAllMinecraftServers();
 
+    /**
+     * Gets a {@link Collection} of every live {@link MinecraftServer} with the given {@link ServerType}.
+     *
+     * @param type the name of the {@link ServerType}
+     * @return a {@link Collection} of every live {@link MinecraftServer} with the given {@link ServerType}
+     */
+    public Collection<MinecraftServer> getServersByType(String type);
+
+    /**
+     * Gets the live {@link MinecraftServer} with the given {@link ServerType} that has the lowest player count
+     * compared to its player limit. Full servers are never returned.
+     *
+     * @param type the name of the {@link ServerType}
+     * @return the least loaded {@link MinecraftServer} with the given {@link ServerType}, otherwise null
+     */
+    public MinecraftServer getLeastLoadedServer(String type);
+
     /**
      * Adds a {@link MinecraftServer} to the redis server repository. If one already exists with the same name
-     * it will be replaced with the given {@link MinecraftServer}.
+     * it will be replaced with the given {@link MinecraftServer}. The server expires unless it is added again
+     * before its time to live runs out, so this should be called on every heartbeat.
      *
      * @param minecraftServer the {@link MinecraftServer} that is being added to the redis server repository
      */
     public void addMinecraftServer(MinecraftServer minecraftServer);
 
+    /**
+     * Writes only the given fields of the {@link MinecraftServer} with the specified name and refreshes its time to live.
+     * This is used by heartbeats so the static fields are not rewritten every time. If the server has already expired
+     * nothing is written and false is returned, and the whole server must be added again. Static fields such as the
+     * type are never written here, since only {@link #addMinecraftServer(MinecraftServer)} moves a server between indexes.
+     *
+     * @param serverName the name of the {@link MinecraftServer} that is being updated
+     * @param changedFields the fields that have changed, found in {@link core.redis.codec.MinecraftServerFields#DYNAMIC_FIELDS}
+     * @return true if the server was updated, otherwise false if it has expired
+     */
+    public boolean updateMinecraftServer(String serverName, Map<String, String> changedFields);
+
     /**
      * Removes the {@link MinecraftServer} with the specified name.
      *
@@ -0,0 +1,304 @@
+package core.redis.repository;
+
+import core.redis.data.RedisData;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This is a bounded local cache that sits in front of a {@link DataRepositoryBase}. Entries are removed once
+ * they have been stored for longer than the time to live, and the least recently used entry is evicted once
+ * the cache is full. Entries are also invalidated whenever any server changes the data in redis.
+ *
+ * <p>Every ID has a generation that is increased whenever it is invalidated. A read records the generation before it
+ * queries redis and only caches its result if the generation has not changed, so a value read before an invalidation
+ * arrived is never cached after it. The generations are striped by the hash of the ID to keep them bounded, so an
+ * invalidation may also skip caching a read of an unrelated ID that shares its stripe.</p>
+ *
+ * <p>Reads are made from a replica, which may not have received a write yet when the invalidation for it arrives. A
+ * read made within {@link #REPLICA_LAG_WINDOW} milliseconds of an invalidation of its stripe is therefore returned but
+ * not cached. IDs that do not exist in redis are cached as missing for a shorter time to live, so repeated lookups of
+ * a missing ID do not all go to redis.</p>
+ *
+ * @author Preston Brown
+ */
+public class NearCache<T extends RedisData> {
+
+    private static final int GENERATION_STRIPES = 1024;
+    public static final long REPLICA_LAG_WINDOW = 1000L;
+
+    private final int _maxSize;
+    private final long _timeToLive;
+    private final long _missingTimeToLive;
+    private final LinkedHashMap<String, CacheEntry<T>> _entries;
+    private final AtomicLongArray _generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLongArray _invalidatedAt = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final AtomicLong _hits = new AtomicLong();
+    private final AtomicLong _misses = new AtomicLong();
+    private final AtomicLong _evictions = new AtomicLong();
+    private final AtomicLong _expirations = new AtomicLong();
+    private final AtomicLong _invalidations = new AtomicLong();
+    private final AtomicLong _stalePuts = new AtomicLong();
+
+    /**
+     * Creates a new {@link NearCache} that can hold up to maxSize entries for timeToLive milliseconds. Missing IDs
+     * are cached for whichever is shorter of timeToLive and {@link #REPLICA_LAG_WINDOW}.
+     *
+     * @param maxSize the maximum amount of entries stored in this cache
+     * @param timeToLive the amount of time in milliseconds an entry is stored before it expires
+     */
+    public NearCache(int maxSize, long timeToLive)
+    {
+        this(maxSize, timeToLive, Math.min(timeToLive, REPLICA_LAG_WINDOW));
+    }
+
+    /**
+     * Creates a new {@link NearCache} that can hold up to maxSize entries for timeToLive milliseconds, and caches
+     * missing IDs for missingTimeToLive milliseconds.
+     *
+     * @param maxSize the maximum amount of entries stored in this cache
+     * @param timeToLive the amount of time in milliseconds an entry is stored before it expires
+     * @param missingTimeToLive the amount of time in milliseconds a missing ID is stored before it expires
+     */
+    public NearCache(int maxSize, long timeToLive, long missingTimeToLive)
+    {
+        _maxSize = maxSize;
+        _timeToLive = timeToLive;
+        _missingTimeToLive = missingTimeToLive;
+        _entries = new LinkedHashMap<String, CacheEntry<T>>(16, 0.75F, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry<T>> eldest)
+            {
+                if (size() > _maxSize)
+                {
+                    _evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached data with the given ID. If the ID is not cached, is cached as missing or the entry has
+     * expired null is returned, so {@link #isMissing(String)} must be checked first to tell a missing ID apart.
+     *
+     * @param ID the lowercase ID of the data
+     * @return the cached data with the given ID, otherwise null
+     */
+    public synchronized T get(String ID)
+    {
+        CacheEntry<T> entry = _entries.get(ID);
+        if (entry == null)
+        {
+            _misses.incrementAndGet();
+            return null;
+        }
+        if (entry.isExpired())
+        {
+            _entries.remove(ID);
+            _expirations.incrementAndGet();
+            _misses.incrementAndGet();
+            return null;
+        }
+        if (entry._data == null)
+        {
+            _misses.incrementAndGet();
+            return null;
+        }
+        _hits.incrementAndGet();
+        return entry._data;
+    }
+
+    /**
+     * Returns whether the given ID is cached as missing from redis. This counts as a hit if it is.
+     *
+     * @param ID the lowercase ID of the data
+     * @return true if the ID was recently read and did not exist, otherwise false
+     */
+    public synchronized boolean isMissing(String ID)
+    {
+        CacheEntry<T> entry = _entries.get(ID);
+        if (entry == null || entry._data != null || entry.isExpired())
+        {
+            return false;
+        }
+        _hits.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Returns the current generation of the given ID. This must be read before the data is queried from redis and
+     * passed to {@link #put(String, RedisData, long)} along with the result.
+     *
+     * @param ID the lowercase ID of the data
+     * @return the current generation of the ID
+     */
+    public long getGeneration(String ID)
+    {
+        return _generations.get(getStripe(ID));
+    }
+
+    /**
+     * Stores the given data in this cache if the ID has not been invalidated since the given generation was read, or
+     * within {@link #REPLICA_LAG_WINDOW} milliseconds of now. If the data is null the ID is cached as missing.
+     *
+     * @param ID the lowercase ID of the data
+     * @param data the data being cached, or null if the ID does not exist in redis
+     * @param generation the generation of the ID read before the data was queried
+     * @return true if the data was cached, or false if the ID was invalidated too recently to trust the read
+     */
+    public synchronized boolean put(String ID, T data, long generation)
+    {
+        int stripe = getStripe(ID);
+        long now = System.currentTimeMillis();
+        if (_generations.get(stripe) != generation || now - _invalidatedAt.get(stripe) < REPLICA_LAG_WINDOW)
+        {
+            _stalePuts.incrementAndGet();
+            return false;
+        }
+        _entries.put(ID, new CacheEntry<>(data, now + (data == null ? _missingTimeToLive : _timeToLive)));
+        return true;
+    }
+
+    /**
+     * Removes the data with the given ID from this cache if it exists, and stops any read of the ID that is still
+     * running from caching its result.
+     *
+     * @param ID the lowercase ID of the data
+     */
+    public synchronized void invalidate(String ID)
+    {
+        int stripe = getStripe(ID);
+        _generations.incrementAndGet(stripe);
+        _invalidatedAt.set(stripe, System.currentTimeMillis());
+        if (_entries.remove(ID) != null)
+        {
+            _invalidations.incrementAndGet();
+        }
+    }
+
+    /**
+     * Removes every entry from this cache, and stops every read that is still running from caching its result.
+     */
+    public synchronized void clear()
+    {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < GENERATION_STRIPES; i++)
+        {
+            _generations.incrementAndGet(i);
+            _invalidatedAt.set(i, now);
+        }
+        _entries.clear();
+    }
+
+    /**
+     * @return the amount of entries currently stored in this cache
+     */
+    public synchronized int size()
+    {
+        return _entries.size();
+    }
+
+    /**
+     * @return the maximum amount of entries stored in this cache
+     */
+    public int getMaxSize()
+    {
+        return _maxSize;
+    }
+
+    /**
+     * @return the amount of time in milliseconds an entry is stored before it expires
+     */
+    public long getTimeToLive()
+    {
+        return _timeToLive;
+    }
+
+    /**
+     * @return the amount of time in milliseconds a missing ID is stored before it expires
+     */
+    public long getMissingTimeToLive()
+    {
+        return _missingTimeToLive;
+    }
+
+    /**
+     * @return the amount of lookups that were answered by this cache
+     */
+    public long getHits()
+    {
+        return _hits.get();
+    }
+
+    /**
+     * @return the amount of lookups that had to go to redis
+     */
+    public long getMisses()
+    {
+        return _misses.get();
+    }
+
+    /**
+     * @return the amount of entries removed because the cache was full
+     */
+    public long getEvictions()
+    {
+        return _evictions.get();
+    }
+
+    /**
+     * @return the amount of entries removed because they expired
+     */
+    public long getExpirations()
+    {
+        return _expirations.get();
+    }
+
+    /**
+     * @return the amount of entries removed because the data was changed in redis
+     */
+    public long getInvalidations()
+    {
+        return _invalidations.get();
+    }
+
+    /**
+     * @return the amount of reads that were not cached because their ID was invalidated while they were running or
+     * too recently for the replica to have the change
+     */
+    public long getStalePuts()
+    {
+        return _stalePuts.get();
+    }
+
+    private int getStripe(String ID)
+    {
+        return (ID.hashCode() & 0x7FFFFFFF) % GENERATION_STRIPES;
+    }
+
+    /**
+     * Stores a piece of cached data along with the time it expires.
+     */
+    private static class CacheEntry<T> {
+
+        private final T _data;
+        private final long _expiresAt;
+
+        private CacheEntry(T data, long expiresAt)
+        {
+            _data = data;
+            _expiresAt = expiresAt;
+        }
+
+        private boolean isExpired()
+        {
+            return System.currentTimeMillis() >= _expiresAt;
+        }
+    }
+}
@@ -0,0 +1,563 @@
+package core.redis.repository;
+
+import core.redis.RedisLogger;
+import core.redis.codec.MinecraftServerFields;
+import core.redis.codec.RedisCodecs;
+import core.redis.data.BungeeProxy;
+import core.redis.data.DedicatedServer;
+import core.redis.data.MinecraftServer;
+import core.redis.data.RedisData;
+import core.redis.data.ServerType;
+import core.redis.message.RedisMessageManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This is a local copy of every {@link MinecraftServer}, {@link ServerType}, {@link BungeeProxy} and {@link DedicatedServer}
+ * stored in the {@link IServerRepository}. Every change made through the {@link ServerRepository} is published as a delta
+ * that is applied to the local copy, and the whole copy is replaced with a full read from redis on a regular interval
+ * in case any deltas were missed.
+ *
+ * <p>The local copy is an immutable snapshot that is replaced whenever it changes, so reads never lock and never
+ * touch redis. Deltas that arrive while a full read is running are recorded and applied again on top of the read, since
+ * the read may have been made before they were written.</p>
+ *
+ * @author Preston Brown
+ */
+public class ServerRegistryView {
+
+    public static final String MINECRAFT = "minecraft";
+    public static final String SERVER_TYPE = "servertype";
+    public static final String BUNGEE = "bungee";
+    public static final String DEDICATED = "dedicated";
+    private static final RedisLogger LOGGER = RedisLogger.getLogger("Redis-ServerRegistryView");
+
+    private IServerRepository _repository;
+    private long _syncInterval;
+    private long _serverTimeToLive;
+    private volatile Snapshot _snapshot = new Snapshot();
+    private List<String[]> _pendingDeltas;
+    private ScheduledExecutorService _syncThread;
+
+    private volatile long _lastFullSync;
+    private volatile long _lastDelta;
+    private final AtomicLong _deltasApplied = new AtomicLong();
+    private final AtomicLong _fullSyncs = new AtomicLong();
+    private final AtomicLong _syncCorrections = new AtomicLong();
+    private final AtomicLong _syncFailures = new AtomicLong();
+    private final AtomicLong _deltaFailures = new AtomicLong();
+
+    /**
+     * Creates a new {@link ServerRegistryView} of the given repository. {@link #start()} must be called before the
+     * view contains any data.
+     *
+     * @param repository the {@link IServerRepository} the view is a copy of
+     * @param syncInterval the time in milliseconds between full reads of the repository
+     * @param serverTimeToLive the time in milliseconds after its last update that a {@link MinecraftServer} is no longer returned
+     */
+    public ServerRegistryView(IServerRepository repository, long syncInterval, long serverTimeToLive)
+    {
+        _repository = repository;
+        _syncInterval = syncInterval;
+        _serverTimeToLive = serverTimeToLive;
+    }
+
+    /**
+     * Starts listening for deltas, reads the whole repository and schedules the full reads.
+     */
+    public void start()
+    {
+        RedisMessageManager.getInstance().setRegistryView(this);
+        _syncThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Redis-Registry-Sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        _syncThread.scheduleWithFixedDelay(this::sync, 0L, _syncInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the full reads. Deltas are still applied until the {@link RedisMessageManager} is shut down.
+     */
+    public void stop()
+    {
+        if (_syncThread != null)
+        {
+            _syncThread.shutdownNow();
+        }
+    }
+
+    /**
+     * Schedules a full read of the repository as soon as possible. This is used after the subscriber reconnects
+     * since deltas may have been missed.
+     */
+    public void requestSync()
+    {
+        if (_syncThread != null)
+        {
+            _syncThread.execute(this::sync);
+        }
+    }
+
+    /**
+     * Replaces the local copy with a full read of the repository.
+     */
+    private void sync()
+    {
+        long startTime = System.currentTimeMillis();
+        synchronized (this)
+        {
+            _pendingDeltas = new ArrayList<>();
+        }
+        try
+        {
+            long now = System.currentTimeMillis();
+            Map<String, MinecraftServer> minecraftServers = toMap(_repository.getAllMinecraftServers());
+            Map<String, ServerType> serverTypes = toMap(_repository.getAllServerTypes());
+            Map<String, BungeeProxy> bungeeProxies = toMap(_repository.getAllBungeeProxies());
+            Map<String, DedicatedServer> dedicatedServers = toMap(_repository.getAllDedicatedServers());
+            Map<String, Long> updated = new HashMap<>();
+            for (String name : minecraftServers.keySet())
+            {
+                updated.put(name, now);
+            }
+            updated = Collections.unmodifiableMap(updated);
+
+            synchronized (this)
+            {
+                Snapshot old = _snapshot;
+                long corrections = countDifferences(old._minecraftServers, minecraftServers) + countDifferences(old._serverTypes, serverTypes)
+                        + countDifferences(old._bungeeProxies, bungeeProxies) + countDifferences(old._dedicatedServers, dedicatedServers);
+                if (_fullSyncs.get() > 0)
+                {
+                    _syncCorrections.addAndGet(corrections);
+                }
+                _snapshot = new Snapshot(minecraftServers, updated, serverTypes, bungeeProxies, dedicatedServers);
+
+                // Deltas received during the read may be newer than what was read, so they are applied again
+                for (String[] delta : _pendingDeltas)
+                {
+                    try
+                    {
+                        applyDelta(delta[0], delta[1], false);
+                    }
+                    catch (Exception e)
+                    {
+                        // Already counted when the delta was first received
+                    }
+                }
+            }
+            _lastFullSync = now;
+            _fullSyncs.incrementAndGet();
+        }
+        catch (Exception e)
+        {
+            _syncFailures.incrementAndGet();
+            LOGGER.failure("sync", "server registry", startTime, e);
+        }
+        finally
+        {
+            synchronized (this)
+            {
+                _pendingDeltas = null;
+            }
+        }
+    }
+
+    /**
+     * This applies a delta received by the {@link RedisMessageManager}. A delta is either put followed by the encoded
+     * data, remove followed by the ID of the data, or for {@link MinecraftServer}s update followed by the changed fields.
+     *
+     * A delta that cannot be decoded is skipped, and the next full read corrects the local copy.
+     *
+     * @param kind the kind of data that changed, such as {@link #MINECRAFT}
+     * @param message the delta
+     */
+    public void applyDelta(String kind, String message)
+    {
+        try
+        {
+            if (applyDelta(kind, message, true))
+            {
+                _lastDelta = System.currentTimeMillis();
+                _deltasApplied.incrementAndGet();
+            }
+        }
+        catch (Exception e)
+        {
+            _deltaFailures.incrementAndGet();
+            LOGGER.failure("applyDelta", kind, System.currentTimeMillis(), e);
+        }
+    }
+
+    /**
+     * Applies the delta to the local copy, and records it if a full read is running.
+     *
+     * @param kind the kind of data that changed
+     * @param message the delta
+     * @param record true if the delta should be applied again once a running full read finishes
+     * @return true if the delta changed the local copy
+     */
+    private synchronized boolean applyDelta(String kind, String message, boolean record)
+    {
+        String[] delta = message.split("\\|", 2);
+        if (delta.length != 2)
+        {
+            return false;
+        }
+        boolean put = delta[0].equals("put");
+        if (record && _pendingDeltas != null)
+        {
+            // Recorded even if it cannot be applied yet, since an update may be for a server the full read finds
+            _pendingDeltas.add(new String[] {kind, message});
+        }
+        Snapshot old = _snapshot;
+        Snapshot snapshot;
+        switch (kind)
+        {
+            case MINECRAFT:
+                Map<String, MinecraftServer> minecraftServers = new HashMap<>(old._minecraftServers);
+                Map<String, Long> updated = new HashMap<>(old._minecraftUpdated);
+                if (put)
+                {
+                    MinecraftServer server = RedisCodecs.get(MinecraftServer.class).decode(delta[1]);
+                    minecraftServers.put(server.getNameID(), server);
+                    updated.put(server.getNameID(), System.currentTimeMillis());
+                }
+                else if (delta[0].equals("update"))
+                {
+                    MinecraftServer server = applyUpdate(old._minecraftServers, delta[1]);
+                    if (server == null)
+                    {
+                        return false;
+                    }
+                    minecraftServers.put(server.getNameID(), server);
+                    updated.put(server.getNameID(), System.currentTimeMillis());
+                }
+                else
+                {
+                    minecraftServers.remove(delta[1]);
+                    updated.remove(delta[1]);
+                }
+                snapshot = new Snapshot(Collections.unmodifiableMap(minecraftServers), Collections.unmodifiableMap(updated),
+                        old._serverTypes, old._bungeeProxies, old._dedicatedServers);
+                break;
+            case SERVER_TYPE:
+                snapshot = new Snapshot(old._minecraftServers, old._minecraftUpdated, apply(old._serverTypes, delta[1], put, ServerType.class),
+                        old._bungeeProxies, old._dedicatedServers);
+                break;
+            case BUNGEE:
+                snapshot = new Snapshot(old._minecraftServers, old._minecraftUpdated, old._serverTypes,
+                        apply(old._bungeeProxies, delta[1], put, BungeeProxy.class), old._dedicatedServers);
+                break;
+            case DEDICATED:
+                snapshot = new Snapshot(old._minecraftServers, old._minecraftUpdated, old._serverTypes, old._bungeeProxies,
+                        apply(old._dedicatedServers, delta[1], put, DedicatedServer.class));
+                break;
+            default:
+                return false;
+        }
+        _snapshot = snapshot;
+        return true;
+    }
+
+    /**
+     * Applies an update delta made up of the server name and its changed fields, such as {@code Lobby-1|players=5,tps=20.0},
+     * to the local copy of the server.
+     *
+     * @param minecraftServers the local copy of every server
+     * @param update the server name and its changed fields
+     * @return the updated server, or null if the server is not known locally yet
+     */
+    private static MinecraftServer applyUpdate(Map<String, MinecraftServer> minecraftServers, String update)
+    {
+        String[] args = update.split("\\|", 2);
+        MinecraftServer server = minecraftServers.get(args[0]);
+        if (server == null || args.length != 2)
+        {
+            return null;
+        }
+        Map<String, String> fields = MinecraftServerFields.toFields(server);
+        for (String field : args[1].split(","))
+        {
+            String[] pair = field.split("=", 2);
+            if (pair.length == 2)
+            {
+                fields.put(pair[0], pair[1]);
+            }
+        }
+        return MinecraftServerFields.fromFields(fields);
+    }
+
+    /**
+     * Returns a copy of the given map with the delta applied.
+     *
+     * @param map the map the delta is applied to
+     * @param data the encoded data if this is a put, otherwise the ID being removed
+     * @param put true if the data is being added or replaced
+     * @param klazz the class of the data
+     * @param <T> the type of the data
+     * @return a copy of the map with the delta applied
+     */
+    private static <T extends RedisData> Map<String, T> apply(Map<String, T> map, String data, boolean put, Class<T> klazz)
+    {
+        Map<String, T> copy = new HashMap<>(map);
+        if (put)
+        {
+            T decoded = RedisCodecs.get(klazz).decode(data);
+            copy.put(decoded.getNameID(), decoded);
+        }
+        else
+        {
+            copy.remove(data);
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Returns an unmodifiable map of the given data by ID.
+     *
+     * @param data the data being mapped
+     * @param <T> the type of the data
+     * @return an unmodifiable map of the given data by ID
+     */
+    private static <T extends RedisData> Map<String, T> toMap(Collection<T> data)
+    {
+        Map<String, T> map = new HashMap<>();
+        for (T entry : data)
+        {
+            map.put(entry.getNameID(), entry);
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Returns the amount of IDs that are only found in one of the maps.
+     *
+     * @param local the local copy of the data
+     * @param remote the data read from redis
+     * @return the amount of IDs that are only found in one of the maps
+     */
+    private static long countDifferences(Map<String, ?> local, Map<String, ?> remote)
+    {
+        long differences = 0;
+        for (String ID : remote.keySet())
+        {
+            if (!local.containsKey(ID))
+            {
+                differences++;
+            }
+        }
+        for (String ID : local.keySet())
+        {
+            if (!remote.containsKey(ID))
+            {
+                differences++;
+            }
+        }
+        return differences;
+    }
+
+    /**
+     * Gets the {@link MinecraftServer} with the given name if it exists and has been updated within its time to live.
+     *
+     * @param serverName the name of the {@link MinecraftServer}
+     * @return the {@link MinecraftServer} with the given name, otherwise null
+     */
+    public MinecraftServer getMinecraftServer(String serverName)
+    {
+        Snapshot snapshot = _snapshot;
+        return snapshot.isLive(serverName, _serverTimeToLive) ? snapshot._minecraftServers.get(serverName) : null;
+    }
+
+    /**
+     * @return every {@link MinecraftServer} that has been updated within its time to live
+     */
+    public Collection<MinecraftServer> getAllMinecraftServers()
+    {
+        Snapshot snapshot = _snapshot;
+        List<MinecraftServer> servers = new ArrayList<>();
+        for (MinecraftServer server : snapshot._minecraftServers.values())
+        {
+            if (snapshot.isLive(server.getNameID(), _serverTimeToLive))
+            {
+                servers.add(server);
+            }
+        }
+        return servers;
+    }
+
+    /**
+     * Gets every {@link MinecraftServer} with the given {@link ServerType} that has been updated within its time to live.
+     *
+     * @param type the name of the {@link ServerType}
+     * @return every live {@link MinecraftServer} with the given {@link ServerType}
+     */
+    public Collection<MinecraftServer> getServersByType(String type)
+    {
+        List<MinecraftServer> servers = new ArrayList<>();
+        for (MinecraftServer server : getAllMinecraftServers())
+        {
+            if (type.equals(server.getServerType()))
+            {
+                servers.add(server);
+            }
+        }
+        return servers;
+    }
+
+    /**
+     * Gets the {@link ServerType} with the given name if it exists.
+     *
+     * @param type the name of the {@link ServerType}
+     * @return the {@link ServerType} with the given name, otherwise null
+     */
+    public ServerType getServerType(String type)
+    {
+        return _snapshot._serverTypes.get(type);
+    }
+
+    /**
+     * @return every {@link ServerType}
+     */
+    public Collection<ServerType> getAllServerTypes()
+    {
+        return _snapshot._serverTypes.values();
+    }
+
+    /**
+     * Gets the {@link BungeeProxy} with the given ID if it exists.
+     *
+     * @param ID the ID of the {@link BungeeProxy}
+     * @return the {@link BungeeProxy} with the given ID, otherwise null
+     */
+    public BungeeProxy getBungeeProxy(String ID)
+    {
+        return _snapshot._bungeeProxies.get(ID);
+    }
+
+    /**
+     * @return every {@link BungeeProxy}
+     */
+    public Collection<BungeeProxy> getAllBungeeProxies()
+    {
+        return _snapshot._bungeeProxies.values();
+    }
+
+    /**
+     * Gets the {@link DedicatedServer} with the given ID if it exists.
+     *
+     * @param ID the ID of the {@link DedicatedServer}
+     * @return the {@link DedicatedServer} with the given ID, otherwise null
+     */
+    public DedicatedServer getDedicatedServer(String ID)
+    {
+        return _snapshot._dedicatedServers.get(ID);
+    }
+
+    /**
+     * @return every {@link DedicatedServer}
+     */
+    public Collection<DedicatedServer> getAllDedicatedServers()
+    {
+        return _snapshot._dedicatedServers.values();
+    }
+
+    /**
+     * @return the time in milliseconds since the last successful full read, or -1 if there has not been one
+     */
+    public long getMillisSinceFullSync()
+    {
+        return _lastFullSync == 0 ? -1 : System.currentTimeMillis() - _lastFullSync;
+    }
+
+    /**
+     * @return the time in milliseconds since the last delta was applied, or -1 if none have been applied
+     */
+    public long getMillisSinceDelta()
+    {
+        return _lastDelta == 0 ? -1 : System.currentTimeMillis() - _lastDelta;
+    }
+
+    /**
+     * @return the amount of deltas that have been applied
+     */
+    public long getDeltasApplied()
+    {
+        return _deltasApplied.get();
+    }
+
+    /**
+     * @return the amount of successful full reads
+     */
+    public long getFullSyncs()
+    {
+        return _fullSyncs.get();
+    }
+
+    /**
+     * @return the amount of entries that a full read added or removed because a delta was missed or an entry expired
+     */
+    public long getSyncCorrections()
+    {
+        return _syncCorrections.get();
+    }
+
+    /**
+     * @return the amount of deltas that could not be decoded
+     */
+    public long getDeltaFailures()
+    {
+        return _deltaFailures.get();
+    }
+
+    /**
+     * @return the amount of full reads that failed
+     */
+    public long getSyncFailures()
+    {
+        return _syncFailures.get();
+    }
+
+    /**
+     * An immutable copy of the registry. A new snapshot is created every time the registry changes.
+     */
+    private static class Snapshot {
+
+        private final Map<String, MinecraftServer> _minecraftServers;
+        private final Map<String, Long> _minecraftUpdated;
+        private final Map<String, ServerType> _serverTypes;
+        private final Map<String, BungeeProxy> _bungeeProxies;
+        private final Map<String, DedicatedServer> _dedicatedServers;
+
+        private Snapshot()
+        {
+            this(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+        }
+
+        private Snapshot(Map<String, MinecraftServer> minecraftServers, Map<String, Long> minecraftUpdated, Map<String, ServerType> serverTypes,
+                         Map<String, BungeeProxy> bungeeProxies, Map<String, DedicatedServer> dedicatedServers)
+        {
+            _minecraftServers = minecraftServers;
+            _minecraftUpdated = minecraftUpdated;
+            _serverTypes = serverTypes;
+            _bungeeProxies = bungeeProxies;
+            _dedicatedServers = dedicatedServers;
+        }
+
+        private boolean isLive(String serverName, long timeToLive)
+        {
+            Long updated = _minecraftUpdated.get(serverName);
+            return updated != null && System.currentTimeMillis() - updated <= timeToLive;
+        }
+    }
+}
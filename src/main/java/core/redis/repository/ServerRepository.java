@@ -1,36 +1,106 @@
 package core.redis.repository;
 
-import com.sun.corba.se.spi.activation.ServerManager;
-import core.redis.RedisUtil;
+import core.redis.RedisLogger;
+import core.redis.codec.MinecraftServerFields;
+import core.redis.codec.RedisCodecs;
 import core.redis.connection.RedisManager;
 import core.redis.data.BungeeProxy;
 import core.redis.data.DedicatedServer;
 import core.redis.data.MinecraftServer;
 import core.redis.data.ServerType;
+import core.redis.message.RedisMessageManager;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.Pipeline;
 import redis.clients.jedis.Response;
 import redis.clients.jedis.Transaction;
-import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.exceptions.JedisDataException;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.Collections;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Manages the redis server repository that manages the server data for all of the different types of servers.
  *
+ * <p>Every {@link MinecraftServer} is stored in its own hash that expires unless the server's heartbeat refreshes it,
+ * so crashed servers disappear on their own. The names of the servers are indexed in a global set and a set for
+ * every {@link ServerType}, and names whose key has expired are pruned from the sets when they are read.</p>
+ *
  * @author Preston Brown
  */
 public class ServerRepository implements IServerRepository{
 
+    public static final long DEFAULT_SERVER_TIME_TO_LIVE = 15000L;
+    private static final RedisLogger LOGGER = RedisLogger.getLogger("Redis-ServerRepository");
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
     /**
-     * This creates a new {@link ServerRepository} instance.
+     * Writes the changed fields of a server and refreshes its expiry, but only if the server has not already expired.
+     * The delta is published so every {@link ServerRegistryView} can apply it.
+     *
+     * <p>KEYS[1] is the key of the server. ARGV is the time to live, the registry channel, the delta and then every
+     * changed field followed by its value.</p>
+     */
+    private static final String HEARTBEAT_SCRIPT =
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+            "for i = 4, #ARGV, 2 do " +
+            "  redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) " +
+            "end " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[1]) " +
+            "redis.call('PUBLISH', ARGV[2], ARGV[3]) " +
+            "return 1";
+
+    /**
+     * Removes the names of servers from the index sets, but only the servers whose key does not exist on the master.
+     * A server that was read as expired from a lagging replica, or that was added again since, stays in the indexes.
+     *
+     * <p>KEYS[1] is the index set the names were found in and KEYS[2] is the global index, followed by the key of
+     * every server. ARGV is the name of every server in the same order. Returns the amount of servers removed.</p>
+     */
+    private static final String PRUNE_SCRIPT =
+            "local removed = 0 " +
+            "for i = 1, #ARGV do " +
+            "  if redis.call('EXISTS', KEYS[i + 2]) == 0 then " +
+            "    redis.call('SREM', KEYS[1], ARGV[i]) " +
+            "    redis.call('SREM', KEYS[2], ARGV[i]) " +
+            "    removed = removed + 1 " +
+            "  end " +
+            "end " +
+            "return removed";
+
+    private long _serverTimeToLive;
+    private volatile String _heartbeatScriptSha;
+    private volatile String _pruneScriptSha;
+
+    /**
+     * This creates a new {@link ServerRepository} instance. {@link MinecraftServer}s expire if they are not
+     * refreshed within {@link #DEFAULT_SERVER_TIME_TO_LIVE} milliseconds.
      */
     public ServerRepository()
     {
+        this(DEFAULT_SERVER_TIME_TO_LIVE);
+    }
 
+    /**
+     * This creates a new {@link ServerRepository} instance.
+     *
+     * @param serverTimeToLive the time in milliseconds a {@link MinecraftServer} is stored before it expires unless
+     *                         it is refreshed, this should be a few times longer than the heartbeat
+     */
+    public ServerRepository(long serverTimeToLive)
+    {
+        _serverTimeToLive = serverTimeToLive;
+    }
+
+    /**
+     * @return the time in milliseconds a {@link MinecraftServer} is stored before it expires unless it is refreshed
+     */
+    public long getServerTimeToLive()
+    {
+        return _serverTimeToLive;
     }
 
     /**
@@ -39,7 +109,7 @@ public class ServerRepository implements IServerRepository{
      * @param strings the array of strings that is being concatenated
      * @return the concatenated string
      */
-    private String concatenate(String[] strings)
+    private static String concatenate(String[] strings)
     {
         StringBuilder conjoined = new StringBuilder();
         conjoined.append("server");
@@ -52,69 +122,221 @@ public class ServerRepository implements IServerRepository{
 
     @Override
     public Collection<MinecraftServer> getAllMinecraftServers()
+    {
+        return getIndexedMinecraftServers(concatenate(new String[] {"minecraft", "index"}), null, "getAllMinecraftServers()");
+    }
+
+    @Override
+    public Collection<MinecraftServer> getServersByType(String type)
+    {
+        return getIndexedMinecraftServers(getTypeIndexKey(type), type, "getServersByType(" + type + ")");
+    }
+
+    @Override
+    public MinecraftServer getLeastLoadedServer(String type)
+    {
+        MinecraftServer leastLoaded = null;
+        double lowestLoad = Double.MAX_VALUE;
+        for (MinecraftServer server : getServersByType(type))
+        {
+            if (server.getPlayerLimit() <= 0 || server.getPlayerCount() >= server.getPlayerLimit())
+            {
+                continue;
+            }
+            double load = (double) server.getPlayerCount() / server.getPlayerLimit();
+            if (load < lowestLoad)
+            {
+                lowestLoad = load;
+                leastLoaded = server;
+            }
+        }
+        return leastLoaded;
+    }
+
+    /**
+     * Gets every live {@link MinecraftServer} whose name is stored in the given index set. Only the keys of the
+     * servers in the index are read, and names whose key has expired are removed from the index. If a type is given
+     * only the servers that currently have that type are returned, in case a replica has not yet applied a type change.
+     *
+     * @param indexKey the key of the index set
+     * @param type the {@link ServerType} every returned server must have, or null to return every server in the index
+     * @param method the name of the calling method, used when logging failures
+     * @return a {@link Collection} of every live {@link MinecraftServer} in the index
+     */
+    private Collection<MinecraftServer> getIndexedMinecraftServers(String indexKey, String type, String method)
     {
         Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
         Collection<MinecraftServer> serverList = new LinkedList<>();
+        List<String> expired = new ArrayList<>();
         try
         {
             jedis = RedisManager.getSlaveConnection();
+            List<String> names = new ArrayList<>(jedis.smembers(indexKey));
+            if (names.isEmpty())
+            {
+                return serverList;
+            }
+
             Pipeline pipeline = jedis.pipelined();
-            String key = concatenate(new String[] {"minecraft"});
-            Response<Map<String, String>> response = pipeline.hgetAll(key);
+            List<Response<Map<String, String>>> responses = new ArrayList<>(names.size());
+            for (String name : names)
+            {
+                responses.add(pipeline.hgetAll(getMinecraftServerKey(name)));
+            }
             pipeline.sync();
-
-            Map<String, String> serializedList = response.get();
-            for (String value : serializedList.values())
+            for (int i = 0; i < names.size(); i++)
             {
-                serverList.add(deserializeData(value, MinecraftServer.class));
+                MinecraftServer server = MinecraftServerFields.fromFields(responses.get(i).get());
+                if (server == null)
+                {
+                    expired.add(names.get(i));
+                }
+                else if (type == null || type.equals(server.getServerType()))
+                {
+                    serverList.add(server);
+                }
             }
+            LOGGER.success(method, startTime);
         }
         catch (Exception e)
         {
-            System.out.println("[Redis-ServerRepository] FAILED to execute getAllMinecraftServers()");
-            e.printStackTrace();
+            LOGGER.failure(method, indexKey, startTime, e);
         }
         finally
         {
             try
             {
-                jedis.close();
+                if (jedis != null)
+                {
+                    jedis.close();
+                }
             }
             catch (Exception e)
             {
-                e.printStackTrace();
+                LOGGER.failure("close", "connection", startTime, e);
             }
         }
+
+        if (!expired.isEmpty())
+        {
+            pruneExpiredServers(indexKey, expired);
+        }
         return serverList;
     }
 
+    /**
+     * Removes the names of servers whose keys have expired from the given index set and the global index. The names
+     * were found to be expired on a replica, so each one is only removed if its key does not exist on the master
+     * either.
+     *
+     * @param indexKey the key of the index set the names were found in
+     * @param expired the names of the servers whose keys have expired
+     */
+    private void pruneExpiredServers(String indexKey, List<String> expired)
+    {
+        Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
+        try
+        {
+            jedis = RedisManager.getMasterConnection();
+            List<String> keys = new ArrayList<>(expired.size() + 2);
+            keys.add(indexKey);
+            keys.add(concatenate(new String[] {"minecraft", "index"}));
+            for (String name : expired)
+            {
+                keys.add(getMinecraftServerKey(name));
+            }
+            if (_pruneScriptSha == null)
+            {
+                _pruneScriptSha = jedis.scriptLoad(PRUNE_SCRIPT);
+            }
+            try
+            {
+                jedis.evalsha(_pruneScriptSha, keys, expired);
+            }
+            catch (JedisDataException e)
+            {
+                if (e.getMessage() == null || !e.getMessage().startsWith("NOSCRIPT"))
+                {
+                    throw e;
+                }
+                jedis.eval(PRUNE_SCRIPT, keys, expired);
+            }
+            LOGGER.success("pruneExpiredServers", startTime);
+        }
+        catch (Exception e)
+        {
+            LOGGER.failure("pruneExpiredServers", expired.toString(), startTime, e);
+        }
+        finally
+        {
+            try
+            {
+                if (jedis != null)
+                {
+                    jedis.close();
+                }
+            }
+            catch (Exception e)
+            {
+                LOGGER.failure("close", "connection", startTime, e);
+            }
+        }
+    }
+
     @Override
     public void addMinecraftServer(MinecraftServer server)
     {
         Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
         try
         {
             jedis = RedisManager.getMasterConnection();
-            String key = concatenate(new String[] {"minecraft"});
+            String key = getMinecraftServerKey(server.getNameID());
             String serializedServer = serializeData(server);
-            Transaction transaction = jedis.multi();
-            transaction.hset(key, server.getNameID(), serializedServer);
-            transaction.exec();
+            List<Object> results = null;
+            for (int attempt = 0; attempt < MAX_WRITE_ATTEMPTS && results == null; attempt++)
+            {
+                // The type the server is indexed under is read and replaced atomically, so a server whose type
+                // changed is never left in the index of its old type
+                jedis.watch(key);
+                String previousType = jedis.hget(key, MinecraftServerFields.SERVER_TYPE);
+                Transaction transaction = jedis.multi();
+                transaction.del(key);
+                transaction.hmset(key, MinecraftServerFields.toFields(server));
+                transaction.pexpire(key, _serverTimeToLive);
+                transaction.sadd(concatenate(new String[] {"minecraft", "index"}), server.getNameID());
+                if (previousType != null && !previousType.equals(server.getServerType()))
+                {
+                    transaction.srem(getTypeIndexKey(previousType), server.getNameID());
+                }
+                transaction.sadd(getTypeIndexKey(server.getServerType()), server.getNameID());
+                transaction.publish(RedisMessageManager.getRegistryChannel(ServerRegistryView.MINECRAFT), "put|" + serializedServer);
+                results = transaction.exec();
+            }
+            if (results == null)
+            {
+                throw new IllegalStateException("the server was changed by every one of " + MAX_WRITE_ATTEMPTS + " attempts");
+            }
+            LOGGER.success("addMinecraftServer", startTime);
         }
         catch (Exception e)
         {
-            System.out.println("[Redis-ServerRepository] FAILED to add MinecraftServer \'" + server.getServerName() + "\' at " + server.getPublicIP() + ":" + server.getPort());
-            e.printStackTrace();
+            LOGGER.failure("addMinecraftServer", server.getServerName(), startTime, e);
         }
         finally
         {
             try
             {
-                jedis.close();
+                if (jedis != null)
+                {
+                    jedis.close();
+                }
             }
-            catch (JedisException e)
+            catch (Exception e)
             {
-                e.printStackTrace();
+                LOGGER.failure("close", "connection", startTime, e);
             }
         }
     }
@@ -123,70 +345,179 @@ public class ServerRepository implements IServerRepository{
     public void removeMinecraftServer(String serverName)
     {
         Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
         try
         {
             jedis = RedisManager.getMasterConnection();
-            String key = concatenate(new String[] {"minecraft"});
+            String key = getMinecraftServerKey(serverName);
+            String serverType = jedis.hget(key, MinecraftServerFields.SERVER_TYPE);
             Transaction transaction = jedis.multi();
-            transaction.hdel(key, serverName);
+            transaction.del(key);
+            transaction.srem(concatenate(new String[] {"minecraft", "index"}), serverName);
+            if (serverType != null)
+            {
+                transaction.srem(getTypeIndexKey(serverType), serverName);
+            }
+            transaction.publish(RedisMessageManager.getRegistryChannel(ServerRegistryView.MINECRAFT), "remove|" + serverName);
             transaction.exec();
+            LOGGER.success("removeMinecraftServer", startTime);
         }
         catch (Exception e)
         {
-            System.out.println("[Redis-ServerRepository] FAILED to remove MinecraftServer \'" + serverName + "\'");
-            e.printStackTrace();
+            LOGGER.failure("removeMinecraftServer", serverName, startTime, e);
         }
         finally
         {
             try
             {
-                jedis.close();
+                if (jedis != null)
+                {
+                    jedis.close();
+                }
             }
-            catch (JedisException e)
+            catch (Exception e)
             {
-                e.printStackTrace();
+                LOGGER.failure("close", "connection", startTime, e);
             }
         }
     }
 
+    @Override
+    public boolean updateMinecraftServer(String serverName, Map<String, String> changedFields)
+    {
+        Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
+        boolean updated = false;
+        try
+        {
+            if (!MinecraftServerFields.DYNAMIC_FIELDS.containsAll(changedFields.keySet()))
+            {
+                // The indexes are only kept up to date by addMinecraftServer, so a static field such as the type
+                // can never be written by a heartbeat
+                throw new IllegalArgumentException("only dynamic fields can be updated, but found " + changedFields.keySet());
+            }
+            jedis = RedisManager.getMasterConnection();
+            StringBuilder delta = new StringBuilder("update|").append(serverName).append('|');
+            List<String> args = new ArrayList<>();
+            args.add(String.valueOf(_serverTimeToLive));
+            args.add(RedisMessageManager.getRegistryChannel(ServerRegistryView.MINECRAFT));
+            args.add(null);
+            for (Map.Entry<String, String> field : changedFields.entrySet())
+            {
+                if (args.size() > 3)
+                {
+                    delta.append(',');
+                }
+                delta.append(field.getKey()).append('=').append(field.getValue());
+                args.add(field.getKey());
+                args.add(field.getValue());
+            }
+            args.set(2, delta.toString());
+
+            List<String> keys = Collections.singletonList(getMinecraftServerKey(serverName));
+            if (_heartbeatScriptSha == null)
+            {
+                _heartbeatScriptSha = jedis.scriptLoad(HEARTBEAT_SCRIPT);
+            }
+            Object result;
+            try
+            {
+                result = jedis.evalsha(_heartbeatScriptSha, keys, args);
+            }
+            catch (JedisDataException e)
+            {
+                if (e.getMessage() == null || !e.getMessage().startsWith("NOSCRIPT"))
+                {
+                    throw e;
+                }
+                result = jedis.eval(HEARTBEAT_SCRIPT, keys, args);
+            }
+            updated = Long.valueOf(1L).equals(result);
+            LOGGER.success("updateMinecraftServer", startTime);
+        }
+        catch (Exception e)
+        {
+            LOGGER.failure("updateMinecraftServer", serverName, startTime, e);
+        }
+        finally
+        {
+            try
+            {
+                if (jedis != null)
+                {
+                    jedis.close();
+                }
+            }
+            catch (Exception e)
+            {
+                LOGGER.failure("close", "connection", startTime, e);
+            }
+        }
+        return updated;
+    }
+
     @Override
     public MinecraftServer getMinecraftServer(String serverName)
     {
         Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
         MinecraftServer server = null;
         try
         {
             jedis = RedisManager.getSlaveConnection();
-            String key = concatenate(new String[] {"minecraft"});
-            Transaction transaction = jedis.multi();
-            Response<String> response = transaction.hget(key, serverName);
-            transaction.exec();
-
-            server = deserializeData(response.get(), MinecraftServer.class);
+            server = MinecraftServerFields.fromFields(jedis.hgetAll(getMinecraftServerKey(serverName)));
+            LOGGER.success("getMinecraftServer", startTime);
         }
         catch (Exception e)
         {
-            System.out.println("[Redis-ServerRepository] FAILED to retrieve MinecraftServer \'" + serverName + "\'");
-            e.printStackTrace();
+            LOGGER.failure("getMinecraftServer", serverName, startTime, e);
         }
         finally
         {
             try
             {
-                jedis.close();
+                if (jedis != null)
+                {
+                    jedis.close();
+                }
             }
-            catch (JedisException e)
+            catch (Exception e)
             {
-                e.printStackTrace();
+                LOGGER.failure("close", "connection", startTime, e);
             }
         }
         return server;
     }
 
+    /**
+     * Returns the key of the hash that stores the {@link MinecraftServer} with the given name. The key expires unless
+     * the server keeps refreshing it through {@link #addMinecraftServer(MinecraftServer)} or
+     * {@link #updateMinecraftServer(String, Map)}.
+     *
+     * @param serverName the name of the {@link MinecraftServer}
+     * @return the key that stores the {@link MinecraftServer}
+     */
+    public static String getMinecraftServerKey(String serverName)
+    {
+        return concatenate(new String[] {"minecraft", "live", serverName});
+    }
+
+    /**
+     * Returns the key of the set that stores the name of every {@link MinecraftServer} with the given {@link ServerType}.
+     *
+     * @param type the name of the {@link ServerType}
+     * @return the key of the index set for the given {@link ServerType}
+     */
+    public static String getTypeIndexKey(String type)
+    {
+        return concatenate(new String[] {"minecraft", "bytype", type});
+    }
+
     @Override
     public ServerType getServerType(String type)
     {
         Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
         ServerType serverType = null;
         try
         {
@@ -197,21 +528,24 @@ public class ServerRepository implements IServerRepository{
             transaction.exec();
 
             serverType = deserializeData(response.get(), ServerType.class);
+            LOGGER.success("getServerType", startTime);
         }
         catch (Exception e)
         {
-            System.out.println("[Redis-ServerRepository] FAILED to retrieve ServerType \'" + type + "\'");
-            e.printStackTrace();
+            LOGGER.failure("getServerType", type, startTime, e);
         }
         finally
         {
             try
             {
-                jedis.close();
+                if (jedis != null)
+                {
+                    jedis.close();
+                }
             }
             catch (Exception e)
             {
-                e.printStackTrace();
+                LOGGER.failure("close", "connection", startTime, e);
             }
         }
         return serverType;
@@ -221,6 +555,7 @@ public class ServerRepository implements IServerRepository{
     public Collection<ServerType> getAllServerTypes()
     {
         Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
         Collection<ServerType> serverTypes = new LinkedList<>();
         try
         {
@@ -235,21 +570,24 @@ public class ServerRepository implements IServerRepository{
             {
                 serverTypes.add(deserializeData(type, ServerType.class));
             }
+            LOGGER.success("getAllServerTypes", startTime);
         }
         catch (Exception e)
         {
-            System.out.println("[Redis-ServerRepository] FAILED to execute getAllServerTypes()");
-            e.printStackTrace();
+            LOGGER.failure("getAllServerTypes", "servertype", startTime, e);
         }
         finally
         {
             try
             {
-                jedis.close();
+                if (jedis != null)
+                {
+                    jedis.close();
+                }
             }
             catch (Exception e)
             {
-                e.printStackTrace();
+                LOGGER.failure("close", "connection", startTime, e);
             }
         }
         return serverTypes;
@@ -259,6 +597,7 @@ public class ServerRepository implements IServerRepository{
     public void addServerType(ServerType type)
     {
         Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
         try
         {
             jedis = RedisManager.getMasterConnection();
@@ -266,22 +605,26 @@ public class ServerRepository implements IServerRepository{
             String serializedType = serializeData(type);
             Transaction transaction = jedis.multi();
             transaction.hset(key, type.getNameID(), serializedType);
+            transaction.publish(RedisMessageManager.getRegistryChannel(ServerRegistryView.SERVER_TYPE), "put|" + serializedType);
             transaction.exec();
+            LOGGER.success("addServerType", startTime);
         }
         catch (Exception e)
         {
-            System.out.println("[Redis-ServerRepository] FAILED to add ServerType \'" + type.getNameID() + "\'");
-            e.printStackTrace();
+            LOGGER.failure("addServerType", type.getNameID(), startTime, e);
         }
         finally
         {
             try
             {
-                jedis.close();
+                if (jedis != null)
+                {
+                    jedis.close();
+                }
             }
             catch (Exception e)
             {
-                e.printStackTrace();
+                LOGGER.failure("close", "connection", startTime, e);
             }
         }
     }
@@ -290,28 +633,33 @@ public class ServerRepository implements IServerRepository{
     public void removeServerType(String type)
     {
         Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
         try
         {
             jedis = RedisManager.getMasterConnection();
             String key = concatenate(new String[] {"servertype"});
             Transaction transaction = jedis.multi();
             transaction.hdel(key, type);
+            transaction.publish(RedisMessageManager.getRegistryChannel(ServerRegistryView.SERVER_TYPE), "remove|" + type);
             transaction.exec();
+            LOGGER.success("removeServerType", startTime);
         }
         catch (Exception e)
         {
-            System.out.println("[Redis-ServerRepository] FAILED to remove ServerType \'" + type + "\'");
-            e.printStackTrace();
+            LOGGER.failure("removeServerType", type, startTime, e);
         }
         finally
         {
             try
             {
-                jedis.close();
+                if (jedis != null)
+                {
+                    jedis.close();
+                }
             }
             catch (Exception e)
             {
-                e.printStackTrace();
+                LOGGER.failure("close", "connection", startTime, e);
             }
         }
     }
@@ -320,6 +668,7 @@ public class ServerRepository implements IServerRepository{
     public Collection<BungeeProxy> getAllBungeeProxies()
     {
         Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
         Collection<BungeeProxy> bungeeProxies = new LinkedList<>();
         try
         {
@@ -334,21 +683,24 @@ public class ServerRepository implements IServerRepository{
             {
                 bungeeProxies.add(deserializeData(proxy, BungeeProxy.class));
             }
+            LOGGER.success("getAllBungeeProxies", startTime);
         }
         catch (Exception e)
         {
-            System.out.println("[Redis-ServerRepository] FAILED to execute getAllBungeeProxies()");
-            e.printStackTrace();
+            LOGGER.failure("getAllBungeeProxies", "bungee", startTime, e);
         }
         finally
         {
             try
             {
-                jedis.close();
+                if (jedis != null)
+                {
+                    jedis.close();
+                }
             }
             catch (Exception e)
             {
-                e.printStackTrace();
+                LOGGER.failure("close", "connection", startTime, e);
             }
         }
         return bungeeProxies;
@@ -358,6 +710,7 @@ public class ServerRepository implements IServerRepository{
     public BungeeProxy getBungeeProxy(String ID)
     {
         Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
         BungeeProxy bungee = null;
         try
         {
@@ -367,21 +720,24 @@ public class ServerRepository implements IServerRepository{
             Response<String> response = transaction.hget(key, ID);
             transaction.exec();
             bungee = deserializeData(response.get(), BungeeProxy.class);
+            LOGGER.success("getBungeeProxy", startTime);
         }
         catch (Exception e)
         {
-            System.out.println("[Redis-ServerRepository] FAILED to retrieve BungeeProxy \'" + ID + "\'");
-            e.printStackTrace();
+            LOGGER.failure("getBungeeProxy", ID, startTime, e);
         }
         finally
         {
             try
             {
-                jedis.close();
+                if (jedis != null)
+                {
+                    jedis.close();
+                }
             }
             catch (Exception e)
             {
-                e.printStackTrace();
+                LOGGER.failure("close", "connection", startTime, e);
             }
         }
         return bungee;
@@ -391,6 +747,7 @@ public class ServerRepository implements IServerRepository{
     public void addBungeeProxy(BungeeProxy bungee)
     {
         Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
         try
         {
             jedis = RedisManager.getMasterConnection();
@@ -398,22 +755,26 @@ public class ServerRepository implements IServerRepository{
             String serialized = serializeData(bungee);
             Transaction transaction = jedis.multi();
             transaction.hset(key, bungee.getNameID(), serialized);
+            transaction.publish(RedisMessageManager.getRegistryChannel(ServerRegistryView.BUNGEE), "put|" + serialized);
             transaction.exec();
+            LOGGER.success("addBungeeProxy", startTime);
         }
         catch (Exception e)
         {
-            System.out.println("[Redis-ServerRepository] FAILED to add BungeeProxy \'" + bungee.getNameID() + "\'");
-            e.printStackTrace();
+            LOGGER.failure("addBungeeProxy", bungee.getNameID(), startTime, e);
         }
         finally
         {
             try
             {
-                jedis.close();
+                if (jedis != null)
+                {
+                    jedis.close();
+                }
             }
             catch (Exception e)
             {
-                e.printStackTrace();
+                LOGGER.failure("close", "connection", startTime, e);
             }
         }
     }
@@ -422,28 +783,33 @@ public class ServerRepository implements IServerRepository{
     public void removeBungeeProxy(String ID)
     {
         Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
         try
         {
             jedis = RedisManager.getMasterConnection();
             String key = concatenate(new String[] {"bungee"});
             Transaction transaction = jedis.multi();
             transaction.hdel(key, ID);
+            transaction.publish(RedisMessageManager.getRegistryChannel(ServerRegistryView.BUNGEE), "remove|" + ID);
             transaction.exec();
+            LOGGER.success("removeBungeeProxy", startTime);
         }
         catch (Exception e)
         {
-            System.out.println("[Redis-ServerRepository] FAILED to remove BungeeProxy \'" + ID + "\'");
-            e.printStackTrace();
+            LOGGER.failure("removeBungeeProxy", ID, startTime, e);
         }
         finally
         {
             try
             {
-                jedis.close();
+                if (jedis != null)
+                {
+                    jedis.close();
+                }
             }
             catch (Exception e)
             {
-                e.printStackTrace();
+                LOGGER.failure("close", "connection", startTime, e);
             }
         }
     }
@@ -452,6 +818,7 @@ public class ServerRepository implements IServerRepository{
     public Collection<DedicatedServer> getAllDedicatedServers()
     {
         Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
         Collection<DedicatedServer> dedicatedServers = new LinkedList<>();
         try
         {
@@ -466,21 +833,24 @@ public class ServerRepository implements IServerRepository{
             {
                 dedicatedServers.add(deserializeData(server, DedicatedServer.class));
             }
+            LOGGER.success("getAllDedicatedServers", startTime);
         }
         catch (Exception e)
         {
-            System.out.println("[Redis-ServerRepository] FAILED to execute getAllDedicatedServers()");
-            e.printStackTrace();
+            LOGGER.failure("getAllDedicatedServers", "dedicated", startTime, e);
         }
         finally
         {
             try
             {
-                jedis.close();
+                if (jedis != null)
+                {
+                    jedis.close();
+                }
             }
             catch (Exception e)
             {
-                e.printStackTrace();
+                LOGGER.failure("close", "connection", startTime, e);
             }
         }
         return dedicatedServers;
@@ -490,6 +860,7 @@ public class ServerRepository implements IServerRepository{
     public DedicatedServer getDedicatedServer(String publicIP)
     {
         Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
         DedicatedServer server = null;
         try
         {
@@ -499,21 +870,24 @@ public class ServerRepository implements IServerRepository{
             Response<String> response = transaction.hget(key, publicIP);
             transaction.exec();
             server = deserializeData(response.get(), DedicatedServer.class);
+            LOGGER.success("getDedicatedServer", startTime);
         }
         catch (Exception e)
         {
-            System.out.println("[Redis-ServerRepository] FAILED to retrieve DedicatedServer \'" + publicIP + "\'");
-            e.printStackTrace();
+            LOGGER.failure("getDedicatedServer", publicIP, startTime, e);
         }
         finally
         {
             try
             {
-                jedis.close();
+                if (jedis != null)
+                {
+                    jedis.close();
+                }
             }
             catch (Exception e)
             {
-                e.printStackTrace();
+                LOGGER.failure("close", "connection", startTime, e);
             }
         }
         return server;
@@ -523,6 +897,7 @@ public class ServerRepository implements IServerRepository{
     public void addDedicatedServer(DedicatedServer dedicatedServer)
     {
         Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
         try
         {
             jedis = RedisManager.getMasterConnection();
@@ -530,22 +905,26 @@ public class ServerRepository implements IServerRepository{
             String serialized = serializeData(dedicatedServer);
             Transaction transaction = jedis.multi();
             transaction.hset(key, dedicatedServer.getNameID(), serialized);
+            transaction.publish(RedisMessageManager.getRegistryChannel(ServerRegistryView.DEDICATED), "put|" + serialized);
             transaction.exec();
+            LOGGER.success("addDedicatedServer", startTime);
         }
         catch (Exception e)
         {
-            System.out.println("[Redis-ServerRepository] FAILED to add DedicatedServer \'" + dedicatedServer.getPublicIP() + "\'");
-            e.printStackTrace();
+            LOGGER.failure("addDedicatedServer", dedicatedServer.getPublicIP(), startTime, e);
         }
         finally
         {
             try
             {
-                jedis.close();
+                if (jedis != null)
+                {
+                    jedis.close();
+                }
             }
             catch (Exception e)
             {
-                e.printStackTrace();
+                LOGGER.failure("close", "connection", startTime, e);
             }
         }
     }
@@ -554,28 +933,33 @@ public class ServerRepository implements IServerRepository{
     public void removeDedicatedServer(String publicIP)
     {
         Jedis jedis = null;
+        long startTime = System.currentTimeMillis();
         try
         {
             jedis = RedisManager.getMasterConnection();
             String key = concatenate(new String[] {"dedicated"});
             Transaction transaction = jedis.multi();
             transaction.hdel(key, publicIP);
+            transaction.publish(RedisMessageManager.getRegistryChannel(ServerRegistryView.DEDICATED), "remove|" + publicIP);
             transaction.exec();
+            LOGGER.success("removeDedicatedServer", startTime);
         }
         catch (Exception e)
         {
-            System.out.println("[Redis-ServerRepository] FAILED to remove DedicatedServer \'" + publicIP + "\'");
-            e.printStackTrace();
+            LOGGER.failure("removeDedicatedServer", publicIP, startTime, e);
         }
         finally
         {
             try
             {
-                jedis.close();
+                if (jedis != null)
+                {
+                    jedis.close();
+                }
             }
             catch (Exception e)
             {
-                e.printStackTrace();
+                LOGGER.failure("close", "connection", startTime, e);
             }
         }
     }
@@ -586,9 +970,10 @@ public class ServerRepository implements IServerRepository{
      * @param data the data getting serialized
      * @return the serialized data
      */
+    @SuppressWarnings("unchecked")
     protected <T> String serializeData(T data)
     {
-        return RedisUtil.serialize(data);
+        return RedisCodecs.get((Class<T>) data.getClass()).encode(data);
     }
 
     /**
@@ -600,6 +985,6 @@ public class ServerRepository implements IServerRepository{
      */
     protected <T> T deserializeData(String data, Class<T> klazz)
     {
-        return RedisUtil.deserialize(data, klazz);
+        return RedisCodecs.get(klazz).decode(data);
     }
 }